@@ -1,6 +1,7 @@
 package com.obsinity.collection.core.processor;
 
 import com.obsinity.collection.core.dispatch.AsyncDispatchBus;
+import com.obsinity.collection.core.sampling.FlowSampler;
 import com.obsinity.flow.model.FlowEvent;
 import com.obsinity.flow.model.OStatus;
 import com.obsinity.flow.processor.FlowProcessorSupport;
@@ -20,6 +21,7 @@ public class DefaultFlowProcessor implements FlowProcessor {
     private final AsyncDispatchBus asyncBus;
     private final FlowProcessorSupport support;
     private final FlowAttributeValidator validator;
+    private final FlowSampler sampler;
 
     public DefaultFlowProcessor(AsyncDispatchBus asyncBus, FlowProcessorSupport support) {
         this(asyncBus, support, null);
@@ -27,9 +29,21 @@ public class DefaultFlowProcessor implements FlowProcessor {
 
     public DefaultFlowProcessor(
             AsyncDispatchBus asyncBus, FlowProcessorSupport support, FlowAttributeValidator validator) {
+        this(asyncBus, support, validator, null);
+    }
+
+    /**
+     * @param sampler optional sampler deciding which flow events reach the dispatch bus (null = emit everything)
+     */
+    public DefaultFlowProcessor(
+            AsyncDispatchBus asyncBus,
+            FlowProcessorSupport support,
+            FlowAttributeValidator validator,
+            FlowSampler sampler) {
         this.asyncBus = asyncBus;
         this.support = support;
         this.validator = validator;
+        this.sampler = sampler;
     }
 
     @Override
@@ -55,21 +69,22 @@ public class DefaultFlowProcessor implements FlowProcessor {
         onFlowFailed(name, error, attrs, ctx, null);
     }
 
+    // The meta-aware overloads below are the hot path for @Flow/@Step: incoming maps are copied straight into
+    // the FlowEvent rather than through intermediate LinkedHashMaps.
+
     @Override
     public void onFlowStarted(
             String name, Map<String, Object> extraAttrs, Map<String, Object> extraContext, FlowMeta meta) {
-        var attrs = new LinkedHashMap<String, Object>(extraAttrs == null ? Map.of() : extraAttrs);
-        var ctx = new LinkedHashMap<String, Object>(extraContext == null ? Map.of() : extraContext);
         if (support != null) {
             FlowEvent holder =
                     FlowEvent.builder().name(name).timestamp(Instant.now()).build();
-            holder.attributes().map().putAll(attrs);
-            holder.eventContext().putAll(ctx);
+            if (extraAttrs != null) holder.attributes().map().putAll(extraAttrs);
+            if (extraContext != null) holder.eventContext().putAll(extraContext);
             holder.eventContext().put(LIFECYCLE, STARTED);
             applyMeta(holder, meta);
             support.push(holder);
             support.startNewBatch();
-            if (asyncBus != null) asyncBus.dispatch(holder);
+            if (asyncBus != null && (sampler == null || sampler.onStart(holder))) asyncBus.dispatch(holder);
         }
         // meta applied to OEvent previously; if needed, augment holder creation to include meta.
     }
@@ -77,26 +92,24 @@ public class DefaultFlowProcessor implements FlowProcessor {
     @Override
     public void onFlowCompleted(
             String name, Map<String, Object> extraAttrs, Map<String, Object> extraContext, FlowMeta meta) {
-        var attrs = new LinkedHashMap<String, Object>(extraAttrs == null ? Map.of() : extraAttrs);
-        var ctx = new LinkedHashMap<String, Object>(extraContext == null ? Map.of() : extraContext);
-
         // Validate attributes and context to prevent entities/problematic objects
         if (validator != null) {
-            validator.validateMap(attrs, ATTRIBUTES);
-            validator.validateMap(ctx, CONTEXT);
+            validator.validateMap(extraAttrs, ATTRIBUTES);
+            validator.validateMap(extraContext, CONTEXT);
         }
 
         if (support != null) {
             FlowEvent context = support.currentContext();
             if (context != null) {
-                context.attributes().map().putAll(attrs);
-                context.eventContext().putAll(ctx);
+                if (extraAttrs != null) context.attributes().map().putAll(extraAttrs);
+                if (extraContext != null) context.eventContext().putAll(extraContext);
                 context.eventContext().put(LIFECYCLE, COMPLETED);
                 applyCompletionMeta(context, meta);
             }
             support.clearBatchAfterDispatch();
             support.pop(context);
-            if (asyncBus != null && context != null) asyncBus.dispatch(context);
+            if (asyncBus != null && context != null && (sampler == null || sampler.onFinish(context, false)))
+                asyncBus.dispatch(context);
         }
     }
 
@@ -107,28 +120,28 @@ public class DefaultFlowProcessor implements FlowProcessor {
             Map<String, Object> extraAttrs,
             Map<String, Object> extraContext,
             FlowMeta meta) {
-        var attrs = new LinkedHashMap<String, Object>(extraAttrs == null ? Map.of() : extraAttrs);
-        if (error != null) attrs.putIfAbsent("error", error.getClass().getSimpleName());
-        var ctx = new LinkedHashMap<String, Object>(extraContext == null ? Map.of() : extraContext);
-
         // Validate attributes and context to prevent entities/problematic objects
         if (validator != null) {
-            validator.validateMap(attrs, ATTRIBUTES);
-            validator.validateMap(ctx, CONTEXT);
+            validator.validateMap(extraAttrs, ATTRIBUTES);
+            validator.validateMap(extraContext, CONTEXT);
         }
 
         if (support != null) {
             FlowEvent context = support.currentContext();
             if (context != null) {
-                context.attributes().map().putAll(attrs);
-                context.eventContext().putAll(ctx);
+                if (extraAttrs != null) context.attributes().map().putAll(extraAttrs);
+                if (error != null && (extraAttrs == null || extraAttrs.get("error") == null)) {
+                    context.attributes().map().put("error", error.getClass().getSimpleName());
+                }
+                if (extraContext != null) context.eventContext().putAll(extraContext);
                 context.eventContext().put(LIFECYCLE, "FAILED");
                 if (error != null) context.setThrowable(error);
                 applyCompletionMeta(context, meta);
             }
             support.clearBatchAfterDispatch();
             support.pop(context);
-            if (asyncBus != null && context != null) asyncBus.dispatch(context);
+            if (asyncBus != null && context != null && (sampler == null || sampler.onFinish(context, true)))
+                asyncBus.dispatch(context);
         }
     }
 
@@ -0,0 +1,159 @@
+package com.obsinity.collection.core.sampling;
+
+import com.obsinity.flow.model.FlowEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Head- and tail-based sampling for flow emission, applied before events reach the dispatch bus.
+ *
+ * <p><b>Head:</b> when a flow starts, it is kept with its per-flow rate (scaled down adaptively when the flow
+ * exceeds {@link SamplingPolicy#maxEventsPerSecond()}). The draw is derived from the trace id when present so
+ * nested flows and downstream services agree on the decision. Kept flows carry
+ * {@link FlowEvent#SAMPLE_WEIGHT_ATTR} = {@code 1 / rate}.
+ *
+ * <p><b>Tail:</b> on completion, failures ({@code keepFailures}) and flows slower than
+ * {@code latencyThreshold} are always kept with weight 1; everything else follows the head decision. Because the
+ * tail rules keep <em>every</em> matching flow, weighted counts stay unbiased.
+ *
+ * <p>A head-dropped flow that is rescued by a tail rule is emitted without its STARTED event.
+ */
+public final class FlowSampler {
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    private static final int MAX_TRACKED_FLOWS = 4096;
+    private static final double TWO_POW_52 = (double) (1L << 52);
+
+    private final SamplingPolicy policy;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, FlowRate> flows = new ConcurrentHashMap<>();
+    private final FlowRate overflow;
+
+    public FlowSampler(SamplingPolicy policy) {
+        this(policy, System::nanoTime);
+    }
+
+    FlowSampler(SamplingPolicy policy, LongSupplier nanoClock) {
+        this.policy = policy;
+        this.nanoClock = nanoClock;
+        this.overflow = new FlowRate(nanoClock.getAsLong());
+    }
+
+    public SamplingPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * Takes the head decision for a starting flow and records it on the event.
+     *
+     * @return {@code true} if the STARTED event should be dispatched
+     */
+    public boolean onStart(FlowEvent event) {
+        double rate = effectiveRate(event.name());
+        boolean keep = rate >= 1.0 || (rate > 0.0 && draw(event) < rate);
+        event.setHeadSampling(rate, keep);
+        if (keep && rate < 1.0) {
+            event.attributes().put(FlowEvent.SAMPLE_WEIGHT_ATTR, 1.0 / rate);
+        }
+        return keep;
+    }
+
+    /**
+     * Applies the tail rules to a completed or failed flow.
+     *
+     * @return {@code true} if the terminal event should be dispatched
+     */
+    public boolean onFinish(FlowEvent event, boolean failed) {
+        if ((failed && policy.keepFailures()) || isSlow(event)) {
+            event.attributes().map().remove(FlowEvent.SAMPLE_WEIGHT_ATTR);
+            return true;
+        }
+        if (event.getHeadSampleRate() == null) {
+            return onStart(event);
+        }
+        return event.isHeadSampled();
+    }
+
+    /** Current head rate for a flow name, including the adaptive rate-limit factor. */
+    public double currentRate(String flowName) {
+        double base = policy.rateFor(flowName);
+        if (policy.maxEventsPerSecond() <= 0) return base;
+        FlowRate fr = flows.get(key(flowName));
+        return fr == null ? base : base * fr.factor;
+    }
+
+    private double effectiveRate(String flowName) {
+        double base = policy.rateFor(flowName);
+        int cap = policy.maxEventsPerSecond();
+        if (cap <= 0 || base <= 0.0) return base;
+        return base * flowRate(flowName).observe(nanoClock.getAsLong(), cap, base, policy.minRate());
+    }
+
+    private FlowRate flowRate(String flowName) {
+        String key = key(flowName);
+        FlowRate fr = flows.get(key);
+        if (fr != null) return fr;
+        if (flows.size() >= MAX_TRACKED_FLOWS) return overflow;
+        return flows.computeIfAbsent(key, k -> new FlowRate(nanoClock.getAsLong()));
+    }
+
+    private boolean isSlow(FlowEvent event) {
+        Duration threshold = policy.latencyThreshold();
+        if (threshold == null) return false;
+        Long elapsed = event.elapsedNanos();
+        if (elapsed == null) {
+            Instant start = event.timestamp();
+            if (start == null) return false;
+            elapsed = Duration.between(start, Instant.now()).toNanos();
+        }
+        return elapsed >= threshold.toNanos();
+    }
+
+    /** Uniform draw in [0, 1): the low 52 bits of the trace id when available, random otherwise. */
+    private static double draw(FlowEvent event) {
+        String traceId = event.traceId();
+        if (traceId != null && traceId.length() >= 13) {
+            try {
+                long bits = Long.parseLong(traceId.substring(traceId.length() - 13), 16);
+                return bits / TWO_POW_52;
+            } catch (NumberFormatException ignore) {
+                // not hex; fall back to random
+            }
+        }
+        return ThreadLocalRandom.current().nextDouble();
+    }
+
+    private static String key(String flowName) {
+        return flowName == null ? "" : flowName;
+    }
+
+    /**
+     * One-second observation window per flow name. At each rollover the expected emission rate
+     * ({@code seen * baseRate / seconds}) is compared against the cap to derive the next window's factor. The
+     * factor never takes the rate below {@code minRate}, so kept flows stay within the server's weight limit.
+     */
+    private static final class FlowRate {
+        private final AtomicLong windowStart;
+        private final LongAdder seen = new LongAdder();
+        private volatile double factor = 1.0;
+
+        FlowRate(long now) {
+            this.windowStart = new AtomicLong(now);
+        }
+
+        double observe(long now, int cap, double base, double minRate) {
+            long start = windowStart.get();
+            if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+                double seconds = (now - start) / 1e9;
+                double expectedPerSecond = seen.sumThenReset() * base / seconds;
+                factor = expectedPerSecond <= cap ? 1.0 : Math.max(minRate / base, cap / expectedPerSecond);
+            }
+            seen.increment();
+            return factor;
+        }
+    }
+}
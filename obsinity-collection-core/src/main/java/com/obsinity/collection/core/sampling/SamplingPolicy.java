@@ -0,0 +1,146 @@
+package com.obsinity.collection.core.sampling;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable sampling configuration for {@link FlowSampler}.
+ *
+ * <ul>
+ *   <li><b>rate</b> – default head-sampling probability in {@code [0, 1]}</li>
+ *   <li><b>rates</b> – per flow-name overrides; a name also matches its dotted prefixes
+ *       ({@code checkout.payment} falls back to {@code checkout})</li>
+ *   <li><b>keepFailures</b> – tail rule: failed flows are always emitted</li>
+ *   <li><b>latencyThreshold</b> – tail rule: flows at least this slow are always emitted</li>
+ *   <li><b>maxEventsPerSecond</b> – adaptive cap per flow name; the head rate is scaled down when a flow
+ *       exceeds it ({@code 0} = unlimited)</li>
+ *   <li><b>maxWeight</b> – largest sample weight a kept flow may carry; non-zero rates, including adaptively
+ *       scaled ones, never drop below {@code 1 / maxWeight}. Keep it at or below the server's
+ *       {@code obsinity.counters.sampling.maxWeight}, which clamps heavier weights.</li>
+ * </ul>
+ */
+public final class SamplingPolicy {
+    public static final double DEFAULT_MAX_WEIGHT = 1000;
+
+    private final double rate;
+    private final Map<String, Double> rates;
+    private final boolean keepFailures;
+    private final Duration latencyThreshold;
+    private final int maxEventsPerSecond;
+    private final double maxWeight;
+
+    private SamplingPolicy(Builder b) {
+        this.maxWeight = Double.isNaN(b.maxWeight) ? DEFAULT_MAX_WEIGHT : Math.max(1.0, b.maxWeight);
+        this.rate = clamp(b.rate);
+        Map<String, Double> copy = new LinkedHashMap<>();
+        b.rates.forEach((k, v) -> {
+            if (k != null && !k.isBlank() && v != null) copy.put(k.trim(), clamp(v));
+        });
+        this.rates = Map.copyOf(copy);
+        this.keepFailures = b.keepFailures;
+        this.latencyThreshold = b.latencyThreshold;
+        this.maxEventsPerSecond = Math.max(0, b.maxEventsPerSecond);
+    }
+
+    public double rate() {
+        return rate;
+    }
+
+    public Map<String, Double> rates() {
+        return rates;
+    }
+
+    public boolean keepFailures() {
+        return keepFailures;
+    }
+
+    public Duration latencyThreshold() {
+        return latencyThreshold;
+    }
+
+    public int maxEventsPerSecond() {
+        return maxEventsPerSecond;
+    }
+
+    public double maxWeight() {
+        return maxWeight;
+    }
+
+    /** Smallest non-zero head rate, {@code 1 / maxWeight}. */
+    public double minRate() {
+        return 1.0 / maxWeight;
+    }
+
+    /** Configured head rate for a flow name: exact match, then dotted prefixes, then the default rate. */
+    public double rateFor(String flowName) {
+        if (rates.isEmpty() || flowName == null) return rate;
+        String n = flowName;
+        while (true) {
+            Double r = rates.get(n);
+            if (r != null) return r;
+            int idx = n.lastIndexOf('.');
+            if (idx < 0) return rate;
+            n = n.substring(0, idx);
+        }
+    }
+
+    /** Clamps to {@code [0, 1]}; non-zero rates are raised to {@link #minRate()}, {@code 0} still disables. */
+    private double clamp(double v) {
+        if (Double.isNaN(v)) return 1.0;
+        if (v <= 0.0) return 0.0;
+        return Math.max(minRate(), Math.min(1.0, v));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private double rate = 1.0;
+        private final Map<String, Double> rates = new LinkedHashMap<>();
+        private boolean keepFailures = true;
+        private Duration latencyThreshold;
+        private int maxEventsPerSecond;
+        private double maxWeight = DEFAULT_MAX_WEIGHT;
+
+        public Builder rate(double v) {
+            this.rate = v;
+            return this;
+        }
+
+        public Builder rate(String flowName, double v) {
+            this.rates.put(flowName, v);
+            return this;
+        }
+
+        public Builder rates(Map<String, Double> v) {
+            if (v != null) this.rates.putAll(v);
+            return this;
+        }
+
+        public Builder keepFailures(boolean v) {
+            this.keepFailures = v;
+            return this;
+        }
+
+        public Builder latencyThreshold(Duration v) {
+            this.latencyThreshold = (v == null || v.isZero() || v.isNegative()) ? null : v;
+            return this;
+        }
+
+        public Builder maxEventsPerSecond(int v) {
+            this.maxEventsPerSecond = v;
+            return this;
+        }
+
+        public Builder maxWeight(double v) {
+            this.maxWeight = v;
+            return this;
+        }
+
+        public SamplingPolicy build() {
+            return new SamplingPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.obsinity.collection.core.sampling;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.obsinity.flow.model.FlowEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class FlowSamplerTest {
+
+    @Test
+    void rate_zero_drops_successful_flows() {
+        FlowSampler sampler = new FlowSampler(SamplingPolicy.builder().rate(0.0).build());
+        FlowEvent event = event("demo.flow", null);
+
+        assertFalse(sampler.onStart(event));
+        assertFalse(sampler.onFinish(event, false));
+    }
+
+    @Test
+    void failures_are_kept_without_weight() {
+        FlowSampler sampler = new FlowSampler(SamplingPolicy.builder().rate(0.0).build());
+        FlowEvent event = event("demo.flow", null);
+
+        assertFalse(sampler.onStart(event));
+        assertTrue(sampler.onFinish(event, true));
+        assertNull(event.attributes().map().get(FlowEvent.SAMPLE_WEIGHT_ATTR));
+    }
+
+    @Test
+    void slow_flows_are_kept() {
+        FlowSampler sampler = new FlowSampler(SamplingPolicy.builder()
+                .rate(0.0)
+                .latencyThreshold(Duration.ofMillis(100))
+                .build());
+        FlowEvent event = event("demo.flow", null);
+        sampler.onStart(event);
+        event.setElapsedNanos(Duration.ofMillis(250).toNanos());
+
+        assertTrue(sampler.onFinish(event, false));
+    }
+
+    @Test
+    void kept_flows_carry_inverse_rate_weight() {
+        FlowSampler sampler =
+                new FlowSampler(SamplingPolicy.builder().rate(0.25).build());
+        // low 52 bits of this trace id are zero, so the draw is 0.0 and the flow is kept
+        FlowEvent event = event("demo.flow", "0af7651916cd43dd8000000000000000");
+
+        assertTrue(sampler.onStart(event));
+        assertEquals(4.0, event.attributes().map().get(FlowEvent.SAMPLE_WEIGHT_ATTR));
+        assertTrue(sampler.onFinish(event, false));
+    }
+
+    @Test
+    void per_flow_rates_match_dotted_prefixes() {
+        SamplingPolicy policy = SamplingPolicy.builder()
+                .rate(1.0)
+                .rate("checkout", 0.1)
+                .rate("checkout.payment", 0.5)
+                .build();
+
+        assertEquals(0.5, policy.rateFor("checkout.payment.capture"));
+        assertEquals(0.1, policy.rateFor("checkout.cart"));
+        assertEquals(1.0, policy.rateFor("inventory"));
+    }
+
+    @Test
+    void rate_is_scaled_down_when_flow_exceeds_cap() {
+        AtomicLong now = new AtomicLong();
+        FlowSampler sampler = new FlowSampler(
+                SamplingPolicy.builder().rate(1.0).maxEventsPerSecond(100).build(), now::get);
+
+        for (int i = 0; i < 400; i++) sampler.onStart(event("hot.flow", null));
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        sampler.onStart(event("hot.flow", null));
+
+        assertEquals(0.25, sampler.currentRate("hot.flow"), 1e-6);
+        assertEquals(1.0, sampler.currentRate("cold.flow"));
+    }
+
+    @Test
+    void rates_never_drop_below_the_inverse_max_weight() {
+        AtomicLong now = new AtomicLong();
+        SamplingPolicy policy = SamplingPolicy.builder()
+                .rate(0.0001)
+                .rate("hot.flow", 1.0)
+                .maxEventsPerSecond(1)
+                .maxWeight(100)
+                .build();
+        FlowSampler sampler = new FlowSampler(policy, now::get);
+
+        assertEquals(0.01, policy.rateFor("cold.flow"));
+        for (int i = 0; i < 5000; i++) sampler.onStart(event("hot.flow", null));
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        FlowEvent event = event("hot.flow", "0af7651916cd43dd8000000000000000");
+
+        assertTrue(sampler.onStart(event));
+        assertEquals(0.01, sampler.currentRate("hot.flow"), 1e-9);
+        assertEquals(100.0, (Double) event.attributes().map().get(FlowEvent.SAMPLE_WEIGHT_ATTR), 1e-6);
+    }
+
+    private static FlowEvent event(String name, String traceId) {
+        FlowEvent event = FlowEvent.builder()
+                .name(name)
+                .timestamp(Instant.now())
+                .traceId(traceId)
+                .build();
+        return event;
+    }
+}
@@ -0,0 +1,432 @@
+package com.obsinity.collection.sink.obsinity;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.obsinity.flow.model.FlowEvent;
+import com.obsinity.flow.model.OEvent;
+import com.obsinity.flow.model.OResource;
+import com.obsinity.flow.model.OStatus;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams {@link FlowEvent}s as UnifiedPublish JSON straight into a {@link JsonGenerator}.
+ *
+ * <p>Payloads are written field by field from the event, so no intermediate maps or copies of the attribute
+ * map are built. Output goes to a per-thread buffer that is reused between calls; only the final
+ * {@code byte[]} handed to the transport is allocated. Attribute values of common types (strings, numbers,
+ * booleans, maps, collections) are written directly; anything else is delegated to the {@link ObjectMapper}.
+ *
+ * <p>{@link #write} produces a single {@code /events/publish} body, {@link #writeBatch} a JSON array for
+ * {@code /events/publish/batch}.
+ */
+public final class FlowEventJsonWriter {
+    static final String SERVICE_PROP = "obsinity.collection.service";
+    static final String SERVICE_ENV = "OBSINITY_SERVICE";
+    private static final String DUMMY_SERVICE_ID = "**DUMMY-SERVICE-ID**";
+
+    /** Buffers that grew beyond this are not kept for reuse. */
+    private static final int MAX_POOLED_BYTES = 256 * 1024;
+
+    private static final ThreadLocal<PooledBuffer> BUFFERS = ThreadLocal.withInitial(PooledBuffer::new);
+
+    private final ObjectMapper json;
+
+    public FlowEventJsonWriter() {
+        this(new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+    }
+
+    public FlowEventJsonWriter(ObjectMapper json) {
+        this.json = json;
+    }
+
+    /** Serializes one event as a UnifiedPublish body. */
+    public byte[] write(FlowEvent event, String configuredServiceId) throws IOException {
+        PooledBuffer buffer = acquire();
+        try {
+            try (JsonGenerator gen = json.getFactory().createGenerator((OutputStream) buffer, JsonEncoding.UTF8)) {
+                writeEvent(gen, event, configuredServiceId);
+            }
+            return buffer.toByteArray();
+        } finally {
+            release(buffer);
+        }
+    }
+
+    /** Serializes events as a JSON array of UnifiedPublish bodies. */
+    public byte[] writeBatch(Collection<FlowEvent> events, String configuredServiceId) throws IOException {
+        PooledBuffer buffer = acquire();
+        try {
+            try (JsonGenerator gen = json.getFactory().createGenerator((OutputStream) buffer, JsonEncoding.UTF8)) {
+                gen.writeStartArray();
+                for (FlowEvent event : events) {
+                    writeEvent(gen, event, configuredServiceId);
+                }
+                gen.writeEndArray();
+            }
+            return buffer.toByteArray();
+        } finally {
+            release(buffer);
+        }
+    }
+
+    /** Writes one UnifiedPublish body object to an open generator. */
+    public void writeEvent(JsonGenerator gen, FlowEvent event, String configuredServiceId) throws IOException {
+        Map<String, Object> attrs =
+                event.attributes() == null ? Map.of() : event.attributes().map();
+
+        gen.writeStartObject();
+
+        gen.writeObjectFieldStart("event");
+        gen.writeStringField("name", event.name());
+        if (event.kind() != null) gen.writeStringField("kind", event.kind().name());
+        gen.writeEndObject();
+
+        writeResource(gen, event, attrs, configuredServiceId);
+
+        if (event.traceId() != null || event.spanId() != null) {
+            gen.writeObjectFieldStart("trace");
+            if (event.traceId() != null) gen.writeStringField("traceId", event.traceId());
+            if (event.spanId() != null) gen.writeStringField("spanId", event.spanId());
+            gen.writeEndObject();
+        }
+
+        writeTime(gen, event);
+
+        OStatus status = event.status();
+        if (status != null && (status.getCode() != null || status.getMessage() != null)) {
+            gen.writeObjectFieldStart("status");
+            if (status.getCode() != null) gen.writeStringField("code", String.valueOf(status.getCode()));
+            if (status.getMessage() != null) gen.writeStringField("message", status.getMessage());
+            gen.writeEndObject();
+        }
+
+        gen.writeFieldName("attributes");
+        writeMap(gen, attrs);
+
+        if (event.hasReturnValue()) {
+            gen.writeFieldName("return");
+            writeValue(gen, event.returnValue());
+        }
+
+        if (event.elapsedNanos() != null) {
+            gen.writeNumberField("elapsedNanos", event.elapsedNanos());
+        }
+
+        gen.writeArrayFieldStart("events");
+        writeSteps(gen, event.events());
+        gen.writeEndArray();
+
+        gen.writeFieldName("links");
+        writeValue(gen, event.links() == null ? List.of() : event.links());
+
+        gen.writeBooleanField("synthetic", Boolean.TRUE.equals(event.synthetic()));
+
+        gen.writeEndObject();
+    }
+
+    private static void writeTime(JsonGenerator gen, FlowEvent event) throws IOException {
+        Instant startedAt = event.timestamp();
+        Long startUnix = event.timeUnixNano();
+        if (startUnix == null && startedAt != null) startUnix = toUnixNanos(startedAt);
+        Instant endedAt = event.endTimestamp();
+        Long elapsed = event.elapsedNanos();
+        if (startedAt == null && startUnix == null && endedAt == null && elapsed == null) return;
+
+        gen.writeObjectFieldStart("time");
+        if (startedAt != null) gen.writeStringField("startedAt", startedAt.toString());
+        if (startUnix != null) gen.writeNumberField("startUnixNano", startUnix);
+        if (endedAt != null) {
+            gen.writeStringField("endedAt", endedAt.toString());
+            gen.writeNumberField("endUnixNano", toUnixNanos(endedAt));
+        }
+        if (elapsed != null) gen.writeNumberField("elapsedNanos", elapsed);
+        gen.writeEndObject();
+    }
+
+    private void writeResource(
+            JsonGenerator gen, FlowEvent event, Map<String, Object> attrs, String configuredServiceId)
+            throws IOException {
+        String serviceId = sanitize(event.effectiveServiceId());
+        if (serviceId == null) serviceId = sanitize(configuredServiceId);
+        if (serviceId == null) serviceId = sanitize(System.getProperty(SERVICE_PROP));
+        if (serviceId == null) serviceId = sanitize(System.getenv(SERVICE_ENV));
+        if (serviceId == null) {
+            throw new IllegalStateException("Missing service identifier for telemetry event '"
+                    + event.name()
+                    + "'. Configure system property '"
+                    + SERVICE_PROP
+                    + "' or environment variable '"
+                    + SERVICE_ENV
+                    + "'.");
+        }
+
+        OResource oResource = event.resource();
+        Map<String, Object> raw = oResource != null
+                        && oResource.attributes() != null
+                        && oResource.attributes().map() != null
+                ? oResource.attributes().map()
+                : Map.of();
+
+        gen.writeObjectFieldStart("resource");
+
+        String namespace = attribute(attrs, "service.namespace");
+        String version = attribute(attrs, "service.version");
+        String instanceId = attribute(attrs, "service.instance.id");
+        Object rawService = attrs.get("service");
+        Object resourceService = raw.get("service");
+        gen.writeFieldName("service");
+        if (!(rawService instanceof Map<?, ?>) && !(resourceService instanceof Map<?, ?>)) {
+            gen.writeStartObject();
+            gen.writeStringField("name", serviceId);
+            if (namespace != null) gen.writeStringField("namespace", namespace);
+            if (version != null) gen.writeStringField("version", version);
+            if (instanceId != null) {
+                gen.writeObjectFieldStart("instance");
+                gen.writeStringField("id", instanceId);
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+        } else {
+            // Raw service maps may override the derived fields; merge them in the (rare) presence of either.
+            Map<String, Object> service = new LinkedHashMap<>();
+            service.put("name", serviceId);
+            if (namespace != null) service.put("namespace", namespace);
+            if (version != null) service.put("version", version);
+            if (instanceId != null) service.put("instance", Map.of("id", instanceId));
+            mergeNonNull(rawService, service);
+            mergeNonNull(resourceService, service);
+            writeMap(gen, service);
+        }
+
+        String hostName = attribute(attrs, "host.name");
+        if (hasNonNullEntry(raw.get("host"))) {
+            gen.writeFieldName("host");
+            writeNonNullEntries(gen, (Map<?, ?>) raw.get("host"));
+        } else if (hostName != null) {
+            gen.writeObjectFieldStart("host");
+            gen.writeStringField("name", hostName);
+            gen.writeEndObject();
+        } else if (hasNonNullEntry(attrs.get("host"))) {
+            gen.writeFieldName("host");
+            writeNonNullEntries(gen, (Map<?, ?>) attrs.get("host"));
+        }
+
+        String provider = attribute(attrs, "cloud.provider");
+        String region = attribute(attrs, "cloud.region");
+        if (hasNonNullEntry(raw.get("cloud"))) {
+            gen.writeFieldName("cloud");
+            writeNonNullEntries(gen, (Map<?, ?>) raw.get("cloud"));
+        } else if (provider != null || region != null) {
+            gen.writeObjectFieldStart("cloud");
+            if (provider != null) gen.writeStringField("provider", provider);
+            if (region != null) gen.writeStringField("region", region);
+            gen.writeEndObject();
+        } else if (hasNonNullEntry(attrs.get("cloud"))) {
+            gen.writeFieldName("cloud");
+            writeNonNullEntries(gen, (Map<?, ?>) attrs.get("cloud"));
+        }
+
+        String sdkName = attribute(attrs, "telemetry.sdk.name");
+        String sdkVersion = attribute(attrs, "telemetry.sdk.version");
+        if (hasNonNullEntry(raw.get("telemetry"))) {
+            gen.writeFieldName("telemetry");
+            writeNonNullEntries(gen, (Map<?, ?>) raw.get("telemetry"));
+        } else if (sdkName != null || sdkVersion != null) {
+            gen.writeObjectFieldStart("telemetry");
+            gen.writeObjectFieldStart("sdk");
+            if (sdkName != null) gen.writeStringField("name", sdkName);
+            if (sdkVersion != null) gen.writeStringField("version", sdkVersion);
+            gen.writeEndObject();
+            gen.writeEndObject();
+        } else if (hasNonNullEntry(attrs.get("telemetry"))) {
+            gen.writeFieldName("telemetry");
+            writeNonNullEntries(gen, (Map<?, ?>) attrs.get("telemetry"));
+        }
+
+        Map<String, Object> context = event.eventContext();
+        if (context != null && !context.isEmpty()) {
+            gen.writeFieldName("context");
+            writeMap(gen, context);
+        }
+
+        gen.writeEndObject();
+    }
+
+    private void writeSteps(JsonGenerator gen, List<OEvent> events) throws IOException {
+        if (events == null) return;
+        for (OEvent e : events) {
+            gen.writeStartObject();
+            gen.writeStringField("name", e.getName());
+            long epochNanos = e.getEpochNanos();
+            Long endEpochNanos = e.getEndEpochNanos();
+            boolean hasEnd = endEpochNanos != null && endEpochNanos > 0;
+            if (epochNanos > 0 || hasEnd) {
+                gen.writeObjectFieldStart("time");
+                if (epochNanos > 0) {
+                    gen.writeNumberField("startUnixNano", epochNanos);
+                    gen.writeStringField(
+                            "startedAt", instantFromNanos(epochNanos).toString());
+                }
+                if (hasEnd) {
+                    gen.writeNumberField("endUnixNano", endEpochNanos);
+                    gen.writeStringField(
+                            "endedAt", instantFromNanos(endEpochNanos).toString());
+                }
+                gen.writeEndObject();
+            }
+            if (e.getKind() != null && !e.getKind().isBlank()) {
+                gen.writeStringField("kind", e.getKind());
+            }
+            if (e.getAttributes() != null && !e.getAttributes().map().isEmpty()) {
+                gen.writeFieldName("attributes");
+                writeMap(gen, e.getAttributes().map());
+            }
+            OStatus status = e.getStatus();
+            if (status != null && (status.getCode() != null || status.getMessage() != null)) {
+                gen.writeObjectFieldStart("status");
+                if (status.getCode() != null)
+                    gen.writeStringField("code", status.getCode().name());
+                if (status.getMessage() != null) gen.writeStringField("message", status.getMessage());
+                gen.writeEndObject();
+            }
+            List<OEvent> children = e.getEvents();
+            if (children != null && !children.isEmpty()) {
+                gen.writeArrayFieldStart("events");
+                writeSteps(gen, children);
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    private void writeMap(JsonGenerator gen, Map<?, ?> map) throws IOException {
+        gen.writeStartObject();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            gen.writeFieldName(String.valueOf(entry.getKey()));
+            writeValue(gen, entry.getValue());
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeNonNullEntries(JsonGenerator gen, Map<?, ?> map) throws IOException {
+        gen.writeStartObject();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getValue() == null) continue;
+            gen.writeFieldName(String.valueOf(entry.getKey()));
+            writeValue(gen, entry.getValue());
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeValue(JsonGenerator gen, Object value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (value instanceof String s) {
+            gen.writeString(s);
+        } else if (value instanceof Integer
+                || value instanceof Long
+                || value instanceof Short
+                || value instanceof Byte) {
+            gen.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Double d) {
+            gen.writeNumber(d);
+        } else if (value instanceof Float f) {
+            gen.writeNumber(f);
+        } else if (value instanceof BigDecimal bd) {
+            gen.writeNumber(bd);
+        } else if (value instanceof BigInteger bi) {
+            gen.writeNumber(bi);
+        } else if (value instanceof Boolean b) {
+            gen.writeBoolean(b);
+        } else if (value instanceof Map<?, ?> map) {
+            writeMap(gen, map);
+        } else if (value instanceof Collection<?> collection) {
+            gen.writeStartArray();
+            for (Object item : collection) writeValue(gen, item);
+            gen.writeEndArray();
+        } else {
+            json.writeValue(gen, value);
+        }
+    }
+
+    private static boolean hasNonNullEntry(Object value) {
+        if (!(value instanceof Map<?, ?> map)) return false;
+        for (Object v : map.values()) {
+            if (v != null) return true;
+        }
+        return false;
+    }
+
+    private static void mergeNonNull(Object source, Map<String, Object> target) {
+        if (!(source instanceof Map<?, ?> src)) return;
+        src.forEach((k, v) -> {
+            if (k != null && v != null) target.put(String.valueOf(k), v);
+        });
+    }
+
+    private static String attribute(Map<String, Object> attrs, String key) {
+        Object v = attrs.get(key);
+        return v == null ? null : sanitize(v.toString());
+    }
+
+    static String sanitize(String value) {
+        if (value == null) return null;
+        String trimmed = value.trim();
+        return (trimmed.isEmpty() || trimmed.equals(DUMMY_SERVICE_ID)) ? null : trimmed;
+    }
+
+    private static Instant instantFromNanos(long epochNanos) {
+        return Instant.ofEpochSecond(epochNanos / 1_000_000_000L, epochNanos % 1_000_000_000L);
+    }
+
+    private static long toUnixNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private static PooledBuffer acquire() {
+        PooledBuffer buffer = BUFFERS.get();
+        if (buffer.inUse) {
+            // Re-entrant call (e.g. a custom serializer writing another event): use a throwaway buffer.
+            return new PooledBuffer();
+        }
+        buffer.inUse = true;
+        return buffer;
+    }
+
+    private static void release(PooledBuffer buffer) {
+        if (buffer != BUFFERS.get()) return;
+        buffer.inUse = false;
+        if (buffer.capacity() > MAX_POOLED_BYTES) {
+            BUFFERS.remove();
+        } else {
+            buffer.reset();
+        }
+    }
+
+    /** Reusable per-thread output buffer. */
+    private static final class PooledBuffer extends ByteArrayOutputStream {
+        boolean inUse;
+
+        PooledBuffer() {
+            super(4096);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
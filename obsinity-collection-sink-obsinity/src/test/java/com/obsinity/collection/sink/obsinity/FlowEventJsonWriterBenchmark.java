@@ -0,0 +1,133 @@
+package com.obsinity.collection.sink.obsinity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.obsinity.flow.model.FlowEvent;
+import com.obsinity.flow.model.OAttributes;
+import com.obsinity.flow.model.OEvent;
+import com.obsinity.flow.model.OStatus;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput and allocation of {@link FlowEventJsonWriter} for single payloads and 50-event batches, with and
+ * without nested steps. {@link #objectMapperTree()} serializes an equivalent map tree through
+ * {@link ObjectMapper} as the pre-streaming baseline.
+ *
+ * <p>Run from the IDE via {@link #main(String[])}, which enables the GC profiler; the
+ * {@code gc.alloc.rate.norm} column is bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowEventJsonWriterBenchmark {
+    private static final int BATCH = 50;
+
+    @Param({"0", "5"})
+    public int steps;
+
+    private final FlowEventJsonWriter writer = new FlowEventJsonWriter();
+    private final ObjectMapper json = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private FlowEvent event;
+    private List<FlowEvent> batch;
+
+    @Setup
+    public void setUp() {
+        event = event(steps);
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) batch.add(event(steps));
+    }
+
+    @Benchmark
+    public byte[] single() throws Exception {
+        return writer.write(event, null);
+    }
+
+    @Benchmark
+    public byte[] batch() throws Exception {
+        return writer.writeBatch(batch, null);
+    }
+
+    @Benchmark
+    public byte[] objectMapperTree() throws Exception {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("event", Map.of("name", event.name(), "kind", event.kind().name()));
+        root.put("resource", Map.of("service", Map.of("name", event.serviceId()), "context", event.eventContext()));
+        root.put("trace", Map.of("traceId", event.traceId(), "spanId", event.spanId()));
+        root.put("time", Map.of("startedAt", event.timestamp(), "endedAt", event.endTimestamp()));
+        root.put("status", Map.of("code", event.status().getCode().name()));
+        root.put("attributes", new LinkedHashMap<>(event.attributes().map()));
+        List<Map<String, Object>> stepMaps = new ArrayList<>();
+        for (OEvent e : event.events()) {
+            stepMaps.add(Map.of(
+                    "name", e.getName(),
+                    "time", Map.of("startUnixNano", e.getEpochNanos()),
+                    "attributes", e.getAttributes().map()));
+        }
+        root.put("events", stepMaps);
+        root.put("links", List.of());
+        root.put("synthetic", Boolean.FALSE);
+        return json.writeValueAsBytes(root);
+    }
+
+    private static FlowEvent event(int steps) {
+        Instant start = Instant.parse("2025-09-24T08:30:00Z");
+        FlowEvent event = FlowEvent.builder()
+                .name("checkout.payment")
+                .kind(SpanKind.SERVER)
+                .timestamp(start)
+                .endTimestamp(start.plusMillis(42))
+                .traceId("0af7651916cd43dd8448eb211c80319c")
+                .spanId("b7ad6b7169203331")
+                .status(new OStatus(StatusCode.OK, null))
+                .serviceId("payments")
+                .build();
+        event.attributes().put("user.id", "alice");
+        event.attributes().put("order.id", "o-42");
+        event.attributes().put("amount", 129.95);
+        event.attributes().put("items", 3);
+        event.attributes().put("express", true);
+        event.eventContext().put("cart.size", 3);
+        for (int i = 0; i < steps; i++) {
+            long nanos = start.getEpochSecond() * 1_000_000_000L + i * 1_000_000L;
+            event.events().add(new OEvent("step-" + i, nanos, null, new OAttributes(Map.of("index", i)), null, 0L));
+        }
+        return event;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(FlowEventJsonWriterBenchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
+                        .build())
+                .run();
+    }
+}
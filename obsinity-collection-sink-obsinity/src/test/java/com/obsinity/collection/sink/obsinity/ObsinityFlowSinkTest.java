@@ -6,9 +6,13 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.obsinity.client.transport.EventSender;
 import com.obsinity.flow.model.FlowEvent;
+import com.obsinity.flow.model.OAttributes;
+import com.obsinity.flow.model.OEvent;
 import com.obsinity.flow.model.OStatus;
 import io.opentelemetry.api.trace.StatusCode;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 
 class ObsinityFlowSinkTest {
@@ -45,4 +49,39 @@ class ObsinityFlowSinkTest {
         assertThat(root.path("resource").path("context").path("cart.size").asInt())
                 .isEqualTo(3);
     }
+
+    @Test
+    void writes_nested_steps_and_batches() throws Exception {
+        FlowEvent h = FlowEvent.builder()
+                .name("demo.checkout")
+                .timestamp(Instant.parse("2025-09-24T08:30:00Z"))
+                .endTimestamp(Instant.parse("2025-09-24T08:30:01Z"))
+                .serviceId("demo-service")
+                .build();
+        h.attributes().put("cart", Map.of("items", List.of(1, 2)));
+        OEvent reserve =
+                new OEvent("reserve", 1_758_702_600_000_000_000L, null, new OAttributes(Map.of("sku", "A1")), null, 0L);
+        reserve.getEvents().add(new OEvent("lock", 1_758_702_600_100_000_000L, null, null, null, 0L));
+        h.events().add(reserve);
+
+        FlowEventJsonWriter writer = new FlowEventJsonWriter();
+        ObjectMapper om = new ObjectMapper();
+
+        JsonNode root = om.readTree(writer.write(h, null));
+        assertThat(root.path("resource").path("service").path("name").asText()).isEqualTo("demo-service");
+        assertThat(root.path("time").path("endUnixNano").asLong()).isEqualTo(1_758_702_601_000_000_000L);
+        assertThat(root.path("attributes").path("cart").path("items").get(1).asInt())
+                .isEqualTo(2);
+        JsonNode step = root.path("events").get(0);
+        assertThat(step.path("name").asText()).isEqualTo("reserve");
+        assertThat(step.path("time").path("startedAt").asText()).isEqualTo("2025-09-24T08:30:00Z");
+        assertThat(step.path("attributes").path("sku").asText()).isEqualTo("A1");
+        assertThat(step.path("events").get(0).path("name").asText()).isEqualTo("lock");
+        assertThat(root.path("synthetic").asBoolean()).isFalse();
+
+        JsonNode batch = om.readTree(writer.writeBatch(List.of(h, h), null));
+        assertThat(batch.isArray()).isTrue();
+        assertThat(batch.size()).isEqualTo(2);
+        assertThat(batch.get(1)).isEqualTo(root);
+    }
 }
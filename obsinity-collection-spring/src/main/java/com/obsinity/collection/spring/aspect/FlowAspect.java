@@ -11,11 +11,11 @@ import com.obsinity.collection.spring.processor.AttributeParamExtractor.AttrCtx;
 import com.obsinity.flow.model.FlowEvent;
 import com.obsinity.flow.model.OAttributes;
 import com.obsinity.flow.processor.FlowProcessorSupport;
-import io.opentelemetry.api.trace.SpanKind;
 import java.lang.reflect.Method;
 import java.time.Instant;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -41,6 +41,11 @@ import org.springframework.core.annotation.Order;
  * <p>When {@code obsinity.collection.enabled=false}, this aspect bypasses all processing
  * and simply proceeds with method execution, providing zero telemetry overhead.
  *
+ * <h3>Per-Method Metadata:</h3>
+ * <p>Name, {@link Kind @Kind}, {@link OrphanAlert @OrphanAlert}, return type and parameter bindings are
+ * resolved once per intercepted {@link Method} into a {@link FlowMethodDescriptor}; steady-state calls only
+ * extract argument values and read the trace context from MDC (once per invocation).
+ *
  * @see Flow
  * @see Step
  * @see FlowProcessor
@@ -53,6 +58,8 @@ public class FlowAspect {
     private final FlowProcessor processor;
     private final FlowProcessorSupport support;
     private final com.obsinity.collection.spring.autoconfigure.ObsinityCollectionProperties properties;
+    private final Map<Method, FlowMethodDescriptor> flowDescriptors = new ConcurrentHashMap<>();
+    private final Map<Method, FlowMethodDescriptor> stepDescriptors = new ConcurrentHashMap<>();
 
     /**
      * Creates a FlowAspect without configuration properties (legacy constructor).
@@ -124,19 +131,20 @@ public class FlowAspect {
             return pjp.proceed();
         }
 
-        // Extract flow name from @Flow annotation or fallback to method signature
-        String name = resolveFlowName(pjp);
+        // Name, kind, return type and parameter bindings are resolved once per method
+        FlowMethodDescriptor d = flowDescriptor(pjp);
+        String name = d.name();
 
         // Extract attributes (@PushAttribute) and context (@PushContextValue) from parameters
         // This also validates that no Hibernate/JPA entities are passed
-        AttrCtx ac = AttributeParamExtractor.extract(pjp);
+        AttrCtx ac = AttributeParamExtractor.extract(d.bindings(), pjp.getArgs());
 
-        // Build metadata including trace context (traceId, spanId, etc.) from MDC
-        FlowMeta meta = buildMeta(pjp, null);
+        // Read trace context (traceId, spanId, etc.) from MDC once and reuse it for start and completion
+        TraceContext trace = extractTraceContextFromMdc();
+        FlowMeta meta = buildMeta(d, trace, null);
 
         // Check if method returns void - affects whether we capture return value
-        MethodSignature ms = (MethodSignature) pjp.getSignature();
-        boolean returnsVoid = ms.getReturnType() == Void.TYPE;
+        boolean returnsVoid = d.returnsVoid();
 
         // Determine if this is a root-level flow (no parent flow in the call stack)
         // Root flows are responsible for cleaning up ThreadLocals to prevent memory leaks
@@ -160,7 +168,7 @@ public class FlowAspect {
             }
 
             // Build completion metadata with OK status
-            FlowMeta ok = buildMeta(pjp, new StatusHint("OK", null));
+            FlowMeta ok = buildMeta(d, trace, new StatusHint("OK", null));
 
             // Notify processor of successful completion
             // This pops the FlowEvent from the ThreadLocal stack and dispatches it
@@ -184,7 +192,7 @@ public class FlowAspect {
             attrs.put(ERROR, t.toString());
 
             // Build failure metadata with ERROR status and exception message
-            FlowMeta err = buildMeta(pjp, new StatusHint("ERROR", t.getMessage()));
+            FlowMeta err = buildMeta(d, trace, new StatusHint("ERROR", t.getMessage()));
 
             // Notify processor of flow failure
             // This captures the exception for telemetry and pops the FlowEvent
@@ -245,11 +253,11 @@ public class FlowAspect {
             return pjp.proceed();
         }
 
-        // Extract step name from @Step annotation or fallback to method signature
-        String name = resolveStepName(pjp);
+        // Name, kind and parameter bindings are resolved once per method
+        FlowMethodDescriptor d = stepDescriptor(pjp);
 
         // Extract attributes and context from parameters (with entity validation)
-        AttrCtx ac = AttributeParamExtractor.extract(pjp);
+        AttrCtx ac = AttributeParamExtractor.extract(d.bindings(), pjp.getArgs());
 
         // Check if there's an active flow on the current thread
         // If null, this is an "orphan step" (step without parent flow)
@@ -257,11 +265,11 @@ public class FlowAspect {
 
         if (context == null) {
             // Orphan step path: no active flow, auto-promote to flow
-            return handleOrphanStep(pjp, name, ac);
+            return handleOrphanStep(pjp, d, ac);
         }
 
         // Normal step path: execute within the active flow
-        return handleInFlowStep(pjp, name, ac, context);
+        return handleInFlowStep(pjp, d, ac, context);
     }
 
     /**
@@ -288,29 +296,30 @@ public class FlowAspect {
      * </ul>
      *
      * @param pjp the proceeding join point for the orphan step method
-     * @param name the resolved name of the step
+     * @param d the compiled descriptor of the step method
      * @param ac the extracted attributes and context from parameters
      * @return the result of the step method execution
      * @throws Throwable any exception thrown by the step method
      */
-    private Object handleOrphanStep(ProceedingJoinPoint pjp, String name, AttrCtx ac) throws Throwable {
-        // Check for @OrphanAlert annotation to determine logging level
-        OrphanAlert oa = ((MethodSignature) pjp.getSignature()).getMethod().getAnnotation(OrphanAlert.class);
+    private Object handleOrphanStep(ProceedingJoinPoint pjp, FlowMethodDescriptor d, AttrCtx ac) throws Throwable {
+        String name = d.name();
 
         // Log warning about orphan step (configurable level via @OrphanAlert)
         if (support != null) {
-            support.logOrphanStep(name, oa != null ? oa.value() : OrphanAlert.Level.ERROR);
+            support.logOrphanStep(name, d.orphanLevel());
         }
 
+        TraceContext trace = extractTraceContextFromMdc();
         try {
             // Auto-promote step to flow: start the flow
-            processor.onFlowStarted(name, ac.attributes(), ac.context(), buildMeta(pjp, null));
+            processor.onFlowStarted(name, ac.attributes(), ac.context(), buildMeta(d, trace, null));
 
             // Execute the step method
             Object result = pjp.proceed();
 
             // Complete the promoted flow successfully
-            processor.onFlowCompleted(name, ac.attributes(), ac.context(), buildMeta(pjp, new StatusHint("OK", null)));
+            processor.onFlowCompleted(
+                    name, ac.attributes(), ac.context(), buildMeta(d, trace, new StatusHint("OK", null)));
 
             return result;
 
@@ -323,7 +332,7 @@ public class FlowAspect {
 
             // Fail the promoted flow with error details
             processor.onFlowFailed(
-                    name, t, attrs, ac.context(), buildMeta(pjp, new StatusHint("ERROR", t.getMessage())));
+                    name, t, attrs, ac.context(), buildMeta(d, trace, new StatusHint("ERROR", t.getMessage())));
 
             // Re-throw to preserve application behavior
             throw t;
@@ -365,13 +374,13 @@ public class FlowAspect {
      * clock adjustments.
      *
      * @param pjp the proceeding join point for the step method
-     * @param name the resolved name of the step
+     * @param d the compiled descriptor of the step method
      * @param ac the extracted attributes and context from parameters
      * @param context the active flow event context (guaranteed non-null)
      * @return the result of the step method execution
      * @throws Throwable any exception thrown by the step method
      */
-    private Object handleInFlowStep(ProceedingJoinPoint pjp, String name, AttrCtx ac, FlowEvent context)
+    private Object handleInFlowStep(ProceedingJoinPoint pjp, FlowMethodDescriptor d, AttrCtx ac, FlowEvent context)
             throws Throwable {
         // Merge step attributes into parent flow's attribute map
         // This allows steps to add telemetry data to the overall flow
@@ -390,11 +399,9 @@ public class FlowAspect {
         // Create snapshot of initial attributes for the step event
         OAttributes initial = new OAttributes(new LinkedHashMap<>(ac.attributes()));
 
-        // Extract step kind from @Kind annotation or use default (INTERNAL)
-        String kindValue = extractStepKind(pjp);
-
         // Begin the step event - adds nested event to the flow's event list
-        context.beginStepEvent(name, startEpochNanos, startNano, initial, kindValue);
+        // Kind comes from @Kind or defaults to INTERNAL
+        context.beginStepEvent(d.name(), startEpochNanos, startNano, initial, d.stepKind());
 
         try {
             // Execute the step method
@@ -423,23 +430,9 @@ public class FlowAspect {
     }
 
     /**
-     * Extracts the SpanKind from {@link Kind @Kind} annotation or defaults to INTERNAL.
+     * Returns the cached {@link FlowMethodDescriptor} for a {@link Flow @Flow} method, compiling it on first use.
      *
-     * <p>The kind indicates the type of operation (e.g., SERVER, CLIENT, PRODUCER, CONSUMER).
-     * This aligns with OpenTelemetry's SpanKind concept for consistent distributed tracing.
-     *
-     * @param pjp the proceeding join point
-     * @return the kind name (e.g., "SERVER", "CLIENT", "INTERNAL")
-     */
-    private static String extractStepKind(ProceedingJoinPoint pjp) {
-        Kind stepKind = ((MethodSignature) pjp.getSignature()).getMethod().getAnnotation(Kind.class);
-        return (stepKind != null && stepKind.value() != null) ? stepKind.value().name() : SpanKind.INTERNAL.name();
-    }
-
-    /**
-     * Resolves the flow name from {@link Flow @Flow} annotation or falls back to method signature.
-     *
-     * <p>Resolution order:
+     * <p>Flow name resolution order:
      * <ol>
      *   <li>@Flow(name = "explicit.name") - explicit name attribute</li>
      *   <li>@Flow("value.name") - value attribute (shorthand)</li>
@@ -447,47 +440,24 @@ public class FlowAspect {
      * </ol>
      *
      * @param pjp the proceeding join point
-     * @return the resolved flow name
+     * @return the descriptor of the intercepted method
      */
-    private static String resolveFlowName(ProceedingJoinPoint pjp) {
+    private FlowMethodDescriptor flowDescriptor(ProceedingJoinPoint pjp) {
         MethodSignature ms = (MethodSignature) pjp.getSignature();
-        Method m = ms.getMethod();
-        Flow f = m.getAnnotation(Flow.class);
-        if (f != null) {
-            // Try explicit name attribute first
-            if (!f.name().isBlank()) return f.name();
-            // Try value attribute (shorthand syntax)
-            if (!f.value().isBlank()) return f.value();
-        }
-        // Fallback: use method signature (e.g., "MyService.processOrder(..)")
-        return ms.toShortString();
+        return flowDescriptors.computeIfAbsent(ms.getMethod(), m -> FlowMethodDescriptor.forFlow(ms));
     }
 
     /**
-     * Resolves the step name from {@link Step @Step} annotation or falls back to method signature.
+     * Returns the cached {@link FlowMethodDescriptor} for a {@link Step @Step} method, compiling it on first use.
      *
-     * <p>Resolution order:
-     * <ol>
-     *   <li>@Step(name = "explicit.name") - explicit name attribute</li>
-     *   <li>@Step("value.name") - value attribute (shorthand)</li>
-     *   <li>Method signature - e.g., "MyClass.myMethod(..)" (fallback)</li>
-     * </ol>
+     * <p>Step names resolve like flow names: {@code name}, then {@code value}, then the method signature.
      *
      * @param pjp the proceeding join point
-     * @return the resolved step name
+     * @return the descriptor of the intercepted method
      */
-    private static String resolveStepName(ProceedingJoinPoint pjp) {
+    private FlowMethodDescriptor stepDescriptor(ProceedingJoinPoint pjp) {
         MethodSignature ms = (MethodSignature) pjp.getSignature();
-        Method m = ms.getMethod();
-        Step s = m.getAnnotation(Step.class);
-        if (s != null) {
-            // Try explicit name attribute first
-            if (!s.name().isBlank()) return s.name();
-            // Try value attribute (shorthand syntax)
-            if (!s.value().isBlank()) return s.value();
-        }
-        // Fallback: use method signature (e.g., "MyService.validateData(..)")
-        return ms.toShortString();
+        return stepDescriptors.computeIfAbsent(ms.getMethod(), m -> FlowMethodDescriptor.forStep(ms));
     }
 
     /**
@@ -517,19 +487,17 @@ public class FlowAspect {
      *   <li>Direct MDC keys (traceId, spanId, parentSpanId)</li>
      * </ul>
      *
-     * @param pjp the proceeding join point for accessing method annotations
+     * @param d the compiled descriptor providing the {@link Kind @Kind} value
+     * @param trace trace context read from MDC for this invocation
      * @param status optional status hint (code and message) for the flow/step
      * @return built FlowMeta with all available metadata
      */
-    private static FlowMeta buildMeta(ProceedingJoinPoint pjp, StatusHint status) {
-        MethodSignature ms = (MethodSignature) pjp.getSignature();
-        Method m = ms.getMethod();
+    private static FlowMeta buildMeta(FlowMethodDescriptor d, TraceContext trace, StatusHint status) {
         FlowMeta.Builder b = FlowMeta.builder();
 
         // Set kind from @Kind annotation if present (e.g., SERVER, CLIENT, INTERNAL)
-        Kind k = m.getAnnotation(Kind.class);
-        if (k != null && k.value() != null) {
-            b.kind(k.value().name());
+        if (d.kind() != null) {
+            b.kind(d.kind());
         }
 
         // Set execution status (OK for success, ERROR for failure)
@@ -537,9 +505,8 @@ public class FlowAspect {
             b.status(status.code(), status.message());
         }
 
-        // Extract distributed tracing context from MDC (if available)
+        // Distributed tracing context from MDC (if available)
         // Supports W3C, B3, and custom trace propagation formats
-        TraceContext trace = extractTraceContextFromMdc();
         if (trace.hasAnyValue()) {
             b.trace(trace.traceId, trace.spanId, trace.parentSpanId, trace.tracestate);
         }
@@ -0,0 +1,66 @@
+package com.obsinity.collection.spring.aspect;
+
+import com.obsinity.collection.api.annotations.Flow;
+import com.obsinity.collection.api.annotations.Kind;
+import com.obsinity.collection.api.annotations.OrphanAlert;
+import com.obsinity.collection.api.annotations.Step;
+import com.obsinity.collection.spring.processor.AttributeParamExtractor;
+import com.obsinity.collection.spring.processor.AttributeParamExtractor.ParamBindings;
+import io.opentelemetry.api.trace.SpanKind;
+import java.lang.reflect.Method;
+import org.aspectj.lang.reflect.MethodSignature;
+
+/**
+ * Everything {@link FlowAspect} needs to know about an intercepted method that does not change between calls.
+ *
+ * <p>Descriptors are compiled on first invocation of a {@code @Flow}/{@code @Step} method and cached per
+ * {@link Method}, so steady-state calls only extract argument values and read the MDC.
+ *
+ * @param name resolved flow/step name (annotation {@code name}, then {@code value}, then short signature)
+ * @param kind {@link Kind @Kind} name, or {@code null} when the method is not annotated
+ * @param returnsVoid whether the method returns {@code void} (no return value capture)
+ * @param orphanLevel {@link OrphanAlert @OrphanAlert} level used when a step runs without an active flow
+ * @param bindings pre-resolved push-annotated parameter positions
+ */
+record FlowMethodDescriptor(
+        String name, String kind, boolean returnsVoid, OrphanAlert.Level orphanLevel, ParamBindings bindings) {
+
+    /** Step kind recorded on nested step events: {@link #kind()} or {@code INTERNAL}. */
+    String stepKind() {
+        return kind != null ? kind : SpanKind.INTERNAL.name();
+    }
+
+    static FlowMethodDescriptor forFlow(MethodSignature ms) {
+        Method m = ms.getMethod();
+        Flow f = m.getAnnotation(Flow.class);
+        String name = f != null ? firstNonBlank(f.name(), f.value()) : null;
+        return compile(ms, m, name);
+    }
+
+    static FlowMethodDescriptor forStep(MethodSignature ms) {
+        Method m = ms.getMethod();
+        Step s = m.getAnnotation(Step.class);
+        String name = s != null ? firstNonBlank(s.name(), s.value()) : null;
+        return compile(ms, m, name);
+    }
+
+    private static FlowMethodDescriptor compile(MethodSignature ms, Method m, String annotatedName) {
+        // Fallback: use method signature (e.g., "MyService.processOrder(..)")
+        String name = annotatedName != null ? annotatedName : ms.toShortString();
+        Kind k = m.getAnnotation(Kind.class);
+        String kind = (k != null && k.value() != null) ? k.value().name() : null;
+        OrphanAlert oa = m.getAnnotation(OrphanAlert.class);
+        return new FlowMethodDescriptor(
+                name,
+                kind,
+                ms.getReturnType() == Void.TYPE,
+                oa != null ? oa.value() : OrphanAlert.Level.ERROR,
+                AttributeParamExtractor.compile(m));
+    }
+
+    private static String firstNonBlank(String explicitName, String value) {
+        if (!explicitName.isBlank()) return explicitName;
+        if (!value.isBlank()) return value;
+        return null;
+    }
+}
@@ -3,6 +3,8 @@ package com.obsinity.collection.spring.autoconfigure;
 import com.obsinity.collection.core.dispatch.AsyncDispatchBus;
 import com.obsinity.collection.core.processor.DefaultFlowProcessor;
 import com.obsinity.collection.core.processor.FlowProcessor;
+import com.obsinity.collection.core.sampling.FlowSampler;
+import com.obsinity.collection.core.sampling.SamplingPolicy;
 import com.obsinity.collection.core.sinks.FlowHandlerRegistry;
 import com.obsinity.collection.spring.aspect.FlowAspect;
 import com.obsinity.collection.spring.validation.HibernateEntityDetector;
@@ -42,11 +44,26 @@ public class CollectionAutoConfiguration {
                 properties.getValidation().getHibernateEntityCheck().getLogLevel());
     }
 
+    @Bean
+    @ConditionalOnProperty(prefix = "obsinity.collection.sampling", name = "enabled", havingValue = "true")
+    public FlowSampler flowSampler(ObsinityCollectionProperties properties) {
+        ObsinityCollectionProperties.Sampling sampling = properties.getSampling();
+        return new FlowSampler(SamplingPolicy.builder()
+                .rate(sampling.getRate())
+                .rates(sampling.getRates())
+                .keepFailures(sampling.isKeepFailures())
+                .latencyThreshold(sampling.getLatencyThreshold())
+                .maxEventsPerSecond(sampling.getMaxEventsPerSecond())
+                .maxWeight(sampling.getMaxWeight())
+                .build());
+    }
+
     @Bean
     public FlowProcessor telemetryProcessor(
             AsyncDispatchBus asyncBus,
             FlowProcessorSupport support,
-            @Autowired(required = false) FlowAttributeValidator validator) {
-        return new DefaultFlowProcessor(asyncBus, support, validator);
+            @Autowired(required = false) FlowAttributeValidator validator,
+            @Autowired(required = false) FlowSampler sampler) {
+        return new DefaultFlowProcessor(asyncBus, support, validator, sampler);
     }
 }
@@ -1,6 +1,10 @@
 package com.obsinity.collection.spring.autoconfigure;
 
+import com.obsinity.collection.core.sampling.SamplingPolicy;
 import com.obsinity.collection.spring.validation.HibernateEntityLogLevel;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -19,6 +23,15 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  *       hibernate-entity-check:
  *         enabled: true   # Validate entities (default)
  *         log-level: ERROR # ERROR (throws), WARN, INFO
+ *     sampling:
+ *       enabled: false          # Emit every flow (default)
+ *       rate: 0.1               # Default head-sampling probability
+ *       rates:
+ *         checkout: 1.0         # Per flow name (dotted prefixes match)
+ *       keep-failures: true     # Always emit failed flows
+ *       latency-threshold: 500ms # Always emit flows at least this slow
+ *       max-events-per-second: 0 # Adaptive per-flow cap (0 = unlimited)
+ *       max-weight: 1000        # Floor of 1/max-weight on non-zero rates
  * }</pre>
  *
  * @see org.springframework.boot.context.properties.ConfigurationProperties
@@ -58,6 +71,8 @@ public class ObsinityCollectionProperties {
 
     private final Validation validation = new Validation();
 
+    private final Sampling sampling = new Sampling();
+
     /**
      * Returns whether flow telemetry collection is enabled.
      *
@@ -85,6 +100,15 @@ public class ObsinityCollectionProperties {
         return validation;
     }
 
+    /**
+     * Returns the sampling configuration.
+     *
+     * @return sampling settings
+     */
+    public Sampling getSampling() {
+        return sampling;
+    }
+
     /**
      * Validation configuration for flow attributes and context.
      */
@@ -126,4 +150,101 @@ public class ObsinityCollectionProperties {
             }
         }
     }
+
+    /**
+     * Head/tail sampling of emitted flows; see {@link com.obsinity.collection.core.sampling.FlowSampler}.
+     */
+    public static class Sampling {
+
+        /**
+         * Enable sampling. When disabled every flow event is emitted.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Default head-sampling probability in [0, 1].
+         */
+        private double rate = 1.0;
+
+        /**
+         * Per flow-name head-sampling probability; a name also matches its dotted prefixes.
+         */
+        private Map<String, Double> rates = new LinkedHashMap<>();
+
+        /**
+         * Always emit failed flows, regardless of the head decision.
+         */
+        private boolean keepFailures = true;
+
+        /**
+         * Always emit flows at least this slow (unset = disabled).
+         */
+        private Duration latencyThreshold;
+
+        /**
+         * Adaptive per-flow emission cap; the head rate is scaled down above it (0 = unlimited).
+         */
+        private int maxEventsPerSecond = 0;
+
+        /**
+         * Largest sample weight a kept flow may carry; non-zero rates never drop below {@code 1 / maxWeight}.
+         */
+        private double maxWeight = SamplingPolicy.DEFAULT_MAX_WEIGHT;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public Map<String, Double> getRates() {
+            return rates;
+        }
+
+        public void setRates(Map<String, Double> rates) {
+            this.rates = rates;
+        }
+
+        public boolean isKeepFailures() {
+            return keepFailures;
+        }
+
+        public void setKeepFailures(boolean keepFailures) {
+            this.keepFailures = keepFailures;
+        }
+
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public int getMaxEventsPerSecond() {
+            return maxEventsPerSecond;
+        }
+
+        public void setMaxEventsPerSecond(int maxEventsPerSecond) {
+            this.maxEventsPerSecond = maxEventsPerSecond;
+        }
+
+        public double getMaxWeight() {
+            return maxWeight;
+        }
+
+        public void setMaxWeight(double maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+    }
 }
@@ -5,7 +5,9 @@ import com.obsinity.collection.api.annotations.PushContextValue;
 import com.obsinity.collection.spring.validation.HibernateEntityDetector;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
@@ -59,6 +61,27 @@ public final class AttributeParamExtractor {
      */
     public record AttrCtx(Map<String, Object> attributes, Map<String, Object> context) {}
 
+    /**
+     * Pre-resolved {@link PushAttribute}/{@link PushContextValue} parameter positions for one method.
+     *
+     * <p>Produced once per method by {@link #compile(Method)} so that repeated invocations only read argument
+     * values instead of re-walking {@link Method#getParameterAnnotations()}. Blank keys are dropped at compile time.
+     *
+     * @param attrIndexes parameter positions feeding attributes, in declaration order
+     * @param attrKeys attribute keys aligned with {@code attrIndexes}
+     * @param ctxIndexes parameter positions feeding context values, in declaration order
+     * @param ctxKeys context keys aligned with {@code ctxIndexes}
+     */
+    public record ParamBindings(int[] attrIndexes, String[] attrKeys, int[] ctxIndexes, String[] ctxKeys) {
+        /** Bindings for a method without any push-annotated parameters. */
+        public static final ParamBindings NONE =
+                new ParamBindings(new int[0], new String[0], new int[0], new String[0]);
+
+        public boolean isEmpty() {
+            return attrIndexes.length == 0 && ctxIndexes.length == 0;
+        }
+    }
+
     /**
      * Private constructor to prevent instantiation of this utility class.
      */
@@ -115,6 +138,72 @@ public final class AttributeParamExtractor {
         return new AttrCtx(attrs, ctx);
     }
 
+    /**
+     * Resolves which parameters of {@code method} push attributes or context values.
+     *
+     * <p>The result is immutable and safe to cache per method; pair it with {@link #extract(ParamBindings, Object[])}
+     * on each invocation.
+     *
+     * @param method the intercepted method
+     * @return the compiled bindings, {@link ParamBindings#NONE} when no parameter is annotated
+     */
+    public static ParamBindings compile(Method method) {
+        Annotation[][] paramAnnotations = method.getParameterAnnotations();
+        List<Integer> attrIdx = new ArrayList<>();
+        List<String> attrKeys = new ArrayList<>();
+        List<Integer> ctxIdx = new ArrayList<>();
+        List<String> ctxKeys = new ArrayList<>();
+        for (int i = 0; i < paramAnnotations.length; i++) {
+            for (Annotation annotation : paramAnnotations[i]) {
+                if (annotation instanceof PushAttribute pa && isValidKey(pa.value())) {
+                    attrIdx.add(i);
+                    attrKeys.add(pa.value());
+                } else if (annotation instanceof PushContextValue pc && isValidKey(pc.value())) {
+                    ctxIdx.add(i);
+                    ctxKeys.add(pc.value());
+                }
+            }
+        }
+        if (attrIdx.isEmpty() && ctxIdx.isEmpty()) return ParamBindings.NONE;
+        return new ParamBindings(
+                attrIdx.stream().mapToInt(Integer::intValue).toArray(),
+                attrKeys.toArray(String[]::new),
+                ctxIdx.stream().mapToInt(Integer::intValue).toArray(),
+                ctxKeys.toArray(String[]::new));
+    }
+
+    /**
+     * Extracts attributes and context values using bindings from {@link #compile(Method)}.
+     *
+     * <p>Values are validated exactly as in {@link #extract(ProceedingJoinPoint)}. Fresh, mutable maps are
+     * returned on every call so callers may add entries.
+     *
+     * @param bindings the compiled bindings for the intercepted method
+     * @param args the actual parameter values
+     * @return {@link AttrCtx} containing extracted attributes and context values (never null)
+     * @throws IllegalArgumentException if any parameter value is a Hibernate/JPA entity
+     */
+    public static AttrCtx extract(ParamBindings bindings, Object[] args) {
+        Map<String, Object> attrs = new LinkedHashMap<>();
+        Map<String, Object> ctx = new LinkedHashMap<>();
+        if (args == null || args.length == 0 || bindings.isEmpty()) {
+            return new AttrCtx(attrs, ctx);
+        }
+        collect(bindings.attrIndexes(), bindings.attrKeys(), args, attrs);
+        collect(bindings.ctxIndexes(), bindings.ctxKeys(), args, ctx);
+        return new AttrCtx(attrs, ctx);
+    }
+
+    private static void collect(int[] indexes, String[] keys, Object[] args, Map<String, Object> target) {
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i] < args.length) addToMapIfValid(keys[i], args[indexes[i]], target);
+        }
+    }
+
+    private static boolean isValidKey(String key) {
+        return key != null && !key.isBlank();
+    }
+
     /**
      * Iterates through method parameters and extracts annotated values.
      *
@@ -4,9 +4,14 @@ import com.obsinity.collection.api.annotations.*;
 import com.obsinity.collection.core.sinks.FlowHandlerRegistry;
 import com.obsinity.flow.model.FlowEvent;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
@@ -24,6 +29,17 @@ import org.springframework.util.ReflectionUtils;
 public class FlowSinkScanner implements BeanPostProcessor, ApplicationContextAware {
     private static final Logger log = LoggerFactory.getLogger(FlowSinkScanner.class);
 
+    private static final MethodHandle BINDING_APPLY;
+
+    static {
+        try {
+            BINDING_APPLY = MethodHandles.publicLookup()
+                    .findVirtual(Function.class, "apply", MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final Supplier<FlowHandlerRegistry> registrySupplier;
     private ApplicationContext applicationContext;
 
@@ -54,7 +70,7 @@ public class FlowSinkScanner implements BeanPostProcessor, ApplicationContextAwa
         if (compiled.handlers.isEmpty() && compiled.fallbacks.isEmpty()) return bean;
 
         FlowHandlerRegistry registry = registrySupplier.get();
-        registry.register(holder -> compiled.dispatch(holder));
+        registry.register(compiled::dispatch);
         log.info(
                 "Registered FlowSink: {} (handlers={}, fallbacks={})",
                 targetType.getSimpleName(),
@@ -169,24 +185,62 @@ public class FlowSinkScanner implements BeanPostProcessor, ApplicationContextAwa
             if (bindings.get(i) == null) return null; // unsupported signature
         }
 
+        // Outcome restriction only narrows the lifecycles, so fold it in once here
+        if (onOutcome != null) {
+            switch (onOutcome.value()) {
+                case SUCCESS -> lifecycles.retainAll(EnumSet.of(OnFlowLifecycle.Lifecycle.COMPLETED));
+                case FAILURE -> lifecycles.retainAll(EnumSet.of(OnFlowLifecycle.Lifecycle.FAILED));
+                default -> {
+                    /* OTHER */
+                }
+            }
+        }
+
+        MethodHandle invoker;
+        try {
+            invoker = compileInvoker(bean, invocable, bindings);
+        } catch (IllegalAccessException ex) {
+            log.warn("Skipping FlowSink method {}: not accessible ({})", m, ex.getMessage());
+            return null;
+        }
+
         boolean flowFailureHandler = isFailure;
         boolean failureFinishHandler = isCompleted && onOutcome != null && onOutcome.value() == Outcome.FAILURE;
 
         return new CompiledHandler(
-                bean,
-                invocable,
+                invoker,
                 classScopes,
                 methodScopes,
                 lifecycles,
-                onOutcome,
                 reqAttrs,
                 reqCtx,
-                bindings,
                 fallback,
                 flowFailureHandler,
                 failureFinishHandler);
     }
 
+    /**
+     * Adapts the handler method into a single {@code (FlowEvent)void} handle: the bean is bound as receiver and
+     * each parameter is fed by its binding function, so dispatch needs neither an argument array nor reflection.
+     */
+    private static MethodHandle compileInvoker(Object bean, Method method, List<Function<FlowEvent, Object>> bindings)
+            throws IllegalAccessException {
+        MethodHandle target = MethodHandles.lookup().unreflect(method);
+        if (!Modifier.isStatic(method.getModifiers())) target = target.bindTo(bean);
+
+        Class<?>[] types = method.getParameterTypes();
+        MethodHandle[] filters = new MethodHandle[types.length];
+        for (int i = 0; i < types.length; i++) {
+            filters[i] = BINDING_APPLY.bindTo(bindings.get(i)).asType(MethodType.methodType(types[i], FlowEvent.class));
+        }
+        MethodHandle filtered = MethodHandles.filterArguments(target, 0, filters);
+
+        // Every parameter reads from the same event: collapse (FlowEvent, FlowEvent, ...) into (FlowEvent)
+        MethodHandle single = MethodHandles.permuteArguments(
+                filtered, MethodType.methodType(filtered.type().returnType(), FlowEvent.class), new int[types.length]);
+        return single.asType(MethodType.methodType(void.class, FlowEvent.class));
+    }
+
     private static Function<FlowEvent, Object> buildParamBinding(
             Parameter p, Annotation[] anns, boolean allowThrowable) {
         Class<?> type = p.getType();
@@ -220,118 +274,153 @@ public class FlowSinkScanner implements BeanPostProcessor, ApplicationContextAwa
 
     /* ----------------- dispatch model ----------------- */
 
-    private record CompiledSink(List<CompiledHandler> handlers, List<CompiledHandler> fallbacks) {
-        void dispatch(FlowEvent event) throws Exception {
+    /** Upper bound on distinct flow names whose matching handlers are memoized per lifecycle. */
+    private static final int MAX_ROUTES_PER_LIFECYCLE = 1024;
+
+    private static final CompiledHandler[] NO_HANDLERS = new CompiledHandler[0];
+
+    private static final class CompiledSink {
+        final List<CompiledHandler> handlers;
+        final List<CompiledHandler> fallbacks;
+        private final CompiledHandler[] fallbackArray;
+        private final EnumMap<OnFlowLifecycle.Lifecycle, LifecycleIndex> byLifecycle =
+                new EnumMap<>(OnFlowLifecycle.Lifecycle.class);
+
+        CompiledSink(List<CompiledHandler> handlers, List<CompiledHandler> fallbacks) {
+            this.handlers = List.copyOf(handlers);
+            this.fallbacks = List.copyOf(fallbacks);
+            this.fallbackArray = fallbacks.toArray(NO_HANDLERS);
+            for (OnFlowLifecycle.Lifecycle lc : OnFlowLifecycle.Lifecycle.values()) {
+                byLifecycle.put(lc, new LifecycleIndex(lc, handlers));
+            }
+        }
+
+        void dispatch(FlowEvent event) {
+            Route route = byLifecycle.get(lifecycleOf(event)).route(event.name());
             boolean any = false;
-            String lcStr = String.valueOf(event.eventContext().get("lifecycle"));
-            boolean isFailed = "FAILED".equals(lcStr);
 
             boolean anyFlowFailureMatched = false;
-            if (isFailed) {
-                for (CompiledHandler c : handlers) {
-                    if (c.flowFailure && c.matches(event)) {
-                        c.invoke(event);
-                        any = true;
-                        anyFlowFailureMatched = true;
-                    }
+            for (CompiledHandler c : route.flowFailures()) {
+                if (c.preconditionsMet(event)) {
+                    c.invoke(event);
+                    any = true;
+                    anyFlowFailureMatched = true;
                 }
             }
 
-            for (CompiledHandler c : handlers) {
-                if (isFailed && c.flowFailure) continue; // already handled
-                if (isFailed && c.failureFinish && anyFlowFailureMatched)
-                    continue; // suppress finish if failure matched
-                if (c.matches(event)) {
+            for (CompiledHandler c : route.handlers()) {
+                if (anyFlowFailureMatched && c.failureFinish) continue; // suppress finish if failure matched
+                if (c.preconditionsMet(event)) {
                     c.invoke(event);
                     any = true;
                 }
             }
 
             if (!any) {
-                for (CompiledHandler f : fallbacks) f.invoke(event);
+                for (CompiledHandler f : fallbackArray) f.invoke(event);
+            }
+        }
+    }
+
+    /**
+     * Handlers eligible for one lifecycle, split into the failure-first pass and the regular pass, with the
+     * scope-matching subset memoized per flow name. Only attribute/context preconditions remain per event.
+     */
+    private static final class LifecycleIndex {
+        private final CompiledHandler[] flowFailures;
+        private final CompiledHandler[] handlers;
+        private final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+
+        LifecycleIndex(OnFlowLifecycle.Lifecycle lc, List<CompiledHandler> all) {
+            boolean failed = lc == OnFlowLifecycle.Lifecycle.FAILED;
+            List<CompiledHandler> first = new ArrayList<>();
+            List<CompiledHandler> rest = new ArrayList<>();
+            for (CompiledHandler c : all) {
+                if (!c.lifecycles.contains(lc)) continue;
+                if (failed && c.flowFailure) first.add(c);
+                else rest.add(c);
             }
+            this.flowFailures = first.toArray(NO_HANDLERS);
+            this.handlers = rest.toArray(NO_HANDLERS);
+        }
+
+        Route route(String flowName) {
+            String name = flowName == null ? "" : flowName;
+            Route route = routes.get(name);
+            if (route != null) return route;
+            route = new Route(inScope(flowFailures, name), inScope(handlers, name));
+            if (routes.size() < MAX_ROUTES_PER_LIFECYCLE) routes.putIfAbsent(name, route);
+            return route;
+        }
+
+        private static CompiledHandler[] inScope(CompiledHandler[] candidates, String name) {
+            if (candidates.length == 0) return NO_HANDLERS;
+            List<CompiledHandler> out = new ArrayList<>(candidates.length);
+            for (CompiledHandler c : candidates) if (c.scopeMatches(name)) out.add(c);
+            return out.toArray(NO_HANDLERS);
         }
     }
 
+    private record Route(CompiledHandler[] flowFailures, CompiledHandler[] handlers) {}
+
     private static final class CompiledHandler {
-        final Object bean;
-        final Method method;
+        final MethodHandle invoker;
         final List<String> classScopes;
         final List<String> methodScopes;
         final EnumSet<OnFlowLifecycle.Lifecycle> lifecycles;
-        final OnOutcome onOutcome;
         final RequiredAttributes reqAttrs;
         final RequiredEventContext reqCtx;
-        final List<Function<FlowEvent, Object>> bindings;
         final boolean fallback;
         final boolean flowFailure;
         final boolean failureFinish;
 
         CompiledHandler(
-                Object bean,
-                Method method,
+                MethodHandle invoker,
                 List<String> classScopes,
                 List<String> methodScopes,
                 EnumSet<OnFlowLifecycle.Lifecycle> lifecycles,
-                OnOutcome onOutcome,
                 RequiredAttributes reqAttrs,
                 RequiredEventContext reqCtx,
-                List<Function<FlowEvent, Object>> bindings,
                 boolean fallback,
                 boolean flowFailure,
                 boolean failureFinish) {
-            this.bean = bean;
-            this.method = method;
+            this.invoker = invoker;
             this.classScopes = classScopes;
             this.methodScopes = methodScopes;
             this.lifecycles = lifecycles;
-            this.onOutcome = onOutcome;
             this.reqAttrs = reqAttrs;
             this.reqCtx = reqCtx;
-            this.bindings = bindings;
             this.fallback = fallback;
             this.flowFailure = flowFailure;
             this.failureFinish = failureFinish;
         }
 
-        boolean matches(FlowEvent event) {
-            String lcStr = String.valueOf(event.eventContext().get("lifecycle"));
-            OnFlowLifecycle.Lifecycle lc;
-            if ("STARTED".equals(lcStr)) lc = OnFlowLifecycle.Lifecycle.STARTED;
-            else if ("FAILED".equals(lcStr)) lc = OnFlowLifecycle.Lifecycle.FAILED;
-            else lc = OnFlowLifecycle.Lifecycle.COMPLETED;
-            if (!lifecycles.contains(lc)) return false;
-
-            if (onOutcome != null) {
-                switch (onOutcome.value()) {
-                    case SUCCESS -> {
-                        if (lc != OnFlowLifecycle.Lifecycle.COMPLETED) return false;
-                    }
-                    case FAILURE -> {
-                        if (lc != OnFlowLifecycle.Lifecycle.FAILED) return false;
-                    }
-                    default -> {
-                        /* OTHER */
-                    }
-                }
-            }
-
-            String name = event.name();
-            if (!scopeMatches(classScopes, name)) return false;
-            if (!scopeMatches(methodScopes, name)) return false;
+        boolean scopeMatches(String name) {
+            return FlowSinkScanner.scopeMatches(classScopes, name) && FlowSinkScanner.scopeMatches(methodScopes, name);
+        }
 
+        boolean preconditionsMet(FlowEvent event) {
             if (reqAttrs != null && !attrsPresent(event, reqAttrs.value())) return false;
             if (reqCtx != null && !ctxPresent(event, reqCtx.value())) return false;
             return true;
         }
 
-        void invoke(FlowEvent event) throws Exception {
-            Object[] args = new Object[bindings.size()];
-            for (int i = 0; i < bindings.size(); i++) args[i] = bindings.get(i).apply(event);
-            ReflectionUtils.invokeMethod(method, bean, args);
+        void invoke(FlowEvent event) {
+            try {
+                invoker.invokeExact(event);
+            } catch (Throwable t) {
+                ReflectionUtils.rethrowRuntimeException(t);
+            }
         }
     }
 
+    private static OnFlowLifecycle.Lifecycle lifecycleOf(FlowEvent event) {
+        String lcStr = String.valueOf(event.eventContext().get("lifecycle"));
+        if ("STARTED".equals(lcStr)) return OnFlowLifecycle.Lifecycle.STARTED;
+        if ("FAILED".equals(lcStr)) return OnFlowLifecycle.Lifecycle.FAILED;
+        return OnFlowLifecycle.Lifecycle.COMPLETED;
+    }
+
     /* ----------------- helpers ----------------- */
 
     private static boolean attrsPresent(FlowEvent event, String[] required) {
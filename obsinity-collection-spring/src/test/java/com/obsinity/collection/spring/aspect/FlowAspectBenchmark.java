@@ -0,0 +1,123 @@
+package com.obsinity.collection.spring.aspect;
+
+import com.obsinity.collection.api.annotations.Flow;
+import com.obsinity.collection.api.annotations.Kind;
+import com.obsinity.collection.api.annotations.PushAttribute;
+import com.obsinity.collection.api.annotations.PushContextValue;
+import com.obsinity.collection.api.annotations.Step;
+import com.obsinity.collection.core.processor.DefaultFlowProcessor;
+import com.obsinity.collection.spring.autoconfigure.ObsinityCollectionProperties;
+import com.obsinity.flow.processor.FlowProcessorSupport;
+import io.opentelemetry.api.trace.SpanKind;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.MDC;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+/**
+ * Per-call overhead of {@link FlowAspect} around {@code @Flow} and nested {@code @Step} methods, with telemetry
+ * enabled and disabled. {@link #direct()} is the unproxied baseline.
+ *
+ * <p>No sinks are registered: the measured cost is the aspect plus {@link DefaultFlowProcessor} bookkeeping, not
+ * downstream dispatch. Run from the IDE via {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowAspectBenchmark {
+
+    @Param({"true", "false"})
+    public boolean telemetryEnabled;
+
+    private Checkout target;
+    private Checkout proxy;
+
+    @Setup
+    public void setUp() {
+        ObsinityCollectionProperties properties = new ObsinityCollectionProperties();
+        properties.setEnabled(telemetryEnabled);
+        FlowProcessorSupport support = new FlowProcessorSupport();
+        FlowAspect aspect = new FlowAspect(new DefaultFlowProcessor(null, support), support, properties);
+
+        target = new Checkout(new Inventory());
+        proxy = proxied(new Checkout(proxied(new Inventory(), aspect)), aspect);
+
+        MDC.put("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+    }
+
+    @Benchmark
+    public String direct() {
+        return target.checkout("alice", 3);
+    }
+
+    @Benchmark
+    public String flow() {
+        return proxy.checkout("alice", 3);
+    }
+
+    @Benchmark
+    public String flowWithStep() {
+        return proxy.checkoutWithStep("alice", 3);
+    }
+
+    private static <T> T proxied(T bean, FlowAspect aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(bean);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(FlowAspectBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+
+    public static class Checkout {
+        private final Inventory inventory;
+
+        public Checkout() {
+            this(null);
+        }
+
+        public Checkout(Inventory inventory) {
+            this.inventory = inventory;
+        }
+
+        @Flow(name = "bench.checkout")
+        @Kind(SpanKind.SERVER)
+        public String checkout(@PushAttribute("user.id") String userId, @PushContextValue("cart.size") int items) {
+            return userId;
+        }
+
+        @Flow(name = "bench.checkout.step")
+        public String checkoutWithStep(@PushAttribute("user.id") String userId, int items) {
+            inventory.reserve(items);
+            return userId;
+        }
+    }
+
+    public static class Inventory {
+        @Step("bench.reserve")
+        public int reserve(@PushAttribute("items") int items) {
+            return items;
+        }
+    }
+}
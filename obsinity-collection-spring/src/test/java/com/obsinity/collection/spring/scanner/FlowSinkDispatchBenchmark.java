@@ -0,0 +1,184 @@
+package com.obsinity.collection.spring.scanner;
+
+import com.obsinity.collection.api.annotations.FlowSink;
+import com.obsinity.collection.api.annotations.OnFlowCompleted;
+import com.obsinity.collection.api.annotations.OnFlowFailure;
+import com.obsinity.collection.api.annotations.OnFlowScope;
+import com.obsinity.collection.api.annotations.OnFlowStarted;
+import com.obsinity.collection.api.annotations.OnFlowSuccess;
+import com.obsinity.collection.api.annotations.PullAttribute;
+import com.obsinity.collection.api.annotations.PullContextValue;
+import com.obsinity.collection.api.annotations.RequiredAttributes;
+import com.obsinity.collection.core.sinks.FlowHandlerRegistry;
+import com.obsinity.collection.core.sinks.FlowSinkHandler;
+import com.obsinity.flow.model.FlowEvent;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Sink dispatch cost per event with 1, 10 and 50 registered {@code @FlowSink} handlers.
+ *
+ * <p>Run from the IDE via {@link #main(String[])}, or after {@code mvn test-compile} with the test classpath on
+ * {@code java org.openjdk.jmh.Main FlowSinkDispatchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowSinkDispatchBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int handlers;
+
+    private List<FlowSinkHandler> sinks;
+    private FlowEvent started;
+    private FlowEvent completed;
+    private FlowEvent failed;
+
+    @Setup
+    public void setUp() {
+        FlowHandlerRegistry registry = new FlowHandlerRegistry();
+        FlowSinkScanner scanner = new FlowSinkScanner(registry);
+        if (handlers == 1) {
+            scanner.postProcessAfterInitialization(new SingleHandlerSink(), "single");
+        } else {
+            for (int i = 0; i < handlers / TenHandlerSink.HANDLERS; i++) {
+                scanner.postProcessAfterInitialization(new TenHandlerSink(), "ten" + i);
+            }
+        }
+        sinks = registry.handlers();
+
+        started = event("checkout.payment", "STARTED");
+        completed = event("checkout.payment", "COMPLETED");
+        failed = event("checkout.payment", "FAILED");
+        failed.setThrowable(new IllegalStateException("declined"));
+    }
+
+    @Benchmark
+    public void dispatchStarted(Blackhole bh) throws Exception {
+        for (FlowSinkHandler sink : sinks) sink.handle(started);
+        bh.consume(started);
+    }
+
+    @Benchmark
+    public void dispatchCompleted(Blackhole bh) throws Exception {
+        for (FlowSinkHandler sink : sinks) sink.handle(completed);
+        bh.consume(completed);
+    }
+
+    @Benchmark
+    public void dispatchFailed(Blackhole bh) throws Exception {
+        for (FlowSinkHandler sink : sinks) sink.handle(failed);
+        bh.consume(failed);
+    }
+
+    private static FlowEvent event(String name, String lifecycle) {
+        FlowEvent event =
+                FlowEvent.builder().name(name).timestamp(Instant.now()).build();
+        event.eventContext().put("lifecycle", lifecycle);
+        event.eventContext().put("cart.size", 3);
+        event.attributes().put("user.id", "alice");
+        event.attributes().put("order.id", "o-42");
+        return event;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(FlowSinkDispatchBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+
+    @FlowSink
+    public static class SingleHandlerSink {
+        static volatile Object sink;
+
+        @OnFlowCompleted
+        public void onCompleted(FlowEvent event) {
+            sink = event;
+        }
+    }
+
+    /** Mix of lifecycles, scopes, bindings and preconditions; five of these instances make up 50 handlers. */
+    @FlowSink
+    public static class TenHandlerSink {
+        static final int HANDLERS = 10;
+        static volatile Object sink;
+
+        @OnFlowStarted
+        public void onStarted(FlowEvent event) {
+            sink = event;
+        }
+
+        @OnFlowStarted
+        @OnFlowScope("checkout")
+        public void onCheckoutStarted(@PullAttribute("user.id") String userId) {
+            sink = userId;
+        }
+
+        @OnFlowStarted
+        @OnFlowScope("inventory")
+        public void onInventoryStarted(FlowEvent event) {
+            sink = event;
+        }
+
+        @OnFlowCompleted
+        public void onCompleted(FlowEvent event) {
+            sink = event;
+        }
+
+        @OnFlowSuccess
+        @OnFlowScope("checkout.")
+        public void onCheckoutSuccess(
+                @PullAttribute("order.id") String orderId, @PullContextValue("cart.size") Integer cart) {
+            sink = orderId;
+        }
+
+        @OnFlowSuccess
+        @OnFlowScope("payments")
+        public void onPaymentsSuccess(FlowEvent event) {
+            sink = event;
+        }
+
+        @OnFlowCompleted
+        @RequiredAttributes({"order.id"})
+        public void onCompletedWithOrder(FlowEvent event) {
+            sink = event;
+        }
+
+        @OnFlowFailure
+        public void onFailure(Throwable error) {
+            sink = error;
+        }
+
+        @OnFlowFailure
+        @OnFlowScope("inventory")
+        public void onInventoryFailure(FlowEvent event) {
+            sink = event;
+        }
+
+        @OnFlowFailure
+        @RequiredAttributes({"error.code"})
+        public void onCodedFailure(FlowEvent event) {
+            sink = event;
+        }
+    }
+}
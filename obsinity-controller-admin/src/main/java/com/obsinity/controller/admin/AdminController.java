@@ -3,6 +3,10 @@ package com.obsinity.controller.admin;
 import com.obsinity.service.core.config.ConfigIngestService;
 import com.obsinity.service.core.model.config.ServiceConfig;
 import com.obsinity.service.core.model.config.ServiceConfigResponse;
+import com.obsinity.service.core.search.QueryPlanCache;
+import com.obsinity.service.core.support.CardinalityLimiter;
+import com.obsinity.service.storage.impl.PartitionStatisticsMaintainer;
+import java.util.List;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,10 +18,21 @@ public class AdminController {
 
     private final ConfigIngestService ingestService;
     private final ServiceConfigArchiveLoader archiveLoader;
+    private final CardinalityLimiter cardinality;
+    private final PartitionStatisticsMaintainer statistics;
+    private final QueryPlanCache queryPlanCache;
 
-    public AdminController(ConfigIngestService ingestService, ServiceConfigArchiveLoader archiveLoader) {
+    public AdminController(
+            ConfigIngestService ingestService,
+            ServiceConfigArchiveLoader archiveLoader,
+            CardinalityLimiter cardinality,
+            PartitionStatisticsMaintainer statistics,
+            QueryPlanCache queryPlanCache) {
         this.ingestService = ingestService;
         this.archiveLoader = archiveLoader;
+        this.cardinality = cardinality;
+        this.statistics = statistics;
+        this.queryPlanCache = queryPlanCache;
     }
 
     /**
@@ -28,6 +43,36 @@ public class AdminController {
         return ResponseEntity.ok("OK");
     }
 
+    /**
+     * Key cardinality per counter, histogram and state-transition attribute for the current budget window,
+     * including the estimated number of distinct keys offered and the share of events folded into
+     * {@code __overflow__}. Highest overflow rate first.
+     */
+    @GetMapping(path = "/cardinality", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<CardinalityLimiter.Stats> cardinality() {
+        return cardinality.stats();
+    }
+
+    /**
+     * Latest planner-statistics maintenance run: which partitions were analyzed or deferred for budget, and the
+     * OB-JQL shapes whose planner estimates drift furthest from actual match counts. 204 before the first run.
+     */
+    @GetMapping(path = "/statistics", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PartitionStatisticsMaintainer.RunSummary> statistics() {
+        PartitionStatisticsMaintainer.RunSummary lastRun = statistics.lastRun();
+        return lastRun != null
+                ? ResponseEntity.ok(lastRun)
+                : ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Hit rates of the OB-JQL parse and SQL caches since startup, with their current entry counts.
+     */
+    @GetMapping(path = "/query-cache", produces = MediaType.APPLICATION_JSON_VALUE)
+    public QueryPlanCache.Stats queryCache() {
+        return queryPlanCache.stats();
+    }
+
     /**
      * Ingest a full service configuration snapshot as JSON.
      * Phase-1: create/update only (no deletes). Transactional on the server.
@@ -1,6 +1,7 @@
 package com.obsinity.controller.rest;
 
 import com.obsinity.service.core.repo.AttributeValuesRepository;
+import com.obsinity.service.core.repo.AttributeValuesRepository.CappedCount;
 import com.obsinity.service.core.repo.ServicesCatalogRepository;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -43,6 +44,7 @@ public class AttributeValuesController {
             @PathVariable("service") String service,
             @PathVariable("attrName") String attrName,
             @RequestParam(value = "prefix", required = false) String prefix,
+            @RequestParam(value = "contains", required = false) String contains,
             @RequestParam(value = "offset", required = false, defaultValue = "0") long offset,
             @RequestParam(value = "limit", required = false, defaultValue = "50") int limit) {
         if (service == null || service.isBlank()) throw new IllegalArgumentException("service is required");
@@ -55,28 +57,34 @@ public class AttributeValuesController {
 
         if (log.isInfoEnabled()) {
             log.info(
-                    "GET attribute values: service={}, attrName={}, prefix={}, offset={}, limit={}",
+                    "GET attribute values: service={}, attrName={}, prefix={}, contains={}, offset={}, limit={}",
                     service,
                     attrName,
                     prefix,
+                    contains,
                     offset,
                     limit);
         }
 
-        long total = repo.count(svc, attrName, prefix);
-        List<Map<String, Object>> rows = repo.list(svc, attrName, prefix, offset, limit);
+        boolean substring = contains != null && !contains.isEmpty();
+        CappedCount total =
+                substring ? repo.countContaining(svc, attrName, contains) : repo.count(svc, attrName, prefix);
+        List<Map<String, Object>> rows = substring
+                ? repo.listContaining(svc, attrName, contains, offset, limit)
+                : repo.list(svc, attrName, prefix, offset, limit);
         List<Map<String, Object>> data =
                 rows.stream().map(this::camelizeValueRow).toList();
 
         Map<String, Object> out = new LinkedHashMap<>();
         out.put("count", data.size());
-        out.put("total", total);
+        out.put("total", total.count());
+        out.put("totalCapped", total.capped());
         out.put("limit", limit);
         out.put("offset", offset);
         Map<String, Object> embedded = new LinkedHashMap<>();
         embedded.put("values", data);
         out.put(embeddedKey, embedded);
-        out.put(linksKey, buildLinksForValues(service, attrName, prefix, offset, limit, data.size(), total));
+        out.put(linksKey, buildLinksForValues(service, attrName, prefix, contains, offset, limit, data.size(), total));
         return out;
     }
 
@@ -97,14 +105,15 @@ public class AttributeValuesController {
             log.info("GET attribute names: service={}, prefix={}, offset={}, limit={}", service, prefix, offset, limit);
         }
 
-        long total = repo.countNames(svc, prefix);
+        CappedCount total = repo.countNames(svc, prefix);
         List<Map<String, Object>> rows = repo.listNames(svc, prefix, offset, limit);
         List<Map<String, Object>> data =
                 rows.stream().map(this::camelizeNameRow).toList();
 
         Map<String, Object> out = new LinkedHashMap<>();
         out.put("count", data.size());
-        out.put("total", total);
+        out.put("total", total.count());
+        out.put("totalCapped", total.capped());
         out.put("limit", limit);
         out.put("offset", offset);
         Map<String, Object> embedded = new LinkedHashMap<>();
@@ -131,42 +140,61 @@ public class AttributeValuesController {
     }
 
     private Map<String, Object> buildLinksForValues(
-            String service, String attrName, String prefix, long offset, int limit, long count, long total) {
+            String service,
+            String attrName,
+            String prefix,
+            String contains,
+            long offset,
+            int limit,
+            long count,
+            CappedCount total) {
         Map<String, Object> links = new LinkedHashMap<>();
-        links.put("self", linkValues(service, attrName, prefix, offset, limit));
-        links.put("first", linkValues(service, attrName, prefix, 0, limit));
-        long lastOffset = (total <= 0) ? 0 : Math.max(0, ((total - 1) / (long) limit) * (long) limit);
-        links.put("last", linkValues(service, attrName, prefix, lastOffset, limit));
-        if (offset > 0) links.put("prev", linkValues(service, attrName, prefix, Math.max(0, offset - limit), limit));
-        long nextOffset = offset + limit;
-        if ((total > 0 && offset + count < total) || (total == 0 && count >= limit)) {
-            links.put("next", linkValues(service, attrName, prefix, nextOffset, limit));
+        links.put("self", linkValues(service, attrName, prefix, contains, offset, limit));
+        links.put("first", linkValues(service, attrName, prefix, contains, 0, limit));
+        // A capped total is only a lower bound, so there is no reliable last page
+        if (!total.capped()) {
+            links.put("last", linkValues(service, attrName, prefix, contains, lastOffset(total.count(), limit), limit));
+        }
+        if (offset > 0)
+            links.put("prev", linkValues(service, attrName, prefix, contains, Math.max(0, offset - limit), limit));
+        if (hasNext(offset, limit, count, total)) {
+            links.put("next", linkValues(service, attrName, prefix, contains, offset + limit, limit));
         }
         return links;
     }
 
     private Map<String, Object> buildLinksForNames(
-            String service, String prefix, long offset, int limit, long count, long total) {
+            String service, String prefix, long offset, int limit, long count, CappedCount total) {
         Map<String, Object> links = new LinkedHashMap<>();
         links.put("self", linkNames(service, prefix, offset, limit));
         links.put("first", linkNames(service, prefix, 0, limit));
-        long lastOffset = (total <= 0) ? 0 : Math.max(0, ((total - 1) / (long) limit) * (long) limit);
-        links.put("last", linkNames(service, prefix, lastOffset, limit));
+        if (!total.capped()) {
+            links.put("last", linkNames(service, prefix, lastOffset(total.count(), limit), limit));
+        }
         if (offset > 0) links.put("prev", linkNames(service, prefix, Math.max(0, offset - limit), limit));
-        long nextOffset = offset + limit;
-        if ((total > 0 && offset + count < total) || (total == 0 && count >= limit)) {
-            links.put("next", linkNames(service, prefix, nextOffset, limit));
+        if (hasNext(offset, limit, count, total)) {
+            links.put("next", linkNames(service, prefix, offset + limit, limit));
         }
         return links;
     }
 
-    private Map<String, Object> linkValues(String service, String attrName, String prefix, long offset, int limit) {
+    private static long lastOffset(long total, int limit) {
+        return (total <= 0) ? 0 : Math.max(0, ((total - 1) / (long) limit) * (long) limit);
+    }
+
+    private static boolean hasNext(long offset, int limit, long count, CappedCount total) {
+        if (total.capped() || total.count() == 0) return count >= limit;
+        return offset + count < total.count();
+    }
+
+    private Map<String, Object> linkValues(
+            String service, String attrName, String prefix, String contains, long offset, int limit) {
         Map<String, Object> link = new LinkedHashMap<>();
         link.put(
                 "href",
                 String.format(
                         "/api/catalog/attributes/%s/%s/values?%s",
-                        urlEnc(service), urlEnc(attrName), qp(prefix, offset, limit)));
+                        urlEnc(service), urlEnc(attrName), qp(prefix, contains, offset, limit)));
         link.put("method", "GET");
         return link;
     }
@@ -175,16 +203,19 @@ public class AttributeValuesController {
         Map<String, Object> link = new LinkedHashMap<>();
         link.put(
                 "href",
-                String.format("/api/catalog/attributes/%s/names?%s", urlEnc(service), qp(prefix, offset, limit)));
+                String.format("/api/catalog/attributes/%s/names?%s", urlEnc(service), qp(prefix, null, offset, limit)));
         link.put("method", "GET");
         return link;
     }
 
-    private String qp(String prefix, long offset, int limit) {
+    private String qp(String prefix, String contains, long offset, int limit) {
         StringBuilder sb = new StringBuilder();
         if (prefix != null && !prefix.isEmpty()) {
             sb.append("prefix=").append(urlEnc(prefix)).append("&");
         }
+        if (contains != null && !contains.isEmpty()) {
+            sb.append("contains=").append(urlEnc(contains)).append("&");
+        }
         sb.append("offset=").append(offset).append("&limit=").append(limit);
         return sb.toString();
     }
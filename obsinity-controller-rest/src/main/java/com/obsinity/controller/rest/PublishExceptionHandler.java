@@ -1,10 +1,13 @@
 package com.obsinity.controller.rest;
 
+import com.obsinity.service.core.ingest.IngestAdmissionController;
+import com.obsinity.service.core.ingest.IngestOverloadedException;
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.OffsetDateTime;
 import java.util.Locale;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -13,7 +16,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 /**
  * Provides structured error responses for UnifiedPublishController so clients receive 4xx
- * details instead of generic 500 errors when validation fails.
+ * details instead of generic 500 errors when validation fails, and 429/503 with {@code Retry-After}
+ * when ingest admission control refuses the request.
  */
 @RestControllerAdvice(assignableTypes = UnifiedPublishController.class)
 public class PublishExceptionHandler {
@@ -44,6 +48,22 @@ public class PublishExceptionHandler {
         return ResponseEntity.badRequest().body(problem);
     }
 
+    @ExceptionHandler(IngestOverloadedException.class)
+    public ResponseEntity<ProblemDetail> handleOverloaded(IngestOverloadedException ex, HttpServletRequest request) {
+        IngestAdmissionController.Admission admission = ex.admission();
+        HttpStatus status = admission.state() == IngestAdmissionController.State.SHEDDING
+                ? HttpStatus.SERVICE_UNAVAILABLE
+                : HttpStatus.TOO_MANY_REQUESTS;
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, ex.getMessage());
+        problem.setTitle("Ingest overloaded");
+        problem.setProperty("code", "ingest.overloaded");
+        problem.setProperty("timestamp", OffsetDateTime.now());
+        problem.setProperty("path", request.getRequestURI());
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, Integer.toString(admission.retryAfterSeconds()))
+                .body(problem);
+    }
+
     private static String errorCodeFor(String detail) {
         String normalized = detail.toLowerCase(Locale.ROOT);
         if (normalized.contains("unknown event type")) {
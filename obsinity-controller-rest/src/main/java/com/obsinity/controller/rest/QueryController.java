@@ -26,7 +26,7 @@ public class QueryController {
         if (body == null || body.q == null || body.q.isBlank()) {
             throw new IllegalArgumentException("Missing 'q' field with OB-JQL");
         }
-        OBJqlPage page = OBJqlPage.of(body.offset, body.limit);
+        OBJqlPage page = OBJqlPage.of(body.offset, body.limit, body.cursor);
         return search.query(body.q, page);
     }
 
@@ -34,5 +34,6 @@ public class QueryController {
         public String q;
         public Long offset; // optional (default 0)
         public Integer limit; // optional (default 100)
+        public String cursor; // optional; seek token, takes precedence over offset
     }
 }
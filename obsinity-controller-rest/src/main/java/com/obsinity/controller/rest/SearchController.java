@@ -10,6 +10,8 @@ import com.obsinity.service.core.objql.OBJql.AttrExpr;
 import com.obsinity.service.core.objql.OBJqlPage;
 import com.obsinity.service.core.repo.ServicesCatalogRepository;
 import com.obsinity.service.core.search.SearchService;
+import java.io.IOException;
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
@@ -18,14 +20,18 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/search")
@@ -38,6 +44,8 @@ public class SearchController {
     private final ServicesCatalogRepository servicesRepo;
     private final String embeddedKey;
     private final String linksKey;
+    private final int streamMaxRows;
+    private final int streamChunkRows;
     private static final Logger log = LoggerFactory.getLogger(SearchController.class);
 
     public SearchController(
@@ -46,11 +54,25 @@ public class SearchController {
             ServicesCatalogRepository servicesRepo,
             @Value("${obsinity.api.hal.embedded:embedded}") String embeddedKey,
             @Value("${obsinity.api.hal.links:links}") String linksKey) {
+        this(search, mapper, servicesRepo, embeddedKey, linksKey, 1_000_000, 1000);
+    }
+
+    @Autowired
+    public SearchController(
+            SearchService search,
+            ObjectMapper mapper,
+            ServicesCatalogRepository servicesRepo,
+            @Value("${obsinity.api.hal.embedded:embedded}") String embeddedKey,
+            @Value("${obsinity.api.hal.links:links}") String linksKey,
+            @Value("${obsinity.search.stream.maxRows:1000000}") int streamMaxRows,
+            @Value("${obsinity.search.stream.chunkRows:1000}") int streamChunkRows) {
         this.search = search;
         this.mapper = mapper;
         this.servicesRepo = servicesRepo;
         this.embeddedKey = embeddedKey;
         this.linksKey = linksKey;
+        this.streamMaxRows = streamMaxRows;
+        this.streamChunkRows = streamChunkRows;
     }
 
     /**
@@ -64,7 +86,7 @@ public class SearchController {
     public Map<String, Object> search(@RequestBody SearchBody body) {
         validate(body);
 
-        OBJqlPage page = OBJqlPage.of(body.offset, body.limit);
+        OBJqlPage page = OBJqlPage.of(body.offset, body.limit, body.cursor);
 
         // Build OB-JQL AST from JSON (match -> attribute predicates)
         OBJql ast = toOBJql(body);
@@ -76,17 +98,22 @@ public class SearchController {
                             : (body.period.between != null ? ("between=" + body.period.between) : ""))
                     : "";
             log.info(
-                    "POST /api/search/events service={}, event={}, {}, limit={}, offset={}",
+                    "POST /api/search/events service={}, event={}, {}, limit={}, offset={}, cursor={}",
                     body.service,
                     body.event,
                     periodDesc,
                     page.limit(),
-                    page.offset());
+                    page.offset(),
+                    page.hasCursor());
         }
 
         // Execute CTE-backed search (returns full events from events_raw)
         boolean includeTotal = Boolean.TRUE.equals(body.includeTotal);
-        List<Map<String, Object>> rows = search.query(ast, page, includeTotal);
+        boolean estimateTotal = includeTotal && "estimate".equalsIgnoreCase(body.totalMode);
+        List<Map<String, Object>> rows = search.query(ast, page, includeTotal && !estimateTotal);
+        // Seek position comes from the unfiltered page so post-filtering never skips rows on the next request
+        String nextCursor = nextCursor(rows, page.limit(), ast);
+        boolean fullPage = rows.size() >= page.limit();
 
         // Post-filter full events using SQL-like ops on JSON paths
         if (body.filter != null) {
@@ -109,21 +136,88 @@ public class SearchController {
 
         Map<String, Object> wrapper = new LinkedHashMap<>();
         wrapper.put("count", count);
-        Long total = includeTotal ? extractTotal(rows, ast, page) : null;
+        Long total = null;
+        if (estimateTotal) {
+            total = search.estimateCount(ast);
+        } else if (includeTotal) {
+            total = extractTotal(rows, ast, page);
+        }
         if (includeTotal) {
             wrapper.put("total", total);
+            wrapper.put("totalEstimated", estimateTotal);
         }
         wrapper.put("limit", limit);
         wrapper.put("offset", offset);
+        if (nextCursor != null) {
+            wrapper.put("nextCursor", nextCursor);
+        }
         wrapper.put("format", format.wireValue());
         Map<String, Object> embedded = new LinkedHashMap<>();
         Object payload = format == ResponseFormat.COLUMNAR ? FrictionlessData.columnar(data, mapper) : data;
         embedded.put("events", payload);
         wrapper.put(embeddedKey, embedded);
-        wrapper.put(linksKey, buildLinks(body, offset, limit, count, total, format));
+        // An estimated total is only reported; paging links never rely on it
+        Long exactTotal = estimateTotal ? null : total;
+        wrapper.put(
+                linksKey,
+                buildLinks(body, offset, limit, count, exactTotal, fullPage, format, page.hasCursor(), nextCursor));
         return wrapper;
     }
 
+    /**
+     * Streaming export of the same search: rows go from a server-side cursor straight to the response, so memory
+     * stays flat and the first bytes leave before the query finishes. No paging envelope or total; {@code limit}
+     * (up to obsinity.search.stream.maxRows) caps the row count and {@code cursor} resumes after a previous row.
+     */
+    @PostMapping(
+            value = "/events/stream",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream(@RequestBody SearchBody body) {
+        validate(body);
+        OBJql ast = toOBJql(body);
+        int maxRows = (body.limit != null && body.limit > 0) ? Math.min(body.limit, streamMaxRows) : streamMaxRows;
+        OBJqlPage page = new OBJqlPage(0, maxRows);
+        if (body.cursor != null && !body.cursor.isBlank()) {
+            page = page.after(OBJqlPage.Cursor.decode(body.cursor));
+        }
+        List<FilterClause> filter = body.filter == null ? null : normalizeFilter(body.filter);
+        ResponseFormat format = ResponseFormat.defaulted(body.format);
+        log.info(
+                "POST /api/search/events/stream service={}, event={}, maxRows={}, format={}",
+                body.service,
+                body.event,
+                maxRows,
+                format.wireValue());
+
+        OBJqlPage streamPage = page;
+        StreamingResponseBody response = out -> {
+            SearchStreamWriter writer = new SearchStreamWriter(
+                    mapper.getFactory().createGenerator(out),
+                    format,
+                    streamChunkRows,
+                    filter == null ? null : row -> evalFilter(filter, hydrateEnvelope(row, body)));
+            try {
+                search.stream(ast, streamPage, writer);
+            } catch (RuntimeException ex) {
+                log.warn(
+                        "Search stream failed after {} rows service={}, event={}",
+                        writer.count(),
+                        body.service,
+                        body.event,
+                        ex);
+                try {
+                    writer.abort("search failed after " + writer.count() + " rows");
+                } catch (IOException io) {
+                    ex.addSuppressed(io);
+                }
+                throw ex;
+            }
+            writer.close();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(response);
+    }
+
     // -------------------------------------------------------------------------------------
     // DTOs
     // -------------------------------------------------------------------------------------
@@ -138,7 +232,10 @@ public class SearchController {
         public Integer limit; // defaulted by service
         public Long offset; // defaulted by service
         public ResponseFormat format; // row (default) | columnar
-        public Boolean includeTotal; // optional; when true compute exact total count
+        public Boolean includeTotal; // optional; when true compute total count
+        public String totalMode; // exact (default) | estimate (planner row estimate, constant time)
+        public String cursor; // optional; nextCursor from a previous page, takes precedence over offset
+        public List<String> select; // optional projection: envelope columns and/or attr.<path>
     }
 
     public static class Period {
@@ -216,7 +313,7 @@ public class SearchController {
 
         Integer limit = (b.limit != null && b.limit > 0) ? b.limit : null;
 
-        return OBJql.withDefaults(svc, b.event, tr, preds, sort, limit, null, attrExpr);
+        return OBJql.withDefaults(svc, b.event, tr, preds, sort, limit, b.select, attrExpr);
     }
 
     // -------------------------------------------------------------------------------------
@@ -303,27 +400,58 @@ public class SearchController {
     }
 
     private Map<String, Object> buildLinks(
-            SearchBody body, long offset, int limit, long count, Long total, ResponseFormat format) {
+            SearchBody body,
+            long offset,
+            int limit,
+            long count,
+            Long total,
+            boolean fullPage,
+            ResponseFormat format,
+            boolean seeking,
+            String nextCursor) {
         Map<String, Object> links = new LinkedHashMap<>();
-        links.put("self", linkFor(offset, limit, body, format));
-        links.put("first", linkFor(0, limit, body, format));
+        links.put("self", linkFor(offset, limit, body, format, body.cursor));
+        links.put("first", linkFor(0, limit, body, format, null));
         if (total != null && total > 0) {
             long lastOffset = Math.max(0, ((total - 1) / (long) limit) * (long) limit);
-            links.put("last", linkFor(lastOffset, limit, body, format));
+            links.put("last", linkFor(lastOffset, limit, body, format, null));
         }
+        // Cursors only move forward; a seeked page has no meaningful offset to step back from
         long prevOffset = Math.max(0, offset - (long) limit);
-        if (offset > 0) links.put("prev", linkFor(prevOffset, limit, body, format));
+        if (offset > 0 && !seeking) links.put("prev", linkFor(prevOffset, limit, body, format, null));
         long nextOffset = offset + (long) limit;
-        // Be robust if total is unknown (0): include next when page is full
-        if (total != null && total > 0) {
-            if (offset + count < total) links.put("next", linkFor(nextOffset, limit, body, format));
-        } else if (count >= limit) {
-            links.put("next", linkFor(nextOffset, limit, body, format));
+        // Without an exact total (none requested, estimated, or 0): include next when the unfiltered page is full
+        boolean hasNext = (total != null && total > 0 && !seeking) ? offset + count < total : fullPage;
+        if (hasNext) {
+            links.put("next", linkFor(nextOffset, limit, body, format, nextCursor));
         }
         return links;
     }
 
-    private Map<String, Object> linkFor(long off, int lim, SearchBody body, ResponseFormat format) {
+    private String nextCursor(List<Map<String, Object>> rows, int limit, OBJql ast) {
+        if (rows == null || rows.size() < limit) return null;
+        String sortField = ast.sort() == null ? "started_at" : ast.sort().field();
+        if (sortField != null && sortField.toLowerCase(Locale.ROOT).startsWith("received")) return null;
+        Map<String, Object> last = rows.get(rows.size() - 1);
+        Instant startedAt = toInstant(last.get("started_at"));
+        Object id = last.get("event_id");
+        if (startedAt == null || id == null) return null;
+        try {
+            UUID eventId = id instanceof UUID u ? u : UUID.fromString(String.valueOf(id));
+            return new OBJqlPage.Cursor(startedAt, eventId).encode();
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static Instant toInstant(Object v) {
+        if (v instanceof Timestamp ts) return ts.toInstant();
+        if (v instanceof OffsetDateTime odt) return odt.toInstant();
+        if (v instanceof Instant i) return i;
+        return null;
+    }
+
+    private Map<String, Object> linkFor(long off, int lim, SearchBody body, ResponseFormat format, String cursor) {
         Map<String, Object> link = new LinkedHashMap<>();
         link.put("href", "/api/search/events");
         link.put("method", "POST");
@@ -331,6 +459,11 @@ public class SearchController {
         Map<String, Object> b = mapper.convertValue(body, new TypeReference<Map<String, Object>>() {});
         b.put("offset", off);
         b.put("limit", lim);
+        if (cursor != null) {
+            b.put("cursor", cursor);
+        } else {
+            b.remove("cursor");
+        }
         if (format != null) {
             b.put("format", format.wireValue());
         }
@@ -0,0 +1,277 @@
+package com.obsinity.controller.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.obsinity.service.core.api.ResponseFormat;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Writes search rows straight from a {@link ResultSet} to a {@link JsonGenerator}, holding at most one chunk of
+ * rows in memory.
+ *
+ * <p>Row format: {@code {"format":"row","events":[{...},...],"count":n}}.
+ * <p>Columnar format: the Frictionless schema once, then column-major chunks of {@code chunkRows} rows:
+ * {@code {"format":"columnar","schema":{"fields":[...]},"chunks":[{"count":k,"data":{"col":[...]}}],"count":n}}.
+ *
+ * <p>JSON/JSONB columns are copied through as raw JSON text, never parsed.
+ *
+ * <p>A stream that fails part-way is ended with {@link #abort(String)}: {@code "error"} replaces the final
+ * {@code count}, so the rows sent so far can't be mistaken for a complete result.
+ */
+final class SearchStreamWriter implements RowCallbackHandler, Closeable {
+
+    private enum Kind {
+        INTEGER("integer"),
+        NUMBER("number"),
+        BOOLEAN("boolean"),
+        DATETIME("datetime"),
+        JSON("object"),
+        STRING("string");
+
+        final String fieldType;
+
+        Kind(String fieldType) {
+            this.fieldType = fieldType;
+        }
+    }
+
+    /** Raw JSON text from a json/jsonb column. */
+    record RawJson(String json) {
+        @Override
+        public String toString() {
+            return json;
+        }
+    }
+
+    private final JsonGenerator gen;
+    private final ResponseFormat format;
+    private final int chunkRows;
+    private final Predicate<Map<String, Object>> filter;
+
+    private String[] names;
+    private Kind[] kinds;
+    private Object[][] chunk;
+    private int buffered;
+    private long count;
+
+    /**
+     * @param filter optional predicate over a row map (column name to value); rows failing it are skipped
+     */
+    SearchStreamWriter(JsonGenerator gen, ResponseFormat format, int chunkRows, Predicate<Map<String, Object>> filter) {
+        this.gen = gen;
+        this.format = ResponseFormat.defaulted(format);
+        this.chunkRows = Math.max(1, chunkRows);
+        this.filter = filter;
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+        if (names == null) {
+            begin(rs.getMetaData());
+        }
+        Object[] row = format == ResponseFormat.COLUMNAR ? chunk[buffered] : new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            row[i] = read(rs, i + 1, kinds[i]);
+        }
+        if (filter != null && !filter.test(asMap(row))) {
+            return;
+        }
+        count++;
+        try {
+            if (format == ResponseFormat.COLUMNAR) {
+                if (++buffered == chunkRows) {
+                    writeChunk();
+                }
+            } else {
+                writeRowObject(row);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /** Finishes the document (also for an empty result) and closes the generator. */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (names == null) {
+                writeHeader(new String[0], new Kind[0]);
+            }
+            if (format == ResponseFormat.COLUMNAR && buffered > 0) {
+                writeChunk();
+            }
+            gen.writeEndArray();
+            gen.writeNumberField("count", count);
+            gen.writeEndObject();
+        } finally {
+            gen.close();
+        }
+    }
+
+    /**
+     * Ends the document after a failure instead of {@link #close()}: closes the open array, writes {@code "error"}
+     * and no {@code count}, then closes the generator. Buffered columnar rows are dropped. When the failure left the
+     * generator inside a row the document is left truncated rather than auto-completed.
+     */
+    void abort(String error) throws IOException {
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        try {
+            if (names == null) {
+                writeHeader(new String[0], new Kind[0]);
+            }
+            JsonStreamContext ctx = gen.getOutputContext();
+            if (ctx.inArray()
+                    && ctx.getParent() != null
+                    && ctx.getParent().getParent() != null
+                    && ctx.getParent().getParent().inRoot()) {
+                gen.writeEndArray();
+                gen.writeStringField("error", error);
+                gen.writeEndObject();
+            }
+        } finally {
+            gen.close();
+        }
+    }
+
+    long count() {
+        return count;
+    }
+
+    private void begin(ResultSetMetaData meta) throws SQLException {
+        int columns = meta.getColumnCount();
+        String[] columnNames = new String[columns];
+        Kind[] columnKinds = new Kind[columns];
+        for (int i = 0; i < columns; i++) {
+            columnNames[i] = meta.getColumnLabel(i + 1);
+            columnKinds[i] = kindOf(meta.getColumnType(i + 1), meta.getColumnTypeName(i + 1));
+        }
+        if (format == ResponseFormat.COLUMNAR) {
+            chunk = new Object[chunkRows][columns];
+        }
+        try {
+            writeHeader(columnNames, columnKinds);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void writeHeader(String[] columnNames, Kind[] columnKinds) throws IOException {
+        names = columnNames;
+        kinds = columnKinds;
+        gen.writeStartObject();
+        gen.writeStringField("format", format.wireValue());
+        if (format == ResponseFormat.COLUMNAR) {
+            gen.writeObjectFieldStart("schema");
+            gen.writeArrayFieldStart("fields");
+            for (int i = 0; i < names.length; i++) {
+                gen.writeStartObject();
+                gen.writeStringField("name", names[i]);
+                gen.writeStringField("type", kinds[i].fieldType);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+            gen.writeArrayFieldStart("chunks");
+        } else {
+            gen.writeArrayFieldStart("events");
+        }
+    }
+
+    private void writeRowObject(Object[] row) throws IOException {
+        gen.writeStartObject();
+        for (int i = 0; i < names.length; i++) {
+            gen.writeFieldName(names[i]);
+            writeValue(row[i]);
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeChunk() throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("count", buffered);
+        gen.writeObjectFieldStart("data");
+        for (int c = 0; c < names.length; c++) {
+            gen.writeArrayFieldStart(names[c]);
+            for (int r = 0; r < buffered; r++) {
+                writeValue(chunk[r][c]);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+        gen.writeEndObject();
+        buffered = 0;
+        // Push each chunk to the client instead of waiting for the servlet buffer to fill
+        gen.flush();
+    }
+
+    private void writeValue(Object v) throws IOException {
+        if (v == null) {
+            gen.writeNull();
+        } else if (v instanceof RawJson raw) {
+            gen.writeRawValue(raw.json());
+        } else if (v instanceof Long l) {
+            gen.writeNumber(l);
+        } else if (v instanceof BigDecimal d) {
+            gen.writeNumber(d);
+        } else if (v instanceof Boolean b) {
+            gen.writeBoolean(b);
+        } else {
+            gen.writeString(v.toString());
+        }
+    }
+
+    private Map<String, Object> asMap(Object[] row) {
+        Map<String, Object> map = new LinkedHashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            Object v = row[i];
+            map.put(names[i], v instanceof RawJson raw ? raw.json() : v);
+        }
+        return map;
+    }
+
+    private static Object read(ResultSet rs, int index, Kind kind) throws SQLException {
+        Object value =
+                switch (kind) {
+                    case INTEGER -> rs.getLong(index);
+                    case NUMBER -> rs.getBigDecimal(index);
+                    case BOOLEAN -> rs.getBoolean(index);
+                    case DATETIME -> {
+                        Timestamp ts = rs.getTimestamp(index);
+                        yield ts == null ? null : ts.toInstant();
+                    }
+                    case JSON -> {
+                        String json = rs.getString(index);
+                        yield json == null ? null : new RawJson(json);
+                    }
+                    case STRING -> rs.getString(index);
+                };
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Kind kindOf(int sqlType, String typeName) {
+        String name = typeName == null ? "" : typeName.toLowerCase(Locale.ROOT);
+        if (name.equals("json") || name.equals("jsonb")) {
+            return Kind.JSON;
+        }
+        return switch (sqlType) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> Kind.INTEGER;
+            case Types.NUMERIC, Types.DECIMAL, Types.DOUBLE, Types.FLOAT, Types.REAL -> Kind.NUMBER;
+            case Types.BOOLEAN, Types.BIT -> Kind.BOOLEAN;
+            case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE, Types.DATE -> Kind.DATETIME;
+            default -> Kind.STRING;
+        };
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.obsinity.service.core.deadletter.IngestDeadLetterTable;
 import com.obsinity.service.core.ingest.EventEnvelopeMapper;
+import com.obsinity.service.core.ingest.IngestAdmissionController;
 import com.obsinity.service.core.model.EventEnvelope;
 import com.obsinity.service.core.spi.EventIngestService;
 import java.util.ArrayList;
@@ -32,21 +33,26 @@ public class UnifiedPublishController {
     private final ObjectMapper mapper;
     private final IngestDeadLetterTable ingestDeadLetters;
     private final EventEnvelopeMapper envelopeMapper;
+    private final IngestAdmissionController admission;
 
     public UnifiedPublishController(
             EventIngestService ingest,
             ObjectMapper mapper,
             IngestDeadLetterTable ingestDeadLetters,
-            EventEnvelopeMapper envelopeMapper) {
+            EventEnvelopeMapper envelopeMapper,
+            IngestAdmissionController admission) {
         this.ingest = ingest;
         this.mapper = mapper;
         this.ingestDeadLetters = ingestDeadLetters;
         this.envelopeMapper = envelopeMapper;
+        this.admission = admission;
     }
 
     @PostMapping("/publish")
     @ResponseStatus(HttpStatus.ACCEPTED)
     public Map<String, Object> publishOne(@RequestBody String body) {
+        // Refuse before parsing so an overloaded pipeline spends nothing on the request.
+        admission.admit();
         JsonNode payload = parseBody(body, SOURCE_PUBLISH_ONE);
         try {
             EventEnvelope env = envelopeMapper.fromJson(payload);
@@ -61,6 +67,7 @@ public class UnifiedPublishController {
     @PostMapping("/publish/batch")
     @ResponseStatus(HttpStatus.ACCEPTED)
     public Map<String, Object> publishBatch(@RequestBody String body) {
+        admission.admit();
         JsonNode payload = parseBody(body, SOURCE_PUBLISH_BATCH);
         if (!payload.isArray()) {
             IllegalArgumentException invalidPayload =
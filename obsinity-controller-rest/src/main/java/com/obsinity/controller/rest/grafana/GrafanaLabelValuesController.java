@@ -26,6 +26,7 @@ public class GrafanaLabelValuesController {
     public List<String> listLabelValues(
             @RequestParam("label") String label,
             @RequestParam("serviceKey") String serviceKey,
+            @RequestParam(value = "search", required = false) String search,
             @RequestParam(value = "limit", required = false, defaultValue = "200") int limit) {
         if (label == null || label.isBlank()) {
             throw new IllegalArgumentException("label is required");
@@ -40,7 +41,10 @@ public class GrafanaLabelValuesController {
         String partitionKey = services.findPartitionKeyByServiceKey(serviceKey);
         String svc = (partitionKey == null || partitionKey.isBlank()) ? serviceKey : partitionKey;
 
-        List<Map<String, Object>> rows = repo.list(svc, label, null, 0, limit);
+        // Dropdown type-ahead: substring match, served by the trigram index when pg_trgm is installed
+        List<Map<String, Object>> rows = search == null || search.isBlank()
+                ? repo.list(svc, label, null, 0, limit)
+                : repo.listContaining(svc, label, search.trim(), 0, limit);
         return rows.stream()
                 .map(row -> row.get("attr_value"))
                 .filter(String.class::isInstance)
@@ -9,6 +9,8 @@ import com.obsinity.service.core.counter.CounterQueryRequest;
 import com.obsinity.service.core.counter.CounterQueryResult;
 import com.obsinity.service.core.counter.CounterQueryService;
 import com.obsinity.service.core.counter.CounterQueryWindow;
+import com.obsinity.service.core.counter.CounterTopKRequest;
+import com.obsinity.service.core.counter.CounterTopKResult;
 import com.obsinity.service.core.counter.DurationParser;
 import com.obsinity.service.core.histogram.HistogramQueryRequest;
 import com.obsinity.service.core.histogram.HistogramQueryResult;
@@ -23,12 +25,23 @@ import com.obsinity.service.core.state.query.StateCountQueryService;
 import com.obsinity.service.core.state.query.StateCountTimeseriesQueryRequest;
 import com.obsinity.service.core.state.query.StateCountTimeseriesQueryResult;
 import com.obsinity.service.core.state.query.StateCountTimeseriesQueryService;
+import jakarta.annotation.PreDestroy;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -42,6 +55,8 @@ public class GrafanaQueryController {
     private static final String KIND_STATE_COUNT = "state_count";
     private static final String KIND_STATE_COUNT_SNAPSHOT = "state_count_snapshot";
     private static final String KIND_EVENT_COUNT = "event_count";
+    private static final String KIND_EVENT_COUNT_TOPK = "event_count_topk";
+    private static final int DEFAULT_TOPK_LIMIT = 10;
     private static final String FORMAT_TABLE = "table";
     private static final int DEFAULT_TIMESERIES_POINT_CAP = 1440;
     private static final Duration STATE_TIMESERIES_STEP = Duration.ofMinutes(1);
@@ -61,6 +76,8 @@ public class GrafanaQueryController {
     private final RatioQueryService ratioQueryService;
     private final ObjectMapper objectMapper;
     private final int timeseriesPointCap;
+    private final ExecutorService targetExecutor;
+    private final ConcurrentHashMap<TargetKey, CompletableFuture<GrafanaResult>> inFlight = new ConcurrentHashMap<>();
 
     public GrafanaQueryController(
             HistogramQueryService histogramQueryService,
@@ -70,7 +87,8 @@ public class GrafanaQueryController {
             com.obsinity.service.core.state.query.StateTransitionQueryService stateTransitionQueryService,
             RatioQueryService ratioQueryService,
             ObjectMapper objectMapper,
-            @Value("${obsinity.grafana.timeseries.max-data-points-cap:1440}") int timeseriesPointCap) {
+            @Value("${obsinity.grafana.timeseries.max-data-points-cap:1440}") int timeseriesPointCap,
+            @Value("${obsinity.grafana.query.parallelism:4}") int parallelism) {
         this.histogramQueryService = histogramQueryService;
         this.stateCountTimeseriesQueryService = stateCountTimeseriesQueryService;
         this.stateCountQueryService = stateCountQueryService;
@@ -79,6 +97,34 @@ public class GrafanaQueryController {
         this.ratioQueryService = ratioQueryService;
         this.objectMapper = objectMapper;
         this.timeseriesPointCap = timeseriesPointCap > 0 ? timeseriesPointCap : DEFAULT_TIMESERIES_POINT_CAP;
+        this.targetExecutor = parallelism > 1 ? newTargetExecutor(parallelism) : null;
+    }
+
+    /**
+     * Fixed pool shared by all panel requests. The queue is bounded and overflow runs on the request thread, so a
+     * burst of dashboards degrades to sequential execution instead of queueing without limit.
+     */
+    private static ExecutorService newTargetExecutor(int parallelism) {
+        AtomicInteger seq = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                parallelism,
+                parallelism,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(parallelism * 16),
+                r -> {
+                    Thread t = new Thread(r, "obsinity-grafana-query-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (targetExecutor != null) {
+            targetExecutor.shutdown();
+        }
     }
 
     @PostMapping(path = "/query", consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -92,34 +138,150 @@ public class GrafanaQueryController {
             return new GrafanaQueryResponse(Map.of(), null);
         }
 
-        for (GrafanaSubQuery query : request.queries()) {
-            if (query == null) {
-                continue;
+        List<GrafanaSubQuery> targets =
+                request.queries().stream().filter(q -> q != null).toList();
+        GrafanaResult[] resolved = new GrafanaResult[targets.size()];
+        if (targetExecutor == null || targets.size() < 2) {
+            for (int i = 0; i < targets.size(); i++) {
+                resolved[i] = runTarget(range, request, targets.get(i));
             }
-            String refId = query.refId();
+        } else {
+            // All but the last target go to the pool; the request thread runs the last one meanwhile.
+            int last = targets.size() - 1;
+            List<CompletableFuture<GrafanaResult>> pending = new ArrayList<>(last);
+            for (int i = 0; i < last; i++) {
+                GrafanaSubQuery query = targets.get(i);
+                pending.add(CompletableFuture.supplyAsync(() -> runTarget(range, request, query), targetExecutor));
+            }
+            resolved[last] = runTarget(range, request, targets.get(last));
+            for (int i = 0; i < last; i++) {
+                resolved[i] = await(pending.get(i));
+            }
+        }
+
+        for (int i = 0; i < targets.size(); i++) {
+            GrafanaSubQuery query = targets.get(i);
+            GrafanaResult result = resolved[i];
+            results.put(query.refId(), result);
             String kind = query.kind();
+            if (rows == null
+                    && result.rows() != null
+                    && (KIND_HISTOGRAM.equals(kind) || KIND_STATE_COUNT_SNAPSHOT.equals(kind))) {
+                rows = result.rows();
+            }
+        }
+
+        return new GrafanaQueryResponse(results, rows);
+    }
+
+    /**
+     * Identity of one panel target for single-flight coalescing: everything that shapes the result except the
+     * refId, which is stamped back onto the frames per caller.
+     */
+    private record TargetKey(GrafanaSubQuery query, long fromMs, long toMs, Long intervalMs, Integer maxDataPoints) {}
+
+    private GrafanaResult runTarget(
+            GrafanaRangeResolver.ResolvedRange range, GrafanaQueryRequest request, GrafanaSubQuery query) {
+        String kind = query.kind();
+        if (!KIND_HISTOGRAM.equals(kind)
+                && !KIND_STATE_COUNT.equals(kind)
+                && !KIND_STATE_COUNT_SNAPSHOT.equals(kind)
+                && !KIND_EVENT_COUNT.equals(kind)
+                && !KIND_EVENT_COUNT_TOPK.equals(kind)) {
+            return new GrafanaResult(List.of(), null);
+        }
+        TargetKey key = new TargetKey(
+                withRefId(query, null), range.fromMs(), range.toMs(), request.intervalMs(), request.maxDataPoints());
+        GrafanaResult shared = singleFlight(key, () -> {
+            GrafanaSubQuery anonymous = key.query();
             if (KIND_HISTOGRAM.equals(kind)) {
-                GrafanaResult result = runHistogram(range, request, query);
-                results.put(refId, result);
-                if (rows == null && result.rows() != null) {
-                    rows = result.rows();
-                }
+                return runHistogram(range, request, anonymous);
             } else if (KIND_STATE_COUNT.equals(kind)) {
-                results.put(refId, runStateCount(range, request, query));
+                return runStateCount(range, request, anonymous);
             } else if (KIND_STATE_COUNT_SNAPSHOT.equals(kind)) {
-                GrafanaResult result = runStateCountSnapshot(request, query);
-                results.put(refId, result);
-                if (rows == null && result.rows() != null) {
-                    rows = result.rows();
-                }
-            } else if (KIND_EVENT_COUNT.equals(kind)) {
-                results.put(refId, runEventCount(range, request, query));
-            } else {
-                results.put(refId, new GrafanaResult(List.of(), null));
+                return runStateCountSnapshot(request, anonymous);
+            } else if (KIND_EVENT_COUNT_TOPK.equals(kind)) {
+                return runEventCountTopK(range, request, anonymous);
             }
+            return runEventCount(range, request, anonymous);
+        });
+        return withRefId(shared, query.refId());
+    }
+
+    /**
+     * Runs {@code work} unless an identical target is already executing, in which case this caller waits for and
+     * shares that result. Keys are only registered by a thread that is already running, so waiters can never
+     * block the leader they are waiting for.
+     */
+    private GrafanaResult singleFlight(TargetKey key, Supplier<GrafanaResult> work) {
+        CompletableFuture<GrafanaResult> mine = new CompletableFuture<>();
+        CompletableFuture<GrafanaResult> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            return await(leader);
         }
+        try {
+            GrafanaResult result = work.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
 
-        return new GrafanaQueryResponse(results, rows);
+    private static GrafanaResult await(CompletableFuture<GrafanaResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+
+    private static GrafanaResult withRefId(GrafanaResult result, String refId) {
+        if (result.frames() == null || result.frames().isEmpty()) {
+            return result;
+        }
+        List<Frame> frames = result.frames().stream()
+                .map(frame -> frame.schema() == null
+                        ? frame
+                        : new Frame(
+                                new Schema(
+                                        refId,
+                                        frame.schema().name(),
+                                        frame.schema().fields()),
+                                frame.data(),
+                                frame.fields(),
+                                frame.values()))
+                .toList();
+        return new GrafanaResult(frames, result.rows());
+    }
+
+    private static GrafanaSubQuery withRefId(GrafanaSubQuery query, String refId) {
+        return new GrafanaSubQuery(
+                refId,
+                query.kind(),
+                query.format(),
+                query.bucket(),
+                query.serviceKey(),
+                query.eventType(),
+                query.histogramName(),
+                query.filters(),
+                query.percentiles(),
+                query.groupBy(),
+                query.objectType(),
+                query.attribute(),
+                query.states(),
+                query.counterName(),
+                query.limit());
     }
 
     @PostMapping(path = "/histograms", consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -146,6 +308,12 @@ public class GrafanaQueryController {
         return rowsOnly(runEventCount(query.range(), query.request(), query.query()));
     }
 
+    @PostMapping(path = "/event-counts/top", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<Map<String, Object>> eventCountsTop(@RequestBody JsonNode requestBody) {
+        SingleQuery query = parseSingleQuery(requestBody, KIND_EVENT_COUNT_TOPK);
+        return rowsOnly(runEventCountTopK(query.range(), query.request(), query.query()));
+    }
+
     @PostMapping(path = "/state-transitions", consumes = MediaType.APPLICATION_JSON_VALUE)
     public List<Map<String, Object>> stateTransitions(@RequestBody JsonNode requestBody) {
         GrafanaStateTransitionRequest request = parseStateTransitionRequest(requestBody);
@@ -430,8 +598,11 @@ public class GrafanaQueryController {
                         ? query.percentiles()
                         : result.defaultPercentiles();
 
+        // Frames and the flat percentile rows are filled in the same pass over the windows.
         Map<String, FrameBuilder> frames = new LinkedHashMap<>();
+        Map<String, Map<String, Object>> rowsByTime = new LinkedHashMap<>();
         for (HistogramQueryWindow window : result.windows()) {
+            String time = window.from();
             for (HistogramQueryWindow.Series series : window.series()) {
                 Map<Double, Double> values = series.percentiles();
                 if (values == null || values.isEmpty()) {
@@ -455,11 +626,21 @@ public class GrafanaQueryController {
                     FrameBuilder frame = frames.computeIfAbsent(
                             name, n -> FrameBuilder.timeSeries(query.refId(), n, "value", labels));
                     frame.addRow(window.from(), value);
+                    if (time != null) {
+                        rowsByTime
+                                .computeIfAbsent(time, t -> {
+                                    Map<String, Object> map = new LinkedHashMap<>();
+                                    map.put("time", t);
+                                    return map;
+                                })
+                                .put(percentileLabel, value);
+                    }
                 }
             }
         }
 
-        List<Map<String, Object>> rows = buildPercentileRows(result, percentiles);
+        List<Map<String, Object>> rows =
+                result.windows().isEmpty() ? null : rowsByTime.values().stream().toList();
         return new GrafanaResult(
                 frames.values().stream().map(FrameBuilder::build).toList(), rows);
     }
@@ -612,74 +793,86 @@ public class GrafanaQueryController {
 
         CounterQueryResult result = counterQueryService.runQuery(payload);
         Map<String, FrameBuilder> frames = new LinkedHashMap<>();
-        List<Map<String, Object>> rows = result.windows().stream()
-                .flatMap(window -> window.counts().stream()
-                        .filter(entry -> entry.count() > 0)
-                        .map(entry -> {
-                            Map<String, Object> row = new LinkedHashMap<>();
-                            row.put("from", window.from());
-                            row.put("to", window.to());
-                            if (entry.key() != null) {
-                                row.putAll(entry.key());
-                            }
-                            row.put("count", entry.count());
-                            return row;
-                        }))
-                .toList();
-
+        List<Map<String, Object>> rows = new ArrayList<>();
+        String name = query.eventType() + ".count";
         for (CounterQueryWindow window : result.windows()) {
             for (CounterQueryWindow.CountEntry entry : window.counts()) {
                 Map<String, String> labels = entry.key() != null ? entry.key() : Map.of();
-                String name = query.eventType() + ".count";
                 String frameKey = name + labels.toString();
                 FrameBuilder frame = frames.computeIfAbsent(
                         frameKey, n -> FrameBuilder.timeSeries(query.refId(), name, "count", labels));
                 frame.addRow(window.from(), entry.count());
+                if (entry.count() > 0) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("from", window.from());
+                    row.put("to", window.to());
+                    row.putAll(labels);
+                    row.put("count", entry.count());
+                    rows.add(row);
+                }
             }
         }
 
         return new GrafanaResult(
-                frames.values().stream().map(FrameBuilder::build).toList(), rows);
+                frames.values().stream().map(FrameBuilder::build).toList(), List.copyOf(rows));
     }
 
-    private List<Map<String, Object>> buildPercentileRows(HistogramQueryResult result, List<Double> percentiles) {
-        if (result == null || result.windows() == null || result.windows().isEmpty()) {
-            return null;
-        }
-        Map<String, Map<String, Object>> rows = new LinkedHashMap<>();
-        for (HistogramQueryWindow window : result.windows()) {
-            String time = window.from();
-            if (time == null) {
-                continue;
-            }
-            boolean hasAnyPercentileValue = false;
-            Map<String, Object> row = rows.computeIfAbsent(time, t -> {
-                Map<String, Object> map = new LinkedHashMap<>();
-                map.put("time", t);
-                return map;
-            });
-            for (HistogramQueryWindow.Series series : window.series()) {
-                Map<Double, Double> values = series.percentiles();
-                if (values == null || values.isEmpty()) {
-                    continue;
-                }
-                for (Double percentile : percentiles) {
-                    if (percentile == null) {
-                        continue;
-                    }
-                    Double value = values.get(percentile);
-                    if (value == null) {
-                        continue;
-                    }
-                    row.put(toPercentileLabel(percentile), value);
-                    hasAnyPercentileValue = true;
-                }
+    /**
+     * Top-N keys of a counter over the panel range as one table frame (key labels, count, error), served from the
+     * heavy-hitter summaries. The panel interval aligns the range; the summaries come from the coarsest buckets that
+     * tile it.
+     */
+    private GrafanaResult runEventCountTopK(
+            GrafanaRangeResolver.ResolvedRange range, GrafanaQueryRequest request, GrafanaSubQuery query) {
+        String bucket = GrafanaBucketResolver.resolveBucket(
+                query.bucket(),
+                request.intervalMs(),
+                request.maxDataPoints(),
+                range.fromMs(),
+                range.toMs(),
+                COUNTER_BUCKETS);
+        String counterName =
+                query.counterName() != null && !query.counterName().isBlank() ? query.counterName() : "event_count";
+        int limit = query.limit() != null && query.limit() > 0 ? query.limit() : DEFAULT_TOPK_LIMIT;
+
+        CounterTopKResult result = counterQueryService.runTopKQuery(new CounterTopKRequest(
+                query.serviceKey(),
+                query.eventType(),
+                counterName,
+                bucket,
+                Instant.ofEpochMilli(range.fromMs()).toString(),
+                Instant.ofEpochMilli(range.toMs()).toString(),
+                limit));
+
+        List<String> keyNames = new ArrayList<>();
+        for (CounterTopKResult.Entry entry : result.entries()) {
+            if (entry.key() != null) {
+                entry.key().keySet().stream().filter(k -> !keyNames.contains(k)).forEach(keyNames::add);
             }
-            if (!hasAnyPercentileValue) {
-                rows.remove(time);
+        }
+        List<Field> fields = new ArrayList<>();
+        keyNames.forEach(k -> fields.add(new Field(k, "string", Map.of(), null, null)));
+        fields.add(new Field("count", "number", Map.of(), null, null));
+        fields.add(new Field("error", "number", Map.of(), null, null));
+        FrameBuilder table = FrameBuilder.table(query.refId(), counterName + ".top", fields);
+
+        List<Map<String, Object>> rows = new ArrayList<>(result.entries().size());
+        for (CounterTopKResult.Entry entry : result.entries()) {
+            Map<String, String> key = entry.key() != null ? entry.key() : Map.of();
+            Object[] values = new Object[fields.size()];
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < keyNames.size(); i++) {
+                values[i] = key.get(keyNames.get(i));
+                row.put(keyNames.get(i), values[i]);
             }
+            values[keyNames.size()] = entry.count();
+            values[keyNames.size() + 1] = entry.error();
+            row.put("count", entry.count());
+            row.put("error", entry.error());
+            table.addRow(values);
+            rows.add(row);
         }
-        return rows.values().stream().toList();
+        return new GrafanaResult(List.of(table.build()), List.copyOf(rows));
     }
 
     private int resolveLimit(GrafanaRangeResolver.ResolvedRange range, String bucket, Integer maxDataPoints) {
@@ -821,7 +1014,9 @@ public class GrafanaQueryController {
                 query.groupBy(),
                 query.objectType(),
                 query.attribute(),
-                query.states());
+                query.states(),
+                query.counterName(),
+                query.limit());
     }
 
     private record SingleQuery(
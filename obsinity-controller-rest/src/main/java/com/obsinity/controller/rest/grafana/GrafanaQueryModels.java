@@ -35,7 +35,9 @@ public final class GrafanaQueryModels {
             List<String> groupBy,
             String objectType,
             String attribute,
-            List<String> states) {}
+            List<String> states,
+            String counterName,
+            @JsonDeserialize(using = FlexibleIntegerDeserializer.class) Integer limit) {}
 
     public record GrafanaQueryResponse(Map<String, GrafanaResult> results, List<Map<String, Object>> rows) {}
 
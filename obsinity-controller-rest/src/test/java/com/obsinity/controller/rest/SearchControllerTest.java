@@ -1,21 +1,33 @@
 package com.obsinity.controller.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.obsinity.service.core.objql.OBJql;
 import com.obsinity.service.core.objql.OBJqlPage;
 import com.obsinity.service.core.repo.ServicesCatalogRepository;
 import com.obsinity.service.core.search.SearchService;
+import java.io.ByteArrayOutputStream;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
 class SearchControllerTest {
 
@@ -66,4 +78,105 @@ class SearchControllerTest {
         assertThat(response).containsEntry("total", 42L);
         verify(search).query(any(OBJql.class), any(OBJqlPage.class), eq(true));
     }
+
+    @Test
+    void estimatesTotalAndReturnsSeekCursorForFullPages() {
+        SearchService search = mock(SearchService.class);
+        ServicesCatalogRepository services = mock(ServicesCatalogRepository.class);
+        UUID lastId = UUID.fromString("00000000-0000-0000-0000-000000000002");
+        Instant lastStarted = Instant.parse("2026-04-07T13:00:00Z");
+        when(search.query(any(OBJql.class), any(OBJqlPage.class), eq(false)))
+                .thenReturn(List.of(
+                        Map.of("event_id", UUID.randomUUID(), "started_at", Timestamp.from(lastStarted.plusSeconds(1))),
+                        Map.of("event_id", lastId, "started_at", Timestamp.from(lastStarted))));
+        when(search.estimateCount(any(OBJql.class))).thenReturn(1_000_000L);
+
+        SearchController controller = new SearchController(search, new ObjectMapper(), services, "data", "links");
+        SearchController.SearchBody body = new SearchController.SearchBody();
+        body.service = "payments";
+        body.event = "user_profile.updated";
+        body.period = new SearchController.Period();
+        body.period.previous = "-30m";
+        body.limit = 2;
+        body.includeTotal = true;
+        body.totalMode = "estimate";
+
+        Map<String, Object> response = controller.search(body);
+
+        assertThat(response).containsEntry("total", 1_000_000L).containsEntry("totalEstimated", true);
+        String cursor = (String) response.get("nextCursor");
+        assertThat(OBJqlPage.Cursor.decode(cursor)).isEqualTo(new OBJqlPage.Cursor(lastStarted, lastId));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> next = (Map<String, Object>) ((Map<String, Object>) response.get("links")).get("next");
+        assertThat((Map<String, Object>) next.get("body")).containsEntry("cursor", cursor);
+        verify(search, never()).query(any(OBJql.class), any(OBJqlPage.class), eq(true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void estimatedTotalDoesNotDrivePagingLinks() {
+        SearchService search = mock(SearchService.class);
+        ServicesCatalogRepository services = mock(ServicesCatalogRepository.class);
+        when(search.query(any(OBJql.class), any(OBJqlPage.class), eq(false)))
+                .thenReturn(List.of(Map.of(
+                        "event_id",
+                        UUID.randomUUID(),
+                        "started_at",
+                        Timestamp.from(Instant.parse("2026-04-07T13:00:00Z")))));
+        when(search.estimateCount(any(OBJql.class))).thenReturn(1_000_000L);
+
+        SearchController controller = new SearchController(search, new ObjectMapper(), services, "data", "links");
+        SearchController.SearchBody body = new SearchController.SearchBody();
+        body.service = "payments";
+        body.event = "user_profile.updated";
+        body.period = new SearchController.Period();
+        body.period.previous = "-30m";
+        body.limit = 2;
+        body.includeTotal = true;
+        body.totalMode = "estimate";
+
+        Map<String, Object> response = controller.search(body);
+
+        assertThat(response).containsEntry("total", 1_000_000L).doesNotContainKey("nextCursor");
+        assertThat((Map<String, Object>) response.get("links"))
+                .containsKeys("self", "first")
+                .doesNotContainKeys("next", "last");
+    }
+
+    @Test
+    void failedStreamReportsErrorInsteadOfFinalCount() throws Exception {
+        SearchService search = mock(SearchService.class);
+        ServicesCatalogRepository services = mock(ServicesCatalogRepository.class);
+        ResultSetMetaData meta = mock(ResultSetMetaData.class);
+        when(meta.getColumnCount()).thenReturn(1);
+        when(meta.getColumnLabel(1)).thenReturn("event_id");
+        when(meta.getColumnType(1)).thenReturn(Types.VARCHAR);
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getMetaData()).thenReturn(meta);
+        when(rs.getString(1)).thenReturn("e1");
+        doAnswer(inv -> {
+                    RowCallbackHandler handler = inv.getArgument(2);
+                    handler.processRow(rs);
+                    handler.processRow(rs);
+                    throw new DataAccessResourceFailureException("connection reset");
+                })
+                .when(search)
+                .stream(any(OBJql.class), any(OBJqlPage.class), any(RowCallbackHandler.class));
+
+        SearchController controller = new SearchController(search, new ObjectMapper(), services, "data", "links");
+        SearchController.SearchBody body = new SearchController.SearchBody();
+        body.service = "payments";
+        body.event = "user_profile.updated";
+        body.period = new SearchController.Period();
+        body.period.previous = "-30m";
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThatThrownBy(() -> controller.stream(body).getBody().writeTo(out))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        JsonNode json = new ObjectMapper().readTree(out.toString());
+        assertThat(json.path("events")).hasSize(2);
+        assertThat(json.has("count")).isFalse();
+        assertThat(json.path("error").asText()).isEqualTo("search failed after 2 rows");
+    }
 }
@@ -0,0 +1,89 @@
+package com.obsinity.controller.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.obsinity.service.core.api.ResponseFormat;
+import java.io.StringWriter;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class SearchStreamWriterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void writesColumnarChunksAndPassesJsonThrough() throws Exception {
+        ResultSet rs = resultSet();
+        StringWriter out = new StringWriter();
+
+        try (SearchStreamWriter writer =
+                new SearchStreamWriter(mapper.getFactory().createGenerator(out), ResponseFormat.COLUMNAR, 2, null)) {
+            for (int i = 0; i < 3; i++) {
+                when(rs.getString(1)).thenReturn("e" + i);
+                when(rs.getTimestamp(2)).thenReturn(Timestamp.from(Instant.parse("2026-04-07T13:00:00Z")));
+                when(rs.getString(3)).thenReturn("{\"http\":{\"status\":" + (200 + i) + "}}");
+                writer.processRow(rs);
+            }
+        }
+
+        JsonNode json = mapper.readTree(out.toString());
+        assertThat(json.path("count").asLong()).isEqualTo(3);
+        assertThat(json.path("schema").path("fields").get(1).path("type").asText())
+                .isEqualTo("datetime");
+        assertThat(json.path("chunks")).hasSize(2);
+        assertThat(json.path("chunks").get(0).path("data").path("event_id").toString())
+                .isEqualTo("[\"e0\",\"e1\"]");
+        assertThat(json.path("chunks")
+                        .get(1)
+                        .path("data")
+                        .path("attributes")
+                        .get(0)
+                        .path("http")
+                        .path("status")
+                        .asInt())
+                .isEqualTo(202);
+    }
+
+    @Test
+    void skipsRowsRejectedByFilterAndClosesEmptyDocuments() throws Exception {
+        ResultSet rs = resultSet();
+        when(rs.getString(1)).thenReturn("e0");
+        StringWriter out = new StringWriter();
+
+        try (SearchStreamWriter writer =
+                new SearchStreamWriter(mapper.getFactory().createGenerator(out), ResponseFormat.ROW, 2, row -> false)) {
+            writer.processRow(rs);
+        }
+
+        assertThat(mapper.readTree(out.toString()).path("events")).isEmpty();
+
+        StringWriter empty = new StringWriter();
+        new SearchStreamWriter(mapper.getFactory().createGenerator(empty), ResponseFormat.ROW, 2, null).close();
+        assertThat(mapper.readTree(empty.toString()).path("count").asLong()).isZero();
+    }
+
+    private static ResultSet resultSet() throws Exception {
+        ResultSetMetaData meta = mock(ResultSetMetaData.class);
+        when(meta.getColumnCount()).thenReturn(3);
+        when(meta.getColumnLabel(1)).thenReturn("event_id");
+        when(meta.getColumnType(1)).thenReturn(Types.OTHER);
+        when(meta.getColumnTypeName(1)).thenReturn("uuid");
+        when(meta.getColumnLabel(2)).thenReturn("started_at");
+        when(meta.getColumnType(2)).thenReturn(Types.TIMESTAMP);
+        when(meta.getColumnTypeName(2)).thenReturn("timestamptz");
+        when(meta.getColumnLabel(3)).thenReturn("attributes");
+        when(meta.getColumnType(3)).thenReturn(Types.OTHER);
+        when(meta.getColumnTypeName(3)).thenReturn("jsonb");
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getMetaData()).thenReturn(meta);
+        return rs;
+    }
+}
@@ -0,0 +1,108 @@
+package com.obsinity.controller.rest.grafana;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.obsinity.controller.rest.grafana.GrafanaQueryModels.GrafanaQueryResponse;
+import com.obsinity.service.core.counter.CounterQueryRequest;
+import com.obsinity.service.core.counter.CounterQueryResult;
+import com.obsinity.service.core.counter.CounterQueryService;
+import com.obsinity.service.core.counter.CounterQueryWindow;
+import com.obsinity.service.core.histogram.HistogramQueryService;
+import com.obsinity.service.core.state.query.RatioQueryService;
+import com.obsinity.service.core.state.query.StateCountQueryService;
+import com.obsinity.service.core.state.query.StateCountTimeseriesQueryService;
+import com.obsinity.service.core.state.query.StateTransitionQueryService;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class GrafanaQueryControllerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void parallelTargetsProduceTheSameResponseAsSequential() throws Exception {
+        CounterQueryService counters = mock(CounterQueryService.class);
+        when(counters.runQuery(any())).thenAnswer(inv -> counts(inv.getArgument(0)));
+        JsonNode body = panel("A", "checkout", "B", "login", "C", "logout");
+
+        GrafanaQueryResponse sequential = controller(counters, 1).query(body);
+        GrafanaQueryResponse parallel = controller(counters, 4).query(body);
+
+        assertThat(parallel.results()).containsOnlyKeys("A", "B", "C");
+        assertThat(List.copyOf(parallel.results().keySet())).containsExactly("A", "B", "C");
+        assertThat(mapper.writeValueAsString(parallel)).isEqualTo(mapper.writeValueAsString(sequential));
+        assertThat(parallel.results().get("B").frames().get(0).schema().name()).isEqualTo("login.count");
+    }
+
+    @Test
+    void identicalInFlightTargetsShareOneQuery() {
+        CounterQueryService counters = mock(CounterQueryService.class);
+        when(counters.runQuery(any())).thenAnswer(inv -> {
+            // Hold the leader long enough for the second target to join it
+            Thread.sleep(300);
+            return counts(inv.getArgument(0));
+        });
+
+        GrafanaQueryResponse response = controller(counters, 4).query(panel("A", "checkout", "B", "checkout"));
+
+        verify(counters, times(1)).runQuery(any());
+        assertThat(response.results().get("A").frames().get(0).schema().refId()).isEqualTo("A");
+        assertThat(response.results().get("B").frames().get(0).schema().refId()).isEqualTo("B");
+        assertThat(response.results().get("B").frames().get(0).data())
+                .isEqualTo(response.results().get("A").frames().get(0).data());
+    }
+
+    private GrafanaQueryController controller(CounterQueryService counters, int parallelism) {
+        return new GrafanaQueryController(
+                mock(HistogramQueryService.class),
+                mock(StateCountTimeseriesQueryService.class),
+                mock(StateCountQueryService.class),
+                counters,
+                mock(StateTransitionQueryService.class),
+                mock(RatioQueryService.class),
+                mapper,
+                1440,
+                parallelism);
+    }
+
+    private JsonNode panel(String... refIdAndEventType) {
+        StringBuilder queries = new StringBuilder();
+        for (int i = 0; i < refIdAndEventType.length; i += 2) {
+            if (i > 0) queries.append(',');
+            queries.append("{\"refId\":\"")
+                    .append(refIdAndEventType[i])
+                    .append("\",\"kind\":\"event_count\",\"serviceKey\":\"payments\",\"eventType\":\"")
+                    .append(refIdAndEventType[i + 1])
+                    .append("\"}");
+        }
+        String json = "{\"range\":{\"fromMs\":1700000000000,\"toMs\":1700003600000},"
+                + "\"intervalMs\":60000,\"maxDataPoints\":60,\"queries\":[" + queries + "]}";
+        try {
+            return mapper.readTree(json);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static CounterQueryResult counts(CounterQueryRequest request) {
+        long base = request.eventType().length();
+        List<CounterQueryWindow> windows = List.of(
+                new CounterQueryWindow(
+                        "2023-11-14T22:13:20Z",
+                        "2023-11-14T22:14:20Z",
+                        List.of(new CounterQueryWindow.CountEntry(Map.of("region", "eu"), base))),
+                new CounterQueryWindow(
+                        "2023-11-14T22:14:20Z",
+                        "2023-11-14T22:15:20Z",
+                        List.of(new CounterQueryWindow.CountEntry(Map.of("region", "eu"), base + 1))));
+        return new CounterQueryResult(windows, 0, windows.size(), windows.size(), null, null);
+    }
+}
@@ -27,6 +27,12 @@ public class FlowEvent {
 
     public static final String SERVICE_ID_ATTR = "service.id";
 
+    /**
+     * Attribute carrying the inverse sampling probability of a kept event (e.g. {@code 10.0} when 1 in 10 executions
+     * is kept). Absent means weight 1; server-side counters scale by it.
+     */
+    public static final String SAMPLE_WEIGHT_ATTR = "sample.weight";
+
     /* ========================= Embedded Builder ========================= */
 
     /** Create a new builder for {@link FlowEvent}. */
@@ -277,6 +283,15 @@ public class FlowEvent {
     @SuppressWarnings("squid:S1948") // Transient field used intentionally for timing calculations
     private transient long startNanoTime; // monotonic start for accurate duration when folding
 
+    /* ── Head sampling decision (non-serialized) ─────────────────── */
+    @JsonIgnore
+    @SuppressWarnings("squid:S1948") // Transient field used intentionally for sampling state
+    private transient Double headSampleRate; // probability applied at flow start; null = not sampled yet
+
+    @JsonIgnore
+    @SuppressWarnings("squid:S1948") // Transient field used intentionally for sampling state
+    private transient boolean headSampled; // outcome of the head decision
+
     /** Full constructor (validates service id consistency). */
     public FlowEvent(
             String name,
@@ -492,6 +507,24 @@ public class FlowEvent {
         this.startNanoTime = startNanoTime;
     }
 
+    /** Probability used for the head sampling decision, or {@code null} if none was made (not serialized). */
+    @JsonIgnore
+    public Double getHeadSampleRate() {
+        return headSampleRate;
+    }
+
+    /** Whether the head sampling decision kept this flow (not serialized). */
+    @JsonIgnore
+    public boolean isHeadSampled() {
+        return headSampled;
+    }
+
+    @JsonIgnore
+    public void setHeadSampling(double rate, boolean sampled) {
+        this.headSampleRate = rate;
+        this.headSampled = sampled;
+    }
+
     /* ===== Convenience getters for frameworks ===== */
     public String getName() {
         return name;
@@ -0,0 +1,45 @@
+package com.obsinity.ingest.kafka;
+
+import com.obsinity.service.core.ingest.IngestAdmissionController;
+import com.obsinity.service.core.ingest.IngestAdmissionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pauses the ingest consumer while admission control is shedding and resumes it once admission is open again.
+ * Paused consumers keep polling (without fetching) so the group does not rebalance; records simply wait in the
+ * topic.
+ */
+@Component
+@ConditionalOnProperty(prefix = "obsinity.ingest.kafka", name = "enabled", havingValue = "true")
+public class KafkaIngestBackpressure {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaIngestBackpressure.class);
+
+    private final KafkaListenerEndpointRegistry registry;
+
+    public KafkaIngestBackpressure(KafkaListenerEndpointRegistry registry) {
+        this.registry = registry;
+    }
+
+    @EventListener
+    public void onAdmissionChange(IngestAdmissionEvent event) {
+        MessageListenerContainer container = registry.getListenerContainer(KafkaIngestListener.LISTENER_ID);
+        if (container == null) {
+            return;
+        }
+        IngestAdmissionController.State state = event.admission().state();
+        if (state == IngestAdmissionController.State.SHEDDING && !container.isPauseRequested()) {
+            log.warn("Pausing Kafka ingest consumer: {}", event.admission().reason());
+            container.pause();
+        } else if (state == IngestAdmissionController.State.OPEN && container.isPauseRequested()) {
+            log.info("Resuming Kafka ingest consumer");
+            container.resume();
+        }
+    }
+}
@@ -20,6 +20,7 @@ public class KafkaIngestListener {
 
     private static final Logger log = LoggerFactory.getLogger(KafkaIngestListener.class);
     private static final String SOURCE = "KAFKA_CONSUMER";
+    static final String LISTENER_ID = "obsinityIngest";
 
     private final ObjectMapper mapper;
     private final EventEnvelopeMapper envelopeMapper;
@@ -38,6 +39,8 @@ public class KafkaIngestListener {
     }
 
     @KafkaListener(
+            id = LISTENER_ID,
+            idIsGroup = false,
             topics = "${obsinity.ingest.kafka.topic:obsinity.events}",
             containerFactory = "obsinityKafkaListenerFactory")
     public void handle(ConsumerRecord<String, byte[]> record, Acknowledgment ack) {
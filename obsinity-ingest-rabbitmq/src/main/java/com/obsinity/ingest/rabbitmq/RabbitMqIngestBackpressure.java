@@ -0,0 +1,46 @@
+package com.obsinity.ingest.rabbitmq;
+
+import com.obsinity.service.core.ingest.IngestAdmissionController;
+import com.obsinity.service.core.ingest.IngestAdmissionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops the ingest consumer while admission control is shedding and restarts it once admission is open again.
+ * Unacked deliveries are requeued by the broker, and new messages wait in the queue.
+ */
+@Component
+@ConditionalOnProperty(prefix = "obsinity.ingest.rmq", name = "enabled", havingValue = "true")
+public class RabbitMqIngestBackpressure {
+
+    private static final Logger log = LoggerFactory.getLogger(RabbitMqIngestBackpressure.class);
+
+    private final RabbitListenerEndpointRegistry registry;
+
+    public RabbitMqIngestBackpressure(RabbitListenerEndpointRegistry registry) {
+        this.registry = registry;
+    }
+
+    @EventListener
+    public void onAdmissionChange(IngestAdmissionEvent event) {
+        MessageListenerContainer container = registry.getListenerContainer(RabbitMqIngestListener.LISTENER_ID);
+        if (container == null) {
+            return;
+        }
+        IngestAdmissionController.State state = event.admission().state();
+        if (state == IngestAdmissionController.State.SHEDDING && container.isRunning()) {
+            log.warn("Stopping RabbitMQ ingest consumer: {}", event.admission().reason());
+            // Asynchronous stop: the event may be published from a request thread that must not wait for
+            // in-flight deliveries to finish.
+            container.stop(() -> log.info("RabbitMQ ingest consumer stopped"));
+        } else if (state == IngestAdmissionController.State.OPEN && !container.isRunning()) {
+            log.info("Restarting RabbitMQ ingest consumer");
+            container.start();
+        }
+    }
+}
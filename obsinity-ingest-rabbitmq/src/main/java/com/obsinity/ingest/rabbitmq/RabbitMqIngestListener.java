@@ -22,6 +22,7 @@ public class RabbitMqIngestListener {
 
     private static final Logger log = LoggerFactory.getLogger(RabbitMqIngestListener.class);
     private static final String SOURCE = "RMQ_CONSUMER";
+    static final String LISTENER_ID = "obsinityIngest";
 
     private final ObjectMapper mapper;
     private final EventEnvelopeMapper envelopeMapper;
@@ -39,7 +40,7 @@ public class RabbitMqIngestListener {
         this.deadLetterTable = deadLetterTable;
     }
 
-    @RabbitListener(queues = "${obsinity.ingest.rmq.queue:obsinity.events}", ackMode = "MANUAL")
+    @RabbitListener(id = LISTENER_ID, queues = "${obsinity.ingest.rmq.queue:obsinity.events}", ackMode = "MANUAL")
     public void handle(Message message, Channel channel) throws IOException {
         long tag = message.getMessageProperties().getDeliveryTag();
         byte[] body = message.getBody();
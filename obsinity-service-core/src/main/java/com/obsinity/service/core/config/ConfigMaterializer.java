@@ -103,7 +103,7 @@ public class ConfigMaterializer {
     private HistogramSpec buildHistogramSpec(MetricConfig metric) {
         Map<String, Object> spec = metric.specJson();
         if (spec == null) {
-            return new HistogramSpec(null, List.of(), null, CounterGranularity.S5, null);
+            return new HistogramSpec(null, List.of(), null, CounterGranularity.S5, null, null);
         }
 
         String valuePath = stringValue(spec.get("value"));
@@ -111,7 +111,8 @@ public class ConfigMaterializer {
         HistogramSpec.SketchSpec sketchSpec = extractSketchSpec(spec.get("sketch"));
         CounterGranularity granularity = extractHistogramGranularity(spec);
         List<Double> percentiles = extractPercentiles(spec);
-        return new HistogramSpec(valuePath, keyDimensions, sketchSpec, granularity, percentiles);
+        Integer maxKeys = integerValue(spec.get("maxKeys"));
+        return new HistogramSpec(valuePath, keyDimensions, sketchSpec, granularity, percentiles, maxKeys);
     }
 
     private List<String> extractDimensions(Object keyNode) {
@@ -225,6 +226,20 @@ public class ConfigMaterializer {
         return s.isEmpty() ? null : s;
     }
 
+    private Integer integerValue(Object value) {
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        if (value instanceof String s) {
+            try {
+                return Integer.parseInt(s.trim());
+            } catch (NumberFormatException ignore) {
+                return null;
+            }
+        }
+        return null;
+    }
+
     private double doubleValue(Object value, double defaultValue) {
         if (value instanceof Number number) {
             return number.doubleValue();
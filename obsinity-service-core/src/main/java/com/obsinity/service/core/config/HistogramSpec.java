@@ -3,13 +3,17 @@ package com.obsinity.service.core.config;
 import com.obsinity.service.core.counter.CounterGranularity;
 import java.util.List;
 
-/** Normalized histogram specification parsed from the CRD definition. */
+/**
+ * Normalized histogram specification parsed from the CRD definition. {@code maxKeys} is the optional per-histogram
+ * cardinality budget ({@code null} uses {@code obsinity.cardinality.histograms.maxKeys}).
+ */
 public record HistogramSpec(
         String valuePath,
         List<String> keyDimensions,
         SketchSpec sketchSpec,
         CounterGranularity granularity,
-        List<Double> percentiles) {
+        List<Double> percentiles,
+        Integer maxKeys) {
 
     private static final SketchSpec DEFAULT_SKETCH = new SketchSpec("ddsketch", 0.01d);
     private static final List<Double> DEFAULT_PERCENTILES = List.of(0.5d, 0.9d, 0.95d, 0.99d);
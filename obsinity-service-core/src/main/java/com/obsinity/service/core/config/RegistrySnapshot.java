@@ -7,10 +7,23 @@ import java.util.Map;
  * Immutable, fully-materialized view of config:
  *   service -> eventType -> { indexes, counters, histograms }
  *
- * Kept tiny and allocation-friendly by using Java records and unmodifiable collections.
+ * Kept tiny and allocation-friendly by using Java records and unmodifiable collections. The per-service
+ * {@link ServiceIndex lookup indexes} are built once here, on swap, rather than on every read.
  */
-public record RegistrySnapshot(Map<java.util.UUID, ServiceConfig> services, Instant loadedAt) {
+public record RegistrySnapshot(
+        Map<java.util.UUID, ServiceConfig> services, Instant loadedAt, Map<java.util.UUID, ServiceIndex> indexes) {
+
+    public RegistrySnapshot(Map<java.util.UUID, ServiceConfig> services, Instant loadedAt) {
+        this(services, loadedAt, ServiceIndex.buildAll(services));
+    }
+
     public static RegistrySnapshot empty() {
         return new RegistrySnapshot(Map.of(), Instant.EPOCH);
     }
+
+    /** Lookup index for a service; an empty index when the service is unknown. */
+    public ServiceIndex index(java.util.UUID serviceId) {
+        ServiceIndex index = serviceId == null ? null : indexes.get(serviceId);
+        return index != null ? index : ServiceIndex.EMPTY;
+    }
 }
@@ -0,0 +1,204 @@
+package com.obsinity.service.core.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Partition retention policies.
+ *
+ * <pre>
+ * obsinity:
+ *   retention:
+ *     enabled: true
+ *     events:            # defaults for every service
+ *       raw: 365d
+ *       attr-index: 90d
+ *     services:          # per service_key overrides
+ *       payments:
+ *         raw: 30d
+ *     rollups:           # per bucket; unset buckets are kept forever
+ *       counters: { S5: 7d, M1: 30d, M5: 90d }
+ *       histograms: { S5: 7d, M1: 30d }
+ *     archive:
+ *       enabled: true
+ *       directory: /var/lib/obsinity/archive
+ * </pre>
+ *
+ * A partition expires once its upper bound is older than the configured duration.
+ */
+@Component
+@ConfigurationProperties(prefix = "obsinity.retention")
+public class RetentionProperties {
+    private boolean enabled = false;
+    private boolean detachConcurrently = true;
+    private int maxPartitionsPerRun = 100;
+    private EventRetention events = new EventRetention();
+    private Map<String, EventRetention> services = new LinkedHashMap<>();
+    private Rollups rollups = new Rollups();
+    private Archive archive = new Archive();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isDetachConcurrently() {
+        return detachConcurrently;
+    }
+
+    public void setDetachConcurrently(boolean detachConcurrently) {
+        this.detachConcurrently = detachConcurrently;
+    }
+
+    public int getMaxPartitionsPerRun() {
+        return maxPartitionsPerRun;
+    }
+
+    public void setMaxPartitionsPerRun(int maxPartitionsPerRun) {
+        this.maxPartitionsPerRun = maxPartitionsPerRun;
+    }
+
+    public EventRetention getEvents() {
+        return events;
+    }
+
+    public void setEvents(EventRetention events) {
+        this.events = events;
+    }
+
+    public Map<String, EventRetention> getServices() {
+        return services;
+    }
+
+    public void setServices(Map<String, EventRetention> services) {
+        this.services = services;
+    }
+
+    public Rollups getRollups() {
+        return rollups;
+    }
+
+    public void setRollups(Rollups rollups) {
+        this.rollups = rollups;
+    }
+
+    public Archive getArchive() {
+        return archive;
+    }
+
+    public void setArchive(Archive archive) {
+        this.archive = archive;
+    }
+
+    /** Raw event retention for a service ({@code null} = keep forever). */
+    public Duration rawRetention(String serviceKey) {
+        EventRetention override = serviceKey == null ? null : services.get(serviceKey);
+        if (override != null && override.getRaw() != null) return override.getRaw();
+        return events.getRaw();
+    }
+
+    /** Attribute index retention for a service ({@code null} = keep forever). */
+    public Duration attrIndexRetention(String serviceKey) {
+        EventRetention override = serviceKey == null ? null : services.get(serviceKey);
+        if (override != null && override.getAttrIndex() != null) return override.getAttrIndex();
+        return events.getAttrIndex();
+    }
+
+    public static class EventRetention {
+        private Duration raw;
+        private Duration attrIndex;
+
+        public Duration getRaw() {
+            return raw;
+        }
+
+        public void setRaw(Duration raw) {
+            this.raw = raw;
+        }
+
+        public Duration getAttrIndex() {
+            return attrIndex;
+        }
+
+        public void setAttrIndex(Duration attrIndex) {
+            this.attrIndex = attrIndex;
+        }
+    }
+
+    /** Per-bucket retention for the rollup tables, keyed by bucket name ({@code S5}, {@code M1}, ...). */
+    public static class Rollups {
+        private Map<String, Duration> counters = new LinkedHashMap<>();
+        private Map<String, Duration> histograms = new LinkedHashMap<>();
+        private Map<String, Duration> stateTransitions = new LinkedHashMap<>();
+        private Map<String, Duration> objectState = new LinkedHashMap<>();
+        private Map<String, Duration> stateCounts = new LinkedHashMap<>();
+
+        public Map<String, Duration> getCounters() {
+            return counters;
+        }
+
+        public void setCounters(Map<String, Duration> counters) {
+            this.counters = counters;
+        }
+
+        public Map<String, Duration> getHistograms() {
+            return histograms;
+        }
+
+        public void setHistograms(Map<String, Duration> histograms) {
+            this.histograms = histograms;
+        }
+
+        public Map<String, Duration> getStateTransitions() {
+            return stateTransitions;
+        }
+
+        public void setStateTransitions(Map<String, Duration> stateTransitions) {
+            this.stateTransitions = stateTransitions;
+        }
+
+        public Map<String, Duration> getObjectState() {
+            return objectState;
+        }
+
+        public void setObjectState(Map<String, Duration> objectState) {
+            this.objectState = objectState;
+        }
+
+        public Map<String, Duration> getStateCounts() {
+            return stateCounts;
+        }
+
+        public void setStateCounts(Map<String, Duration> stateCounts) {
+            this.stateCounts = stateCounts;
+        }
+    }
+
+    /** Optional export of expired partitions to gzip'd CSV files before they are dropped. */
+    public static class Archive {
+        private boolean enabled = false;
+        private String directory = "archive";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+    }
+}
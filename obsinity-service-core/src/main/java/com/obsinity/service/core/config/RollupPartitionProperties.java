@@ -0,0 +1,142 @@
+package com.obsinity.service.core.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rolling partition maintenance for the rollup tables ({@code event_counts}, {@code event_histograms},
+ * {@code event_count_topk}, {@code object_state_transitions}, {@code object_state},
+ * {@code object_state_count_timeseries}).
+ *
+ * <pre>
+ * obsinity:
+ *   rollups:
+ *     partitions:
+ *       ahead: 56d          # keep partitions ready this far into the future
+ *       behind: 7d          # and back-fill missing ones this far into the past
+ *       width:              # per bucket; unset buckets use default-width
+ *         S5: 1d
+ *         H1: 28d
+ *       persistence:        # per bucket; unset buckets use default-persistence
+ *         S5: UNLOGGED
+ *       convert-existing: true
+ * </pre>
+ *
+ * UNLOGGED partitions skip WAL and are therefore cheap to write, but Postgres truncates them after a crash. The
+ * default keeps only the hot {@code S5} tier UNLOGGED; every coarser bucket is LOGGED so it survives a restart.
+ * With {@code convert-existing}, partitions whose storage differs from the policy are switched with
+ * {@code ALTER TABLE ... SET LOGGED|UNLOGGED} (a full rewrite under an ACCESS EXCLUSIVE lock), oldest first and at
+ * most {@code max-conversions-per-run} per run. The leaf containing now is left alone until it stops being written.
+ */
+@Component
+@ConfigurationProperties(prefix = "obsinity.rollups.partitions")
+public class RollupPartitionProperties {
+
+    public enum Persistence {
+        LOGGED,
+        UNLOGGED
+    }
+
+    private boolean enabled = true;
+    private Duration ahead = Duration.ofDays(56);
+    private Duration behind = Duration.ofDays(7);
+    private Duration defaultWidth = Duration.ofDays(7);
+    private Map<String, Duration> width = new LinkedHashMap<>(Map.of(
+            "S5", Duration.ofDays(1),
+            "H1", Duration.ofDays(28),
+            "D1", Duration.ofDays(28),
+            "D7", Duration.ofDays(28)));
+    private Persistence defaultPersistence = Persistence.LOGGED;
+    private Map<String, Persistence> persistence = new LinkedHashMap<>(Map.of("S5", Persistence.UNLOGGED));
+    private boolean convertExisting = true;
+    private int maxConversionsPerRun = 20;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getAhead() {
+        return ahead;
+    }
+
+    public void setAhead(Duration ahead) {
+        this.ahead = ahead;
+    }
+
+    public Duration getBehind() {
+        return behind;
+    }
+
+    public void setBehind(Duration behind) {
+        this.behind = behind;
+    }
+
+    public Duration getDefaultWidth() {
+        return defaultWidth;
+    }
+
+    public void setDefaultWidth(Duration defaultWidth) {
+        this.defaultWidth = defaultWidth;
+    }
+
+    public Map<String, Duration> getWidth() {
+        return width;
+    }
+
+    public void setWidth(Map<String, Duration> width) {
+        this.width = width;
+    }
+
+    public Persistence getDefaultPersistence() {
+        return defaultPersistence;
+    }
+
+    public void setDefaultPersistence(Persistence defaultPersistence) {
+        this.defaultPersistence = defaultPersistence;
+    }
+
+    public Map<String, Persistence> getPersistence() {
+        return persistence;
+    }
+
+    public void setPersistence(Map<String, Persistence> persistence) {
+        this.persistence = persistence;
+    }
+
+    public boolean isConvertExisting() {
+        return convertExisting;
+    }
+
+    public void setConvertExisting(boolean convertExisting) {
+        this.convertExisting = convertExisting;
+    }
+
+    public int getMaxConversionsPerRun() {
+        return maxConversionsPerRun;
+    }
+
+    public void setMaxConversionsPerRun(int maxConversionsPerRun) {
+        this.maxConversionsPerRun = maxConversionsPerRun;
+    }
+
+    /** Partition width of a bucket, in whole days and at least one day. */
+    public Duration widthFor(String bucket) {
+        Duration configured = width != null ? width.get(bucket.toUpperCase(Locale.ROOT)) : null;
+        Duration effective = configured != null ? configured : defaultWidth;
+        return Duration.ofDays(Math.max(1L, effective != null ? effective.toDays() : 7L));
+    }
+
+    public Persistence persistenceFor(String bucket) {
+        Persistence configured = persistence != null ? persistence.get(bucket.toUpperCase(Locale.ROOT)) : null;
+        if (configured != null) return configured;
+        return defaultPersistence != null ? defaultPersistence : Persistence.LOGGED;
+    }
+}
@@ -0,0 +1,121 @@
+package com.obsinity.service.core.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lookup tables for one {@link ServiceConfig}, built once when a {@link RegistrySnapshot} is created so per-event
+ * reads in {@link ConfigLookup} are single hash probes. Every map is keyed by both the configured spelling and its
+ * lower-cased form; lower-casing at read time is only needed for mixed-case misses.
+ */
+public final class ServiceIndex {
+
+    static final ServiceIndex EMPTY = new ServiceIndex(Map.of(), List.of(), Map.of(), Map.of());
+
+    private final Map<String, EventTypeConfig> eventTypes;
+    private final List<StateExtractorDefinition> allExtractors;
+    private final Map<String, List<StateExtractorDefinition>> extractorsByRawType;
+    private final Map<String, RatioQueryDefinition> ratioQueries;
+
+    private ServiceIndex(
+            Map<String, EventTypeConfig> eventTypes,
+            List<StateExtractorDefinition> allExtractors,
+            Map<String, List<StateExtractorDefinition>> extractorsByRawType,
+            Map<String, RatioQueryDefinition> ratioQueries) {
+        this.eventTypes = eventTypes;
+        this.allExtractors = allExtractors;
+        this.extractorsByRawType = extractorsByRawType;
+        this.ratioQueries = ratioQueries;
+    }
+
+    static Map<java.util.UUID, ServiceIndex> buildAll(Map<java.util.UUID, ServiceConfig> services) {
+        if (services == null || services.isEmpty()) return Map.of();
+        Map<java.util.UUID, ServiceIndex> out = new HashMap<>(services.size() * 2);
+        services.forEach((id, svc) -> out.put(id, of(svc)));
+        return Map.copyOf(out);
+    }
+
+    static ServiceIndex of(ServiceConfig svc) {
+        if (svc == null) return EMPTY;
+
+        Map<String, EventTypeConfig> eventTypes = new HashMap<>();
+        if (svc.eventTypes() != null) {
+            // Normalized names first so an exact configured key always wins on collisions.
+            for (EventTypeConfig cfg : svc.eventTypes().values()) {
+                if (cfg != null && cfg.eventNorm() != null) eventTypes.putIfAbsent(cfg.eventNorm(), cfg);
+            }
+            svc.eventTypes().forEach((key, cfg) -> {
+                if (key != null && cfg != null) eventTypes.put(key, cfg);
+            });
+        }
+
+        List<StateExtractorDefinition> all = new ArrayList<>();
+        if (svc.stateExtractors() != null) {
+            for (StateExtractorDefinition extractor : svc.stateExtractors()) {
+                if (extractor != null) all.add(extractor);
+            }
+        }
+        Map<String, List<StateExtractorDefinition>> byNorm = new LinkedHashMap<>();
+        for (StateExtractorDefinition extractor : all) {
+            if (extractor.rawType() == null) continue;
+            byNorm.computeIfAbsent(extractor.rawType().toLowerCase(Locale.ROOT), k -> new ArrayList<>())
+                    .add(extractor);
+        }
+        Map<String, List<StateExtractorDefinition>> extractors = new HashMap<>();
+        byNorm.forEach((norm, list) -> extractors.put(norm, List.copyOf(list)));
+        for (StateExtractorDefinition extractor : all) {
+            if (extractor.rawType() == null) continue;
+            extractors.putIfAbsent(
+                    extractor.rawType(), extractors.get(extractor.rawType().toLowerCase(Locale.ROOT)));
+        }
+
+        Map<String, RatioQueryDefinition> ratios = new HashMap<>();
+        if (svc.ratioQueries() != null) {
+            svc.ratioQueries().forEach((name, def) -> {
+                if (name != null) ratios.putIfAbsent(name.trim().toLowerCase(Locale.ROOT), def);
+            });
+            svc.ratioQueries().forEach((name, def) -> {
+                if (name != null) ratios.put(name, def);
+            });
+        }
+
+        return new ServiceIndex(
+                Map.copyOf(eventTypes), List.copyOf(all), Map.copyOf(extractors), copyWithoutNulls(ratios));
+    }
+
+    EventTypeConfig eventType(String eventType) {
+        EventTypeConfig hit = eventTypes.get(eventType);
+        return hit != null ? hit : eventTypes.get(eventType.toLowerCase(Locale.ROOT));
+    }
+
+    List<StateExtractorDefinition> allExtractors() {
+        return allExtractors;
+    }
+
+    List<StateExtractorDefinition> extractors(String rawType) {
+        List<StateExtractorDefinition> hit = extractorsByRawType.get(rawType);
+        if (hit == null) hit = extractorsByRawType.get(rawType.toLowerCase(Locale.ROOT));
+        return hit != null ? hit : List.of();
+    }
+
+    boolean hasRatioQueries() {
+        return !ratioQueries.isEmpty();
+    }
+
+    RatioQueryDefinition ratioQuery(String name) {
+        RatioQueryDefinition hit = ratioQueries.get(name);
+        return hit != null ? hit : ratioQueries.get(name.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static <V> Map<String, V> copyWithoutNulls(Map<String, V> map) {
+        Map<String, V> out = new HashMap<>(map.size() * 2);
+        map.forEach((key, value) -> {
+            if (value != null) out.put(key, value);
+        });
+        return Map.copyOf(out);
+    }
+}
@@ -5,14 +5,27 @@ import com.obsinity.service.core.config.ConfigMaterializer;
 import com.obsinity.service.core.config.ConfigMaterializer.ServiceConfigView;
 import com.obsinity.service.core.config.ConfigRegistry;
 import com.obsinity.service.core.config.RegistrySnapshot;
+import com.obsinity.service.core.config.init.ResourceConfigSource.ServiceDefinition;
 import com.obsinity.service.core.model.config.ServiceConfig;
 import com.obsinity.service.core.repo.ServicesCatalogRepository;
 import com.obsinity.service.core.support.ServicePartitionKey;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,31 +36,48 @@ import org.springframework.core.annotation.Order;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Loads service definitions from {@code obsinity.config.init.location} into the {@link ConfigRegistry}.
+ *
+ * <p>Runs on startup and on {@code obsinity.config.init.cron}. Each service definition carries a content hash of
+ * the files it was merged from; services whose hash did not change keep their previously materialized
+ * {@code ServiceConfig} instance (no service registry round-trip, no re-materialization), and the snapshot is only
+ * swapped when something actually changed. With {@code obsinity.config.init.watch=true} and a {@code file:}
+ * location, a {@link WatchService} additionally triggers a reload shortly after files change.
+ */
 @Component
 public class ConfigInitCoordinator {
 
     private static final Logger log = LoggerFactory.getLogger(ConfigInitCoordinator.class);
+    private static final long WATCH_DEBOUNCE_MILLIS = 500;
 
     private final boolean enabled;
+    private final boolean watch;
     private final String location; // e.g. "classpath:/service-definitions/" OR "file:/path/to/service-definitions/"
     private final ServicesCatalogRepository servicesRepo;
     private final ConfigRegistry registry;
     private final ConfigMaterializer materializer;
+    private final ResourceConfigSource source;
     private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, LoadedService> loaded = new HashMap<>(); // guarded by lock
+    private volatile WatchService watchService;
 
     public ConfigInitCoordinator(
             ServicesCatalogRepository servicesRepo,
             ConfigRegistry registry,
             ObjectMapper objectMapper,
             @Value("${obsinity.config.init.enabled:true}") boolean enabled,
-            @Value("${obsinity.config.init.location:classpath:/service-definitions/}") String location) {
+            @Value("${obsinity.config.init.location:classpath:/service-definitions/}") String location,
+            @Value("${obsinity.config.init.watch:false}") boolean watch) {
         this.servicesRepo = servicesRepo;
         this.registry = registry;
         this.materializer = new ConfigMaterializer(objectMapper);
         this.enabled = enabled;
-        this.location = location;
+        this.watch = watch;
+        this.location = resolveLocation(location);
+        this.source = new ResourceConfigSource(this.location);
         if (log.isDebugEnabled()) {
-            log.debug("ConfigInitCoordinator constructed: enabled={}, location={}", enabled, location);
+            log.debug("ConfigInitCoordinator constructed: enabled={}, location={}, watch={}", enabled, location, watch);
         }
     }
 
@@ -55,11 +85,13 @@ public class ConfigInitCoordinator {
     @Order(Ordered.HIGHEST_PRECEDENCE)
     public void onStartup() {
         log.info(
-                "Config init startup: enabled={}, location={}, cron={}",
+                "Config init startup: enabled={}, location={}, cron={}, watch={}",
                 enabled,
                 location,
-                System.getProperty("obsinity.config.init.cron", "0 * * * * *"));
+                System.getProperty("obsinity.config.init.cron", "0 * * * * *"),
+                watch);
         runOnce("startup");
+        startWatcher();
     }
 
     /** Every minute (default). */
@@ -71,6 +103,19 @@ public class ConfigInitCoordinator {
         runOnce("scheduled");
     }
 
+    @PreDestroy
+    public void stopWatcher() {
+        WatchService ws = watchService;
+        watchService = null;
+        if (ws != null) {
+            try {
+                ws.close();
+            } catch (IOException ex) {
+                log.debug("Config watch close failed", ex);
+            }
+        }
+    }
+
     private void runOnce(String reason) {
         if (!enabled) {
             log.debug("Config init disabled; skip ({})", reason);
@@ -83,32 +128,50 @@ public class ConfigInitCoordinator {
         long t0 = System.nanoTime();
         try {
             log.debug("Config init starting (reason={}, location={})", reason, location);
-            List<ServiceConfig> models = loadServices(location);
-            if (models.isEmpty()) {
+            List<ServiceDefinition> definitions = source.loadDefinitions();
+            if (definitions.isEmpty()) {
                 log.debug("No ServiceConfig found at {}", location);
                 return;
             }
 
             Map<java.util.UUID, com.obsinity.service.core.config.ServiceConfig> merged = new HashMap<>();
-            for (ServiceConfig model : models) {
+            Map<String, LoadedService> next = new HashMap<>();
+            int changed = 0;
+            for (ServiceDefinition definition : definitions) {
+                ServiceConfig model = definition.model();
                 if (model == null || model.service() == null || model.service().isBlank()) continue;
-                ServiceMeta meta = ensureService(model.service());
+                String serviceKey = model.service().trim();
+                LoadedService previous = loaded.get(serviceKey);
+                if (previous != null && previous.fingerprint().equals(definition.fingerprint())) {
+                    merged.put(previous.config().serviceId(), previous.config());
+                    next.put(serviceKey, previous);
+                    continue;
+                }
+                ServiceMeta meta = ensureService(serviceKey);
                 ServiceConfigView view =
                         materializer.materializeService(model, meta.serviceId(), meta.serviceKey(), Instant.now());
-                merged.put(
-                        meta.serviceId(),
+                com.obsinity.service.core.config.ServiceConfig config =
                         new com.obsinity.service.core.config.ServiceConfig(
                                 meta.serviceId(),
                                 meta.serviceKey(),
                                 view.updatedAt(),
                                 view.eventTypes(),
                                 view.stateExtractors(),
-                                view.ratioQueries()));
+                                view.ratioQueries());
+                merged.put(meta.serviceId(), config);
+                next.put(serviceKey, new LoadedService(definition.fingerprint(), config));
+                changed++;
             }
+            loaded.clear();
+            loaded.putAll(next);
 
+            if (changed == 0 && sameInstances(registry.current().services(), merged)) {
+                log.debug("Config init ({}) found no changes in {} service definitions", reason, merged.size());
+                return;
+            }
             RegistrySnapshot snapshot = new RegistrySnapshot(Map.copyOf(merged), Instant.now());
             registry.swap(snapshot);
-            log.info("Config init ({}) loaded {} service definitions", reason, merged.size());
+            log.info("Config init ({}) loaded {} service definitions ({} changed)", reason, merged.size(), changed);
         } catch (Exception ex) {
             log.warn("Config init failed ({}): {}", reason, ex.getMessage());
             log.debug("Config init failure stacktrace", ex);
@@ -119,7 +182,17 @@ public class ConfigInitCoordinator {
         }
     }
 
-    private List<ServiceConfig> loadServices(String loc) throws Exception {
+    private static boolean sameInstances(
+            Map<java.util.UUID, com.obsinity.service.core.config.ServiceConfig> current,
+            Map<java.util.UUID, com.obsinity.service.core.config.ServiceConfig> next) {
+        if (current.size() != next.size()) return false;
+        for (var entry : next.entrySet()) {
+            if (current.get(entry.getKey()) != entry.getValue()) return false;
+        }
+        return true;
+    }
+
+    private static String resolveLocation(String loc) {
         String resolved = loc;
         if (!resolved.matches("^[a-zA-Z]+:.*")) {
             java.nio.file.Path p =
@@ -128,7 +201,78 @@ public class ConfigInitCoordinator {
         }
         if (!resolved.endsWith("/")) resolved = resolved + "/";
         log.info("Config init: resolved base location={}", resolved);
-        return new ResourceConfigSource(resolved).load();
+        return resolved;
+    }
+
+    private void startWatcher() {
+        if (!enabled || !watch) {
+            return;
+        }
+        if (!location.startsWith("file:")) {
+            log.info("Config watch requires a file: location; {} is polled on the cron only", location);
+            return;
+        }
+        Path root = Paths.get(location.substring("file:".length()));
+        try {
+            watchService = root.getFileSystem().newWatchService();
+            registerTree(root);
+        } catch (IOException ex) {
+            log.warn("Config watch could not be started for {}: {}", root, ex.getMessage());
+            stopWatcher();
+            return;
+        }
+        Thread thread = new Thread(this::watchLoop, "obsinity-config-watch");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Config watch started for {}", root);
+    }
+
+    private void watchLoop() {
+        WatchService ws = watchService;
+        try {
+            while (ws != null && ws == watchService) {
+                WatchKey key = ws.take();
+                // Editors and deploy tools write in several steps; coalesce a burst into one reload.
+                while (key != null) {
+                    drain(key);
+                    key = ws.poll(WATCH_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                runOnce("watch");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            log.debug("Config watch stopped");
+        }
+    }
+
+    private void drain(WatchKey key) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && event.context() instanceof Path child) {
+                Path created = dir.resolve(child);
+                if (Files.isDirectory(created)) {
+                    try {
+                        registerTree(created);
+                    } catch (IOException ex) {
+                        log.debug("Config watch could not register {}", created, ex);
+                    }
+                }
+            }
+        }
+        key.reset();
+    }
+
+    private void registerTree(Path root) throws IOException {
+        try (Stream<Path> dirs = Files.walk(root)) {
+            for (Path dir : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+                dir.register(
+                        watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
     }
 
     private ServiceMeta ensureService(String serviceKey) {
@@ -143,4 +287,6 @@ public class ConfigInitCoordinator {
     }
 
     private record ServiceMeta(java.util.UUID serviceId, String serviceKey) {}
+
+    private record LoadedService(String fingerprint, com.obsinity.service.core.config.ServiceConfig config) {}
 }
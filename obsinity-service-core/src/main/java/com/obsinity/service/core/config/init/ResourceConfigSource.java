@@ -12,6 +12,8 @@ import com.obsinity.service.core.model.config.StateExtractorConfig;
 import com.obsinity.service.core.support.CrdKeys;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
@@ -24,16 +26,74 @@ public class ResourceConfigSource {
     private static final Logger log = LoggerFactory.getLogger(ResourceConfigSource.class);
 
     private final String baseLocation; // e.g. "classpath:/service-definitions/"
+    private Map<String, ParsedFile> parsedByLocation = Map.of();
 
     public ResourceConfigSource(String baseLocation) {
         this.baseLocation = baseLocation.endsWith("/") ? baseLocation : baseLocation + "/";
     }
 
     public List<ServiceConfig> load() throws Exception {
+        return loadDefinitions().stream().map(ServiceDefinition::model).toList();
+    }
+
+    /**
+     * Loads every service definition together with a fingerprint of the files it was merged from. Files whose
+     * SHA-256 is unchanged since the previous call on this instance are not parsed again.
+     */
+    public synchronized List<ServiceDefinition> loadDefinitions() throws Exception {
         List<Resource> resources = locateResources();
-        List<ServiceConfig> parsed = new ArrayList<>(resources.size());
-        for (Resource r : resources) parsed.addAll(parseResource(r));
-        return mergeByService(parsed);
+        Map<String, ParsedFile> current = new HashMap<>(resources.size() * 2);
+        Map<String, ServiceConfig> merged = new LinkedHashMap<>();
+        Map<String, MessageDigest> fingerprints = new HashMap<>();
+        for (Resource r : resources) {
+            String location = describe(r);
+            byte[] bytes;
+            try (InputStream in = r.getInputStream()) {
+                bytes = in.readAllBytes();
+            }
+            String hash = HexFormat.of().formatHex(sha256().digest(bytes));
+            ParsedFile file = parsedByLocation.get(location);
+            if (file == null || !file.hash().equals(hash)) {
+                file = new ParsedFile(hash, parseText(new String(bytes, StandardCharsets.UTF_8), safeName(r)));
+            } else {
+                log.debug("Init-config: {} unchanged; reusing parsed config", safeName(r));
+            }
+            current.put(location, file);
+            for (ServiceConfig sc : file.configs()) {
+                if (sc == null || sc.service() == null || sc.service().isBlank()) continue;
+                merged.merge(sc.service(), sc, ResourceConfigSource::merge);
+                MessageDigest digest = fingerprints.computeIfAbsent(sc.service(), k -> sha256());
+                digest.update(location.getBytes(StandardCharsets.UTF_8));
+                digest.update(hash.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        parsedByLocation = current;
+
+        List<ServiceDefinition> out = new ArrayList<>(merged.size());
+        merged.forEach((service, model) -> out.add(new ServiceDefinition(
+                model, HexFormat.of().formatHex(fingerprints.get(service).digest()))));
+        return out;
+    }
+
+    /** A merged service definition and the content hash of the files that produced it. */
+    public record ServiceDefinition(ServiceConfig model, String fingerprint) {}
+
+    private record ParsedFile(String hash, List<ServiceConfig> configs) {}
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String describe(Resource r) {
+        try {
+            return r.getURI().toString();
+        } catch (Exception e) {
+            return r.getDescription();
+        }
     }
 
     private List<Resource> locateResources() throws Exception {
@@ -59,13 +119,8 @@ public class ResourceConfigSource {
                 .toList();
     }
 
-    private List<ServiceConfig> parseResource(Resource r) throws Exception {
-        String fname = safeName(r);
+    private List<ServiceConfig> parseText(String text, String fname) {
         log.info("Init-config: processing {}", fname);
-        String text;
-        try (InputStream in = r.getInputStream()) {
-            text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-        }
         boolean looksLikeCrd = text.contains(CrdKeys.KEY_API_VERSION) && text.contains(CrdKeys.KEY_KIND);
         List<ServiceConfig> out = new ArrayList<>(1);
         if (looksLikeCrd) {
@@ -90,15 +145,6 @@ public class ResourceConfigSource {
         return out;
     }
 
-    private List<ServiceConfig> mergeByService(List<ServiceConfig> all) {
-        Map<String, ServiceConfig> merged = new LinkedHashMap<>();
-        for (ServiceConfig sc : all) {
-            if (sc == null || sc.service() == null || sc.service().isBlank()) continue;
-            merged.merge(sc.service(), sc, ResourceConfigSource::merge);
-        }
-        return new ArrayList<>(merged.values());
-    }
-
     private static String safeName(Resource r) {
         try {
             return r.getFilename();
@@ -1,35 +1,206 @@
 package com.obsinity.service.core.counter;
 
+import com.obsinity.service.core.ingest.IngestPressureSource;
+import com.obsinity.service.core.support.CardinalityLimiter;
+import com.obsinity.service.core.support.PersistGate;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
-public class CounterBuffer {
+public class CounterBuffer implements IngestPressureSource {
 
     private final CounterHashService hashService;
+    private final CardinalityLimiter cardinality;
+
+    /** Buffer without cardinality budgets, for tests and embedded use. */
+    public CounterBuffer(CounterHashService hashService) {
+        this(hashService, CardinalityLimiter.unlimited());
+    }
+
+    @Autowired
+    public CounterBuffer(CounterHashService hashService, CardinalityLimiter cardinality) {
+        this.hashService = hashService;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Buffer key of one counter series. Key hashes cover only the key data, so counters with the same dimensions
+     * (and every counter's {@link CardinalityLimiter#OVERFLOW} key) share hashes and are told apart by the counter id.
+     */
+    public record BufferKey(UUID counterConfigId, String keyHash) {}
 
     public record BufferedCounterEntry(
             UUID counterConfigId, UUID eventTypeId, String keyHash, Map<String, String> keyData, long counter) {}
 
-    private final EnumMap<CounterGranularity, ConcurrentMap<Long, ConcurrentMap<String, BufferedCounterEntry>>>
+    private final EnumMap<CounterGranularity, ConcurrentMap<Long, ConcurrentMap<BufferKey, BufferedCounterEntry>>>
             buffers = new EnumMap<>(CounterGranularity.class);
 
+    private record InFlightKey(CounterGranularity granularity, long epoch, BufferKey key) {}
+
+    private final PersistGate persistGate = new PersistGate();
+
+    /**
+     * Deltas of flushed entries already committed per rollup bucket but not yet subtracted from the buffer. Written
+     * only under the exclusive {@link #persistGate} and read under its shared lock.
+     */
+    private final Map<InFlightKey, EnumMap<CounterBucket, Long>> committed = new HashMap<>();
+
     {
         for (CounterGranularity granularity : CounterGranularity.values()) {
             buffers.put(granularity, new ConcurrentHashMap<>());
         }
     }
 
-    public ConcurrentMap<Long, ConcurrentMap<String, BufferedCounterEntry>> getBuffer(CounterGranularity granularity) {
+    /** Soft cap on buffered keys across all granularities and epochs; only used for admission control. */
+    @Value("${obsinity.ingest.admission.maxBufferedKeys:500000}")
+    private long maxBufferedKeys = 500_000L;
+
+    @Override
+    public String pressureName() {
+        return "counter buffer";
+    }
+
+    @Override
+    public double pressure() {
+        return maxBufferedKeys <= 0 ? 0d : (double) bufferedKeys() / maxBufferedKeys;
+    }
+
+    /** Number of buffered keys across all granularities and epochs. */
+    public long bufferedKeys() {
+        long total = 0;
+        for (ConcurrentMap<Long, ConcurrentMap<BufferKey, BufferedCounterEntry>> granularity : buffers.values()) {
+            for (ConcurrentMap<BufferKey, BufferedCounterEntry> epoch : granularity.values()) {
+                total += epoch.size();
+            }
+        }
+        return total;
+    }
+
+    /** Unpersisted count of one key in one base epoch. */
+    public record PendingCount(long epoch, String keyHash, long count) {}
+
+    /**
+     * Orders rollup commits of flushed entries against queries that merge {@link #pendingCounts} with
+     * {@code event_counts}; both the lookup and the database read belong inside {@link PersistGate#read}.
+     */
+    public PersistGate persistGate() {
+        return persistGate;
+    }
+
+    /**
+     * Counts still held in memory for {@code counterConfigId} and the given key hashes with epochs in
+     * {@code [fromEpoch, toEpoch)} that {@code bucket} of {@code event_counts} does not cover yet, read without
+     * draining. Entries leave the buffer only after every bucket of their rollup has committed, and the part already
+     * committed to {@code bucket} is left out, so under {@link #persistGate()} this and {@code bucket} together count
+     * every event exactly once.
+     */
+    public List<PendingCount> pendingCounts(
+            CounterGranularity granularity,
+            CounterBucket bucket,
+            UUID counterConfigId,
+            Set<String> keyHashes,
+            long fromEpoch,
+            long toEpoch) {
+        List<PendingCount> pending = new ArrayList<>();
+        buffers.get(granularity).forEach((epoch, keys) -> {
+            if (epoch < fromEpoch || epoch >= toEpoch) {
+                return;
+            }
+            for (String keyHash : keyHashes) {
+                BufferKey key = new BufferKey(counterConfigId, keyHash);
+                BufferedCounterEntry entry = keys.get(key);
+                if (entry == null) {
+                    continue;
+                }
+                long count = entry.counter() - committedCount(granularity, epoch, key, bucket);
+                if (count > 0) {
+                    pending.add(new PendingCount(epoch, keyHash, count));
+                }
+            }
+        });
+        return pending;
+    }
+
+    private long committedCount(CounterGranularity granularity, long epoch, BufferKey key, CounterBucket bucket) {
+        if (committed.isEmpty()) {
+            return 0L;
+        }
+        EnumMap<CounterBucket, Long> byBucket = committed.get(new InFlightKey(granularity, epoch, key));
+        return byBucket != null ? byBucket.getOrDefault(bucket, 0L) : 0L;
+    }
+
+    /**
+     * Records that a flushed batch has committed to {@code bucket} while still in the buffer. Runs under the
+     * exclusive {@link #persistGate()}, together with the commit.
+     */
+    void markCommitted(
+            CounterGranularity granularity,
+            long epoch,
+            CounterBucket bucket,
+            List<CounterPersistService.BatchItem> batch) {
+        for (CounterPersistService.BatchItem item : batch) {
+            committed
+                    .computeIfAbsent(
+                            new InFlightKey(granularity, epoch, new BufferKey(item.counterConfigId(), item.keyHash())),
+                            k -> new EnumMap<>(CounterBucket.class))
+                    .merge(bucket, item.delta(), Long::sum);
+        }
+    }
+
+    /**
+     * Ends a flushed batch: drops the marks {@link #markCommitted} left for {@code committedBuckets} and, when the
+     * batch was persisted, subtracts it from the buffer. Runs under the exclusive {@link #persistGate()}.
+     */
+    void release(
+            CounterGranularity granularity,
+            long epoch,
+            List<CounterPersistService.BatchItem> batch,
+            List<CounterBucket> committedBuckets,
+            boolean persisted) {
+        for (CounterPersistService.BatchItem item : batch) {
+            BufferKey key = new BufferKey(item.counterConfigId(), item.keyHash());
+            InFlightKey inFlight = new InFlightKey(granularity, epoch, key);
+            EnumMap<CounterBucket, Long> byBucket = committed.get(inFlight);
+            if (byBucket != null) {
+                for (CounterBucket bucket : committedBuckets) {
+                    byBucket.computeIfPresent(
+                            bucket, (b, count) -> count == item.delta() ? null : count - item.delta());
+                }
+                if (byBucket.isEmpty()) {
+                    committed.remove(inFlight);
+                }
+            }
+            if (persisted) {
+                decrement(granularity, epoch, item.counterConfigId(), item.keyHash(), item.delta());
+            }
+        }
+    }
+
+    /** Newest epoch with buffered data for the granularity, or {@code null} when empty. */
+    public Long latestEpoch(CounterGranularity granularity) {
+        return buffers.get(granularity).keySet().stream().max(Long::compare).orElse(null);
+    }
+
+    /** Oldest epoch with buffered data for the granularity, or {@code null} when empty. */
+    public Long earliestEpoch(CounterGranularity granularity) {
+        return buffers.get(granularity).keySet().stream().min(Long::compare).orElse(null);
+    }
+
+    public ConcurrentMap<Long, ConcurrentMap<BufferKey, BufferedCounterEntry>> getBuffer(
+            CounterGranularity granularity) {
         return buffers.get(granularity);
     }
 
@@ -38,27 +209,55 @@ public class CounterBuffer {
             long epoch,
             UUID counterConfigId,
             UUID eventTypeId,
-            String keyHash,
             long value,
             Map<String, String> keyData) {
-        hashService.getOrCreateHash(keyData);
+        increment(granularity, epoch, counterConfigId, eventTypeId, value, keyData, null, null);
+    }
+
+    /**
+     * Adds {@code value} to a key, folding it into the counter's {@link CardinalityLimiter#OVERFLOW} key when the key
+     * is new and the counter has exhausted its cardinality budget. Admission works on the canonical key, so only
+     * admitted keys (and the overflow key) are hashed and enter the hash cache.
+     *
+     * @param counterName name reported in cardinality stats
+     * @param maxKeys per-counter budget, or {@code null} for {@code obsinity.cardinality.counters.maxKeys}
+     */
+    public void increment(
+            CounterGranularity granularity,
+            long epoch,
+            UUID counterConfigId,
+            UUID eventTypeId,
+            long value,
+            Map<String, String> keyData,
+            String counterName,
+            Integer maxKeys) {
+        String canonical = hashService.canonicalKey(keyData);
+        if (!cardinality.admit(
+                CardinalityLimiter.Kind.COUNTER, counterConfigId, counterName, canonical, maxKeys, epoch)) {
+            keyData = CardinalityLimiter.overflowKey(keyData);
+            canonical = hashService.canonicalKey(keyData);
+        }
+        String keyHash = hashService.getOrCreateHashOfCanonical(canonical);
+        Map<String, String> entryKeyData = keyData;
+        String entryKeyHash = keyHash;
         var epochMap = buffers.get(granularity).computeIfAbsent(epoch, k -> new ConcurrentHashMap<>());
-        epochMap.compute(keyHash, (k, existing) -> {
+        epochMap.compute(new BufferKey(counterConfigId, entryKeyHash), (k, existing) -> {
             if (existing == null) {
-                return new BufferedCounterEntry(counterConfigId, eventTypeId, keyHash, keyData, value);
+                return new BufferedCounterEntry(counterConfigId, eventTypeId, entryKeyHash, entryKeyData, value);
             }
             return new BufferedCounterEntry(
-                    counterConfigId, eventTypeId, keyHash, existing.keyData(), existing.counter() + value);
+                    counterConfigId, eventTypeId, entryKeyHash, existing.keyData(), existing.counter() + value);
         });
     }
 
-    public void decrement(CounterGranularity granularity, long epoch, String keyHash, long value) {
-        ConcurrentMap<String, BufferedCounterEntry> epochMap =
+    public void decrement(
+            CounterGranularity granularity, long epoch, UUID counterConfigId, String keyHash, long value) {
+        ConcurrentMap<BufferKey, BufferedCounterEntry> epochMap =
                 buffers.get(granularity).get(epoch);
         if (epochMap == null) {
             return;
         }
-        epochMap.computeIfPresent(keyHash, (k, existing) -> {
+        epochMap.computeIfPresent(new BufferKey(counterConfigId, keyHash), (k, existing) -> {
             long updated = Math.max(0, existing.counter() - value);
             if (updated == 0) {
                 return null;
@@ -76,7 +275,8 @@ public class CounterBuffer {
     }
 
     public void cleanupOldEntries(CounterGranularity granularity) {
-        ConcurrentMap<Long, ConcurrentMap<String, BufferedCounterEntry>> granularityBuffer = buffers.get(granularity);
+        ConcurrentMap<Long, ConcurrentMap<BufferKey, BufferedCounterEntry>> granularityBuffer =
+                buffers.get(granularity);
         AtomicInteger removedKeys = new AtomicInteger();
         AtomicInteger removedEpochs = new AtomicInteger();
 
@@ -44,9 +44,10 @@ public class CounterFlushService {
     /** Force flushing all pending epochs regardless of cutoff. */
     public void flushAllPending(CounterGranularity granularity) {
         synchronized (flushLock) {
-            ConcurrentMap<Long, ConcurrentMap<String, CounterBuffer.BufferedCounterEntry>> bucket =
+            ConcurrentMap<Long, ConcurrentMap<CounterBuffer.BufferKey, CounterBuffer.BufferedCounterEntry>> bucket =
                     buffer.getBuffer(granularity);
-            for (Map.Entry<Long, ConcurrentMap<String, CounterBuffer.BufferedCounterEntry>> entry : bucket.entrySet()) {
+            for (Map.Entry<Long, ConcurrentMap<CounterBuffer.BufferKey, CounterBuffer.BufferedCounterEntry>> entry :
+                    bucket.entrySet()) {
                 flushEpoch(granularity, entry.getKey(), entry.getValue());
             }
         }
@@ -56,13 +57,13 @@ public class CounterFlushService {
     private void flushGranularity(CounterGranularity granularity) {
         synchronized (flushLock) {
             try {
-                ConcurrentMap<Long, ConcurrentMap<String, CounterBuffer.BufferedCounterEntry>> bucket =
+                ConcurrentMap<Long, ConcurrentMap<CounterBuffer.BufferKey, CounterBuffer.BufferedCounterEntry>> bucket =
                         buffer.getBuffer(granularity);
                 long now = Instant.now().getEpochSecond();
                 long bucketSeconds = granularity.duration().toSeconds();
                 long cutoff = (now / bucketSeconds) * bucketSeconds - bucketSeconds;
 
-                for (Map.Entry<Long, ConcurrentMap<String, CounterBuffer.BufferedCounterEntry>> entry :
+                for (Map.Entry<Long, ConcurrentMap<CounterBuffer.BufferKey, CounterBuffer.BufferedCounterEntry>> entry :
                         bucket.entrySet()) {
                     long epoch = entry.getKey();
                     if (epoch > cutoff) {
@@ -79,7 +80,9 @@ public class CounterFlushService {
     }
 
     private void flushEpoch(
-            CounterGranularity granularity, long epoch, Map<String, CounterBuffer.BufferedCounterEntry> keyCounts) {
+            CounterGranularity granularity,
+            long epoch,
+            Map<CounterBuffer.BufferKey, CounterBuffer.BufferedCounterEntry> keyCounts) {
         if (keyCounts == null || keyCounts.isEmpty()) {
             return;
         }
@@ -66,7 +66,16 @@ public class CounterHashService {
     }
 
     public String getOrCreateHash(Map<String, String> keyData) {
-        String canonical = buildCanonicalKeyString(keyData);
+        return getOrCreateHashOfCanonical(canonicalKey(keyData));
+    }
+
+    /** Canonical encoding of a key, the input of its hash. Pure: touches neither cache. */
+    public String canonicalKey(Map<String, String> keyData) {
+        return buildCanonicalKeyString(keyData);
+    }
+
+    /** Hash of a key already in {@link #canonicalKey canonical} form, caching both directions. */
+    public String getOrCreateHashOfCanonical(String canonical) {
         String hash = keyToHash.get(canonical, this::computeHash);
         hashToKey.put(hash, canonical);
         return hash;
@@ -1,15 +1,20 @@
 package com.obsinity.service.core.counter;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.obsinity.flow.model.FlowEvent;
 import com.obsinity.service.core.config.CounterConfig;
 import com.obsinity.service.core.config.EventTypeConfig;
 import com.obsinity.service.core.model.EventEnvelope;
+import com.obsinity.service.core.model.JsonObjectAttributes;
 import java.time.Instant;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -18,7 +23,13 @@ import org.springframework.stereotype.Service;
 public class CounterIngestService {
 
     private final CounterBuffer buffer;
-    private final CounterHashService hashService;
+
+    /**
+     * Largest accepted sample weight, i.e. {@code 1 / minRate} of client-side sampling. Heavier weights are clamped to
+     * it so a single event cannot inflate a counter arbitrarily.
+     */
+    @Value("${obsinity.counters.sampling.maxWeight:1000}")
+    private double maxSampleWeight = 1000;
 
     public void process(EventEnvelope envelope, EventTypeConfig eventConfig) {
         if (eventConfig.counters() == null || eventConfig.counters().isEmpty()) {
@@ -27,6 +38,7 @@ public class CounterIngestService {
         Map<String, Object> attributes = normalizeAttributes(envelope.getAttributes());
         Instant occurredAt = envelope.getTimestamp();
         UUID eventTypeId = eventConfig.eventId();
+        long increment = sampledIncrement(attributes);
 
         for (CounterConfig counter : eventConfig.counters()) {
             Map<String, String> keyData = extractKeyData(counter.keyedKeys(), attributes);
@@ -36,9 +48,53 @@ public class CounterIngestService {
             CounterGranularity granularity = counter.granularity();
             Instant aligned = granularity.baseBucket().align(occurredAt);
             long epoch = aligned.getEpochSecond();
-            String keyHash = hashService.getOrCreateHash(keyData);
-            buffer.increment(granularity, epoch, counter.id(), eventTypeId, keyHash, 1, keyData);
+            buffer.increment(
+                    granularity,
+                    epoch,
+                    counter.id(),
+                    eventTypeId,
+                    increment,
+                    keyData,
+                    eventConfig.eventType() + "/" + counter.name(),
+                    maxKeys(counter));
+        }
+    }
+
+    /** Per-counter cardinality budget from the metric spec ({@code maxKeys}), if configured. */
+    private static Integer maxKeys(CounterConfig counter) {
+        JsonNode value = counter.definition() != null ? counter.definition().get("maxKeys") : null;
+        return value != null && value.canConvertToInt() ? value.intValue() : null;
+    }
+
+    /**
+     * Count contributed by one event. Client-side sampling tags kept events with
+     * {@link FlowEvent#SAMPLE_WEIGHT_ATTR} ({@code 1 / rate}); fractional weights are rounded stochastically so
+     * totals stay unbiased. Weights above {@code maxSampleWeight} are clamped to it.
+     */
+    private long sampledIncrement(Map<String, Object> attributes) {
+        Object raw = resolveAttribute(attributes, FlowEvent.SAMPLE_WEIGHT_ATTR);
+        double weight;
+        if (raw instanceof Number n) {
+            weight = n.doubleValue();
+        } else if (raw instanceof String s) {
+            try {
+                weight = Double.parseDouble(s.trim());
+            } catch (NumberFormatException ex) {
+                return 1;
+            }
+        } else {
+            return 1;
+        }
+        if (!(weight > 1.0) || Double.isInfinite(weight)) {
+            return 1;
         }
+        if (weight > maxSampleWeight) {
+            log.debug("Clamping sample weight {} to maxWeight {}", weight, maxSampleWeight);
+            weight = maxSampleWeight;
+        }
+        long whole = (long) weight;
+        double fraction = weight - whole;
+        return fraction > 0 && ThreadLocalRandom.current().nextDouble() < fraction ? whole + 1 : whole;
     }
 
     private Map<String, String> extractKeyData(List<String> keyedKeys, Map<String, Object> attributes) {
@@ -107,6 +163,10 @@ public class CounterIngestService {
         if (attributes == null || attributes.isEmpty()) {
             return Map.of();
         }
+        if (attributes instanceof JsonObjectAttributes) {
+            // Already normalized by the mapper; copying would convert every value just to read a few keys.
+            return attributes;
+        }
         Map<String, Object> normalized = new LinkedHashMap<>();
         attributes.forEach((key, value) -> mergeAttribute(normalized, key, value));
         return normalized;
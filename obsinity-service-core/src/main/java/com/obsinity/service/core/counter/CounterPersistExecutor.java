@@ -2,9 +2,13 @@ package com.obsinity.service.core.counter;
 
 import com.obsinity.service.core.config.PipelineProperties;
 import com.obsinity.service.core.counter.CounterPersistService.BatchItem;
+import com.obsinity.service.core.ingest.IngestPressureSource;
+import com.obsinity.service.core.support.DataExtentRegistry;
+import com.obsinity.service.core.support.PersistGate;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
@@ -18,11 +22,12 @@ import org.springframework.stereotype.Component;
 @Component
 @Slf4j
 @RequiredArgsConstructor
-public class CounterPersistExecutor {
+public class CounterPersistExecutor implements IngestPressureSource {
 
     private final CounterPersistService persistService;
     private final CounterBuffer buffer;
     private final PipelineProperties pipelineProperties;
+    private final DataExtentRegistry extents;
 
     private int queueCapacity;
     private BlockingQueue<Job> queue;
@@ -45,6 +50,17 @@ public class CounterPersistExecutor {
         log.info("Counter persist executor started workers={}, queueCapacity={}", workers, capacity);
     }
 
+    @Override
+    public String pressureName() {
+        return "counter persist queue";
+    }
+
+    @Override
+    public double pressure() {
+        BlockingQueue<?> q = queue;
+        return q == null || queueCapacity <= 0 ? 0d : (double) q.size() / queueCapacity;
+    }
+
     @PreDestroy
     void stop() {
         if (executor != null) {
@@ -69,11 +85,25 @@ public class CounterPersistExecutor {
             while (!Thread.currentThread().isInterrupted()) {
                 Job job = queue.take();
                 activeJobs.incrementAndGet();
+                List<CounterBucket> committedBuckets = new ArrayList<>();
+                boolean persisted = false;
                 try {
-                    persistService.persistBatch(job.granularity(), job.batch());
-                    for (BatchItem item : job.batch()) {
-                        buffer.decrement(job.granularity(), job.epoch(), item.keyHash(), item.delta());
-                    }
+                    // Each bucket is marked as committed together with its commit, and the buffer is decremented
+                    // once all are, so queries merging the buffer never count a flushed entry twice.
+                    PersistGate gate = buffer.persistGate();
+                    persistService.persistBatch(job.granularity(), job.batch(), bucket -> gate.onCommit(() -> {
+                        buffer.markCommitted(job.granularity(), job.epoch(), bucket, job.batch());
+                        committedBuckets.add(bucket);
+                    }));
+                    persisted = true;
+                    gate.exclusive(() -> buffer.release(
+                            job.granularity(), job.epoch(), job.batch(), committedBuckets, true));
+                    Instant ts = Instant.ofEpochSecond(job.epoch());
+                    job.batch().stream()
+                            .map(BatchItem::counterConfigId)
+                            .distinct()
+                            .forEach(id ->
+                                    extents.recordWrite(DataExtentRegistry.EVENT_COUNTS, id, job.granularity(), ts));
                     long total =
                             job.batch().stream().mapToLong(BatchItem::delta).sum();
                     log.info(
@@ -86,6 +116,11 @@ public class CounterPersistExecutor {
                         log.debug("Counter persist queue depth after drain={}/{}", queue.size(), queueCapacity);
                     }
                 } finally {
+                    if (!persisted) {
+                        buffer.persistGate()
+                                .exclusive(() -> buffer.release(
+                                        job.granularity(), job.epoch(), job.batch(), committedBuckets, false));
+                    }
                     activeJobs.decrementAndGet();
                 }
             }
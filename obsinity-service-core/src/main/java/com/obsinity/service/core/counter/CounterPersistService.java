@@ -5,17 +5,23 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,8 +35,24 @@ public class CounterPersistService {
     private final JdbcTemplate jdbcTemplate;
     private final TransactionTemplate txTemplate;
 
+    /** Keys tracked per counter, bucket and timestamp in {@code event_count_topk}; 0 disables the summaries. */
+    @Value("${obsinity.counters.topk.capacity:64}")
+    private int topKCapacity = 64;
+
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void persistBatch(CounterGranularity baseGranularity, List<BatchItem> batch) {
+        persistBatch(baseGranularity, batch, bucket -> {});
+    }
+
+    /**
+     * Writes the batch into every materialised bucket, one transaction per bucket.
+     *
+     * @param inTransaction called inside each bucket's transaction after its rows are written, e.g. to register work
+     *     that must happen together with the commit
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void persistBatch(
+            CounterGranularity baseGranularity, List<BatchItem> batch, Consumer<CounterBucket> inTransaction) {
         if (batch.isEmpty()) {
             return;
         }
@@ -54,12 +76,124 @@ public class CounterPersistService {
             try {
                 txTemplate.execute(status -> {
                     executeBatchWithRetry(sql, aligned, bucket);
+                    inTransaction.accept(bucket);
                     return null;
                 });
             } catch (Exception ex) {
                 log.error("Failed to persist counter rollup bucket {}", bucket.label(), ex);
                 throw ex;
             }
+            mergeTopK(aligned, bucket);
+        }
+    }
+
+    /**
+     * Folds the batch into the heavy-hitter summary of each (counter, timestamp) it touches. Best-effort and after
+     * the rollup has committed, with a fixed number of round trips per bucket: missing rows are created up front
+     * (autocommitted, so the transaction below only takes locks in one place), then one transaction locks every
+     * summary of the bucket in a single ordered {@code FOR UPDATE}, which serialises concurrent merges without
+     * lock-order deadlocks, and writes all merged summaries back in one batched upsert. A failed merge is logged and
+     * skipped without touching the counters.
+     */
+    private void mergeTopK(List<BatchItem> aligned, CounterBucket bucket) {
+        if (topKCapacity <= 0) {
+            return;
+        }
+        Map<TopKGroup, Map<String, SpaceSavingSummary.Item>> groups = new TreeMap<>();
+        for (BatchItem item : aligned) {
+            groups.computeIfAbsent(
+                            new TopKGroup(item.counterConfigId(), item.timestamp(), item.eventTypeId()),
+                            g -> new HashMap<>())
+                    .merge(
+                            item.keyHash(),
+                            new SpaceSavingSummary.Item(item.keyHash(), item.keyData(), item.delta(), 0L),
+                            (a, b) -> new SpaceSavingSummary.Item(a.keyHash(), a.keyData(), a.count() + b.count(), 0L));
+        }
+        List<Object[]> placeholders = new ArrayList<>(groups.size());
+        for (TopKGroup group : groups.keySet()) {
+            placeholders.add(new Object[] {
+                Timestamp.from(group.timestamp()), bucket.label(), group.counterConfigId(), group.eventTypeId()
+            });
+        }
+        try {
+            jdbcTemplate.batchUpdate(
+                    """
+                    INSERT INTO obsinity.event_count_topk (ts, bucket, counter_config_id, event_type_id, summary)
+                    VALUES (?, ?, ?, ?, '{}'::jsonb)
+                    ON CONFLICT (ts, bucket, counter_config_id) DO NOTHING
+                    """,
+                    placeholders);
+            txTemplate.execute(status -> {
+                Map<TopKGroup, String> stored = lockTopK(groups.keySet(), bucket);
+                List<Object[]> rows = new ArrayList<>(groups.size());
+                groups.forEach((group, totals) -> {
+                    SpaceSavingSummary summary = SpaceSavingSummary.ofExact(topKCapacity, totals);
+                    String json = stored.get(group);
+                    if (json != null && !"{}".equals(json)) {
+                        SpaceSavingSummary merged = SpaceSavingSummary.fromJson(json);
+                        merged.merge(summary);
+                        summary = merged;
+                    }
+                    rows.add(new Object[] {
+                        Timestamp.from(group.timestamp()),
+                        bucket.label(),
+                        group.counterConfigId(),
+                        group.eventTypeId(),
+                        summary.toJson()
+                    });
+                });
+                jdbcTemplate.batchUpdate(
+                        """
+                        INSERT INTO obsinity.event_count_topk (ts, bucket, counter_config_id, event_type_id, summary)
+                        VALUES (?, ?, ?, ?, ?::jsonb)
+                        ON CONFLICT (ts, bucket, counter_config_id) DO UPDATE SET summary = EXCLUDED.summary
+                        """,
+                        rows);
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Failed to merge {} top-K summaries for bucket {}", groups.size(), bucket.label(), ex);
+        }
+    }
+
+    /** Locks the stored summaries of {@code groups} in one statement, in group order; keyed by counter and time. */
+    private Map<TopKGroup, String> lockTopK(Collection<TopKGroup> groups, CounterBucket bucket) {
+        Timestamp[] timestamps = groups.stream().map(g -> Timestamp.from(g.timestamp())).toArray(Timestamp[]::new);
+        UUID[] counterIds = groups.stream().map(TopKGroup::counterConfigId).toArray(UUID[]::new);
+        Map<TopKGroup, String> stored = new TreeMap<>();
+        jdbcTemplate.query(
+                con -> {
+                    var ps = con.prepareStatement(
+                            """
+                            SELECT ts, counter_config_id, summary::text AS summary
+                            FROM obsinity.event_count_topk
+                            WHERE bucket = ?
+                              AND (ts, counter_config_id) IN (
+                                  SELECT * FROM unnest(?::timestamptz[], ?::uuid[]))
+                            ORDER BY counter_config_id, ts
+                            FOR UPDATE
+                            """);
+                    ps.setString(1, bucket.label());
+                    ps.setArray(2, con.createArrayOf("timestamptz", timestamps));
+                    ps.setArray(3, con.createArrayOf("uuid", counterIds));
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> stored.put(
+                        new TopKGroup(
+                                rs.getObject("counter_config_id", UUID.class),
+                                rs.getTimestamp("ts").toInstant(),
+                                null),
+                        rs.getString("summary")));
+        return stored;
+    }
+
+    /** Ordered and compared by counter then timestamp; the event type follows from the counter. */
+    private record TopKGroup(UUID counterConfigId, Instant timestamp, UUID eventTypeId)
+            implements Comparable<TopKGroup> {
+        @Override
+        public int compareTo(TopKGroup other) {
+            int c = counterConfigId.compareTo(other.counterConfigId);
+            return c != 0 ? c : timestamp.compareTo(other.timestamp);
         }
     }
 
@@ -44,6 +44,26 @@ public class CounterQueryRepository {
 
     public record KeyTotal(String keyHash, long total) {}
 
+    /** Serialized {@link SpaceSavingSummary} rows of a counter within {@code [from, to)}. */
+    public List<String> fetchTopKSummaries(UUID counterConfigId, CounterBucket bucket, Instant from, Instant to) {
+        String sql =
+                """
+                SELECT summary::text AS summary
+                FROM obsinity.event_count_topk
+                WHERE counter_config_id = :counterConfigId
+                  AND bucket = :bucket
+                  AND ts >= :fromInclusive
+                  AND ts < :toExclusive
+                ORDER BY ts
+                """;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("counterConfigId", counterConfigId)
+                .addValue("bucket", bucket.label())
+                .addValue("fromInclusive", Timestamp.from(from))
+                .addValue("toExclusive", Timestamp.from(to));
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> rs.getString("summary"));
+    }
+
     public Instant findEarliestTimestamp(UUID counterConfigId, CounterBucket bucket) {
         String sql =
                 """
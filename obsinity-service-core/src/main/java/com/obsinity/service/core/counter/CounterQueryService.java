@@ -4,22 +4,26 @@ import com.obsinity.service.core.config.ConfigLookup;
 import com.obsinity.service.core.config.CounterConfig;
 import com.obsinity.service.core.config.EventTypeConfig;
 import com.obsinity.service.core.repo.ServicesCatalogRepository;
+import com.obsinity.service.core.support.DataExtentRegistry;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class CounterQueryService {
 
@@ -29,34 +33,46 @@ public class CounterQueryService {
     private final ServicesCatalogRepository servicesCatalogRepository;
     private final CounterQueryRepository repository;
     private final CounterHashService hashService;
+    private final DataExtentRegistry extents;
+    private final CounterBuffer buffer;
 
-    public CounterQueryResult runQuery(CounterQueryRequest request) {
-        Objects.requireNonNull(request, "query request");
-        if (request.serviceKey() == null || request.serviceKey().isBlank()) {
-            throw new IllegalArgumentException("serviceKey is required");
-        }
-        if (request.eventType() == null || request.eventType().isBlank()) {
-            throw new IllegalArgumentException("eventType is required");
-        }
-        if (request.counterName() == null || request.counterName().isBlank()) {
-            throw new IllegalArgumentException("counterName is required");
-        }
+    /** Capacity of merged top-K summaries; matches the per-bucket summaries written by the persist service. */
+    @Value("${obsinity.counters.topk.capacity:64}")
+    private int topKCapacity = 64;
 
-        UUID serviceId = servicesCatalogRepository.findIdByServiceKey(request.serviceKey());
-        if (serviceId == null) {
-            throw new IllegalArgumentException("Unknown service key: " + request.serviceKey());
-        }
+    /** Query service over persisted rollups only. */
+    public CounterQueryService(
+            ConfigLookup configLookup,
+            ServicesCatalogRepository servicesCatalogRepository,
+            CounterQueryRepository repository,
+            CounterHashService hashService,
+            DataExtentRegistry extents) {
+        this(configLookup, servicesCatalogRepository, repository, hashService, extents, null);
+    }
 
-        EventTypeConfig eventConfig = configLookup
-                .get(serviceId, request.eventType())
-                .orElseThrow(() -> new IllegalArgumentException("Unknown event type: " + request.eventType()));
+    /**
+     * @param buffer when set, windows overlapping epochs that are not yet persisted include the buffered counts, so
+     *     results are current regardless of flush cadence
+     */
+    @Autowired
+    public CounterQueryService(
+            ConfigLookup configLookup,
+            ServicesCatalogRepository servicesCatalogRepository,
+            CounterQueryRepository repository,
+            CounterHashService hashService,
+            DataExtentRegistry extents,
+            CounterBuffer buffer) {
+        this.configLookup = configLookup;
+        this.servicesCatalogRepository = servicesCatalogRepository;
+        this.repository = repository;
+        this.hashService = hashService;
+        this.extents = extents;
+        this.buffer = buffer;
+    }
 
-        List<CounterConfig> counters = eventConfig.counters() != null ? eventConfig.counters() : List.of();
-        CounterConfig counterConfig = counters.stream()
-                .filter(c -> c.name().equalsIgnoreCase(request.counterName()))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Unknown counter: " + request.counterName() + " for event " + request.eventType()));
+    public CounterQueryResult runQuery(CounterQueryRequest request) {
+        Objects.requireNonNull(request, "query request");
+        CounterConfig counterConfig = resolveCounter(request.serviceKey(), request.eventType(), request.counterName());
 
         CounterGranularity granularity = counterConfig.granularity();
         Duration requestedInterval =
@@ -68,9 +84,19 @@ public class CounterQueryService {
 
         CounterBucket bucket = resolveBucket(granularity, requestedInterval);
 
-        Instant earliestData = repository.findEarliestTimestamp(counterConfig.id(), bucket);
-        Instant latestData = repository.findLatestTimestamp(counterConfig.id(), bucket);
+        UUID counterConfigId = counterConfig.id();
+        DataExtentRegistry.Extent extent = extents.extent(
+                DataExtentRegistry.key(DataExtentRegistry.EVENT_COUNTS, counterConfigId, bucket),
+                () -> new DataExtentRegistry.Extent(
+                        repository.findEarliestTimestamp(counterConfigId, bucket),
+                        repository.findLatestTimestamp(counterConfigId, bucket)));
+        Instant earliestData = extent.earliest();
+        Instant latestData = extent.latest();
         Instant defaultEnd = latestData != null ? latestData : Instant.now();
+        Long latestBuffered = buffer != null ? buffer.latestEpoch(granularity) : null;
+        if (latestData != null && latestBuffered != null && latestBuffered > latestData.getEpochSecond()) {
+            defaultEnd = Instant.ofEpochSecond(latestBuffered);
+        }
         Instant defaultStart = defaultEnd.minus(Duration.ofDays(7));
         if (earliestData != null && defaultStart.isBefore(earliestData)) {
             defaultStart = earliestData;
@@ -105,14 +131,21 @@ public class CounterQueryService {
         Duration step = requestedInterval;
         Instant cursor = alignedStart.plus(step.multipliedBy(offset));
         int intervalsAdded = 0;
+        // Windows ending before the oldest buffered epoch have nothing to merge. Epochs buffered later are still
+        // being counted and reach the database only after this read, so skipping them cannot count them twice.
+        Long earliestBuffered = buffer != null ? buffer.earliestEpoch(granularity) : null;
 
         while (cursor.isBefore(alignedEnd) && intervalsAdded < limit) {
             Instant next = cursor.plus(step);
-            List<CounterQueryRepository.KeyTotal> totals =
-                    repository.fetchRange(counterConfig.id(), bucket, hashArray, cursor, next);
-            Map<String, Long> totalsByHash = totals.stream()
-                    .collect(Collectors.toMap(
-                            CounterQueryRepository.KeyTotal::keyHash, CounterQueryRepository.KeyTotal::total));
+            Map<String, Long> totalsByHash;
+            if (earliestBuffered != null && next.getEpochSecond() > earliestBuffered) {
+                Instant from = cursor;
+                totalsByHash = buffer.persistGate()
+                        .read(() -> totalsWithBuffered(
+                                granularity, bucket, counterConfigId, hashes, hashArray, from, next));
+            } else {
+                totalsByHash = fetchTotals(counterConfigId, bucket, hashArray, cursor, next);
+            }
 
             List<CounterQueryWindow.CountEntry> countEntries = new ArrayList<>();
             for (int i = 0; i < keyMatrix.size(); i++) {
@@ -131,6 +164,149 @@ public class CounterQueryService {
                 windows, offset, limit, computeTotalIntervals(alignedStart, alignedEnd, step), start, end);
     }
 
+    private Map<String, Long> fetchTotals(
+            UUID counterConfigId, CounterBucket bucket, String[] hashArray, Instant from, Instant to) {
+        return repository.fetchRange(counterConfigId, bucket, hashArray, from, to).stream()
+                .collect(Collectors.toMap(
+                        CounterQueryRepository.KeyTotal::keyHash,
+                        CounterQueryRepository.KeyTotal::total,
+                        Long::sum,
+                        HashMap::new));
+    }
+
+    /**
+     * Persisted totals of one window plus the buffered counts {@code bucket} does not cover yet. Buffer epochs are
+     * aligned to the counter's base bucket, which every materialised bucket is a multiple of. Must run under the
+     * buffer's persist gate so no flushed entry commits between the two reads.
+     */
+    private Map<String, Long> totalsWithBuffered(
+            CounterGranularity granularity,
+            CounterBucket bucket,
+            UUID counterConfigId,
+            List<String> hashes,
+            String[] hashArray,
+            Instant from,
+            Instant to) {
+        List<CounterBuffer.PendingCount> pending = buffer.pendingCounts(
+                granularity, bucket, counterConfigId, Set.copyOf(hashes), from.getEpochSecond(), to.getEpochSecond());
+        Map<String, Long> totals = fetchTotals(counterConfigId, bucket, hashArray, from, to);
+        for (CounterBuffer.PendingCount count : pending) {
+            totals.merge(count.keyHash(), count.count(), Long::sum);
+        }
+        return totals;
+    }
+
+    /**
+     * Heaviest keys of a counter over a range, answered from the per-bucket Space-Saving summaries in
+     * {@code event_count_topk} rather than from every {@code event_counts} row. The requested interval only aligns
+     * the range; summaries are read from the coarsest materialised buckets that tile it, with finer buckets for the
+     * ragged edges, so cost is bounded by a handful of summaries per bucket size regardless of range length and key
+     * cardinality.
+     */
+    public CounterTopKResult runTopKQuery(CounterTopKRequest request) {
+        Objects.requireNonNull(request, "top-k request");
+        CounterConfig counterConfig = resolveCounter(request.serviceKey(), request.eventType(), request.counterName());
+        CounterGranularity granularity = counterConfig.granularity();
+        Duration requestedInterval =
+                request.interval() != null ? DurationParser.parse(request.interval()) : granularity.duration();
+        if (requestedInterval.compareTo(granularity.duration()) < 0) {
+            requestedInterval = granularity.duration();
+        }
+        CounterBucket bucket = resolveBucket(granularity, requestedInterval);
+
+        Instant end = request.end() != null ? Instant.parse(request.end()) : Instant.now();
+        Instant start = request.start() != null ? Instant.parse(request.start()) : end.minus(Duration.ofDays(7));
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("The requested end time must be after start");
+        }
+        int limit = request.limit() != null && request.limit() > 0 ? request.limit() : 10;
+
+        Instant alignedStart = bucket.align(start);
+        Instant alignedEnd = bucket.alignToNext(end.plusMillis(1));
+        List<BucketSpan> spans = tile(granularity.materialisedBuckets(), alignedStart, alignedEnd);
+        // Merge into the configured capacity: summaries written under an older setting must not resize the result.
+        SpaceSavingSummary merged = new SpaceSavingSummary(topKCapacity > 0 ? topKCapacity : limit);
+        int summaries = 0;
+        for (BucketSpan span : spans) {
+            List<String> rows =
+                    repository.fetchTopKSummaries(counterConfig.id(), span.bucket(), span.from(), span.to());
+            for (String json : rows) {
+                merged.merge(SpaceSavingSummary.fromJson(json));
+            }
+            summaries += rows.size();
+        }
+        List<CounterTopKResult.Entry> entries = merged.top(limit).stream()
+                .map(item -> new CounterTopKResult.Entry(item.keyData(), item.count(), item.error()))
+                .toList();
+        CounterBucket coarsest = spans.stream()
+                .map(BucketSpan::bucket)
+                .max(Comparator.comparing(CounterBucket::duration))
+                .orElse(bucket);
+        return new CounterTopKResult(entries, coarsest.label(), summaries, alignedStart, alignedEnd);
+    }
+
+    /** A contiguous run of whole {@code bucket} rows within {@code [from, to)}. */
+    record BucketSpan(CounterBucket bucket, Instant from, Instant to) {}
+
+    /**
+     * Covers {@code [from, to)}, aligned to the finest allowed bucket, with the coarsest allowed buckets whose
+     * boundaries fit inside it and finer buckets for what is left on either side. Ordered by time.
+     */
+    static List<BucketSpan> tile(EnumSet<CounterBucket> allowed, Instant from, Instant to) {
+        List<CounterBucket> buckets = CounterBucket.valuesSortedByDescendingDuration().stream()
+                .filter(allowed::contains)
+                .toList();
+        List<BucketSpan> spans = new ArrayList<>();
+        tile(buckets, 0, from, to, spans);
+        return spans;
+    }
+
+    private static void tile(List<CounterBucket> buckets, int index, Instant from, Instant to, List<BucketSpan> out) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        for (int i = index; i < buckets.size(); i++) {
+            CounterBucket candidate = buckets.get(i);
+            Instant floor = candidate.align(from);
+            Instant lo = floor.equals(from) ? from : floor.plus(candidate.duration());
+            Instant hi = candidate.align(to);
+            if (lo.isBefore(hi)) {
+                tile(buckets, i + 1, from, lo, out);
+                out.add(new BucketSpan(candidate, lo, hi));
+                tile(buckets, i + 1, hi, to, out);
+                return;
+            }
+        }
+    }
+
+    private CounterConfig resolveCounter(String serviceKey, String eventType, String counterName) {
+        if (serviceKey == null || serviceKey.isBlank()) {
+            throw new IllegalArgumentException("serviceKey is required");
+        }
+        if (eventType == null || eventType.isBlank()) {
+            throw new IllegalArgumentException("eventType is required");
+        }
+        if (counterName == null || counterName.isBlank()) {
+            throw new IllegalArgumentException("counterName is required");
+        }
+
+        UUID serviceId = servicesCatalogRepository.findIdByServiceKey(serviceKey);
+        if (serviceId == null) {
+            throw new IllegalArgumentException("Unknown service key: " + serviceKey);
+        }
+
+        EventTypeConfig eventConfig = configLookup
+                .get(serviceId, eventType)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown event type: " + eventType));
+
+        List<CounterConfig> counters = eventConfig.counters() != null ? eventConfig.counters() : List.of();
+        return counters.stream()
+                .filter(c -> c.name().equalsIgnoreCase(counterName))
+                .findFirst()
+                .orElseThrow(() ->
+                        new IllegalArgumentException("Unknown counter: " + counterName + " for event " + eventType));
+    }
+
     private CounterBucket resolveBucket(CounterGranularity granularity, Duration requested) {
         List<CounterBucket> candidates = CounterBucket.valuesSortedByAscendingDuration();
         EnumSet<CounterBucket> allowed = granularity.materialisedBuckets();
@@ -0,0 +1,11 @@
+package com.obsinity.service.core.counter;
+
+/** Request payload for heavy-hitter (top-K key) queries over a counter. */
+public record CounterTopKRequest(
+        String serviceKey,
+        String eventType,
+        String counterName,
+        String interval,
+        String start,
+        String end,
+        Integer limit) {}
@@ -0,0 +1,15 @@
+package com.obsinity.service.core.counter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Heaviest keys of a counter, largest estimate first. {@code count} never under-counts the true total and
+ * {@code count - error} never over-counts it; {@code error == 0} means the total is exact. {@code bucket} is the
+ * coarsest bucket the summaries were read from and {@code summaries} how many were merged.
+ */
+public record CounterTopKResult(List<Entry> entries, String bucket, int summaries, Instant start, Instant end) {
+
+    public record Entry(Map<String, String> key, long count, long error) {}
+}
@@ -0,0 +1,181 @@
+package com.obsinity.service.core.counter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighted Space-Saving summary (Metwally et al.) of counter keys, bounded to {@code capacity} entries.
+ * <p>
+ * Every tracked key carries an estimated {@code count} that never under-counts and an {@code error} such that
+ * {@code count - error} never over-counts. Any key with a true total above the smallest tracked count is
+ * guaranteed to be tracked. Summaries merge (Agarwal et al., "Mergeable Summaries"): a key missing from a full
+ * summary is assumed to have that summary's minimum, which keeps both bounds intact, so per-bucket summaries
+ * persisted by {@link CounterPersistService} can be combined across any range at query time.
+ * <p>
+ * Not thread-safe; instances are built per flush batch or per query.
+ */
+public final class SpaceSavingSummary {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** One tracked key. */
+    public record Item(String keyHash, Map<String, String> keyData, long count, long error) {
+
+        /** Guaranteed lower bound of the key's true total. */
+        public long guaranteed() {
+            return count - error;
+        }
+    }
+
+    private final int capacity;
+    private final Map<String, Item> items;
+
+    public SpaceSavingSummary(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.items = new HashMap<>(Math.min(capacity, 1024) * 2);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Summary of exact per-key totals: the {@code capacity} largest keys are kept exactly and the remainder is
+     * folded in with Space-Saving replacement, so the result is as tight as one pass allows.
+     */
+    public static SpaceSavingSummary ofExact(int capacity, Map<String, Item> totals) {
+        SpaceSavingSummary summary = new SpaceSavingSummary(capacity);
+        totals.values().stream()
+                .sorted(Comparator.comparingLong(Item::count).reversed())
+                .forEach(item -> summary.offer(item.keyHash(), item.keyData(), item.count()));
+        return summary;
+    }
+
+    /** Adds {@code delta} occurrences of a key. */
+    public void offer(String keyHash, Map<String, String> keyData, long delta) {
+        if (delta <= 0) {
+            return;
+        }
+        Item existing = items.get(keyHash);
+        if (existing != null) {
+            items.put(keyHash, new Item(keyHash, existing.keyData(), existing.count() + delta, existing.error()));
+            return;
+        }
+        if (items.size() < capacity) {
+            items.put(keyHash, new Item(keyHash, keyData, delta, 0L));
+            return;
+        }
+        Item min = minItem();
+        items.remove(min.keyHash());
+        items.put(keyHash, new Item(keyHash, keyData, min.count() + delta, min.count()));
+    }
+
+    /** Merges {@code other} into this summary, keeping the {@code capacity} largest combined estimates. */
+    public void merge(SpaceSavingSummary other) {
+        if (other == null || other.items.isEmpty()) {
+            return;
+        }
+        long thisFloor = floor();
+        long otherFloor = other.floor();
+        Map<String, Item> combined = new HashMap<>(items.size() + other.items.size());
+        for (Item item : items.values()) {
+            Item peer = other.items.get(item.keyHash());
+            long count = item.count() + (peer != null ? peer.count() : otherFloor);
+            long error = item.error() + (peer != null ? peer.error() : otherFloor);
+            combined.put(item.keyHash(), new Item(item.keyHash(), item.keyData(), count, error));
+        }
+        for (Item peer : other.items.values()) {
+            if (!combined.containsKey(peer.keyHash())) {
+                combined.put(
+                        peer.keyHash(),
+                        new Item(peer.keyHash(), peer.keyData(), peer.count() + thisFloor, peer.error() + thisFloor));
+            }
+        }
+        items.clear();
+        combined.values().stream()
+                .sorted(Comparator.comparingLong(Item::count).reversed().thenComparing(Item::keyHash))
+                .limit(capacity)
+                .forEach(item -> items.put(item.keyHash(), item));
+    }
+
+    /** The {@code n} keys with the highest estimates, largest first. */
+    public List<Item> top(int n) {
+        return items.values().stream()
+                .sorted(Comparator.comparingLong(Item::count).reversed().thenComparing(Item::keyHash))
+                .limit(Math.max(0, n))
+                .toList();
+    }
+
+    /** Upper bound for any key not tracked: the smallest count once full, zero before. */
+    public long floor() {
+        return items.size() < capacity ? 0L : minItem().count();
+    }
+
+    private Item minItem() {
+        Item min = null;
+        for (Item item : items.values()) {
+            if (min == null || item.count() < min.count()) {
+                min = item;
+            }
+        }
+        return min;
+    }
+
+    public String toJson() {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("capacity", capacity);
+        ArrayNode array = root.putArray("items");
+        for (Item item : top(items.size())) {
+            ObjectNode node = array.addObject();
+            node.put("h", item.keyHash());
+            ObjectNode key = node.putObject("k");
+            if (item.keyData() != null) {
+                item.keyData().forEach(key::put);
+            }
+            node.put("c", item.count());
+            node.put("e", item.error());
+        }
+        return root.toString();
+    }
+
+    public static SpaceSavingSummary fromJson(String json) {
+        JsonNode root;
+        try {
+            root = MAPPER.readTree(json);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Invalid top-k summary", ex);
+        }
+        SpaceSavingSummary summary =
+                new SpaceSavingSummary(root.path("capacity").asInt(1));
+        List<Item> decoded = new ArrayList<>();
+        for (JsonNode node : root.path("items")) {
+            Map<String, String> key = new LinkedHashMap<>();
+            node.path("k")
+                    .fields()
+                    .forEachRemaining(e -> key.put(e.getKey(), e.getValue().asText()));
+            decoded.add(new Item(
+                    node.path("h").asText(),
+                    key,
+                    node.path("c").asLong(),
+                    node.path("e").asLong()));
+        }
+        decoded.stream().limit(summary.capacity).forEach(item -> summary.items.put(item.keyHash(), item));
+        return summary;
+    }
+}
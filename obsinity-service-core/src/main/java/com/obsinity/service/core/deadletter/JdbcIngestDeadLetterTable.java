@@ -1,45 +1,67 @@
 package com.obsinity.service.core.deadletter;
 
-import java.sql.Types;
-import java.util.UUID;
+import com.obsinity.service.core.support.RejectionAggregator;
+import com.obsinity.service.core.support.RejectionBatchWriter;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.dao.DataAccessException;
-import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Buffers dead letters per (source, reason) and writes sampled payloads asynchronously through a
+ * {@link RejectionBatchWriter}.
+ */
 @Component
 public class JdbcIngestDeadLetterTable implements IngestDeadLetterTable {
 
     private static final Logger log = LoggerFactory.getLogger(JdbcIngestDeadLetterTable.class);
-    private static final String INSERT_SQL =
-            """
-        insert into event_ingest_dead_letters(
-              id, source, reason, error, payload
-        ) values (
-              :id, :source, :reason, :error, :payload
-        )
-        """;
-
-    private final NamedParameterJdbcTemplate jdbc;
-
-    public JdbcIngestDeadLetterTable(NamedParameterJdbcTemplate jdbc) {
-        this.jdbc = jdbc;
+    private static final List<RejectionBatchWriter.Column> COLUMNS = List.of(
+            RejectionBatchWriter.Column.of("source"),
+            RejectionBatchWriter.Column.of("reason"),
+            RejectionBatchWriter.Column.of("error"),
+            RejectionBatchWriter.Column.text("payload"));
+
+    record Key(String source, String reason) {}
+
+    record Sample(String detail, String payload) {}
+
+    private final RejectionAggregator<Key, Sample> pending;
+    private final RejectionBatchWriter<Key, Sample> writer;
+
+    public JdbcIngestDeadLetterTable(
+            NamedParameterJdbcTemplate jdbc,
+            @Value("${obsinity.ingest.rejections.maxKeys:1000}") int maxKeys,
+            @Value("${obsinity.ingest.rejections.samplesPerKey:3}") int samplesPerKey,
+            @Value("${obsinity.ingest.rejections.batchRows:500}") int batchRows) {
+        this.pending = new RejectionAggregator<>(maxKeys, samplesPerKey);
+        this.writer = new RejectionBatchWriter<>(
+                jdbc,
+                "event_ingest_dead_letters",
+                COLUMNS,
+                (key, sample) -> new Object[] {key.source(), key.reason(), sample.detail(), sample.payload()},
+                batchRows);
     }
 
     @Override
     public void record(String payload, String reason, String detail, String source) {
-        try {
-            MapSqlParameterSource params = new MapSqlParameterSource()
-                    .addValue("id", UUID.randomUUID())
-                    .addValue("source", source)
-                    .addValue("reason", reason)
-                    .addValue("error", detail)
-                    .addValue("payload", payload, Types.VARCHAR);
-            jdbc.update(INSERT_SQL, params);
-        } catch (DataAccessException ex) {
-            log.error("Failed to persist ingest dead letter due to {}", reason, ex);
+        pending.offer(new Key(source, reason), () -> new Sample(detail, payload));
+    }
+
+    @Scheduled(fixedDelayString = "${obsinity.ingest.rejections.flush.ms:1000}")
+    public void flush() {
+        long shed = pending.drainShed();
+        if (shed > 0) {
+            log.warn("Ingest dead-letter buffer full; shed {} payloads", shed);
         }
+        writer.write(pending.drain());
+    }
+
+    @PreDestroy
+    void stop() {
+        flush();
     }
 }
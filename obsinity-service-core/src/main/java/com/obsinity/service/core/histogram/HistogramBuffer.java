@@ -4,45 +4,126 @@ import com.datadoghq.sketch.ddsketch.DDSketch;
 import com.datadoghq.sketch.ddsketch.DDSketches;
 import com.obsinity.service.core.config.HistogramSpec;
 import com.obsinity.service.core.counter.CounterGranularity;
+import com.obsinity.service.core.counter.CounterHashService;
+import com.obsinity.service.core.ingest.IngestPressureSource;
+import com.obsinity.service.core.support.CardinalityLimiter;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
 @Slf4j
-public class HistogramBuffer {
+public class HistogramBuffer implements IngestPressureSource {
 
-    private final EnumMap<CounterGranularity, ConcurrentMap<Long, ConcurrentMap<String, BufferedHistogramEntry>>>
+    private final EnumMap<CounterGranularity, ConcurrentMap<Long, ConcurrentMap<BufferKey, BufferedHistogramEntry>>>
             buffers = new EnumMap<>(CounterGranularity.class);
 
-    public HistogramBuffer() {
+    private final CounterHashService hashService;
+    private final CardinalityLimiter cardinality;
+
+    /** Buffer without cardinality budgets, for tests and embedded use. */
+    public HistogramBuffer(CounterHashService hashService) {
+        this(hashService, CardinalityLimiter.unlimited());
+    }
+
+    @Autowired
+    public HistogramBuffer(CounterHashService hashService, CardinalityLimiter cardinality) {
+        this.hashService = hashService;
+        this.cardinality = cardinality;
         for (CounterGranularity granularity : CounterGranularity.values()) {
             buffers.put(granularity, new ConcurrentHashMap<>());
         }
     }
 
+    /** Soft cap on buffered keys across all granularities and epochs; only used for admission control. */
+    @Value("${obsinity.ingest.admission.maxBufferedKeys:500000}")
+    private long maxBufferedKeys = 500_000L;
+
+    @Override
+    public String pressureName() {
+        return "histogram buffer";
+    }
+
+    @Override
+    public double pressure() {
+        return maxBufferedKeys <= 0 ? 0d : (double) bufferedKeys() / maxBufferedKeys;
+    }
+
+    /** Number of buffered keys across all granularities and epochs. */
+    public long bufferedKeys() {
+        long total = 0;
+        for (ConcurrentMap<Long, ConcurrentMap<BufferKey, BufferedHistogramEntry>> granularity : buffers.values()) {
+            for (ConcurrentMap<BufferKey, BufferedHistogramEntry> epoch : granularity.values()) {
+                total += epoch.size();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Buffer key of one histogram series. Key hashes cover only the key data, so histograms with the same dimensions
+     * (and every histogram's {@link CardinalityLimiter#OVERFLOW} key) share hashes and are told apart by the id.
+     */
+    public record BufferKey(UUID histogramConfigId, String keyHash) {}
+
     public void recordSample(
             CounterGranularity granularity,
             long epoch,
             UUID histogramConfigId,
             UUID eventTypeId,
-            String keyHash,
             Map<String, String> keyData,
             double sampleValue,
             HistogramSpec.SketchSpec sketchSpec) {
-        ConcurrentMap<Long, ConcurrentMap<String, BufferedHistogramEntry>> granularityBuffer = buffers.get(granularity);
-        ConcurrentMap<String, BufferedHistogramEntry> epochMap =
+        recordSample(granularity, epoch, histogramConfigId, eventTypeId, keyData, sampleValue, sketchSpec, null, null);
+    }
+
+    /**
+     * Adds a sample to a key's sketch, folding the key into the histogram's {@link CardinalityLimiter#OVERFLOW} key
+     * when it is new and the histogram has exhausted its cardinality budget. Only admitted keys (and the overflow
+     * key) are hashed.
+     *
+     * @param histogramName name reported in cardinality stats
+     * @param maxKeys per-histogram budget, or {@code null} for {@code obsinity.cardinality.histograms.maxKeys}
+     */
+    public void recordSample(
+            CounterGranularity granularity,
+            long epoch,
+            UUID histogramConfigId,
+            UUID eventTypeId,
+            Map<String, String> keyData,
+            double sampleValue,
+            HistogramSpec.SketchSpec sketchSpec,
+            String histogramName,
+            Integer maxKeys) {
+        String canonical = hashService.canonicalKey(keyData);
+        if (!cardinality.admit(
+                CardinalityLimiter.Kind.HISTOGRAM, histogramConfigId, histogramName, canonical, maxKeys, epoch)) {
+            keyData = CardinalityLimiter.overflowKey(keyData);
+            canonical = hashService.canonicalKey(keyData);
+        }
+        String keyHash = hashService.getOrCreateHashOfCanonical(canonical);
+        Map<String, String> entryKeyData = keyData;
+        String entryKeyHash = keyHash;
+        ConcurrentMap<Long, ConcurrentMap<BufferKey, BufferedHistogramEntry>> granularityBuffer =
+                buffers.get(granularity);
+        ConcurrentMap<BufferKey, BufferedHistogramEntry> epochMap =
                 granularityBuffer.computeIfAbsent(epoch, ignored -> new ConcurrentHashMap<>());
-        epochMap.compute(keyHash, (key, existing) -> {
+        epochMap.compute(new BufferKey(histogramConfigId, entryKeyHash), (key, existing) -> {
             if (existing == null) {
                 DDSketch sketch = createSketch(sketchSpec);
                 BufferedHistogramEntry entry = new BufferedHistogramEntry(
-                        histogramConfigId, eventTypeId, keyHash, keyData, sketchSpec, sketch);
+                        histogramConfigId, eventTypeId, entryKeyHash, entryKeyData, sketchSpec, sketch);
                 entry.addSample(sampleValue);
                 return entry;
             }
@@ -58,19 +139,75 @@ public class HistogramBuffer {
         return DDSketches.unboundedDense(sketchSpec.relativeAccuracy());
     }
 
-    public ConcurrentMap<Long, ConcurrentMap<String, BufferedHistogramEntry>> getBuffer(
+    public ConcurrentMap<Long, ConcurrentMap<BufferKey, BufferedHistogramEntry>> getBuffer(
             CounterGranularity granularity) {
         return buffers.get(granularity);
     }
 
-    public Map<String, BufferedHistogramEntry> removeEpoch(CounterGranularity granularity, long epoch) {
-        ConcurrentMap<Long, ConcurrentMap<String, BufferedHistogramEntry>> granularityBuffer = buffers.get(granularity);
-        ConcurrentMap<String, BufferedHistogramEntry> removed = granularityBuffer.remove(epoch);
+    public Map<BufferKey, BufferedHistogramEntry> removeEpoch(CounterGranularity granularity, long epoch) {
+        ConcurrentMap<Long, ConcurrentMap<BufferKey, BufferedHistogramEntry>> granularityBuffer =
+                buffers.get(granularity);
+        ConcurrentMap<BufferKey, BufferedHistogramEntry> removed = granularityBuffer.remove(epoch);
         return removed != null ? removed : Map.of();
     }
 
+    /** Point-in-time copy of one buffered key, safe to merge while ingest keeps writing to the original. */
+    public record PendingSketch(long epoch, String keyHash, DDSketch sketch, long samples, double sum) {}
+
+    /**
+     * Copies of the buffered sketches of {@code histogramConfigId} for {@code keyHashes} with epochs in
+     * {@code [fromEpoch, toEpoch)}. Nothing is removed; flushing stays the only way entries leave the buffer.
+     *
+     * @param seen entries already collected, compared by identity; updated with the entries collected here
+     */
+    public List<PendingSketch> pendingSketches(
+            CounterGranularity granularity,
+            UUID histogramConfigId,
+            Set<String> keyHashes,
+            long fromEpoch,
+            long toEpoch,
+            Set<BufferedHistogramEntry> seen) {
+        List<PendingSketch> result = new ArrayList<>();
+        buffers.get(granularity).forEach((epoch, entries) -> {
+            if (epoch >= fromEpoch && epoch < toEpoch) {
+                collectPending(epoch, entries.values(), histogramConfigId, keyHashes, seen, result);
+            }
+        });
+        return result;
+    }
+
+    /** Latest epoch still held in the buffer for {@code granularity}, or {@code null} when it is empty. */
+    public Long latestEpoch(CounterGranularity granularity) {
+        return buffers.get(granularity).keySet().stream().max(Long::compare).orElse(null);
+    }
+
+    /** Oldest epoch still held in the buffer for {@code granularity}, or {@code null} when it is empty. */
+    public Long earliestEpoch(CounterGranularity granularity) {
+        return buffers.get(granularity).keySet().stream().min(Long::compare).orElse(null);
+    }
+
+    static void collectPending(
+            long epoch,
+            Collection<BufferedHistogramEntry> entries,
+            UUID histogramConfigId,
+            Set<String> keyHashes,
+            Set<BufferedHistogramEntry> seen,
+            List<PendingSketch> result) {
+        for (BufferedHistogramEntry entry : entries) {
+            if (histogramConfigId.equals(entry.getHistogramConfigId())
+                    && keyHashes.contains(entry.getKeyHash())
+                    && seen.add(entry)) {
+                PendingSketch snapshot = entry.snapshot(epoch);
+                if (snapshot.samples() > 0) {
+                    result.add(snapshot);
+                }
+            }
+        }
+    }
+
     public void cleanupOldEntries(CounterGranularity granularity) {
-        ConcurrentMap<Long, ConcurrentMap<String, BufferedHistogramEntry>> granularityBuffer = buffers.get(granularity);
+        ConcurrentMap<Long, ConcurrentMap<BufferKey, BufferedHistogramEntry>> granularityBuffer =
+                buffers.get(granularity);
         granularityBuffer.forEach((epoch, map) -> {
             if (map.isEmpty()) {
                 return;
@@ -114,7 +251,7 @@ public class HistogramBuffer {
             this.sketch = sketch;
         }
 
-        public void addSample(double value) {
+        public synchronized void addSample(double value) {
             if (Double.isNaN(value) || Double.isInfinite(value)) {
                 return;
             }
@@ -123,6 +260,10 @@ public class HistogramBuffer {
             samples++;
         }
 
+        synchronized PendingSketch snapshot(long epoch) {
+            return new PendingSketch(epoch, keyHash, sketch.copy(), samples, sum);
+        }
+
         public double mean() {
             return samples == 0 ? 0.0d : sum / samples;
         }
@@ -41,8 +41,8 @@ public class HistogramFlushService {
     }
 
     private void flushGranularity(CounterGranularity granularity) {
-        ConcurrentMap<Long, ConcurrentMap<String, HistogramBuffer.BufferedHistogramEntry>> granularityBuffer =
-                buffer.getBuffer(granularity);
+        ConcurrentMap<Long, ConcurrentMap<HistogramBuffer.BufferKey, HistogramBuffer.BufferedHistogramEntry>>
+                granularityBuffer = buffer.getBuffer(granularity);
         if (granularityBuffer == null || granularityBuffer.isEmpty()) {
             return;
         }
@@ -63,11 +63,15 @@ public class HistogramFlushService {
             if (processed >= maxEpochsPerRun) {
                 break;
             }
-            Map<String, HistogramBuffer.BufferedHistogramEntry> entries = buffer.removeEpoch(granularity, epoch);
-            if (entries.isEmpty()) {
+            Map<HistogramBuffer.BufferKey, HistogramBuffer.BufferedHistogramEntry> entries =
+                    granularityBuffer.get(epoch);
+            if (entries == null || entries.isEmpty()) {
                 continue;
             }
-            persistExecutor.submit(new HistogramPersistExecutor.Job(granularity, epoch, entries.values()));
+            // The job is registered before the epoch leaves the buffer, so queries find it in one place or the other.
+            persistExecutor.submit(
+                    new HistogramPersistExecutor.Job(granularity, epoch, entries.values()),
+                    () -> buffer.removeEpoch(granularity, epoch));
             processed++;
         }
 
@@ -4,8 +4,8 @@ import com.obsinity.service.core.config.EventTypeConfig;
 import com.obsinity.service.core.config.HistogramConfig;
 import com.obsinity.service.core.config.HistogramSpec;
 import com.obsinity.service.core.counter.CounterGranularity;
-import com.obsinity.service.core.counter.CounterHashService;
 import com.obsinity.service.core.model.EventEnvelope;
+import com.obsinity.service.core.model.JsonObjectAttributes;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.LinkedHashMap;
@@ -23,7 +23,6 @@ import org.springframework.stereotype.Service;
 public class HistogramIngestService {
 
     private final HistogramBuffer buffer;
-    private final CounterHashService hashService;
 
     public void process(EventEnvelope envelope, EventTypeConfig eventConfig) {
         List<HistogramConfig> histograms = eventConfig.histograms();
@@ -48,7 +47,6 @@ public class HistogramIngestService {
             }
 
             Map<String, String> dimensionValues = extractKeyData(spec.keyDimensions(), attributes);
-            String keyHash = hashService.getOrCreateHash(dimensionValues);
             Instant aligned = granularity.baseBucket().align(occurredAt);
             long epoch = aligned.getEpochSecond();
 
@@ -57,10 +55,11 @@ public class HistogramIngestService {
                     epoch,
                     histogram.id(),
                     eventTypeId,
-                    keyHash,
                     dimensionValues,
                     sample,
-                    spec.sketchSpec());
+                    spec.sketchSpec(),
+                    eventConfig.eventType() + "/" + histogram.name(),
+                    spec.maxKeys());
         }
     }
 
@@ -158,6 +157,10 @@ public class HistogramIngestService {
         if (attributes == null || attributes.isEmpty()) {
             return Map.of();
         }
+        if (attributes instanceof JsonObjectAttributes) {
+            // Already normalized by the mapper; copying would convert every value just to read a few keys.
+            return attributes;
+        }
         Map<String, Object> normalized = new LinkedHashMap<>();
         attributes.forEach((key, value) -> mergeAttribute(normalized, key, value));
         return normalized;
@@ -2,15 +2,22 @@ package com.obsinity.service.core.histogram;
 
 import com.obsinity.service.core.config.PipelineProperties;
 import com.obsinity.service.core.counter.CounterGranularity;
+import com.obsinity.service.core.ingest.IngestPressureSource;
+import com.obsinity.service.core.support.DataExtentRegistry;
+import com.obsinity.service.core.support.PersistGate;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicInteger;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -18,17 +25,25 @@ import org.springframework.stereotype.Component;
 @Component
 @Slf4j
 @RequiredArgsConstructor
-public class HistogramPersistExecutor {
+public class HistogramPersistExecutor implements IngestPressureSource {
 
     private final HistogramPersistService persistService;
     private final PipelineProperties pipelineProperties;
+    private final DataExtentRegistry extents;
 
     private int queueCapacity;
     private int workerCount;
 
     private BlockingQueue<PersistJob> queue;
     private ExecutorService executor;
-    private final AtomicInteger activeJobs = new AtomicInteger();
+    /**
+     * Jobs from submission until their commit, queued or being written. A job is registered before its entries
+     * leave the buffer and stays registered while a worker holds it, so queries never miss it in between; it is
+     * removed together with its commit under {@link #persistGate}, so queries never see it twice either.
+     */
+    private final Set<PersistJob> pending = ConcurrentHashMap.newKeySet();
+
+    private final PersistGate persistGate = new PersistGate();
 
     @PostConstruct
     void start() {
@@ -43,6 +58,17 @@ public class HistogramPersistExecutor {
         log.info("Histogram persist executor started workers={}, queueCapacity={}", workerCount, queueCapacity);
     }
 
+    @Override
+    public String pressureName() {
+        return "histogram persist queue";
+    }
+
+    @Override
+    public double pressure() {
+        BlockingQueue<?> q = queue;
+        return q == null || queueCapacity <= 0 ? 0d : (double) q.size() / queueCapacity;
+    }
+
     @PreDestroy
     void stop() {
         if (executor != null) {
@@ -51,14 +77,29 @@ public class HistogramPersistExecutor {
     }
 
     public void submit(Job job) {
+        submit(job, () -> {});
+    }
+
+    /**
+     * Registers {@code job} as pending, runs {@code onRegistered} (typically removing the entries from the buffer)
+     * and queues the job, blocking while the queue is full.
+     */
+    public void submit(Job job, Runnable onRegistered) {
+        PersistJob persistJob = new PersistJob(job.granularity(), job.epoch(), job.entries());
+        pending.add(persistJob);
         try {
-            queue.put(new PersistJob(job.granularity(), job.epoch(), job.entries()));
+            onRegistered.run();
+            queue.put(persistJob);
             if (log.isDebugEnabled()) {
                 log.debug("Histogram persist queue depth={}/{}", queue.size(), queueCapacity);
             }
         } catch (InterruptedException ie) {
+            pending.remove(persistJob);
             Thread.currentThread().interrupt();
             throw new IllegalStateException("Interrupted while submitting histogram persist job", ie);
+        } catch (RuntimeException ex) {
+            pending.remove(persistJob);
+            throw ex;
         }
     }
 
@@ -66,9 +107,18 @@ public class HistogramPersistExecutor {
         try {
             while (!Thread.currentThread().isInterrupted()) {
                 PersistJob job = queue.take();
-                activeJobs.incrementAndGet();
                 try {
-                    persistService.persist(job.granularity(), job.epoch(), job.entries());
+                    persistService.persist(
+                            job.granularity(),
+                            job.epoch(),
+                            job.entries(),
+                            () -> persistGate.onCommit(() -> pending.remove(job)));
+                    Instant ts = Instant.ofEpochSecond(job.epoch());
+                    job.entries().stream()
+                            .map(HistogramBuffer.BufferedHistogramEntry::getHistogramConfigId)
+                            .distinct()
+                            .forEach(id -> extents.recordWrite(
+                                    DataExtentRegistry.EVENT_HISTOGRAMS, id, job.granularity(), ts));
                     long totalSamples = job.entries().stream()
                             .mapToLong(HistogramBuffer.BufferedHistogramEntry::getSamples)
                             .sum();
@@ -82,7 +132,7 @@ public class HistogramPersistExecutor {
                         log.debug("Histogram persist queue depth after drain={}/{}", queue.size(), queueCapacity);
                     }
                 } finally {
-                    activeJobs.decrementAndGet();
+                    pending.remove(job);
                 }
             }
         } catch (InterruptedException ie) {
@@ -92,8 +142,49 @@ public class HistogramPersistExecutor {
         }
     }
 
+    /**
+     * Orders job commits against queries that merge {@link #pendingSketches} with {@code event_histograms}; the
+     * buffer lookup, this lookup and the database read all belong inside {@link PersistGate#read}.
+     */
+    public PersistGate persistGate() {
+        return persistGate;
+    }
+
+    /** Oldest epoch of a job not yet committed for {@code granularity}, or {@code null} when there is none. */
+    public Long earliestEpoch(CounterGranularity granularity) {
+        return pending.stream()
+                .filter(job -> job.granularity() == granularity)
+                .map(PersistJob::epoch)
+                .min(Long::compare)
+                .orElse(null);
+    }
+
+    /**
+     * Copies of sketches that were flushed out of the buffer but are still queued or being written, so queries can
+     * cover the gap between {@link HistogramBuffer#removeEpoch} and the commit. Read the buffer first: entries are
+     * registered here before they leave it, so each is found in at least one of the two, and {@code seen} drops the
+     * ones found in both.
+     *
+     * @param seen entries already collected, compared by identity; updated with the entries collected here
+     */
+    public List<HistogramBuffer.PendingSketch> pendingSketches(
+            CounterGranularity granularity,
+            UUID histogramConfigId,
+            Set<String> keyHashes,
+            long fromEpoch,
+            long toEpoch,
+            Set<HistogramBuffer.BufferedHistogramEntry> seen) {
+        List<HistogramBuffer.PendingSketch> result = new ArrayList<>();
+        for (PersistJob job : pending) {
+            if (job.granularity() == granularity && job.epoch() >= fromEpoch && job.epoch() < toEpoch) {
+                HistogramBuffer.collectPending(job.epoch(), job.entries(), histogramConfigId, keyHashes, seen, result);
+            }
+        }
+        return result;
+    }
+
     public void waitForDrain() {
-        while (!queue.isEmpty() || activeJobs.get() > 0) {
+        while (!pending.isEmpty()) {
             try {
                 Thread.sleep(10);
             } catch (InterruptedException ie) {
@@ -106,6 +197,31 @@ public class HistogramPersistExecutor {
     public record Job(
             CounterGranularity granularity, long epoch, Collection<HistogramBuffer.BufferedHistogramEntry> entries) {}
 
-    private record PersistJob(
-            CounterGranularity granularity, long epoch, Collection<HistogramBuffer.BufferedHistogramEntry> entries) {}
+    /** Identity-compared, so equal-looking jobs are tracked separately in {@link #pending}. */
+    private static final class PersistJob {
+        private final CounterGranularity granularity;
+        private final long epoch;
+        private final Collection<HistogramBuffer.BufferedHistogramEntry> entries;
+
+        private PersistJob(
+                CounterGranularity granularity,
+                long epoch,
+                Collection<HistogramBuffer.BufferedHistogramEntry> entries) {
+            this.granularity = granularity;
+            this.epoch = epoch;
+            this.entries = entries;
+        }
+
+        CounterGranularity granularity() {
+            return granularity;
+        }
+
+        long epoch() {
+            return epoch;
+        }
+
+        Collection<HistogramBuffer.BufferedHistogramEntry> entries() {
+            return entries;
+        }
+    }
 }
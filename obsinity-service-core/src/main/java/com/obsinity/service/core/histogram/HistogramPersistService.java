@@ -59,6 +59,21 @@ public class HistogramPersistService {
             CounterGranularity granularity,
             long epochSeconds,
             Collection<HistogramBuffer.BufferedHistogramEntry> batch) {
+        persist(granularity, epochSeconds, batch, () -> {});
+    }
+
+    /**
+     * Writes the batch into every materialised bucket in one transaction.
+     *
+     * @param inTransaction called inside the transaction after the rows are written, e.g. to register work that must
+     *     happen together with the commit
+     */
+    @Transactional
+    public void persist(
+            CounterGranularity granularity,
+            long epochSeconds,
+            Collection<HistogramBuffer.BufferedHistogramEntry> batch,
+            Runnable inTransaction) {
         if (batch == null || batch.isEmpty()) {
             return;
         }
@@ -86,6 +101,7 @@ public class HistogramPersistService {
                 throw ex;
             }
         }
+        inTransaction.run();
     }
 
     private void persistBucket(
@@ -129,11 +145,11 @@ public class HistogramPersistService {
                 entry.getHistogramConfigId(),
                 entry.getKeyHash());
 
-        DDSketch mergedSketch = HistogramSketchCodec.deserialize(existing != null ? existing.sketchPayload() : null);
-        if (mergedSketch == null) {
-            mergedSketch = HistogramSketchCodec.deserialize(HistogramSketchCodec.serialize(entry.getSketch()));
-        } else {
-            mergedSketch.mergeWith(entry.getSketch());
+        // Merge into a copy of the buffered sketch so the row ends up in the current sketch spec.
+        DDSketch mergedSketch = HistogramSketchCodec.deserialize(HistogramSketchCodec.serialize(entry.getSketch()));
+        DDSketch storedSketch = HistogramSketchCodec.deserialize(existing != null ? existing.sketchPayload() : null);
+        if (storedSketch != null) {
+            HistogramSketchCodec.merge(mergedSketch, storedSketch);
         }
 
         long mergedSamples = entry.getSamples() + (existing != null ? existing.sampleCount() : 0L);
@@ -12,22 +12,27 @@ import com.obsinity.service.core.counter.CounterHashService;
 import com.obsinity.service.core.counter.DurationParser;
 import com.obsinity.service.core.histogram.HistogramQueryWindow.Series;
 import com.obsinity.service.core.repo.ServicesCatalogRepository;
+import com.obsinity.service.core.support.DataExtentRegistry;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
-@RequiredArgsConstructor
 public class HistogramQueryService {
 
     private static final DateTimeFormatter ISO_INSTANT = DateTimeFormatter.ISO_INSTANT;
@@ -36,6 +41,41 @@ public class HistogramQueryService {
     private final ServicesCatalogRepository servicesCatalogRepository;
     private final HistogramQueryRepository repository;
     private final CounterHashService hashService;
+    private final DataExtentRegistry extents;
+    private final HistogramBuffer buffer;
+    private final HistogramPersistExecutor persistExecutor;
+
+    /** Query service over persisted rollups only. */
+    public HistogramQueryService(
+            ConfigLookup configLookup,
+            ServicesCatalogRepository servicesCatalogRepository,
+            HistogramQueryRepository repository,
+            CounterHashService hashService,
+            DataExtentRegistry extents) {
+        this(configLookup, servicesCatalogRepository, repository, hashService, extents, null, null);
+    }
+
+    /**
+     * @param buffer when set, sketches still buffered for a window are merged into its result
+     * @param persistExecutor when set, sketches already flushed but not yet committed are merged as well
+     */
+    @Autowired
+    public HistogramQueryService(
+            ConfigLookup configLookup,
+            ServicesCatalogRepository servicesCatalogRepository,
+            HistogramQueryRepository repository,
+            CounterHashService hashService,
+            DataExtentRegistry extents,
+            HistogramBuffer buffer,
+            HistogramPersistExecutor persistExecutor) {
+        this.configLookup = configLookup;
+        this.servicesCatalogRepository = servicesCatalogRepository;
+        this.repository = repository;
+        this.hashService = hashService;
+        this.extents = extents;
+        this.buffer = buffer;
+        this.persistExecutor = persistExecutor;
+    }
 
     public HistogramQueryResult runQuery(HistogramQueryRequest request) {
         Objects.requireNonNull(request, "query request");
@@ -74,9 +114,19 @@ public class HistogramQueryService {
 
         CounterBucket bucket = resolveBucket(granularity, requestedInterval);
 
-        Instant earliestData = repository.findEarliestTimestamp(histogramConfig.id(), bucket);
-        Instant latestData = repository.findLatestTimestamp(histogramConfig.id(), bucket);
+        UUID histogramConfigId = histogramConfig.id();
+        DataExtentRegistry.Extent extent = extents.extent(
+                DataExtentRegistry.key(DataExtentRegistry.EVENT_HISTOGRAMS, histogramConfigId, bucket),
+                () -> new DataExtentRegistry.Extent(
+                        repository.findEarliestTimestamp(histogramConfigId, bucket),
+                        repository.findLatestTimestamp(histogramConfigId, bucket)));
+        Instant earliestData = extent.earliest();
+        Instant latestData = extent.latest();
         Instant defaultEnd = latestData != null ? latestData : Instant.now();
+        Long latestBuffered = buffer != null ? buffer.latestEpoch(granularity) : null;
+        if (latestData != null && latestBuffered != null && latestBuffered > latestData.getEpochSecond()) {
+            defaultEnd = Instant.ofEpochSecond(latestBuffered);
+        }
         Instant defaultStart = defaultEnd.minus(Duration.ofDays(7));
         if (earliestData != null && defaultStart.isBefore(earliestData)) {
             defaultStart = earliestData;
@@ -118,19 +168,35 @@ public class HistogramQueryService {
         Duration step = requestedInterval;
         Instant cursor = alignedStart.plus(step.multipliedBy(offset));
         int intervalsAdded = 0;
+        // Windows ending before the oldest unpersisted epoch have nothing to merge. Epochs buffered later reach the
+        // database only after this read, so skipping them cannot count them twice.
+        Long earliestPending = earliestPendingEpoch(granularity);
+        Set<String> hashSet = Set.copyOf(hashes);
 
         while (cursor.isBefore(alignedEnd) && intervalsAdded < limit) {
             Instant next = cursor.plus(step);
-            List<HistogramQueryRepository.Row> rows =
-                    repository.fetchRange(histogramConfig.id(), bucket, hashArray, cursor, next);
-            Map<String, List<HistogramQueryRepository.Row>> rowsByHash =
-                    rows.stream().collect(Collectors.groupingBy(HistogramQueryRepository.Row::keyHash));
+            WindowData data;
+            if (earliestPending != null && next.getEpochSecond() > earliestPending) {
+                Instant from = cursor;
+                Supplier<WindowData> read = () -> new WindowData(
+                        pendingSketches(granularity, histogramConfigId, hashSet, from, next),
+                        fetchRows(histogramConfigId, bucket, hashArray, from, next));
+                data = persistExecutor != null ? persistExecutor.persistGate().read(read) : read.get();
+            } else {
+                data = new WindowData(Map.of(), fetchRows(histogramConfigId, bucket, hashArray, cursor, next));
+            }
+            Map<String, List<HistogramQueryRepository.Row>> rowsByHash = data.rowsByHash();
+            Map<String, List<HistogramBuffer.PendingSketch>> pendingByHash = data.pendingByHash();
 
             List<Series> series = new ArrayList<>(keyMatrix.size());
             for (int i = 0; i < keyMatrix.size(); i++) {
                 Map<String, String> key = keyMatrix.get(i);
                 String hash = hashes.get(i);
                 HistogramAggregation aggregation = aggregate(rowsByHash.get(hash), spec);
+                for (HistogramBuffer.PendingSketch sketch : pendingByHash.getOrDefault(hash, List.of())) {
+                    HistogramSketchCodec.merge(aggregation.sketch(), sketch.sketch());
+                    aggregation.addSamples(sketch.samples()).addSum(sketch.sum());
+                }
                 Map<Double, Double> percentileValues =
                         computePercentiles(aggregation.sketch(), percentiles, aggregation.samples());
                 Double mean = aggregation.samples() > 0 ? aggregation.sum() / aggregation.samples() : null;
@@ -152,6 +218,51 @@ public class HistogramQueryService {
                 end);
     }
 
+    /** Unpersisted sketches and persisted rows of one window, read together under the persist gate. */
+    private record WindowData(
+            Map<String, List<HistogramBuffer.PendingSketch>> pendingByHash,
+            Map<String, List<HistogramQueryRepository.Row>> rowsByHash) {}
+
+    private Map<String, List<HistogramQueryRepository.Row>> fetchRows(
+            UUID histogramConfigId, CounterBucket bucket, String[] hashArray, Instant from, Instant to) {
+        return repository.fetchRange(histogramConfigId, bucket, hashArray, from, to).stream()
+                .collect(Collectors.groupingBy(HistogramQueryRepository.Row::keyHash));
+    }
+
+    private Long earliestPendingEpoch(CounterGranularity granularity) {
+        Long buffered = buffer != null ? buffer.earliestEpoch(granularity) : null;
+        Long queued = persistExecutor != null ? persistExecutor.earliestEpoch(granularity) : null;
+        if (buffered == null) {
+            return queued;
+        }
+        return queued == null ? buffered : Math.min(buffered, queued);
+    }
+
+    /**
+     * Unpersisted sketches of one window {@code [from, to)} from the buffer and the persist queue, grouped per key
+     * hash. Read the database under the same persist gate, so no job commits in between.
+     */
+    private Map<String, List<HistogramBuffer.PendingSketch>> pendingSketches(
+            CounterGranularity granularity, UUID histogramConfigId, Set<String> hashSet, Instant from, Instant to) {
+        long fromEpoch = from.getEpochSecond();
+        long toEpoch = to.getEpochSecond();
+        // Buffer first: flushed entries are registered with the executor before they leave the buffer.
+        Set<HistogramBuffer.BufferedHistogramEntry> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<HistogramBuffer.PendingSketch> sketches = new ArrayList<>();
+        if (buffer != null) {
+            sketches.addAll(buffer.pendingSketches(granularity, histogramConfigId, hashSet, fromEpoch, toEpoch, seen));
+        }
+        if (persistExecutor != null) {
+            sketches.addAll(
+                    persistExecutor.pendingSketches(granularity, histogramConfigId, hashSet, fromEpoch, toEpoch, seen));
+        }
+        Map<String, List<HistogramBuffer.PendingSketch>> byHash = new HashMap<>();
+        for (HistogramBuffer.PendingSketch sketch : sketches) {
+            byHash.computeIfAbsent(sketch.keyHash(), h -> new ArrayList<>()).add(sketch);
+        }
+        return byHash;
+    }
+
     private HistogramAggregation aggregate(List<HistogramQueryRepository.Row> rows, HistogramSpec spec) {
         HistogramAggregation aggregation = new HistogramAggregation(createSketch(spec), 0, 0.0d);
         if (rows == null || rows.isEmpty()) {
@@ -160,7 +271,7 @@ public class HistogramQueryService {
         for (HistogramQueryRepository.Row row : rows) {
             DDSketch rowSketch = HistogramSketchCodec.deserialize(row.sketchPayload());
             if (rowSketch != null) {
-                aggregation.sketch().mergeWith(rowSketch);
+                HistogramSketchCodec.merge(aggregation.sketch(), rowSketch);
             }
             aggregation.addSamples(row.sampleCount()).addSum(row.sampleSum());
         }
@@ -8,7 +8,7 @@ import com.datadoghq.sketch.ddsketch.store.UnboundedSizeDenseStore;
 import java.io.IOException;
 import java.util.function.Supplier;
 
-/** Serialization helpers for persisting DDSketch payloads. */
+/** Serialization and merge helpers for persisting DDSketch payloads. */
 public final class HistogramSketchCodec {
 
     private static final Supplier<Store> STORE_SUPPLIER = UnboundedSizeDenseStore::new;
@@ -39,4 +39,16 @@ public final class HistogramSketchCodec {
             throw new IllegalStateException("Failed to deserialize histogram sketch", ex);
         }
     }
+
+    /**
+     * Merges {@code source} into {@code target}. Sketches built with a different relative accuracy (the histogram's
+     * sketch spec changed) cannot be merged directly, so {@code source} is first converted to {@code target}'s index
+     * mapping, at the coarser of the two accuracies.
+     */
+    public static void merge(DDSketch target, DDSketch source) {
+        if (!target.getIndexMapping().equals(source.getIndexMapping())) {
+            source = source.convert(target.getIndexMapping(), STORE_SUPPLIER);
+        }
+        target.mergeWith(source);
+    }
 }
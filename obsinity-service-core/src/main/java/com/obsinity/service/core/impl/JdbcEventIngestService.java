@@ -5,7 +5,9 @@ import com.obsinity.service.core.config.EventTypeConfig;
 import com.obsinity.service.core.counter.CounterIngestService;
 import com.obsinity.service.core.histogram.HistogramIngestService;
 import com.obsinity.service.core.index.AttributeIndexingService;
+import com.obsinity.service.core.ingest.IngestAdmissionController;
 import com.obsinity.service.core.model.EventEnvelope;
+import com.obsinity.service.core.model.JsonObjectAttributes;
 import com.obsinity.service.core.spi.EventIngestService;
 import com.obsinity.service.core.state.StateDetectionService;
 import com.obsinity.service.core.support.ServicePartitionKey;
@@ -54,6 +56,7 @@ public class JdbcEventIngestService implements EventIngestService {
     private final CounterIngestService counterIngestService;
     private final HistogramIngestService histogramIngestService;
     private final StateDetectionService stateDetectionService;
+    private final IngestAdmissionController admission;
 
     @Value("${obsinity.counters.enabled:true}")
     private boolean countersEnabled;
@@ -75,7 +78,8 @@ public class JdbcEventIngestService implements EventIngestService {
             UnconfiguredEventQueue unconfiguredEventQueue,
             CounterIngestService counterIngestService,
             HistogramIngestService histogramIngestService,
-            StateDetectionService stateDetectionService) {
+            StateDetectionService stateDetectionService,
+            IngestAdmissionController admission) {
         this.jdbc = jdbc;
         this.attributeIndexingService = attributeIndexingService;
         this.configLookup = configLookup;
@@ -83,6 +87,7 @@ public class JdbcEventIngestService implements EventIngestService {
         this.counterIngestService = counterIngestService;
         this.histogramIngestService = histogramIngestService;
         this.stateDetectionService = stateDetectionService;
+        this.admission = admission;
     }
 
     @Override
@@ -152,9 +157,11 @@ public class JdbcEventIngestService implements EventIngestService {
                 .addValue("parent_span_id", e.getParentSpanId())
                 .addValue("correlation_id", e.getCorrelationId())
                 .addValue("status", status)
-                .addValue("attributes", JsonUtil.toJson(attrs));
+                .addValue("attributes", attributesJson(attrs));
 
+        long writeStart = System.nanoTime();
         final int wrote = jdbc.update(INSERT_SQL, p);
+        admission.recordWriteLatency(System.nanoTime() - writeStart);
 
         if (wrote == 1 && serviceId != null) {
             attributeIndexingService.indexEvent(new AttributeIndexingService.EventForIndex() {
@@ -244,6 +251,11 @@ public class JdbcEventIngestService implements EventIngestService {
         return wrote;
     }
 
+    /** Views over the request tree already carry their JSON text; only built maps need serializing. */
+    private static String attributesJson(Map<String, Object> attrs) {
+        return attrs instanceof JsonObjectAttributes view ? view.json() : JsonUtil.toJson(attrs);
+    }
+
     @Override
     public int ingestBatch(java.util.List<EventEnvelope> events) {
         int stored = 0;
@@ -1,10 +1,25 @@
 package com.obsinity.service.storage.impl;
 
+import com.obsinity.service.core.config.RetentionProperties;
+import com.obsinity.service.core.config.RollupPartitionProperties;
+import com.obsinity.service.core.retention.PartitionCatalog;
+import com.obsinity.service.core.retention.RetentionPlanner;
+import com.obsinity.service.core.retention.RollupPartitionPlanner;
 import java.sql.Timestamp;
 import java.time.*;
 import java.time.temporal.WeekFields;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +28,7 @@ import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -21,8 +37,25 @@ import org.springframework.stereotype.Service;
  * Maintains partition trees for:
  *  - events_raw                PARTITION BY LIST(service_partition_key) -> RANGE(started_at weekly)
  *  - event_attr_index          PARTITION BY LIST(service_partition_key) -> RANGE(started_at weekly)
+ *  - rollup tables             PARTITION BY LIST(bucket) -> RANGE(ts), per-bucket width and LOGGED/UNLOGGED
+ *                              storage (see RollupPartitionProperties and RollupPartitionPlanner)
  *
- * Rolling window: create weekly partitions from N weeks back to M weeks ahead.
+ * Rolling window: create weekly partitions from N weeks back to M weeks ahead. When retention is enabled, weeks
+ * that have already expired for a service are not (re)created.
+ *
+ * Each run reads the existing tables/indexes once from pg_class, plans only what is missing, and applies it
+ * as one DDL batch per service on a small pool (obsinity.partition.maintenance.parallelism).
+ *
+ * Indexes for partitions created in the same run go into that batch (the tables are empty). A missing index on a
+ * partition that already exists, such as the week ingest is writing to, is built afterwards with
+ * {@code CREATE INDEX CONCURRENTLY}, one at a time, so inserts are never blocked for the length of a build. An
+ * index left INVALID by a failed concurrent build is dropped and rebuilt on the next run.
+ *
+ * With obsinity.search.trigram.attrIndex.enabled and pg_trgm installed, weekly event_attr_index children also get
+ * a trigram GIN index on attr_value so LIKE/ILIKE attribute predicates can use an index. Off by default because
+ * every indexed attribute row then pays for a GIN update at ingest.
+ *
+ * Planner statistics for the partitions are kept by PartitionStatisticsMaintainer.
  */
 @Service
 public class PartitionMaintenanceService {
@@ -32,8 +65,12 @@ public class PartitionMaintenanceService {
     private static final String SCHEMA = "obsinity";
 
     private final JdbcTemplate jdbc;
-    private final boolean autoAnalyzeEnabled;
-    private final boolean autoAnalyzeOnStartup;
+    private final RetentionProperties retention;
+    private final PartitionCatalog catalog;
+    private final RollupPartitionProperties rollupPartitions;
+    private final RollupPartitionPlanner rollupPlanner;
+    private final int parallelism;
+    private final boolean attrTrigramEnabled;
 
     // Tune your window here
     private final int weeksBack = 52;
@@ -41,11 +78,18 @@ public class PartitionMaintenanceService {
 
     public PartitionMaintenanceService(
             JdbcTemplate jdbc,
-            @Value("${obsinity.partition.maintenance.autoAnalyze.enabled:true}") boolean autoAnalyzeEnabled,
-            @Value("${obsinity.partition.maintenance.autoAnalyze.onStartup:true}") boolean autoAnalyzeOnStartup) {
+            RetentionProperties retention,
+            PartitionCatalog catalog,
+            RollupPartitionProperties rollupPartitions,
+            @Value("${obsinity.partition.maintenance.parallelism:4}") int parallelism,
+            @Value("${obsinity.search.trigram.attrIndex.enabled:false}") boolean attrTrigramEnabled) {
         this.jdbc = jdbc;
-        this.autoAnalyzeEnabled = autoAnalyzeEnabled;
-        this.autoAnalyzeOnStartup = autoAnalyzeOnStartup;
+        this.retention = retention;
+        this.catalog = catalog;
+        this.rollupPartitions = rollupPartitions;
+        this.rollupPlanner = new RollupPartitionPlanner(rollupPartitions, retention);
+        this.parallelism = parallelism;
+        this.attrTrigramEnabled = attrTrigramEnabled;
     }
 
     @EventListener(ApplicationReadyEvent.class)
@@ -53,9 +97,6 @@ public class PartitionMaintenanceService {
     public void onStartup() {
         log.info("Ensuring partitions at startup...");
         ensurePartitions();
-        if (autoAnalyzeEnabled && autoAnalyzeOnStartup) {
-            runAutoAnalyze("startup");
-        }
     }
 
     // e.g. run daily at 02:15
@@ -65,17 +106,10 @@ public class PartitionMaintenanceService {
         ensurePartitions();
     }
 
-    @Scheduled(cron = "${obsinity.partition.maintenance.autoAnalyze.cron:0 */5 * * * *}")
-    public void scheduledAutoAnalyze() {
-        if (!autoAnalyzeEnabled) {
-            return;
-        }
-        runAutoAnalyze("schedule");
-    }
-
     public void ensurePartitions() {
-        List<String> servicePartitionKeys = fetchAllServicePartitionKeys();
-        if (servicePartitionKeys.isEmpty()) {
+        ensureRollupPartitions();
+        Map<String, String> services = fetchAllServices();
+        if (services.isEmpty()) {
             log.info("No services found yet; skipping partition creation.");
             return;
         }
@@ -86,38 +120,341 @@ public class PartitionMaintenanceService {
         LocalDate end = today.plusWeeks(weeksAhead).with(wf.dayOfWeek(), 1);
         Instant repartitionStart = start.atStartOfDay().toInstant(ZoneOffset.UTC);
         Instant repartitionEnd = end.plusWeeks(1).atStartOfDay().toInstant(ZoneOffset.UTC);
-
-        for (String partitionKey : servicePartitionKeys) {
+        Instant now = Instant.now();
+
+        // One catalog read; everything below is a diff against it.
+        long planStarted = System.nanoTime();
+        Relations existing = fetchExistingRelations();
+        boolean trigram = attrTrigramEnabled && trigramAvailable();
+        Map<String, List<String>> plans = new LinkedHashMap<>();
+        List<String> onlineIndexes = new ArrayList<>();
+        for (Map.Entry<String, String> entry : services.entrySet()) {
+            String partitionKey = entry.getKey();
             if (!PARTITION_KEY_RE.matcher(partitionKey).matches()) {
                 log.warn("Skipping non-partition key value: {}", partitionKey);
                 continue;
             }
+            ServicePlan plan = planServiceDdl(partitionKey, entry.getValue(), existing, start, end, now, trigram);
+            if (!plan.ddl().isEmpty()) {
+                plans.put(partitionKey, plan.ddl());
+            }
+            onlineIndexes.addAll(plan.onlineIndexes());
+        }
+        int statements = plans.values().stream().mapToInt(List::size).sum();
+        log.info(
+                "Partition plan: services={} servicesWithChanges={} ddlStatements={} onlineIndexStatements={} planMs={}",
+                services.size(),
+                plans.size(),
+                statements,
+                onlineIndexes.size(),
+                Duration.ofNanos(System.nanoTime() - planStarted).toMillis());
+
+        applyPlans(plans);
+        applyOnlineIndexes(onlineIndexes);
+        backfillDefaultPartitions(services.keySet(), repartitionStart, repartitionEnd);
+    }
 
-            // Ensure LIST partitions exist in both parents
-            ensureServiceListPartition("events_raw", partitionKey);
-            ensureServiceListPartition("event_attr_index", partitionKey);
+    /**
+     * Rolls the rollup partition chains forward (and back) and aligns leaf storage with the LOGGED/UNLOGGED policy.
+     * Creation is one idempotent batch; each storage conversion rewrites its partition, so they run one at a time
+     * and a failure only skips that partition until the next run.
+     */
+    public void ensureRollupPartitions() {
+        if (!rollupPartitions.isEnabled()) return;
+        RollupPartitionPlanner.Plan plan;
+        try {
+            plan = rollupPlanner.plan(catalog.rollupPartitions(RetentionPlanner.rollupRootTables()), Instant.now());
+        } catch (DataAccessException ex) {
+            log.warn("Could not read rollup partitions; skipping rollup maintenance", ex);
+            return;
+        }
+        if (plan.isEmpty()) {
+            log.debug("Rollup partitions up to date");
+            return;
+        }
+        if (!plan.create().isEmpty()) {
+            applyServiceDdl("rollups", plan.create());
+        }
+        for (String statement : plan.convert()) {
+            long started = System.nanoTime();
+            try {
+                jdbc.execute(statement);
+                log.info(
+                        "Rollup partition storage converted sql={} elapsedMs={}",
+                        statement,
+                        Duration.ofNanos(System.nanoTime() - started).toMillis());
+            } catch (DataAccessException ex) {
+                log.warn("Rollup partition storage conversion failed sql={}", statement, ex);
+            }
+        }
+    }
 
-            // Then weekly RANGE partitions under each LIST child
-            LocalDate cursor = start;
-            while (!cursor.isAfter(end)) {
-                LocalDate next = cursor.plusWeeks(1);
-                ensureWeeklyRangePartition("events_raw", partitionKey, cursor, next);
-                ensureWeeklyRangePartition("event_attr_index", partitionKey, cursor, next);
+    /** Existing tables and valid indexes, plus indexes a failed concurrent build left INVALID. */
+    record Relations(Set<String> names, Set<String> invalidIndexes) {
+        boolean contains(String name) {
+            return names.contains(name);
+        }
+    }
 
+    /**
+     * @param ddl statements for one batch: new partitions and the indexes on them
+     * @param onlineIndexes statements building missing indexes on partitions that already exist, to run one at a
+     *     time outside any batch or transaction
+     */
+    record ServicePlan(List<String> ddl, List<String> onlineIndexes) {}
+
+    /**
+     * Missing DDL for one service, in dependency order: LIST children, weekly RANGE children, then their local
+     * indexes. Every statement is idempotent so concurrent runs (other replicas) are harmless.
+     */
+    ServicePlan planServiceDdl(
+            String partitionKey,
+            String serviceKey,
+            Relations existing,
+            LocalDate start,
+            LocalDate end,
+            Instant now,
+            boolean trigram) {
+        List<String> ddl = new ArrayList<>();
+        List<String> online = new ArrayList<>();
+        String rawList = "events_raw_s_" + partitionKey;
+        String attrList = "event_attr_index_s_" + partitionKey;
+        if (!existing.contains(rawList)) ddl.add(createListPartition("events_raw", rawList, partitionKey));
+        if (!existing.contains(attrList)) ddl.add(createListPartition("event_attr_index", attrList, partitionKey));
+
+        Duration rawRetention = retention.rawRetention(serviceKey);
+        Duration attrRetention = retention.attrIndexRetention(serviceKey);
+        LocalDate cursor = start;
+        while (!cursor.isAfter(end)) {
+            LocalDate next = cursor.plusWeeks(1);
+            Instant weekEnd = next.atStartOfDay().toInstant(ZoneOffset.UTC);
+            String week = weekName(cursor);
+            if (isRetained(rawRetention, weekEnd, now)) {
+                String child = rawList + "_w_" + week;
+                boolean created = !existing.contains(child);
+                if (created) ddl.add(createRangePartition(rawList, child, cursor, next));
+                List<String> indexes = created ? ddl : online;
                 // For raw events, ensure fast latest-N scans by event type.
-                ensureEventsRawChildIndexes(partitionKey, weekName(cursor), "events_raw");
+                addIndex(
+                        indexes,
+                        existing,
+                        "er_evt_time_desc_" + partitionKey + "_" + week,
+                        child,
+                        "btree",
+                        "event_type, started_at DESC, event_id");
+            }
+            if (isRetained(attrRetention, weekEnd, now)) {
+                String child = attrList + "_w_" + week;
+                boolean created = !existing.contains(child);
+                if (created) ddl.add(createRangePartition(attrList, child, cursor, next));
+                List<String> indexes = created ? ddl : online;
                 // For the attr index, ensure helpful local indexes on each weekly child
-                ensureAttrIndexChildIndexes(partitionKey, weekName(cursor), "event_attr_index");
-                cursor = next;
+                addIndex(
+                        indexes,
+                        existing,
+                        "eai_attr_name_val_" + partitionKey + "_" + week,
+                        child,
+                        "btree",
+                        "attr_name, attr_value");
+                addIndex(
+                        indexes,
+                        existing,
+                        "eai_time_desc_" + partitionKey + "_" + week,
+                        child,
+                        "btree",
+                        "started_at DESC");
+                // service_id + event_type_id (handy for resolving types quickly)
+                addIndex(
+                        indexes,
+                        existing,
+                        "eai_svc_evt_" + partitionKey + "_" + week,
+                        child,
+                        "btree",
+                        "service_id, event_type_id");
+                if (trigram) {
+                    addIndex(
+                            indexes,
+                            existing,
+                            "eai_attr_val_trgm_" + partitionKey + "_" + week,
+                            child,
+                            "gin",
+                            "attr_value gin_trgm_ops");
+                }
             }
+            cursor = next;
+        }
+        return new ServicePlan(ddl, online);
+    }
 
-            backfillDefaultPartitions(partitionKey, repartitionStart, repartitionEnd);
+    /**
+     * Runs each service's DDL as one JDBC batch, with at most {@code parallelism} services in flight. A failed
+     * batch is retried statement by statement so one bad statement (e.g. an overlapping legacy partition) does
+     * not block the rest.
+     */
+    private void applyPlans(Map<String, List<String>> plans) {
+        if (plans.isEmpty()) return;
+        int threads = Math.max(1, Math.min(parallelism, plans.size()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "obsinity-partition-ddl");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(plans.size());
+            plans.forEach((partitionKey, ddl) -> futures.add(pool.submit(() -> applyServiceDdl(partitionKey, ddl))));
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ex) {
+                    log.warn("Partition DDL task failed", ex.getCause());
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Builds indexes on existing partitions one statement at a time. {@code CONCURRENTLY} cannot run inside a
+     * transaction block, and running the builds in sequence keeps their table scans from competing with ingest.
+     */
+    private void applyOnlineIndexes(List<String> statements) {
+        for (String statement : statements) {
+            long started = System.nanoTime();
+            try {
+                jdbc.execute(statement);
+                log.info(
+                        "Partition index built online sql={} elapsedMs={}",
+                        statement,
+                        Duration.ofNanos(System.nanoTime() - started).toMillis());
+            } catch (DataAccessException ex) {
+                log.warn("Online partition index build failed sql={}", statement, ex);
+            }
         }
     }
 
-    private void backfillDefaultPartitions(String servicePartitionKey, Instant fromIncl, Instant toExcl) {
-        int rawMoved = jdbc.update(
+    /** @param partitionKey service partition key, or {@code rollups} for the rollup tables */
+    private void applyServiceDdl(String partitionKey, List<String> ddl) {
+        try {
+            jdbc.batchUpdate(ddl.toArray(String[]::new));
+            log.info("Created partitions/indexes servicePartitionKey={} statements={}", partitionKey, ddl.size());
+        } catch (DataAccessException batchFailure) {
+            log.debug(
+                    "Batched DDL failed for servicePartitionKey={}; retrying individually", partitionKey, batchFailure);
+            for (String statement : ddl) {
+                try {
+                    jdbc.execute(statement);
+                } catch (DataAccessException ex) {
+                    log.warn("Partition DDL failed servicePartitionKey={} sql={}", partitionKey, statement, ex);
+                }
+            }
+        }
+    }
+
+    private Relations fetchExistingRelations() {
+        Set<String> names = new HashSet<>();
+        Set<String> invalid = new HashSet<>();
+        jdbc.query(
                 """
+                SELECT c.relname, COALESCE(i.indisvalid, true) AS valid
+                FROM pg_class c
+                JOIN pg_namespace n ON n.oid = c.relnamespace
+                LEFT JOIN pg_index i ON i.indexrelid = c.oid
+                WHERE n.nspname = ?
+                  AND c.relkind IN ('r', 'p', 'i', 'I')
+                  AND (c.relname LIKE 'events\\_raw\\_s\\_%'
+                    OR c.relname LIKE 'event\\_attr\\_index\\_s\\_%'
+                    OR c.relname LIKE 'er\\_evt\\_time\\_desc\\_%'
+                    OR c.relname LIKE 'eai\\_%')
+                """,
+                rs -> {
+                    (rs.getBoolean("valid") ? names : invalid).add(rs.getString("relname"));
+                },
+                SCHEMA);
+        return new Relations(names, invalid);
+    }
+
+    private static String createListPartition(String parentTable, String childTable, String servicePartitionKey) {
+        return "CREATE TABLE IF NOT EXISTS %s.%s PARTITION OF %s.%s FOR VALUES IN (%s) PARTITION BY RANGE (started_at)"
+                .formatted(SCHEMA, ident(childTable), SCHEMA, ident(parentTable), literal(servicePartitionKey));
+    }
+
+    private static String createRangePartition(
+            String listChild, String rangeChild, LocalDate fromIncl, LocalDate toExcl) {
+        String fromTs = fromIncl.atStartOfDay().toString(); // UTC assumed for simplicity
+        String toTs = toExcl.atStartOfDay().toString();
+        return "CREATE TABLE IF NOT EXISTS %s.%s PARTITION OF %s.%s FOR VALUES FROM (%s) TO (%s)"
+                .formatted(SCHEMA, ident(rangeChild), SCHEMA, ident(listChild), literal(fromTs), literal(toTs));
+    }
+
+    /**
+     * Adds the index if it is missing. Into an online list (one whose table already exists) it goes as
+     * {@code CREATE INDEX CONCURRENTLY}, preceded by a drop when an earlier concurrent build left it INVALID.
+     */
+    private static void addIndex(
+            List<String> ddl, Relations existing, String indexName, String table, String method, String columns) {
+        if (existing.contains(indexName)) return;
+        boolean online = existing.contains(table);
+        if (online && existing.invalidIndexes().contains(indexName)) {
+            ddl.add("DROP INDEX CONCURRENTLY IF EXISTS %s.%s".formatted(SCHEMA, ident(indexName)));
+        }
+        ddl.add("CREATE INDEX %sIF NOT EXISTS %s ON %s.%s USING %s (%s)"
+                .formatted(online ? "CONCURRENTLY " : "", ident(indexName), SCHEMA, ident(table), method, columns));
+    }
+
+    private boolean trigramAvailable() {
+        try {
+            return Boolean.TRUE.equals(jdbc.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm')", Boolean.class));
+        } catch (DataAccessException ex) {
+            log.warn("Could not check for pg_trgm; skipping trigram attribute indexes", ex);
+            return false;
+        }
+    }
+
+    /**
+     * Moves rows that landed in the DEFAULT partitions (because their weekly partition did not exist yet) into
+     * the proper partitions. Skipped entirely when both defaults are empty, and per service when it has no rows
+     * there, so the common case costs two EXISTS probes instead of two {@code DELETE ... RETURNING} per service.
+     */
+    private void backfillDefaultPartitions(Collection<String> servicePartitionKeys, Instant fromIncl, Instant toExcl) {
+        boolean rawPending = hasRows("events_raw_default");
+        boolean attrPending = hasRows("event_attr_index_default");
+        if (!rawPending && !attrPending) return;
+        for (String partitionKey : servicePartitionKeys) {
+            if (!PARTITION_KEY_RE.matcher(partitionKey).matches()) continue;
+            backfillDefaultPartitions(
+                    partitionKey,
+                    rawPending && hasRows("events_raw_default", partitionKey, fromIncl, toExcl),
+                    attrPending && hasRows("event_attr_index_default", partitionKey, fromIncl, toExcl),
+                    fromIncl,
+                    toExcl);
+        }
+    }
+
+    private boolean hasRows(String table) {
+        return Boolean.TRUE.equals(jdbc.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM %s.%s)".formatted(SCHEMA, ident(table)), Boolean.class));
+    }
+
+    private boolean hasRows(String table, String servicePartitionKey, Instant fromIncl, Instant toExcl) {
+        return Boolean.TRUE.equals(jdbc.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM %s.%s WHERE service_partition_key = ? AND started_at >= ? AND started_at < ?)"
+                        .formatted(SCHEMA, ident(table)),
+                Boolean.class,
+                servicePartitionKey,
+                Timestamp.from(fromIncl),
+                Timestamp.from(toExcl)));
+    }
+
+    private void backfillDefaultPartitions(
+            String servicePartitionKey, boolean raw, boolean attr, Instant fromIncl, Instant toExcl) {
+        int rawMoved = !raw
+                ? 0
+                : jdbc.update(
+                        """
                 WITH moved_rows AS (
                   DELETE FROM obsinity.events_raw_default
                   WHERE service_partition_key = ?
@@ -137,12 +474,14 @@ public class PartitionMaintenanceService {
                        correlation_id, status
                 FROM moved_rows
                 """,
-                servicePartitionKey,
-                Timestamp.from(fromIncl),
-                Timestamp.from(toExcl));
-
-        int attrMoved = jdbc.update(
-                """
+                        servicePartitionKey,
+                        Timestamp.from(fromIncl),
+                        Timestamp.from(toExcl));
+
+        int attrMoved = !attr
+                ? 0
+                : jdbc.update(
+                        """
                 WITH moved_rows AS (
                   DELETE FROM obsinity.event_attr_index_default
                   WHERE service_partition_key = ?
@@ -156,9 +495,9 @@ public class PartitionMaintenanceService {
                 SELECT service_partition_key, started_at, service_id, event_type_id, event_id, attr_name, attr_value
                 FROM moved_rows
                 """,
-                servicePartitionKey,
-                Timestamp.from(fromIncl),
-                Timestamp.from(toExcl));
+                        servicePartitionKey,
+                        Timestamp.from(fromIncl),
+                        Timestamp.from(toExcl));
 
         if (rawMoved > 0 || attrMoved > 0) {
             log.info(
@@ -171,211 +510,22 @@ public class PartitionMaintenanceService {
         }
     }
 
-    private List<String> fetchAllServicePartitionKeys() {
-        // Source of truth: the services table (whatever you already upsert)
-        return jdbc.queryForList("SELECT service_partition_key FROM service_registry", String.class);
-    }
-
-    private void ensureServiceListPartition(String parentTable, String servicePartitionKey) {
-        String childTable = parentTable + "_s_" + servicePartitionKey;
-        jdbc.execute(
-                """
-            DO $$
-            BEGIN
-              IF NOT EXISTS (
-                SELECT 1 FROM pg_class c
-                JOIN pg_namespace n ON n.oid = c.relnamespace
-                WHERE n.nspname = %s AND c.relname = %s
-              ) THEN
-                BEGIN
-                  EXECUTE format(
-                    'CREATE TABLE %%I PARTITION OF %%I FOR VALUES IN (%%L) PARTITION BY RANGE (started_at)',
-                    %s, %s, %s
-                  );
-                EXCEPTION
-                  WHEN duplicate_table THEN NULL;
-                  WHEN duplicate_object THEN NULL;
-                END;
-              END IF;
-            END
-            $$;
-            """
-                        .formatted(
-                                literal(SCHEMA),
-                                literal(childTable),
-                                // params for format: child, parent, 'service_partition_key'
-                                literal(childTable),
-                                literal(parentTable),
-                                literal(servicePartitionKey)));
-    }
-
-    private void ensureWeeklyRangePartition(
-            String parentTable, String servicePartitionKey, LocalDate fromIncl, LocalDate toExcl) {
-        String week = weekName(fromIncl);
-        String listChild = parentTable + "_s_" + servicePartitionKey;
-        String rangeChild = listChild + "_w_" + week;
-
-        String fromTs = fromIncl.atStartOfDay().toString(); // UTC assumed for simplicity
-        String toTs = toExcl.atStartOfDay().toString();
-
-        jdbc.execute(
-                """
-            DO $$
-            BEGIN
-              IF NOT EXISTS (
-                SELECT 1 FROM pg_class c
-                JOIN pg_namespace n ON n.oid = c.relnamespace
-                WHERE n.nspname = %s AND c.relname = %s
-              ) THEN
-                BEGIN
-                  EXECUTE format(
-                    'CREATE TABLE %%I PARTITION OF %%I FOR VALUES FROM (%%L) TO (%%L)',
-                    %s, %s, %s, %s
-                  );
-                EXCEPTION
-                  WHEN duplicate_table THEN NULL;
-                  WHEN duplicate_object THEN NULL;
-                END;
-              END IF;
-            END
-            $$;
-            """
-                        .formatted(
-                                literal(SCHEMA),
-                                literal(rangeChild),
-                                // format params: rangeChild, listChild, from, to
-                                literal(rangeChild),
-                                literal(listChild),
-                                literal(fromTs),
-                                literal(toTs)));
-    }
-
-    private void ensureAttrIndexChildIndexes(String servicePartitionKey, String week, String baseParent) {
-        String child = baseParent + "_s_" + servicePartitionKey + "_w_" + week;
-
-        // attr_name + attr_value composite
-        jdbc.execute(
-                """
-            DO $$
-            BEGIN
-              IF NOT EXISTS (
-                SELECT 1 FROM pg_class c
-                JOIN pg_namespace n ON n.oid = c.relnamespace
-                WHERE n.nspname = %s AND c.relname = %s
-              ) THEN
-                BEGIN
-                  EXECUTE format('CREATE INDEX %%I ON %%I(attr_name, attr_value)', %s, %s);
-                EXCEPTION
-                  WHEN duplicate_table THEN NULL;
-                  WHEN duplicate_object THEN NULL;
-                END;
-              END IF;
-            END
-            $$;
-            """
-                        .formatted(
-                                literal(SCHEMA),
-                                literal("eai_attr_name_val_" + servicePartitionKey + "_" + week),
-                                literal("eai_attr_name_val_" + servicePartitionKey + "_" + week),
-                                literal(child)));
-
-        // started_at desc
-        jdbc.execute(
-                """
-            DO $$
-            BEGIN
-              IF NOT EXISTS (
-                SELECT 1 FROM pg_class c
-                JOIN pg_namespace n ON n.oid = c.relnamespace
-                WHERE n.nspname = %s AND c.relname = %s
-              ) THEN
-                BEGIN
-                  EXECUTE format('CREATE INDEX %%I ON %%I(started_at DESC)', %s, %s);
-                EXCEPTION
-                  WHEN duplicate_table THEN NULL;
-                  WHEN duplicate_object THEN NULL;
-                END;
-              END IF;
-            END
-            $$;
-            """
-                        .formatted(
-                                literal(SCHEMA),
-                                literal("eai_time_desc_" + servicePartitionKey + "_" + week),
-                                literal("eai_time_desc_" + servicePartitionKey + "_" + week),
-                                literal(child)));
-
-        // service_id + event_type_id (handy for resolving types quickly)
-        jdbc.execute(
-                """
-            DO $$
-            BEGIN
-              IF NOT EXISTS (
-                SELECT 1 FROM pg_class c
-                JOIN pg_namespace n ON n.oid = c.relnamespace
-                WHERE n.nspname = %s AND c.relname = %s
-              ) THEN
-                BEGIN
-                  EXECUTE format('CREATE INDEX %%I ON %%I(service_id, event_type_id)', %s, %s);
-                EXCEPTION
-                  WHEN duplicate_table THEN NULL;
-                  WHEN duplicate_object THEN NULL;
-                END;
-              END IF;
-            END
-            $$;
-            """
-                        .formatted(
-                                literal(SCHEMA),
-                                literal("eai_svc_evt_" + servicePartitionKey + "_" + week),
-                                literal("eai_svc_evt_" + servicePartitionKey + "_" + week),
-                                literal(child)));
-    }
-
-    private void ensureEventsRawChildIndexes(String servicePartitionKey, String week, String baseParent) {
-        String child = baseParent + "_s_" + servicePartitionKey + "_w_" + week;
-
-        // event_type + started_at desc + event_id for fast latest-N lookups by type.
-        jdbc.execute(
-                """
-            DO $$
-            BEGIN
-              IF NOT EXISTS (
-                SELECT 1 FROM pg_class c
-                JOIN pg_namespace n ON n.oid = c.relnamespace
-                WHERE n.nspname = %s AND c.relname = %s
-              ) THEN
-                BEGIN
-                  EXECUTE format('CREATE INDEX %%I ON %%I(event_type, started_at DESC, event_id)', %s, %s);
-                EXCEPTION
-                  WHEN duplicate_table THEN NULL;
-                  WHEN duplicate_object THEN NULL;
-                END;
-              END IF;
-            END
-            $$;
-            """
-                        .formatted(
-                                literal(SCHEMA),
-                                literal("er_evt_time_desc_" + servicePartitionKey + "_" + week),
-                                literal("er_evt_time_desc_" + servicePartitionKey + "_" + week),
-                                literal(child)));
+    /** Weeks whose upper bound has passed the retention horizon would be dropped again by the retention job. */
+    private boolean isRetained(Duration retentionPeriod, Instant weekEnd, Instant now) {
+        if (!retention.isEnabled()
+                || retentionPeriod == null
+                || retentionPeriod.isNegative()
+                || retentionPeriod.isZero()) return true;
+        return weekEnd.isAfter(now.minus(retentionPeriod));
     }
 
-    private void runAutoAnalyze(String reason) {
-        Instant started = Instant.now();
-        try {
-            // Keep planner stats current for search-heavy default partitions.
-            jdbc.execute("ANALYZE obsinity.events_raw_default");
-            jdbc.execute("ANALYZE obsinity.event_attr_index_default");
-            long elapsedMs = Duration.between(started, Instant.now()).toMillis();
-            log.info(
-                    "Auto ANALYZE complete reason={}, elapsedMs={}, tables=[events_raw_default,event_attr_index_default]",
-                    reason,
-                    elapsedMs);
-        } catch (RuntimeException ex) {
-            log.warn("Auto ANALYZE failed reason={}", reason, ex);
-        }
+    private Map<String, String> fetchAllServices() {
+        // Source of truth: the services table (whatever you already upsert)
+        Map<String, String> services = new LinkedHashMap<>();
+        jdbc.query("SELECT service_partition_key, service_key FROM service_registry", rs -> {
+            services.put(rs.getString(1), rs.getString(2));
+        });
+        return services;
     }
 
     private static String weekName(LocalDate date) {
@@ -384,9 +534,9 @@ public class PartitionMaintenanceService {
         return "%d_%02d".formatted(date.getYear(), week);
     }
 
-    private static String quote(String ident) {
-        // minimal identifier sanitization for embedding into SQL string literals
-        return ident.replace("\"", "\"\"");
+    private static String ident(String name) {
+        // double-quote and escape for safe SQL identifier usage
+        return "\"" + name.replace("\"", "\"\"") + "\"";
     }
 
     private static String literal(String s) {
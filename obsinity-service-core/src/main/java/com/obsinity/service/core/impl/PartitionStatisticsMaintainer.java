@@ -0,0 +1,220 @@
+package com.obsinity.service.storage.impl;
+
+import com.obsinity.service.core.search.PlannerEstimateDrift;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps planner statistics current on the partitions that actually receive data.
+ *
+ * Each run reads pg_stat_user_tables for every leaf table in the obsinity schema (weekly events_raw and
+ * event_attr_index children, DEFAULT partitions, rollup partitions) and ANALYZEs only those whose rows changed
+ * since their last (auto)analyze by more than
+ * {@code minChangedRows + changedFraction * n_live_tup}, or that were never analyzed but have changes.
+ * Autovacuum uses the same formula with much larger defaults, which leaves a freshly filled weekly partition
+ * without useful stats for most of its hot period. Stalest first, and only within {@code budget}: a table is never
+ * started once the budget is spent, so the rest waits for the next run.
+ *
+ * The run summary also reports the OB-JQL shapes whose planner estimate drifts furthest from the actual match
+ * count (see {@link PlannerEstimateDrift}).
+ */
+@Service
+public class PartitionStatisticsMaintainer {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionStatisticsMaintainer.class);
+    private static final String SCHEMA = "obsinity";
+
+    private static final String STATS_SQL =
+            """
+            SELECT s.relname,
+                   s.n_live_tup,
+                   s.n_mod_since_analyze,
+                   GREATEST(s.last_analyze, s.last_autoanalyze) AS last_analyzed
+            FROM pg_stat_user_tables s
+            JOIN pg_class c ON c.oid = s.relid
+            WHERE s.schemaname = ?
+              AND c.relkind = 'r'
+            """;
+
+    /** Statistics state of one leaf table. */
+    public record TableStats(String table, long liveRows, long modifiedSinceAnalyze, Instant lastAnalyzed) {}
+
+    /** Outcome of one maintenance run. */
+    public record RunSummary(
+            String reason,
+            Instant finishedAt,
+            int tables,
+            int stale,
+            List<String> analyzed,
+            int deferred,
+            int failed,
+            long elapsedMs,
+            List<PlannerEstimateDrift.Stats> estimateDrift) {}
+
+    private final JdbcTemplate jdbc;
+    private final PlannerEstimateDrift drift;
+    private final boolean enabled;
+    private final boolean onStartup;
+    private final long minChangedRows;
+    private final double changedFraction;
+    private final Duration budget;
+    private final int maxTablesPerRun;
+    private final double driftWarnRatio;
+    private volatile RunSummary lastRun;
+
+    public PartitionStatisticsMaintainer(
+            JdbcTemplate jdbc,
+            PlannerEstimateDrift drift,
+            @Value("${obsinity.partition.maintenance.autoAnalyze.enabled:true}") boolean enabled,
+            @Value("${obsinity.partition.maintenance.autoAnalyze.onStartup:true}") boolean onStartup,
+            @Value("${obsinity.partition.maintenance.autoAnalyze.minChangedRows:500}") long minChangedRows,
+            @Value("${obsinity.partition.maintenance.autoAnalyze.changedFraction:0.05}") double changedFraction,
+            @Value("${obsinity.partition.maintenance.autoAnalyze.budget:PT30S}") Duration budget,
+            @Value("${obsinity.partition.maintenance.autoAnalyze.maxTablesPerRun:50}") int maxTablesPerRun,
+            @Value("${obsinity.search.plannerDrift.warnRatio:10}") double driftWarnRatio) {
+        this.jdbc = jdbc;
+        this.drift = drift;
+        this.enabled = enabled;
+        this.onStartup = onStartup;
+        this.minChangedRows = minChangedRows;
+        this.changedFraction = changedFraction;
+        this.budget = budget;
+        this.maxTablesPerRun = maxTablesPerRun;
+        this.driftWarnRatio = driftWarnRatio;
+    }
+
+    /** Runs after {@link PartitionMaintenanceService#onStartup()} so newly created partitions are included. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 200)
+    public void onStartup() {
+        if (enabled && onStartup) {
+            run("startup");
+        }
+    }
+
+    @Scheduled(cron = "${obsinity.partition.maintenance.autoAnalyze.cron:0 */5 * * * *}")
+    public void scheduled() {
+        if (enabled) {
+            run("schedule");
+        }
+    }
+
+    public RunSummary lastRun() {
+        return lastRun;
+    }
+
+    public RunSummary run(String reason) {
+        long started = System.nanoTime();
+        List<TableStats> tables;
+        try {
+            tables = fetchStats();
+        } catch (DataAccessException ex) {
+            log.warn("Statistics maintenance could not read pg_stat_user_tables reason={}", reason, ex);
+            return null;
+        }
+        List<TableStats> stale = stale(tables, minChangedRows, changedFraction);
+        List<String> analyzed = new ArrayList<>();
+        int failed = 0;
+        int deferred = 0;
+        for (TableStats table : stale) {
+            if (analyzed.size() + failed >= maxTablesPerRun
+                    || Duration.ofNanos(System.nanoTime() - started).compareTo(budget) >= 0) {
+                deferred++;
+                continue;
+            }
+            try {
+                jdbc.execute("ANALYZE %s.%s".formatted(SCHEMA, ident(table.table())));
+                analyzed.add(table.table());
+            } catch (DataAccessException ex) {
+                failed++;
+                log.warn("ANALYZE failed table={}", table.table(), ex);
+            }
+        }
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        List<PlannerEstimateDrift.Stats> driftStats = drift.stats();
+        RunSummary summary = new RunSummary(
+                reason,
+                Instant.now(),
+                tables.size(),
+                stale.size(),
+                List.copyOf(analyzed),
+                deferred,
+                failed,
+                elapsedMs,
+                List.copyOf(driftStats.subList(0, Math.min(10, driftStats.size()))));
+        lastRun = summary;
+        if (!analyzed.isEmpty() || deferred > 0 || failed > 0) {
+            log.info(
+                    "Statistics maintenance reason={} tables={} stale={} analyzed={} deferred={} failed={} elapsedMs={}",
+                    reason,
+                    tables.size(),
+                    stale.size(),
+                    analyzed.size(),
+                    deferred,
+                    failed,
+                    elapsedMs);
+        }
+        for (PlannerEstimateDrift.Stats shape : summary.estimateDrift()) {
+            if (shape.meanRatio() < driftWarnRatio) break;
+            log.warn(
+                    "OB-JQL planner estimate drift shape={} samples={} meanRatio={} lastEstimated={} lastActual={}",
+                    shape.shape(),
+                    shape.samples(),
+                    String.format(Locale.ROOT, "%.1f", shape.meanRatio()),
+                    shape.lastEstimated(),
+                    shape.lastActual());
+        }
+        return summary;
+    }
+
+    /**
+     * Tables whose statistics are stale, never-analyzed first, then by the share of rows changed since the last
+     * analyze.
+     */
+    static List<TableStats> stale(List<TableStats> tables, long minChangedRows, double changedFraction) {
+        return tables.stream()
+                .filter(t -> t.modifiedSinceAnalyze() > 0)
+                .filter(t -> t.lastAnalyzed() == null
+                        || t.modifiedSinceAnalyze() >= minChangedRows + changedFraction * t.liveRows())
+                .sorted(Comparator.comparing((TableStats t) -> t.lastAnalyzed() != null)
+                        .thenComparing(Comparator.comparingDouble(
+                                        (TableStats t) -> (double) t.modifiedSinceAnalyze() / (t.liveRows() + 1d))
+                                .reversed())
+                        .thenComparing(TableStats::table))
+                .toList();
+    }
+
+    private List<TableStats> fetchStats() {
+        return jdbc.query(
+                STATS_SQL,
+                (rs, rowNum) -> {
+                    Timestamp lastAnalyzed = rs.getTimestamp("last_analyzed");
+                    return new TableStats(
+                            rs.getString("relname"),
+                            rs.getLong("n_live_tup"),
+                            rs.getLong("n_mod_since_analyze"),
+                            lastAnalyzed != null ? lastAnalyzed.toInstant() : null);
+                },
+                SCHEMA);
+    }
+
+    private static String ident(String name) {
+        return "\"" + name.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.obsinity.service.core.model.EventEnvelope;
+import com.obsinity.service.core.model.JsonObjectAttributes;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeParseException;
@@ -57,7 +58,7 @@ public class EventEnvelopeMapper {
         String spanId = stringAt(root, "trace", "spanId");
 
         Map<String, Object> resource = expandDottedKeys(toMap(root.path("resource")));
-        Map<String, Object> attributes = expandDottedKeys(toMap(root.path("attributes")));
+        Map<String, Object> attributes = attributesOf(root.path("attributes"));
 
         EventEnvelope.Builder b = EventEnvelope.builder()
                 .serviceId(serviceId)
@@ -159,6 +160,16 @@ public class EventEnvelopeMapper {
         return null;
     }
 
+    /**
+     * Attributes already in normalized form (no dotted keys) stay a view over the request tree, so only the values
+     * extractors actually read are converted and the JSONB column is written from the tree text. Anything else
+     * goes through the full conversion and dotted-key expansion.
+     */
+    private Map<String, Object> attributesOf(JsonNode node) {
+        JsonObjectAttributes view = JsonObjectAttributes.of(node);
+        return view != null ? view : expandDottedKeys(toMap(node));
+    }
+
     private Map<String, Object> toMap(JsonNode node) {
         if (node == null || node.isNull() || node.isMissingNode()) return Map.of();
         return mapper.convertValue(node, MAP_TYPE);
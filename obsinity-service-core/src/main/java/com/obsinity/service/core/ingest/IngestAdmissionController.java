@@ -0,0 +1,209 @@
+package com.obsinity.service.core.ingest;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether new events may enter the pipeline, based on the fill level of every
+ * {@link IngestPressureSource} (persist queues, aggregation buffers) and a decaying average of raw-event write
+ * latency relative to {@code obsinity.ingest.admission.latencyBudgetMs}.
+ * <p>
+ * The highest pressure wins:
+ * <ul>
+ *   <li>below {@code throttleAt}: {@link State#OPEN};</li>
+ *   <li>from {@code throttleAt}: {@link State#THROTTLED}, refusing part of the requests (HTTP 429);</li>
+ *   <li>from {@code shedAt}: {@link State#SHEDDING}, refusing everything (HTTP 503, broker listeners paused).</li>
+ * </ul>
+ * Once throttled, the controller only reopens when pressure is back at {@code resumeAt} or below, so it does not
+ * flap around a single threshold. While throttled the admitted share falls linearly from one at {@code resumeAt} to
+ * zero at {@code shedAt}, so requests keep being refused throughout the band between {@code resumeAt} and
+ * {@code throttleAt}, not just the broker resume. State changes are published as {@link IngestAdmissionEvent}s.
+ */
+@Component
+public class IngestAdmissionController {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestAdmissionController.class);
+    private static final double LATENCY_ALPHA = 0.2d;
+
+    public enum State {
+        OPEN,
+        THROTTLED,
+        SHEDDING
+    }
+
+    public record Admission(State state, double pressure, String reason, int retryAfterSeconds) {
+        static final Admission OPEN = new Admission(State.OPEN, 0d, "idle", 0);
+    }
+
+    private final ObjectProvider<IngestPressureSource> sourceProvider;
+    private final Consumer<IngestAdmissionEvent> events;
+    private final double throttleAt;
+    private final double shedAt;
+    private final double resumeAt;
+    private final long latencyBudgetNanos;
+    private final int throttledRetryAfterSeconds;
+    private final int sheddingRetryAfterSeconds;
+    private final long evaluateIntervalNanos;
+
+    private List<IngestPressureSource> sources;
+    private volatile Admission current = Admission.OPEN;
+    private final AtomicLong evaluatedAt = new AtomicLong(System.nanoTime());
+    private final AtomicLong latencyEwmaNanos = new AtomicLong();
+    private final AtomicLong latencySamples = new AtomicLong();
+
+    /** Defaults for tests and embedded use. */
+    public IngestAdmissionController(List<IngestPressureSource> sources, Consumer<IngestAdmissionEvent> events) {
+        this((ObjectProvider<IngestPressureSource>) null, events, 0.8d, 0.95d, 0.6d, 1000L, 1, 5, 250L);
+        this.sources = List.copyOf(sources);
+    }
+
+    @Autowired
+    public IngestAdmissionController(
+            ObjectProvider<IngestPressureSource> sources,
+            ApplicationEventPublisher events,
+            @Value("${obsinity.ingest.admission.throttleAt:0.8}") double throttleAt,
+            @Value("${obsinity.ingest.admission.shedAt:0.95}") double shedAt,
+            @Value("${obsinity.ingest.admission.resumeAt:0.6}") double resumeAt,
+            @Value("${obsinity.ingest.admission.latencyBudgetMs:1000}") long latencyBudgetMs,
+            @Value("${obsinity.ingest.admission.retryAfter.throttledSeconds:1}") int throttledRetryAfterSeconds,
+            @Value("${obsinity.ingest.admission.retryAfter.sheddingSeconds:5}") int sheddingRetryAfterSeconds,
+            @Value("${obsinity.ingest.admission.evaluate.ms:250}") long evaluateMs) {
+        this(
+                sources,
+                (Consumer<IngestAdmissionEvent>) events::publishEvent,
+                throttleAt,
+                shedAt,
+                resumeAt,
+                latencyBudgetMs,
+                throttledRetryAfterSeconds,
+                sheddingRetryAfterSeconds,
+                evaluateMs);
+    }
+
+    private IngestAdmissionController(
+            ObjectProvider<IngestPressureSource> sources,
+            Consumer<IngestAdmissionEvent> events,
+            double throttleAt,
+            double shedAt,
+            double resumeAt,
+            long latencyBudgetMs,
+            int throttledRetryAfterSeconds,
+            int sheddingRetryAfterSeconds,
+            long evaluateMs) {
+        this.sourceProvider = sources;
+        this.events = events;
+        this.shedAt = shedAt;
+        this.throttleAt = Math.min(throttleAt, shedAt);
+        this.resumeAt = Math.min(resumeAt, this.throttleAt);
+        this.latencyBudgetNanos = Math.max(1L, latencyBudgetMs) * 1_000_000L;
+        this.throttledRetryAfterSeconds = Math.max(1, throttledRetryAfterSeconds);
+        this.sheddingRetryAfterSeconds = Math.max(1, sheddingRetryAfterSeconds);
+        this.evaluateIntervalNanos = Math.max(1L, evaluateMs) * 1_000_000L;
+    }
+
+    /** Records the duration of one raw-event write. */
+    public void recordWriteLatency(long nanos) {
+        latencySamples.incrementAndGet();
+        latencyEwmaNanos.updateAndGet(prev -> prev == 0 ? nanos : prev + (long) (LATENCY_ALPHA * (nanos - prev)));
+    }
+
+    /**
+     * Admits or refuses one request. Throttled requests are admitted with a probability below one that shrinks as
+     * pressure approaches {@code shedAt}.
+     *
+     * @throws IngestOverloadedException when refused
+     */
+    public void admit() {
+        Admission admission = current();
+        if (admission.state() == State.OPEN) {
+            return;
+        }
+        if (admission.state() == State.THROTTLED) {
+            double share = Math.min(1d, (shedAt - admission.pressure()) / Math.max(1e-9, shedAt - resumeAt));
+            if (ThreadLocalRandom.current().nextDouble() < share) {
+                return;
+            }
+        }
+        throw new IngestOverloadedException(admission);
+    }
+
+    /**
+     * Current decision, re-evaluated when older than the evaluation interval. Only the request thread that claims
+     * the stale timestamp evaluates; the others return the decision at hand instead of queueing on the lock.
+     */
+    public Admission current() {
+        long last = evaluatedAt.get();
+        long now = System.nanoTime();
+        if (now - last >= evaluateIntervalNanos && evaluatedAt.compareAndSet(last, now)) {
+            evaluate();
+        }
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${obsinity.ingest.admission.evaluate.ms:250}")
+    public void evaluate() {
+        Admission previous;
+        Admission next;
+        synchronized (this) {
+            evaluatedAt.set(System.nanoTime());
+            // Without fresh writes (e.g. while shedding) latency must decay, or the controller would never reopen.
+            if (latencySamples.getAndSet(0) == 0) {
+                latencyEwmaNanos.updateAndGet(prev -> prev / 2);
+            }
+            double pressure = latencyEwmaNanos.get() / (double) latencyBudgetNanos;
+            String reason = "db latency";
+            for (IngestPressureSource source : sources()) {
+                double p = source.pressure();
+                if (p > pressure) {
+                    pressure = p;
+                    reason = source.pressureName();
+                }
+            }
+            previous = current;
+            next = decide(previous.state(), pressure, reason);
+            current = next;
+        }
+        if (next.state() != previous.state()) {
+            log.warn(
+                    "Ingest admission {} -> {} (pressure={} from {})",
+                    previous.state(),
+                    next.state(),
+                    String.format(Locale.ROOT, "%.2f", next.pressure()),
+                    next.reason());
+            events.accept(new IngestAdmissionEvent(next));
+        }
+    }
+
+    private Admission decide(State previous, double pressure, String reason) {
+        State state;
+        if (pressure >= shedAt) {
+            state = State.SHEDDING;
+        } else if (pressure >= throttleAt || (previous != State.OPEN && pressure > resumeAt)) {
+            state = State.THROTTLED;
+        } else {
+            return new Admission(State.OPEN, pressure, reason, 0);
+        }
+        int retryAfter = state == State.SHEDDING ? sheddingRetryAfterSeconds : throttledRetryAfterSeconds;
+        return new Admission(state, pressure, reason, retryAfter);
+    }
+
+    private List<IngestPressureSource> sources() {
+        if (sources == null) {
+            sources = sourceProvider == null
+                    ? List.of()
+                    : sourceProvider.orderedStream().toList();
+        }
+        return sources;
+    }
+}
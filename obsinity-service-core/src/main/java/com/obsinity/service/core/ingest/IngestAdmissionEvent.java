@@ -0,0 +1,6 @@
+package com.obsinity.service.core.ingest;
+
+/**
+ * Published when {@link IngestAdmissionController} changes state, so broker listeners can pause or resume.
+ */
+public record IngestAdmissionEvent(IngestAdmissionController.Admission admission) {}
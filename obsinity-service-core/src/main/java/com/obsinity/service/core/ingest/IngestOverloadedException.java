@@ -0,0 +1,19 @@
+package com.obsinity.service.core.ingest;
+
+/**
+ * Thrown when ingest is refused by {@link IngestAdmissionController}; carries the status and retry hint.
+ */
+public class IngestOverloadedException extends RuntimeException {
+
+    private final transient IngestAdmissionController.Admission admission;
+
+    public IngestOverloadedException(IngestAdmissionController.Admission admission) {
+        super("Ingest " + admission.state().name().toLowerCase(java.util.Locale.ROOT) + " (" + admission.reason()
+                + "); retry after " + admission.retryAfterSeconds() + "s");
+        this.admission = admission;
+    }
+
+    public IngestAdmissionController.Admission admission() {
+        return admission;
+    }
+}
@@ -0,0 +1,12 @@
+package com.obsinity.service.core.ingest;
+
+/**
+ * A bounded stage of the ingest pipeline whose fill level feeds {@link IngestAdmissionController}.
+ */
+public interface IngestPressureSource {
+
+    String pressureName();
+
+    /** Fill level: 0 when idle, 1 at capacity (may exceed 1 for soft limits). */
+    double pressure();
+}
@@ -1,9 +1,31 @@
 package com.obsinity.service.core.jobs;
 
-/** Placeholder scheduled job for data retention. */
+import com.obsinity.service.core.config.RetentionProperties;
+import com.obsinity.service.core.retention.PartitionRetentionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Scheduled data retention: drops (and optionally archives) expired partitions. */
+@Component
+@RequiredArgsConstructor
+@Slf4j
 public class RetentionJob implements Runnable {
+
+    private final RetentionProperties properties;
+    private final PartitionRetentionService retentionService;
+
     @Override
+    @Scheduled(cron = "${obsinity.retention.cron:0 45 2 * * *}")
     public void run() {
-        // TODO: drop aged partitions
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            retentionService.run();
+        } catch (RuntimeException ex) {
+            log.warn("Retention run failed", ex);
+        }
     }
 }
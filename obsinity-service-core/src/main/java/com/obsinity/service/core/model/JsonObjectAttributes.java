@@ -0,0 +1,141 @@
+package com.obsinity.service.core.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only attribute map backed by the parsed request tree.
+ * <p>
+ * Values are materialized per lookup: {@code get("http")} converts only that subtree, nested objects are again
+ * views, and scalars come straight from the node. {@link #json()} is the object's own JSON text, written to
+ * {@code events_raw.attributes} without a Map round trip.
+ * <p>
+ * Only used for trees that are already in normalized form (see {@link #of(JsonNode)}), so the view is
+ * indistinguishable from the {@code LinkedHashMap} the mapper would otherwise build. Stateless apart from the
+ * cached JSON text, hence safe to share across threads.
+ */
+public final class JsonObjectAttributes extends AbstractMap<String, Object> {
+
+    private final ObjectNode node;
+    private volatile String json;
+
+    private JsonObjectAttributes(ObjectNode node) {
+        this.node = node;
+    }
+
+    /**
+     * Returns a view over {@code node}, or {@code null} when it is not an object or any nested object key would be
+     * rewritten by dotted-key expansion (contains '.', is blank, or has surrounding whitespace).
+     */
+    public static JsonObjectAttributes of(JsonNode node) {
+        if (!(node instanceof ObjectNode object) || !isNormalized(object)) {
+            return null;
+        }
+        return new JsonObjectAttributes(object);
+    }
+
+    /** JSON text of the attributes object, produced once from the tree. */
+    public String json() {
+        String s = json;
+        if (s == null) {
+            s = node.toString();
+            json = s;
+        }
+        return s;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return key instanceof String k ? materialize(node.get(k)) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String k && node.has(k);
+    }
+
+    @Override
+    public int size() {
+        return node.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return node.isEmpty();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return fields.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        Map.Entry<String, JsonNode> field = fields.next();
+                        return new SimpleImmutableEntry<>(field.getKey(), materialize(field.getValue()));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return node.size();
+            }
+        };
+    }
+
+    private static Object materialize(JsonNode value) {
+        if (value == null || value.isNull() || value.isMissingNode()) {
+            return null;
+        }
+        if (value.isObject()) {
+            return new JsonObjectAttributes((ObjectNode) value);
+        }
+        if (value.isArray()) {
+            List<Object> list = new ArrayList<>(value.size());
+            for (JsonNode element : value) {
+                list.add(materialize(element));
+            }
+            return list;
+        }
+        if (value.isTextual()) {
+            return value.textValue();
+        }
+        if (value.isNumber()) {
+            return value.numberValue();
+        }
+        if (value.isBoolean()) {
+            return value.booleanValue();
+        }
+        return value.asText();
+    }
+
+    private static boolean isNormalized(ObjectNode object) {
+        Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String key = field.getKey();
+            if (key.isBlank() || key.indexOf('.') >= 0 || !key.equals(key.trim())) {
+                return false;
+            }
+            if (field.getValue() instanceof ObjectNode child && !isNormalized(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
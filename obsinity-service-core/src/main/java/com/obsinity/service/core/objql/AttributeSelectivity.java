@@ -0,0 +1,24 @@
+package com.obsinity.service.core.objql;
+
+/**
+ * Estimates how many indexed rows an attribute predicate matches.
+ * <p>
+ * Only the relative order of estimates matters: {@link OBJqlCteBuilder} drives a conjunction from the
+ * predicate with the smallest estimate and probes the rest per candidate row.
+ */
+@FunctionalInterface
+public interface AttributeSelectivity {
+
+    /** Returned when nothing is known about a predicate; sorts after every real estimate. */
+    long UNKNOWN = Long.MAX_VALUE;
+
+    /** No statistics: predicates keep their query order, except that {@code !=} never drives. */
+    AttributeSelectivity NONE = (service, path, predicate) -> UNKNOWN;
+
+    /**
+     * @param service service partition key
+     * @param path attribute path without the {@code attr.} prefix
+     * @param predicate the attribute predicate
+     */
+    long estimate(String service, String path, OBJql.Predicate predicate);
+}
@@ -26,6 +26,11 @@ public record OBJql(
         ) {
     public static record TimeRange(Instant start, Instant end) {}
 
+    /** Same query over a different time range ({@code null} for a time-less shape, e.g. a cache key). */
+    public OBJql withTime(TimeRange time) {
+        return new OBJql(service, event, time, predicates, sort, limit, selectFields, attrExpr);
+    }
+
     public static record Sort(String field, boolean asc) {}
 
     /** A predicate over envelope fields or attributes. */
@@ -1,13 +1,17 @@
 package com.obsinity.service.core.objql;
 
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * Builds a native SQL with CTEs that:
  *
  *  1) filters base events by service/event/time/envelope predicates,
- *  2) resolves attribute matches from event_attr_index via INTERSECT (all predicates must match),
- *  3) pages with OFFSET/LIMIT in a stable order (started_at desc, event_id tiebreaker),
+ *  2) resolves attribute matches from event_attr_index: a plain conjunction is driven by its most selective
+ *     predicate (per {@link AttributeSelectivity}) with the others checked as EXISTS probes on the index key;
+ *     expressions containing OR fall back to INTERSECT/UNION over one CTE per predicate,
+ *  3) pages in a stable order (started_at desc, event_id tiebreaker), either with OFFSET/LIMIT or by seeking
+ *     past a (started_at, event_id) cursor so deep pages cost the same as the first,
  *  4) returns rows from events_raw for the paged event_id set,
  *  5) also computes matched_count for UI pagination.
  *
@@ -17,14 +21,20 @@ public final class OBJqlCteBuilder {
 
     private final String eventsTable;
     private final String attrIndexTable;
+    private final AttributeSelectivity selectivity;
 
     public OBJqlCteBuilder() {
         this("events_raw", "event_attr_index");
     }
 
     public OBJqlCteBuilder(String eventsTable, String attrIndexTable) {
+        this(eventsTable, attrIndexTable, AttributeSelectivity.NONE);
+    }
+
+    public OBJqlCteBuilder(String eventsTable, String attrIndexTable, AttributeSelectivity selectivity) {
         this.eventsTable = eventsTable;
         this.attrIndexTable = attrIndexTable;
+        this.selectivity = selectivity == null ? AttributeSelectivity.NONE : selectivity;
     }
 
     public Built build(OBJql q, OBJqlPage page) {
@@ -33,11 +43,177 @@ public final class OBJqlCteBuilder {
 
     public Built build(OBJql q, OBJqlPage page, boolean includeTotal) {
         Map<String, Object> p = new LinkedHashMap<>();
+        boolean asc = q.sort() != null && q.sort().asc();
+        String sortCol = sortColumn(q);
+        OBJqlPage.Cursor cursor = page.after();
+        if (cursor != null && !sortCol.equals("started_at")) {
+            throw new IllegalArgumentException("Cursor paging requires ordering by started_at");
+        }
 
         StringBuilder sql = new StringBuilder(2048);
+        // Without a total the seek can go straight into the base scan; with one, base must stay complete.
+        boolean seekInBase = cursor != null && !includeTotal;
+        boolean hasAttrMatch = appendMatchCtes(sql, p, q, sortCol, seekInBase ? page : null);
+        String source = hasAttrMatch ? "matched_base" : "base";
+
+        // Stable ordering for paging: sort column, then event_id ascending as tiebreaker.
+        String order = "o." + sortCol + " " + (asc ? "asc" : "desc") + ", o.event_id";
+        sql.append(",\n")
+                .append("page AS MATERIALIZED (\n")
+                .append("  SELECT o.event_id, o.started_at\n")
+                .append("  FROM ")
+                .append(source)
+                .append(" o\n");
+        if (cursor != null && !seekInBase) {
+            sql.append("  WHERE ").append(seekPredicate("o", asc)).append("\n");
+        }
+        sql.append("  ORDER BY ").append(order).append("\n");
+        if (cursor == null) {
+            sql.append("  OFFSET :off");
+            p.put("off", page.offset());
+        }
+        sql.append("  LIMIT :lim\n").append(")\n");
+        p.put("lim", page.limit());
+        bindCursor(p, cursor);
+
+        if (includeTotal) {
+            sql.append(",\n")
+                    .append("counts AS (\n")
+                    .append("  SELECT (SELECT COUNT(*) FROM ")
+                    .append(source)
+                    .append(") AS matched_count\n")
+                    .append(")\n");
+        }
+
+        // Final: return the page of events + total rows for UI paging.
+        // Repeat partition/time predicates so Postgres can prune partitions in the final fetch.
+        sql.append("SELECT ").append(selectList(q.selectFields(), p));
+        if (includeTotal) {
+            sql.append(",(SELECT matched_count FROM counts) AS matched_count");
+        }
+        sql.append("\n")
+                .append("FROM ")
+                .append(eventsTable)
+                .append(" e\n")
+                .append("JOIN page pg ON pg.event_id = e.event_id AND pg.started_at = e.started_at\n")
+                .append("WHERE e.service_partition_key = :svc\n")
+                .append("  AND e.started_at >= :ts_start AND e.started_at < :ts_end\n");
+        if (q.event() != null && !q.event().isBlank()) {
+            sql.append("  AND e.event_type = :evt\n");
+        }
+        sql.append("ORDER BY ").append(order.replace("o.", "e.")).append("\n");
+
+        return new Built(sql.toString(), p);
+    }
+
+    /**
+     * Builds only the filtering CTEs and selects the matched id set, without ordering or paging.
+     * Used to ask the planner for a row estimate instead of running an exact COUNT(*).
+     */
+    public Built buildMatchSet(OBJql q) {
+        Map<String, Object> p = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder(2048);
+        boolean hasAttrMatch = appendMatchCtes(sql, p, q, "started_at", null);
+        sql.append("\nSELECT event_id FROM ")
+                .append(hasAttrMatch ? "matched_base" : "base")
+                .append("\n");
+        return new Built(sql.toString(), p);
+    }
+
+    /**
+     * Projection for the final events_raw fetch: {@code e.*} by default, otherwise the requested envelope columns
+     * (snake_case or camelCase) and attribute paths ({@code attr.a.b} / {@code attributes.a.b}, returned as JSONB
+     * under the requested name). Unknown names are rejected rather than passed through to SQL.
+     */
+    public static String selectList(List<String> fields, Map<String, Object> p) {
+        if (fields == null || fields.isEmpty()) return "e.*";
+        StringBuilder out = new StringBuilder();
+        int si = 0;
+        for (String raw : fields) {
+            String field = raw == null ? "" : raw.trim();
+            if (field.isEmpty() || field.equals("*")) {
+                return "e.*";
+            }
+            if (!SELECT_FIELD_RE.matcher(field).matches()) {
+                throw new IllegalArgumentException("Invalid select field: " + raw);
+            }
+            if (out.length() > 0) out.append(", ");
+            String lower = field.toLowerCase(Locale.ROOT);
+            String attrPath = lower.startsWith("attr.")
+                    ? field.substring("attr.".length())
+                    : lower.startsWith("attributes.") ? field.substring("attributes.".length()) : null;
+            if (attrPath != null) {
+                String[] segments = attrPath.split("\\.");
+                out.append("jsonb_extract_path(e.attributes");
+                for (int i = 0; i < segments.length; i++) {
+                    String name = "sel" + si + "_" + i;
+                    out.append(", CAST(:").append(name).append(" AS text)");
+                    p.put(name, segments[i]);
+                }
+                out.append(") AS \"").append(field).append('"');
+                si++;
+                continue;
+            }
+            String column = field.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+            if (!EVENT_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Unknown select field: " + raw);
+            }
+            out.append("e.").append(column);
+        }
+        return out.toString();
+    }
+
+    private static final Pattern SELECT_FIELD_RE = Pattern.compile("[A-Za-z0-9_]+(\\.[A-Za-z0-9_\\-]+)*");
+
+    private static final Set<String> EVENT_COLUMNS = Set.of(
+            "event_id",
+            "event_type_id",
+            "parent_event_id",
+            "service_partition_key",
+            "event_type",
+            "kind",
+            "attributes",
+            "started_at",
+            "completed_at",
+            "duration_nanos",
+            "received_at",
+            "trace_id",
+            "span_id",
+            "parent_span_id",
+            "correlation_id",
+            "status");
+
+    /**
+     * Keyset predicate placing rows strictly after the cursor in (started_at dir, event_id asc) order.
+     * The leading range on started_at lets the search index bound the scan.
+     */
+    public static String seekPredicate(String alias, boolean asc) {
+        String a = alias + ".";
+        return asc
+                ? a + "started_at >= :cur_ts AND (" + a + "started_at > :cur_ts OR " + a + "event_id > :cur_id)"
+                : a + "started_at <= :cur_ts AND (" + a + "started_at < :cur_ts OR " + a + "event_id > :cur_id)";
+    }
+
+    public static void bindCursor(Map<String, Object> p, OBJqlPage.Cursor cursor) {
+        if (cursor == null) return;
+        p.put("cur_ts", java.sql.Timestamp.from(cursor.startedAt()));
+        p.put("cur_id", cursor.eventId());
+    }
+
+    /**
+     * Appends the {@code base}, attribute and {@code matched}/{@code matched_base} CTEs (without a trailing comma).
+     * When {@code seek} is non-null its cursor is applied to the base scan.
+     *
+     * @return whether attribute predicates are present (and therefore {@code matched_base} exists)
+     */
+    private boolean appendMatchCtes(StringBuilder sql, Map<String, Object> p, OBJql q, String sortCol, OBJqlPage seek) {
+        String cols = sortCol.equals("started_at") ? "event_id, started_at" : "event_id, started_at, " + sortCol;
+
         // Base filtered IDs (envelope fields only)
         sql.append("WITH base AS MATERIALIZED (\n")
-                .append("  SELECT e.event_id, e.started_at\n")
+                .append("  SELECT ")
+                .append(prefixed("e", cols))
+                .append("\n")
                 .append("  FROM ")
                 .append(eventsTable)
                 .append(" e\n")
@@ -54,6 +230,11 @@ public final class OBJqlCteBuilder {
         p.put("ts_start", java.sql.Timestamp.from(q.time().start()));
         p.put("ts_end", java.sql.Timestamp.from(q.time().end()));
 
+        if (seek != null) {
+            boolean asc = q.sort() != null && q.sort().asc();
+            sql.append("    AND ").append(seekPredicate("e", asc)).append("\n");
+        }
+
         // Envelope predicates (recognized set only)
         int pi = 0;
         for (OBJql.Predicate pred : q.predicates()) {
@@ -63,137 +244,145 @@ public final class OBJqlCteBuilder {
                 appendEnvelopePredicate(sql, p, name, pred);
             }
         }
-        sql.append("),\n");
+        sql.append(")");
 
-        // Attribute predicate subqueries as CTEs (supports nested AND/OR via UNION/INTERSECT)
-        List<String> attrCtes = new ArrayList<>();
-        int[] aiRef = new int[] {0};
-        boolean hasAttrMatch = false;
-        if (q.attrExpr() != null) {
-            hasAttrMatch = true;
-            // materialize all leaves
+        List<AttrLeaf> conjunction = conjunctionLeaves(q);
+        if (conjunction != null) {
+            if (conjunction.isEmpty()) {
+                return false;
+            }
+            appendSemiJoinMatch(sql, p, q.service(), conjunction);
+        } else {
+            // Nested AND/OR: one CTE per leaf, combined via INTERSECT/UNION
+            List<String> attrCtes = new ArrayList<>();
+            int[] aiRef = new int[] {0};
+            sql.append(",\n");
             collectLeafCtes(q.attrExpr(), sql, p, aiRef, attrCtes);
             sql.append(", matched AS MATERIALIZED (\n");
             sql.append(renderSetExpr(q.attrExpr(), attrCtes));
-            sql.append("\n),\n");
-        } else {
-            int attrCount = countAttrPreds(q);
-            hasAttrMatch = attrCount > 0;
-            for (OBJql.Predicate pred : q.predicates()) {
-                String lhs = pred.lhs().toLowerCase(Locale.ROOT);
-                if (isEnvelopeField(lhs)) continue;
-
-                String cte = "a" + (aiRef[0]++);
-                attrCtes.add(cte);
-                String path = lhs.startsWith("attr.") ? lhs.substring("attr.".length()) : lhs;
-                appendAttrCte(sql, p, cte, path, pred);
-                if (aiRef[0] < attrCount) sql.append(",\n");
-            }
-            if (attrCount > 0) {
-                sql.append("\n");
-                // Combine predicate IDs via INTERSECT (all must match)
-                sql.append(", matched AS MATERIALIZED (\n");
-                for (int i = 0; i < attrCtes.size(); i++) {
-                    if (i == 0) {
-                        sql.append("  SELECT event_id, started_at FROM ")
-                                .append(attrCtes.get(i))
-                                .append("\n");
-                    } else {
-                        sql.append("  INTERSECT SELECT event_id, started_at FROM ")
-                                .append(attrCtes.get(i))
-                                .append("\n");
-                    }
-                }
-                sql.append("),\n");
-            }
+            sql.append("\n)");
         }
 
-        // Stable ordering for paging
-        String orderField = (q.sort() != null ? q.sort().field() : "started_at");
-        boolean asc = (q.sort() != null && q.sort().asc());
-        String order =
-                switch (orderField.toLowerCase(Locale.ROOT)) {
-                    case "started_at" -> "b.started_at " + (asc ? "asc" : "desc") + ", b.event_id";
-                    case "received_at" -> "e.received_at " + (asc ? "asc" : "desc") + ", b.event_id";
-                    default -> "b.started_at " + (asc ? "asc" : "desc") + ", b.event_id";
-                };
+        sql.append(",\n")
+                .append("matched_base AS MATERIALIZED (\n")
+                .append("  SELECT ")
+                .append(prefixed("b", cols))
+                .append("\n")
+                .append("  FROM base b\n")
+                .append("  JOIN matched m ON m.event_id = b.event_id AND m.started_at = b.started_at\n")
+                .append(")");
+        return true;
+    }
 
-        // Only build matched_base when attribute predicates are present.
-        if (hasAttrMatch) {
-            sql.append("matched_base AS MATERIALIZED (\n")
-                    .append("  SELECT b.event_id, b.started_at\n")
-                    .append("  FROM base b\n")
-                    .append("  JOIN matched m ON m.event_id = b.event_id AND m.started_at = b.started_at\n")
-                    .append("),\n")
-                    .append("ordered AS MATERIALIZED (\n")
-                    .append("  SELECT mb.event_id, mb.started_at\n")
-                    .append("  FROM matched_base mb\n")
-                    .append("  ORDER BY ")
-                    .append(order.replace("b.", "mb.").replace("e.", "mb."))
-                    .append("\n")
-                    .append("),\n")
-                    .append("page AS MATERIALIZED (\n")
-                    .append("  SELECT event_id, started_at FROM ordered OFFSET :off LIMIT :lim\n")
-                    .append(")\n");
-            if (includeTotal) {
-                sql.append(",\n")
-                        .append("counts AS (\n")
-                        .append("  SELECT (SELECT COUNT(*) FROM matched_base) AS matched_count\n")
-                        .append(")\n");
-            }
-        } else {
-            sql.append("ordered AS MATERIALIZED (\n")
-                    .append("  SELECT b.event_id, b.started_at\n")
-                    .append("  FROM base b\n")
-                    .append("  ORDER BY ")
-                    .append(order)
-                    .append("\n")
-                    .append("),\n")
-                    .append("page AS MATERIALIZED (\n")
-                    .append("  SELECT event_id, started_at FROM ordered OFFSET :off LIMIT :lim\n")
-                    .append(")\n");
-            if (includeTotal) {
-                sql.append(",\n")
-                        .append("counts AS (\n")
-                        .append("  SELECT (SELECT COUNT(*) FROM base) AS matched_count\n")
-                        .append(")\n");
-            }
+    private static String sortColumn(OBJql q) {
+        String field = q.sort() != null && q.sort().field() != null ? q.sort().field() : "started_at";
+        return switch (field.trim().toLowerCase(Locale.ROOT)) {
+            case "received_at", "receivedat" -> "received_at";
+            default -> "started_at";
+        };
+    }
+
+    private static String prefixed(String alias, String cols) {
+        StringBuilder out = new StringBuilder();
+        for (String c : cols.split(", ")) {
+            if (out.length() > 0) out.append(", ");
+            out.append(alias).append('.').append(c);
         }
+        return out.toString();
+    }
 
-        p.put("off", page.offset());
-        p.put("lim", page.limit());
+    // ------------ helpers ------------
 
-        // Final: return the page of events + total rows for UI paging.
-        // Repeat partition/time predicates so Postgres can prune partitions in the final fetch.
-        sql.append("SELECT e.*");
-        if (includeTotal) {
-            sql.append(",(SELECT matched_count FROM counts) AS matched_count");
+    /**
+     * Attribute leaves of {@code q} when they form a plain conjunction (the predicate list, or an expression made
+     * only of AND and leaves); {@code null} when the expression contains an OR.
+     */
+    private List<AttrLeaf> conjunctionLeaves(OBJql q) {
+        List<OBJql.Predicate> preds = new ArrayList<>();
+        if (q.attrExpr() != null) {
+            if (!flattenAnd(q.attrExpr(), preds)) return null;
+        } else {
+            for (OBJql.Predicate pred : q.predicates()) {
+                if (!isEnvelopeField(pred.lhs().toLowerCase(Locale.ROOT))) preds.add(pred);
+            }
         }
-        sql.append("\n")
-                .append("FROM ")
-                .append(eventsTable)
-                .append(" e\n")
-                .append("JOIN page pg ON pg.event_id = e.event_id AND pg.started_at = e.started_at\n")
-                .append("WHERE e.service_partition_key = :svc\n")
-                .append("  AND e.started_at >= :ts_start AND e.started_at < :ts_end\n");
-        if (q.event() != null && !q.event().isBlank()) {
-            sql.append("  AND e.event_type = :evt\n");
+        List<AttrLeaf> leaves = new ArrayList<>(preds.size());
+        for (OBJql.Predicate pred : preds) {
+            leaves.add(new AttrLeaf(attrPath(pred), pred, leaves.size()));
         }
-        sql.append("ORDER BY ").append(order.replace("b.", "e.")).append("\n");
+        return leaves;
+    }
 
-        return new Built(sql.toString(), p);
+    private boolean flattenAnd(OBJql.AttrExpr expr, List<OBJql.Predicate> out) {
+        if (expr instanceof OBJql.AttrExpr.Leaf leaf) {
+            out.add(leaf.predicate());
+            return true;
+        }
+        if (expr instanceof OBJql.AttrExpr.And and) {
+            for (OBJql.AttrExpr e : and.items()) {
+                if (!flattenAnd(e, out)) return false;
+            }
+            return true;
+        }
+        return false;
     }
 
-    // ------------ helpers ------------
+    /**
+     * Materializes only the most selective leaf and keeps the candidates for which every other leaf has a matching
+     * index row. Each probe is a point lookup on the event_attr_index primary key
+     * (service_partition_key, started_at, event_id, attr_name, attr_value).
+     */
+    private void appendSemiJoinMatch(StringBuilder sql, Map<String, Object> p, String service, List<AttrLeaf> leaves) {
+        List<AttrLeaf> ordered = new ArrayList<>(leaves);
+        // A single leaf drives by itself; estimates only matter when there is an order to choose
+        if (ordered.size() > 1) {
+            Map<AttrLeaf, Long> estimates = new HashMap<>();
+            for (AttrLeaf leaf : ordered) {
+                estimates.put(leaf, selectivity.estimate(service, leaf.path(), leaf.predicate()));
+            }
+            // != matches nearly every row carrying the attribute, so it only drives when nothing else can
+            ordered.sort(Comparator.comparing((AttrLeaf l) -> l.predicate() instanceof OBJql.Ne)
+                    .thenComparing(estimates::get)
+                    .thenComparingInt(AttrLeaf::position));
+        }
 
-    private int countAttrPreds(OBJql q) {
-        int c = 0;
-        for (OBJql.Predicate pred : q.predicates()) {
-            if (pred.lhs().toLowerCase(Locale.ROOT).startsWith("attr.")) c++;
+        AttrLeaf driver = ordered.get(0);
+        sql.append(",\n");
+        appendAttrCte(sql, p, "a0", driver.path(), driver.predicate());
+        // An event can index several values under one name, so only an equality driver is duplicate-free
+        boolean distinct = !(driver.predicate() instanceof OBJql.Eq);
+        sql.append(", matched AS MATERIALIZED (\n")
+                .append("  SELECT ")
+                .append(distinct ? "DISTINCT " : "")
+                .append("d.event_id, d.started_at\n")
+                .append("  FROM a0 d\n");
+        for (int i = 1; i < ordered.size(); i++) {
+            AttrLeaf leaf = ordered.get(i);
+            String name = "a" + i;
+            sql.append(i == 1 ? "  WHERE " : "    AND ")
+                    .append("EXISTS (\n")
+                    .append("    SELECT 1 FROM ")
+                    .append(attrIndexTable)
+                    .append(" x\n")
+                    .append("    WHERE x.service_partition_key = :svc\n")
+                    .append("      AND x.started_at = d.started_at AND x.event_id = d.event_id\n")
+                    .append("      AND x.attr_name = :")
+                    .append(name)
+                    .append("_path\n");
+            p.put(name + "_path", leaf.path());
+            appendAttrValueCondition(sql, p, name, leaf.predicate(), "      ");
+            sql.append("  )\n");
         }
-        return c;
+        sql.append(")");
     }
 
+    private static String attrPath(OBJql.Predicate pred) {
+        String lhs = pred.lhs().toLowerCase(Locale.ROOT);
+        return lhs.startsWith("attr.") ? lhs.substring("attr.".length()) : lhs;
+    }
+
+    private record AttrLeaf(String path, OBJql.Predicate predicate, int position) {}
+
     private void collectLeafCtes(
             OBJql.AttrExpr expr, StringBuilder sql, Map<String, Object> p, int[] aiRef, List<String> names) {
         if (expr instanceof OBJql.AttrExpr.Leaf leaf) {
@@ -201,9 +390,7 @@ public final class OBJqlCteBuilder {
             if (aiRef[0] > 0) sql.append(",\n");
             aiRef[0]++;
             names.add(cte);
-            String lhs = leaf.predicate().lhs().toLowerCase(Locale.ROOT);
-            String path = lhs.startsWith("attr.") ? lhs.substring("attr.".length()) : lhs;
-            appendAttrCte(sql, p, cte, path, leaf.predicate());
+            appendAttrCte(sql, p, cte, attrPath(leaf.predicate()), leaf.predicate());
         } else if (expr instanceof OBJql.AttrExpr.And and) {
             for (OBJql.AttrExpr e : and.items()) collectLeafCtes(e, sql, p, aiRef, names);
         } else if (expr instanceof OBJql.AttrExpr.Or or) {
@@ -250,29 +437,36 @@ public final class OBJqlCteBuilder {
         sql.append("  SELECT x.event_id, x.started_at\n");
         sql.append("  FROM ").append(attrIndexTable).append(" x\n");
         sql.append("  JOIN base b ON b.event_id = x.event_id AND b.started_at = x.started_at\n");
-        sql.append("  WHERE x.attr_name = :").append(cte).append("_path\n");
+        // Repeat partition/time bounds so the index scan is pruned and ranged, not just filtered by the join
+        sql.append("  WHERE x.service_partition_key = :svc\n");
+        sql.append("    AND x.started_at >= :ts_start AND x.started_at < :ts_end\n");
+        sql.append("    AND x.attr_name = :").append(cte).append("_path\n");
         p.put(cte + "_path", path);
+        appendAttrValueCondition(sql, p, cte, pred, "    ");
+        sql.append(")\n");
+    }
 
+    private void appendAttrValueCondition(
+            StringBuilder sql, Map<String, Object> p, String cte, OBJql.Predicate pred, String indent) {
         String pname = cte + "_v";
         if (pred instanceof OBJql.Eq eq) {
             Object rhs = eq.rhs();
-            sql.append("    AND x.attr_value = :").append(pname).append("\n");
+            sql.append(indent).append("AND x.attr_value = :").append(pname).append("\n");
             p.put(pname, rhs == null ? null : String.valueOf(rhs));
         } else if (pred instanceof OBJql.Ne ne) {
             Object rhs = ne.rhs();
-            sql.append("    AND x.attr_value <> :").append(pname).append("\n");
+            sql.append(indent).append("AND x.attr_value <> :").append(pname).append("\n");
             p.put(pname, rhs == null ? null : String.valueOf(rhs));
         } else if (pred instanceof OBJql.Like like) {
-            sql.append("    AND x.attr_value LIKE :").append(pname).append("\n");
+            sql.append(indent).append("AND x.attr_value LIKE :").append(pname).append("\n");
             p.put(pname, like.rhs());
         } else if (pred instanceof OBJql.ILike ilike) {
-            sql.append("    AND x.attr_value ILIKE :").append(pname).append("\n");
+            sql.append(indent).append("AND x.attr_value ILIKE :").append(pname).append("\n");
             p.put(pname, ilike.rhs());
         } else {
             throw new IllegalArgumentException(
                     "Only =, !=, LIKE, and ILIKE are supported for attribute predicates at present");
         }
-        sql.append(")\n");
     }
 
     private boolean isEnvelopeField(String lhs) {
@@ -1,16 +1,28 @@
 package com.obsinity.service.core.objql;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
 /**
  * Paging options for OB-JQL execution.
  * <p>
  * - {@code offset} is 0-based.
  * - {@code limit} is clamped to [1, MAX_LIMIT].
+ * - {@code after}, when set, seeks past the given (started_at, event_id) position and {@code offset} is ignored.
  */
-public record OBJqlPage(long offset, int limit) {
+public record OBJqlPage(long offset, int limit, Cursor after) {
 
     public static final int DEFAULT_LIMIT = 100;
     public static final int MAX_LIMIT = 1000;
 
+    public OBJqlPage(long offset, int limit) {
+        this(offset, limit, null);
+    }
+
     /**
      * Creates a page with sane defaults and clamping.
      * Nulls allowed (use defaults).
@@ -23,11 +35,26 @@ public record OBJqlPage(long offset, int limit) {
         return new OBJqlPage(off, lim);
     }
 
+    /** Same as {@link #of(Long, Integer)} but seeking after the position in {@code cursor} (nullable token). */
+    public static OBJqlPage of(Long offset, Integer limit, String cursor) {
+        OBJqlPage page = of(offset, limit);
+        return cursor == null || cursor.isBlank() ? page : page.after(Cursor.decode(cursor));
+    }
+
     /** First page: offset=0, limit=DEFAULT_LIMIT. */
     public static OBJqlPage firstPage() {
         return new OBJqlPage(0, DEFAULT_LIMIT);
     }
 
+    /** Returns a copy of this page that seeks after {@code cursor}. */
+    public OBJqlPage after(Cursor cursor) {
+        return new OBJqlPage(this.offset, this.limit, cursor);
+    }
+
+    public boolean hasCursor() {
+        return after != null;
+    }
+
     /** Returns a new page advanced by one window from this page. */
     public OBJqlPage next() {
         long nextOffset = Math.max(0, this.offset + (long) this.limit);
@@ -39,4 +66,50 @@ public record OBJqlPage(long offset, int limit) {
         long prevOffset = Math.max(0, this.offset - (long) this.limit);
         return new OBJqlPage(prevOffset, this.limit);
     }
+
+    /**
+     * Position of the last row of a page in (started_at, event_id) order.
+     * Serialized as an opaque URL-safe token so clients never depend on its layout.
+     */
+    public record Cursor(Instant startedAt, UUID eventId) {
+
+        private static final byte VERSION = 1;
+        private static final int TOKEN_BYTES = 1 + Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+        public Cursor {
+            if (startedAt == null || eventId == null) {
+                throw new IllegalArgumentException("Cursor requires startedAt and eventId");
+            }
+        }
+
+        public String encode() {
+            ByteBuffer buf = ByteBuffer.allocate(TOKEN_BYTES);
+            buf.put(VERSION);
+            buf.putLong(startedAt.getEpochSecond());
+            buf.putInt(startedAt.getNano());
+            buf.putLong(eventId.getMostSignificantBits());
+            buf.putLong(eventId.getLeastSignificantBits());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(buf.array());
+        }
+
+        public static Cursor decode(String token) {
+            byte[] raw;
+            try {
+                raw = Base64.getUrlDecoder().decode(token.getBytes(StandardCharsets.US_ASCII));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Invalid cursor", ex);
+            }
+            if (raw.length != TOKEN_BYTES || raw[0] != VERSION) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            ByteBuffer buf = ByteBuffer.wrap(raw, 1, raw.length - 1);
+            Instant ts;
+            try {
+                ts = Instant.ofEpochSecond(buf.getLong(), buf.getInt());
+            } catch (DateTimeException | ArithmeticException ex) {
+                throw new IllegalArgumentException("Invalid cursor", ex);
+            }
+            return new Cursor(ts, new UUID(buf.getLong(), buf.getLong()));
+        }
+    }
 }
@@ -84,27 +84,7 @@ public final class OBJqlParser {
             }
         }
 
-        // time
-        OBJql.TimeRange time = null;
-        Matcher btw = BETWEEN.matcher(src);
-        if (btw.find()) {
-            Instant s = parseTime(btw.group(1));
-            Instant e = parseTime(btw.group(2));
-            time = new OBJql.TimeRange(s, e);
-        }
-        if (time == null) {
-            Matcher si = SINCE.matcher(src);
-            if (si.find()) {
-                Instant end = Instant.now();
-                Instant start = parseRelative(si.group(1), end);
-                time = new OBJql.TimeRange(start, end);
-            }
-        }
-        if (time == null) {
-            // default: last 24h to now
-            Instant end = Instant.now();
-            time = new OBJql.TimeRange(end.minusSeconds(24 * 3600), end);
-        }
+        OBJql.TimeRange time = timeRange(src);
 
         // order + limit
         OBJql.Sort sort = null;
@@ -119,6 +99,65 @@ public final class OBJqlParser {
         return OBJql.withDefaults(service, event, time, predicates, sort, limit, select);
     }
 
+    /**
+     * Time range of {@code q} alone: {@code between}, else {@code since}, else the last 24h, anchored at now.
+     * Matches what {@link #parse(String)} would put into {@link OBJql#time()}.
+     */
+    public OBJql.TimeRange timeRange(String q) {
+        String src = Optional.ofNullable(q).orElse("").trim();
+        Matcher btw = BETWEEN.matcher(src);
+        if (btw.find()) {
+            Instant s = parseTime(btw.group(1));
+            Instant e = parseTime(btw.group(2));
+            return new OBJql.TimeRange(s, e);
+        }
+        Matcher si = SINCE.matcher(src);
+        if (si.find()) {
+            Instant end = Instant.now();
+            Instant start = parseRelative(si.group(1), end);
+            return new OBJql.TimeRange(start, end);
+        }
+        // default: last 24h to now
+        Instant end = Instant.now();
+        return new OBJql.TimeRange(end.minusSeconds(24 * 3600), end);
+    }
+
+    /**
+     * Normalized form of {@code q} for caching: trimmed, whitespace outside double quotes collapsed to one space,
+     * and the literals of the time clause {@link #timeRange(String)} uses replaced by {@code ?}. Two queries with the
+     * same normalized form parse to the same AST apart from {@link OBJql#time()}.
+     */
+    public static String normalize(String q) {
+        String src = Optional.ofNullable(q).orElse("").trim();
+        StringBuilder out = new StringBuilder(src.length());
+        boolean quoted = false;
+        boolean space = false;
+        for (int i = 0; i < src.length(); i++) {
+            char c = src.charAt(i);
+            if (!quoted && Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space) {
+                out.append(' ');
+                space = false;
+            }
+            if (c == '"') quoted = !quoted;
+            out.append(c);
+        }
+        String text = out.toString();
+        Matcher btw = BETWEEN.matcher(text);
+        if (btw.find()) {
+            return text.substring(0, btw.start(1)) + "?" + text.substring(btw.end(1), btw.start(2)) + "?"
+                    + text.substring(btw.end(2));
+        }
+        Matcher si = SINCE.matcher(text);
+        if (si.find()) {
+            return text.substring(0, si.start(1)) + "?" + text.substring(si.end(1));
+        }
+        return text;
+    }
+
     // --- helpers ---
 
     private String unquote(String s) {
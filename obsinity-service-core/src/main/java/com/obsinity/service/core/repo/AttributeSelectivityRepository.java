@@ -0,0 +1,111 @@
+package com.obsinity.service.core.repo;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.obsinity.service.core.objql.AttributeSelectivity;
+import com.obsinity.service.core.objql.OBJql;
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Predicate selectivity from {@code attribute_distinct_values.seen_count}.
+ * <p>
+ * Counts are all-time per (service, attribute, value), not per query window, so they rank predicates rather than
+ * predict row counts. Estimates are cached briefly since the ordering they drive is insensitive to small drift.
+ */
+@Repository
+public class AttributeSelectivityRepository implements AttributeSelectivity {
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final int patternValueCap;
+    private final Cache<String, Long> estimates;
+
+    public AttributeSelectivityRepository(
+            NamedParameterJdbcTemplate jdbc,
+            @Value("${obsinity.search.selectivity.cacheTtl:PT1M}") Duration cacheTtl,
+            @Value("${obsinity.search.selectivity.cacheSize:10000}") int cacheSize,
+            @Value("${obsinity.search.selectivity.patternValueCap:1000}") int patternValueCap) {
+        this.jdbc = jdbc;
+        this.patternValueCap = patternValueCap;
+        this.estimates = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    @Override
+    public long estimate(String service, String path, OBJql.Predicate predicate) {
+        String kind;
+        String value;
+        if (predicate instanceof OBJql.Eq eq) {
+            kind = "=";
+            value = eq.rhs() == null ? null : String.valueOf(eq.rhs());
+        } else if (predicate instanceof OBJql.Ne ne) {
+            kind = "!=";
+            value = ne.rhs() == null ? null : String.valueOf(ne.rhs());
+        } else if (predicate instanceof OBJql.Like like) {
+            kind = "like";
+            value = like.rhs();
+        } else if (predicate instanceof OBJql.ILike ilike) {
+            kind = "ilike";
+            value = ilike.rhs();
+        } else {
+            return UNKNOWN;
+        }
+        if (service == null || path == null || value == null) {
+            return UNKNOWN;
+        }
+        String cacheKey = String.join("\u0000", service, path, kind, value);
+        return estimates.get(cacheKey, k -> load(service, path, kind, value));
+    }
+
+    private long load(String service, String path, String kind, String value) {
+        MapSqlParameterSource p = new MapSqlParameterSource()
+                .addValue("svc", service)
+                .addValue("attr", path)
+                .addValue("val", value);
+        return switch (kind) {
+            case "=" -> seenCount(p);
+            case "!=" -> Math.max(0L, attributeTotal(p) - seenCount(p));
+            default -> patternTotal(p, kind.equals("ilike") ? "ILIKE" : "LIKE");
+        };
+    }
+
+    private long seenCount(MapSqlParameterSource p) {
+        Long n = jdbc.query(
+                "SELECT seen_count FROM attribute_distinct_values "
+                        + "WHERE service_partition_key = :svc AND attr_name = :attr AND attr_value = :val",
+                p,
+                rs -> rs.next() ? rs.getLong(1) : 0L);
+        return n == null ? 0L : n;
+    }
+
+    private long attributeTotal(MapSqlParameterSource p) {
+        Long n = jdbc.queryForObject(
+                "SELECT COALESCE(SUM(seen_count), 0) FROM attribute_distinct_values "
+                        + "WHERE service_partition_key = :svc AND attr_name = :attr",
+                p,
+                Long.class);
+        return n == null ? 0L : n;
+    }
+
+    /** Sums matching values up to a cap; a pattern matching more distinct values than that is treated as broad. */
+    private long patternTotal(MapSqlParameterSource p, String op) {
+        p.addValue("cap", patternValueCap + 1);
+        Map<String, Object> row = jdbc.queryForMap(
+                "SELECT COUNT(*) AS values_matched, COALESCE(SUM(seen_count), 0) AS total FROM ("
+                        + "SELECT seen_count FROM attribute_distinct_values "
+                        + "WHERE service_partition_key = :svc AND attr_name = :attr AND attr_value " + op + " :val "
+                        + "LIMIT :cap) s",
+                p);
+        long matched = ((Number) row.get("values_matched")).longValue();
+        if (matched > patternValueCap) {
+            return attributeTotal(p);
+        }
+        return ((Number) row.get("total")).longValue();
+    }
+}
@@ -3,25 +3,50 @@ package com.obsinity.service.core.repo;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+/**
+ * Distinct attribute names/values per service for catalog browsing and Grafana dropdowns.
+ * <p>
+ * Filters are ILIKE patterns (served by the optional pg_trgm index on attr_value). Counts stop at
+ * {@code obsinity.catalog.attributes.countCap} so high-cardinality attributes never need a full scan just to
+ * report a total.
+ */
 @Repository
 public class AttributeValuesRepository {
 
     private final NamedParameterJdbcTemplate jdbc;
+    private final long countCap;
 
-    public AttributeValuesRepository(NamedParameterJdbcTemplate jdbc) {
+    public AttributeValuesRepository(
+            NamedParameterJdbcTemplate jdbc, @Value("${obsinity.catalog.attributes.countCap:10000}") long countCap) {
         this.jdbc = jdbc;
+        this.countCap = Math.max(1L, countCap);
     }
 
+    /** Count that stopped at {@code cap}; when {@code capped} the real total is at least {@code count}. */
+    public record CappedCount(long count, boolean capped) {}
+
     public List<Map<String, Object>> list(String serviceKey, String attrName, String prefix, long offset, int limit) {
+        return listMatching(serviceKey, attrName, prefixPattern(prefix), offset, limit);
+    }
+
+    /** Values containing {@code fragment} anywhere (case-insensitive); needs pg_trgm to stay fast. */
+    public List<Map<String, Object>> listContaining(
+            String serviceKey, String attrName, String fragment, long offset, int limit) {
+        return listMatching(serviceKey, attrName, containsPattern(fragment), offset, limit);
+    }
+
+    private List<Map<String, Object>> listMatching(
+            String serviceKey, String attrName, String pattern, long offset, int limit) {
         StringBuilder sql = new StringBuilder();
         sql.append("SELECT attr_value, seen_count, first_seen, last_seen "
                         + "FROM attribute_distinct_values "
                         + "WHERE service_partition_key = :svc AND attr_name = :attr ")
-                .append(prefix != null && !prefix.isEmpty() ? "AND attr_value ILIKE :pref " : "")
+                .append(pattern != null ? "AND attr_value ILIKE :pref " : "")
                 .append("ORDER BY seen_count DESC, attr_value ASC ")
                 .append("OFFSET :off LIMIT :lim");
 
@@ -30,34 +55,44 @@ public class AttributeValuesRepository {
                 .addValue("attr", attrName)
                 .addValue("off", offset)
                 .addValue("lim", limit);
-        if (prefix != null && !prefix.isEmpty()) {
-            p.addValue("pref", prefix + "%");
+        if (pattern != null) {
+            p.addValue("pref", pattern);
         }
         return jdbc.queryForList(sql.toString(), p);
     }
 
-    public long count(String serviceKey, String attrName, String prefix) {
+    public CappedCount count(String serviceKey, String attrName, String prefix) {
+        return countValues(serviceKey, attrName, prefixPattern(prefix));
+    }
+
+    public CappedCount countContaining(String serviceKey, String attrName, String fragment) {
+        return countValues(serviceKey, attrName, containsPattern(fragment));
+    }
+
+    private CappedCount countValues(String serviceKey, String attrName, String pattern) {
         StringBuilder sql = new StringBuilder();
-        sql.append("SELECT COUNT(*) FROM attribute_distinct_values "
+        sql.append("SELECT COUNT(*) FROM (SELECT 1 FROM attribute_distinct_values "
                         + "WHERE service_partition_key = :svc AND attr_name = :attr ")
-                .append(prefix != null && !prefix.isEmpty() ? "AND attr_value ILIKE :pref" : "");
+                .append(pattern != null ? "AND attr_value ILIKE :pref " : "")
+                .append("LIMIT :cap) capped");
 
         Map<String, Object> p = new HashMap<>();
         p.put("svc", serviceKey);
         p.put("attr", attrName);
-        if (prefix != null && !prefix.isEmpty()) {
-            p.put("pref", prefix + "%");
+        p.put("cap", countCap + 1);
+        if (pattern != null) {
+            p.put("pref", pattern);
         }
-        Long n = jdbc.queryForObject(sql.toString(), p, Long.class);
-        return n == null ? 0L : n;
+        return capped(jdbc.queryForObject(sql.toString(), p, Long.class));
     }
 
     public List<Map<String, Object>> listNames(String serviceKey, String prefix, long offset, int limit) {
+        String pattern = prefixPattern(prefix);
         StringBuilder sql = new StringBuilder();
         sql.append("SELECT attr_name, COUNT(*) AS value_count "
                         + "FROM attribute_distinct_values "
                         + "WHERE service_partition_key = :svc ")
-                .append(prefix != null && !prefix.isEmpty() ? "AND attr_name ILIKE :pref " : "")
+                .append(pattern != null ? "AND attr_name ILIKE :pref " : "")
                 .append("GROUP BY attr_name ORDER BY attr_name ASC ")
                 .append("OFFSET :off LIMIT :lim");
 
@@ -65,19 +100,39 @@ public class AttributeValuesRepository {
                 .addValue("svc", serviceKey)
                 .addValue("off", offset)
                 .addValue("lim", limit);
-        if (prefix != null && !prefix.isEmpty()) p.addValue("pref", prefix + "%");
+        if (pattern != null) p.addValue("pref", pattern);
         return jdbc.queryForList(sql.toString(), p);
     }
 
-    public long countNames(String serviceKey, String prefix) {
+    public CappedCount countNames(String serviceKey, String prefix) {
+        String pattern = prefixPattern(prefix);
         StringBuilder sql = new StringBuilder();
-        sql.append("SELECT COUNT(DISTINCT attr_name) FROM attribute_distinct_values "
+        sql.append("SELECT COUNT(*) FROM (SELECT DISTINCT attr_name FROM attribute_distinct_values "
                         + "WHERE service_partition_key = :svc ")
-                .append(prefix != null && !prefix.isEmpty() ? "AND attr_name ILIKE :pref" : "");
+                .append(pattern != null ? "AND attr_name ILIKE :pref " : "")
+                .append("LIMIT :cap) capped");
         Map<String, Object> p = new HashMap<>();
         p.put("svc", serviceKey);
-        if (prefix != null && !prefix.isEmpty()) p.put("pref", prefix + "%");
-        Long n = jdbc.queryForObject(sql.toString(), p, Long.class);
-        return n == null ? 0L : n;
+        p.put("cap", countCap + 1);
+        if (pattern != null) p.put("pref", pattern);
+        return capped(jdbc.queryForObject(sql.toString(), p, Long.class));
+    }
+
+    private CappedCount capped(Long n) {
+        long count = n == null ? 0L : n;
+        return count > countCap ? new CappedCount(countCap, true) : new CappedCount(count, false);
+    }
+
+    static String prefixPattern(String prefix) {
+        return prefix == null || prefix.isEmpty() ? null : escapeLike(prefix) + "%";
+    }
+
+    static String containsPattern(String fragment) {
+        return fragment == null || fragment.isEmpty() ? null : "%" + escapeLike(fragment) + "%";
+    }
+
+    /** User input is matched literally; {@code %} and {@code _} would otherwise defeat the index. */
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 }
@@ -89,21 +89,46 @@ public class ObjectStateCountRepository {
 
         jdbc.update(
                 """
-            insert into obsinity.object_state_counts(service_id, object_type, attribute, state_value, count)
-            values (:service_id, :object_type, :attribute, :state_value, greatest(:delta, 0))
+            insert into obsinity.object_state_counts(
+                service_id, object_type, attribute, state_value, count, last_changed)
+            values (:service_id, :object_type, :attribute, :state_value, greatest(:delta, 0), now())
             on conflict (service_id, object_type, attribute, state_value)
-            do update set count = greatest(0, obsinity.object_state_counts.count + :delta)
+            do update set count = greatest(0, obsinity.object_state_counts.count + :delta),
+                          last_changed = now()
             """,
                 params);
     }
 
-    public java.util.List<StateCountSnapshot> snapshotAll() {
-        return jdbc.query(
+    /**
+     * One keyset page of a service's state counts, ordered by (object_type, attribute, state_value).
+     *
+     * @param changedSince only rows whose count changed at or after this instant; {@code null} for all rows
+     * @param after last row of the previous page; {@code null} for the first page
+     */
+    public java.util.List<StateCountSnapshot> snapshotPage(
+            UUID serviceId, java.time.Instant changedSince, StateCountSnapshot after, int limit) {
+        var params =
+                new MapSqlParameterSource().addValue("service_id", serviceId).addValue("limit", Math.max(1, limit));
+        StringBuilder sql = new StringBuilder(
                 """
                 select service_id, object_type, attribute, state_value, count
                   from obsinity.object_state_counts
-                """,
-                new MapSqlParameterSource(),
+                 where service_id = :service_id
+                """);
+        if (changedSince != null) {
+            sql.append(" and last_changed >= :changed_since");
+            params.addValue("changed_since", java.sql.Timestamp.from(changedSince));
+        }
+        if (after != null) {
+            sql.append(" and (object_type, attribute, state_value) > (:after_type, :after_attribute, :after_state)");
+            params.addValue("after_type", after.objectType())
+                    .addValue("after_attribute", after.attribute())
+                    .addValue("after_state", after.stateValue());
+        }
+        sql.append(" order by object_type, attribute, state_value limit :limit");
+        return jdbc.query(
+                sql.toString(),
+                params,
                 (rs, rowNum) -> new StateCountSnapshot(
                         (java.util.UUID) rs.getObject("service_id"),
                         rs.getString("object_type"),
@@ -112,6 +137,18 @@ public class ObjectStateCountRepository {
                         rs.getLong("count")));
     }
 
+    /** Services that currently hold state counts. */
+    public java.util.List<UUID> serviceIds() {
+        return jdbc.query(
+                """
+                select r.id
+                  from service_registry r
+                 where exists (select 1 from obsinity.object_state_counts c where c.service_id = r.id)
+                """,
+                new MapSqlParameterSource(),
+                (rs, rowNum) -> (UUID) rs.getObject(1));
+    }
+
     public record StateCountRow(String state, long count) {}
 
     public record StateCountSnapshot(
@@ -0,0 +1,123 @@
+package com.obsinity.service.core.retention;
+
+import com.obsinity.service.core.config.RetentionProperties;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exports a partition to {@code <directory>/<rootTable>/<partition>.csv.gz} (header row, RFC 4180 quoting).
+ *
+ * <p>Rows are streamed with a server-side cursor so memory stays flat regardless of partition size. The file is
+ * written under a temporary name and moved into place only once complete, so a present archive is always whole.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionArchiver {
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbc;
+    private final RetentionProperties properties;
+
+    public Path export(PartitionInfo partition) {
+        Path dir = Path.of(properties.getArchive().getDirectory()).resolve(partition.rootTable());
+        Path target = dir.resolve(partition.name() + ".csv.gz");
+        if (Files.exists(target)) {
+            return target;
+        }
+        Path tmp = dir.resolve(partition.name() + ".csv.gz.tmp");
+        try {
+            Files.createDirectories(dir);
+            long rows = jdbc.execute((ConnectionCallback<Long>) con -> copy(con, partition.name(), tmp));
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Archived partition {} rows={} file={}", partition.name(), rows, target);
+            return target;
+        } catch (IOException ex) {
+            deleteQuietly(tmp);
+            throw new UncheckedIOException("Failed to archive partition " + partition.name(), ex);
+        } catch (RuntimeException ex) {
+            deleteQuietly(tmp);
+            throw ex;
+        }
+    }
+
+    private static long copy(Connection con, String partition, Path file) throws SQLException {
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false); // required for cursor-based fetching
+        try (PreparedStatement ps =
+                con.prepareStatement("SELECT * FROM obsinity." + PartitionRetentionService.ident(partition))) {
+            ps.setFetchSize(FETCH_SIZE);
+            long rows = 0;
+            try (ResultSet rs = ps.executeQuery();
+                    Writer out = new BufferedWriter(new OutputStreamWriter(
+                            new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8))) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                for (int i = 1; i <= columns; i++) {
+                    if (i > 1) out.write(',');
+                    writeField(out, meta.getColumnName(i));
+                }
+                out.write('\n');
+                while (rs.next()) {
+                    for (int i = 1; i <= columns; i++) {
+                        if (i > 1) out.write(',');
+                        writeField(out, rs.getString(i));
+                    }
+                    out.write('\n');
+                    rows++;
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            con.commit();
+            return rows;
+        } catch (SQLException | RuntimeException ex) {
+            con.rollback();
+            throw ex;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignore) {
+            // best effort; the next run overwrites it
+        }
+    }
+
+    private static void writeField(Writer out, String value) throws IOException {
+        if (value == null) return; // empty field = NULL
+        boolean quote = value.isEmpty()
+                || value.indexOf(',') >= 0
+                || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0;
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
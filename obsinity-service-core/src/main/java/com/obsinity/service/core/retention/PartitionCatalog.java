@@ -0,0 +1,116 @@
+package com.obsinity.service.core.retention;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/** Reads the two-level partition trees of the {@code obsinity} schema from the system catalog. */
+@Component
+@RequiredArgsConstructor
+public class PartitionCatalog {
+
+    private static final String RANGE_PARTITIONS_SQL =
+            """
+            SELECT
+              root.relname AS root_table,
+              mid.relname AS parent_table,
+              leaf.relname AS partition_name,
+              (regexp_match(pg_get_expr(leaf.relpartbound, leaf.oid, true), $$TO \\('([^']+)'\\)$$))[1]::timestamptz AS range_to,
+              li.inhdetachpending AS detach_pending
+            FROM pg_inherits mi
+            JOIN pg_class root ON root.oid = mi.inhparent
+            JOIN pg_class mid ON mid.oid = mi.inhrelid
+            JOIN pg_inherits li ON li.inhparent = mid.oid
+            JOIN pg_class leaf ON leaf.oid = li.inhrelid
+            JOIN pg_namespace n ON n.oid = root.relnamespace
+            WHERE n.nspname = 'obsinity'
+              AND root.relname = ANY (?)
+            """;
+
+    private static final String ROLLUP_PARTITIONS_SQL =
+            """
+            SELECT
+              root.relname AS root_table,
+              mid.relname AS parent_table,
+              leaf.relname AS partition_name,
+              (regexp_match(pg_get_expr(leaf.relpartbound, leaf.oid, true), $$FROM \\('([^']+)'\\)$$))[1]::timestamptz AS range_from,
+              (regexp_match(pg_get_expr(leaf.relpartbound, leaf.oid, true), $$TO \\('([^']+)'\\)$$))[1]::timestamptz AS range_to,
+              leaf.relpersistence = 'p' AS logged
+            FROM pg_inherits mi
+            JOIN pg_class root ON root.oid = mi.inhparent
+            JOIN pg_class mid ON mid.oid = mi.inhrelid
+            LEFT JOIN pg_inherits li ON li.inhparent = mid.oid
+            LEFT JOIN pg_class leaf ON leaf.oid = li.inhrelid
+            JOIN pg_namespace n ON n.oid = root.relnamespace
+            WHERE n.nspname = 'obsinity'
+              AND mid.relkind = 'p'
+              AND root.relname = ANY (?)
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    /** Range leaves under the given roots; leaves without a finite upper bound are skipped. */
+    public List<PartitionInfo> rangePartitions(Collection<String> rootTables) {
+        List<PartitionInfo> rows = jdbc.query(
+                con -> {
+                    var ps = con.prepareStatement(RANGE_PARTITIONS_SQL);
+                    ps.setArray(1, con.createArrayOf("text", rootTables.toArray()));
+                    return ps;
+                },
+                (rs, rowNum) -> {
+                    Timestamp to = rs.getTimestamp("range_to");
+                    if (to == null) return null;
+                    return new PartitionInfo(
+                            rs.getString("root_table"),
+                            rs.getString("parent_table"),
+                            rs.getString("partition_name"),
+                            to.toInstant(),
+                            rs.getBoolean("detach_pending"));
+                });
+        rows.removeIf(Objects::isNull);
+        return rows;
+    }
+
+    /**
+     * Bucket parents under the given rollup roots with their range leaves. A parent without leaves is returned once
+     * with a {@code null} name; leaves without finite bounds (e.g. a DEFAULT partition) are skipped.
+     */
+    public List<RollupPartition> rollupPartitions(Collection<String> rootTables) {
+        List<RollupPartition> rows = jdbc.query(
+                con -> {
+                    var ps = con.prepareStatement(ROLLUP_PARTITIONS_SQL);
+                    ps.setArray(1, con.createArrayOf("text", rootTables.toArray()));
+                    return ps;
+                },
+                (rs, rowNum) -> {
+                    String name = rs.getString("partition_name");
+                    Timestamp from = rs.getTimestamp("range_from");
+                    Timestamp to = rs.getTimestamp("range_to");
+                    if (name != null && (from == null || to == null)) return null;
+                    return new RollupPartition(
+                            rs.getString("root_table"),
+                            rs.getString("parent_table"),
+                            name,
+                            from != null ? from.toInstant() : null,
+                            to != null ? to.toInstant() : null,
+                            rs.getBoolean("logged"));
+                });
+        rows.removeIf(Objects::isNull);
+        return rows;
+    }
+
+    /** {@code service_partition_key -> service_key} from the service registry. */
+    public Map<String, String> serviceKeysByPartitionKey() {
+        Map<String, String> keys = new HashMap<>();
+        jdbc.query("SELECT service_partition_key, service_key FROM service_registry", rs -> {
+            keys.put(rs.getString(1), rs.getString(2));
+        });
+        return keys;
+    }
+}
@@ -0,0 +1,16 @@
+package com.obsinity.service.core.retention;
+
+import java.time.Instant;
+
+/**
+ * A time-range leaf partition two levels below a partitioned root table.
+ *
+ * @param rootTable partitioned root, e.g. {@code events_raw} or {@code event_counts}
+ * @param parentTable LIST sub-partition holding the leaf, e.g. {@code events_raw_s_1a2b3c4d} or
+ *     {@code event_counts_m1}
+ * @param name leaf partition name
+ * @param upperBound exclusive upper bound of the leaf's {@code RANGE}
+ * @param detachPending whether an earlier {@code DETACH ... CONCURRENTLY} was interrupted
+ */
+public record PartitionInfo(
+        String rootTable, String parentTable, String name, Instant upperBound, boolean detachPending) {}
@@ -0,0 +1,108 @@
+package com.obsinity.service.core.retention;
+
+import com.obsinity.service.core.config.RetentionProperties;
+import com.obsinity.service.core.support.DataExtentRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Drops partitions that have outlived their {@link RetentionProperties retention policy}.
+ *
+ * <p>For each expired partition, oldest first: optionally archive it, {@code DETACH PARTITION CONCURRENTLY}
+ * from its LIST parent (no {@code ACCESS EXCLUSIVE} lock on the parent, so ingest and queries keep running),
+ * then {@code DROP} the detached table. A partition left in the detach-pending state by an interrupted run is
+ * finalized first. Failures are logged per partition and retried on the next run.
+ *
+ * <p>Must not run inside a transaction: {@code DETACH ... CONCURRENTLY} is rejected in a transaction block.
+ */
+@Service
+@Slf4j
+public class PartitionRetentionService {
+
+    private final JdbcTemplate jdbc;
+    private final PartitionCatalog catalog;
+    private final PartitionArchiver archiver;
+    private final RetentionProperties properties;
+    private final RetentionPlanner planner;
+    private final DataExtentRegistry extents;
+    private final Clock clock;
+
+    public PartitionRetentionService(
+            JdbcTemplate jdbc,
+            PartitionCatalog catalog,
+            PartitionArchiver archiver,
+            RetentionProperties properties,
+            DataExtentRegistry extents,
+            Clock clock) {
+        this.jdbc = jdbc;
+        this.catalog = catalog;
+        this.archiver = archiver;
+        this.properties = properties;
+        this.planner = new RetentionPlanner(properties);
+        this.extents = extents;
+        this.clock = clock;
+    }
+
+    public RetentionResult run() {
+        Instant now = Instant.now(clock);
+        List<PartitionInfo> partitions = catalog.rangePartitions(RetentionPlanner.rootTables());
+        Map<String, String> serviceKeys = catalog.serviceKeysByPartitionKey();
+        List<PartitionInfo> expired = planner.plan(partitions, serviceKeys, now);
+        if (expired.isEmpty()) {
+            log.debug("Retention: no expired partitions among {}", partitions.size());
+            return new RetentionResult(0, 0, 0);
+        }
+
+        int dropped = 0;
+        int archived = 0;
+        int failed = 0;
+        for (PartitionInfo partition : expired) {
+            try {
+                if (properties.getArchive().isEnabled()) {
+                    archiver.export(partition);
+                    archived++;
+                }
+                detach(partition);
+                jdbc.execute("DROP TABLE IF EXISTS obsinity." + ident(partition.name()));
+                dropped++;
+                log.info(
+                        "Retention: dropped partition {} (parent={}, upperBound={})",
+                        partition.name(),
+                        partition.parentTable(),
+                        partition.upperBound());
+            } catch (RuntimeException ex) {
+                failed++;
+                log.warn("Retention: failed to drop partition {}", partition.name(), ex);
+            }
+        }
+        if (dropped > 0) {
+            // Earliest timestamps may now point into dropped partitions.
+            extents.invalidateAll();
+        }
+        log.info("Retention run complete dropped={} archived={} failed={}", dropped, archived, failed);
+        return new RetentionResult(dropped, archived, failed);
+    }
+
+    private void detach(PartitionInfo partition) {
+        String parent = "obsinity." + ident(partition.parentTable());
+        String child = "obsinity." + ident(partition.name());
+        if (partition.detachPending()) {
+            jdbc.execute("ALTER TABLE " + parent + " DETACH PARTITION " + child + " FINALIZE");
+        } else if (properties.isDetachConcurrently()) {
+            jdbc.execute("ALTER TABLE " + parent + " DETACH PARTITION " + child + " CONCURRENTLY");
+        } else {
+            jdbc.execute("ALTER TABLE " + parent + " DETACH PARTITION " + child);
+        }
+    }
+
+    static String ident(String name) {
+        return "\"" + name.replace("\"", "\"\"") + "\"";
+    }
+
+    public record RetentionResult(int dropped, int archived, int failed) {}
+}
@@ -0,0 +1,97 @@
+package com.obsinity.service.core.retention;
+
+import com.obsinity.service.core.config.RetentionProperties;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Decides which partitions have outlived their retention policy.
+ *
+ * <p>Raw events and the attribute index are partitioned per service ({@code <root>_s_<partitionKey>}) and use
+ * the service's policy; rollup tables are partitioned per bucket ({@code <root>_<bucket>}) and use the bucket's
+ * policy. Tables or buckets without a policy are never expired.
+ */
+public final class RetentionPlanner {
+    static final String EVENTS_RAW = "events_raw";
+    static final String EVENT_ATTR_INDEX = "event_attr_index";
+    private static final String SERVICE_INFIX = "_s_";
+
+    private static final Map<String, Function<RetentionProperties.Rollups, Map<String, Duration>>> ROLLUP_TABLES =
+            rollupTables();
+
+    private final RetentionProperties properties;
+
+    public RetentionPlanner(RetentionProperties properties) {
+        this.properties = properties;
+    }
+
+    /** Root tables managed by the retention engine. */
+    public static List<String> rootTables() {
+        return Stream.concat(Stream.of(EVENTS_RAW, EVENT_ATTR_INDEX), ROLLUP_TABLES.keySet().stream())
+                .toList();
+    }
+
+    /** Rollup root tables, partitioned per bucket ({@code <root>_<bucket>}). */
+    public static List<String> rollupRootTables() {
+        return List.copyOf(ROLLUP_TABLES.keySet());
+    }
+
+    /**
+     * Expired partitions, oldest first, capped at {@code maxPartitionsPerRun}.
+     *
+     * @param serviceKeys {@code service_partition_key -> service_key}
+     */
+    public List<PartitionInfo> plan(List<PartitionInfo> partitions, Map<String, String> serviceKeys, Instant now) {
+        int limit = Math.max(1, properties.getMaxPartitionsPerRun());
+        return partitions.stream()
+                .filter(p -> isExpired(p, serviceKeys, now))
+                .sorted(Comparator.comparing(PartitionInfo::upperBound))
+                .limit(limit)
+                .toList();
+    }
+
+    boolean isExpired(PartitionInfo partition, Map<String, String> serviceKeys, Instant now) {
+        Duration retention = retentionFor(partition, serviceKeys);
+        if (retention == null || retention.isNegative() || retention.isZero()) return false;
+        return !partition.upperBound().isAfter(now.minus(retention));
+    }
+
+    Duration retentionFor(PartitionInfo partition, Map<String, String> serviceKeys) {
+        String root = partition.rootTable();
+        if (EVENTS_RAW.equals(root) || EVENT_ATTR_INDEX.equals(root)) {
+            String serviceKey = serviceKeys.get(suffixAfter(partition.parentTable(), root + SERVICE_INFIX));
+            return EVENTS_RAW.equals(root)
+                    ? properties.rawRetention(serviceKey)
+                    : properties.attrIndexRetention(serviceKey);
+        }
+        Function<RetentionProperties.Rollups, Map<String, Duration>> policies = ROLLUP_TABLES.get(root);
+        if (policies == null) return null;
+        String bucket = suffixAfter(partition.parentTable(), root + "_");
+        if (bucket == null) return null;
+        Map<String, Duration> byBucket = policies.apply(properties.getRollups());
+        return byBucket == null ? null : byBucket.get(bucket.toUpperCase(Locale.ROOT));
+    }
+
+    private static String suffixAfter(String name, String prefix) {
+        return name != null && name.startsWith(prefix) ? name.substring(prefix.length()) : null;
+    }
+
+    private static Map<String, Function<RetentionProperties.Rollups, Map<String, Duration>>> rollupTables() {
+        Map<String, Function<RetentionProperties.Rollups, Map<String, Duration>>> tables = new LinkedHashMap<>();
+        tables.put("event_counts", RetentionProperties.Rollups::getCounters);
+        tables.put("event_count_topk", RetentionProperties.Rollups::getCounters);
+        tables.put("event_histograms", RetentionProperties.Rollups::getHistograms);
+        tables.put("object_state_transitions", RetentionProperties.Rollups::getStateTransitions);
+        tables.put("object_state", RetentionProperties.Rollups::getObjectState);
+        tables.put("object_state_count_timeseries", RetentionProperties.Rollups::getStateCounts);
+        return Collections.unmodifiableMap(tables);
+    }
+}
@@ -0,0 +1,16 @@
+package com.obsinity.service.core.retention;
+
+import java.time.Instant;
+
+/**
+ * A bucket parent of a rollup table and, when present, one of its time-range leaves.
+ *
+ * @param rootTable partitioned root, e.g. {@code event_counts}
+ * @param parentTable LIST sub-partition for one bucket, e.g. {@code event_counts_m1}
+ * @param name leaf partition name, or {@code null} for a parent without leaves
+ * @param lowerBound inclusive lower bound of the leaf's {@code RANGE}
+ * @param upperBound exclusive upper bound of the leaf's {@code RANGE}
+ * @param logged whether the leaf is WAL-logged ({@code false} for UNLOGGED tables)
+ */
+public record RollupPartition(
+        String rootTable, String parentTable, String name, Instant lowerBound, Instant upperBound, boolean logged) {}
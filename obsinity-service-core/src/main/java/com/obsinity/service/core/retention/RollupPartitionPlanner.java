@@ -0,0 +1,251 @@
+package com.obsinity.service.core.retention;
+
+import com.obsinity.service.core.config.RetentionProperties;
+import com.obsinity.service.core.config.RollupPartitionProperties;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which rollup partitions to create and which to switch between LOGGED and UNLOGGED storage.
+ *
+ * <p>Each bucket parent ({@code <root>_<bucket>}) keeps a contiguous chain of range leaves. The chain is extended
+ * at both ends rather than re-aligned, so leaves created by the migrations (which start on arbitrary days) are
+ * continued without overlap: forward until {@code ahead} past now, backward until {@code behind} before now, never
+ * into ranges the retention policy would drop again. A parent without leaves starts a fresh chain aligned to
+ * Monday-based multiples of its width. Leaves are named like the migrations do,
+ * {@code <root>_<IYYY_IW>_<bucket>}, or {@code <root>_<yyyy_MM_dd>_<bucket>} for widths that are not whole weeks,
+ * and get the same local indexes.
+ */
+public final class RollupPartitionPlanner {
+
+    /** Upper bound on leaves planned per parent and run, guarding against a misconfigured width or horizon. */
+    static final int MAX_NEW_PER_PARENT = 512;
+
+    private static final String SCHEMA = "obsinity";
+    private static final LocalDate WIDTH_ORIGIN = LocalDate.of(1970, 1, 5); // a Monday
+
+    /** Local leaf indexes per root, {@code suffix -> columns}, mirroring the migrations. */
+    private static final Map<String, Map<String, String>> LEAF_INDEXES = leafIndexes();
+
+    private final RollupPartitionProperties properties;
+    private final RetentionProperties retention;
+    private final RetentionPlanner retentionPlanner;
+
+    public RollupPartitionPlanner(RollupPartitionProperties properties, RetentionProperties retention) {
+        this.properties = properties;
+        this.retention = retention;
+        this.retentionPlanner = new RetentionPlanner(retention);
+    }
+
+    /**
+     * @param create idempotent {@code CREATE TABLE}/{@code CREATE INDEX} statements, in dependency order
+     * @param convert {@code ALTER TABLE ... SET LOGGED|UNLOGGED} statements, oldest leaves first, never for the
+     *     leaf containing now
+     */
+    public record Plan(List<String> create, List<String> convert) {
+        public boolean isEmpty() {
+            return create.isEmpty() && convert.isEmpty();
+        }
+    }
+
+    public Plan plan(List<RollupPartition> partitions, Instant now) {
+        Map<String, List<RollupPartition>> byParent = new LinkedHashMap<>();
+        Map<String, String> rootByParent = new LinkedHashMap<>();
+        Set<String> names = new HashSet<>();
+        for (RollupPartition partition : partitions) {
+            rootByParent.putIfAbsent(partition.parentTable(), partition.rootTable());
+            List<RollupPartition> leaves = byParent.computeIfAbsent(partition.parentTable(), p -> new ArrayList<>());
+            if (partition.name() != null) {
+                leaves.add(partition);
+                names.add(partition.name());
+            }
+        }
+
+        List<String> create = new ArrayList<>();
+        List<RollupPartition> mismatched = new ArrayList<>();
+        byParent.forEach((parent, leaves) -> {
+            String root = rootByParent.get(parent);
+            String bucket = parent.startsWith(root + "_") ? parent.substring(root.length() + 1) : null;
+            if (bucket == null || bucket.isEmpty()) return;
+            boolean logged = properties.persistenceFor(bucket) == RollupPartitionProperties.Persistence.LOGGED;
+            planParent(root, parent, bucket, leaves, logged, names, now, create);
+            for (RollupPartition leaf : leaves) {
+                if (leaf.logged() != logged
+                        && !isActive(leaf, now)
+                        && !isExpired(leaf.rootTable(), parent, leaf.upperBound(), now)) {
+                    mismatched.add(leaf);
+                }
+            }
+        });
+
+        List<String> convert = new ArrayList<>();
+        if (properties.isConvertExisting()) {
+            mismatched.stream()
+                    .sorted(Comparator.comparing(RollupPartition::upperBound))
+                    .limit(Math.max(0, properties.getMaxConversionsPerRun()))
+                    .forEach(leaf -> convert.add("ALTER TABLE %s.%s SET %s"
+                            .formatted(SCHEMA, ident(leaf.name()), leaf.logged() ? "UNLOGGED" : "LOGGED")));
+        }
+        return new Plan(create, convert);
+    }
+
+    private void planParent(
+            String root,
+            String parent,
+            String bucket,
+            List<RollupPartition> leaves,
+            boolean logged,
+            Set<String> names,
+            Instant now,
+            List<String> create) {
+        Duration width = properties.widthFor(bucket);
+        Instant aheadUntil = now.plus(properties.getAhead());
+        Instant behindFrom = now.minus(properties.getBehind());
+        int planned = 0;
+
+        if (leaves.isEmpty()) {
+            Instant from = align(behindFrom, width);
+            while (from.isBefore(aheadUntil) && planned < MAX_NEW_PER_PARENT) {
+                Instant to = from.plus(width);
+                if (!isExpired(root, parent, to, now)) {
+                    addLeaf(root, parent, bucket, from, to, logged, names, create);
+                    planned++;
+                }
+                from = to;
+            }
+            return;
+        }
+
+        Instant upper = leaves.stream()
+                .map(RollupPartition::upperBound)
+                .max(Comparator.naturalOrder())
+                .orElseThrow();
+        while (upper.isBefore(aheadUntil) && planned < MAX_NEW_PER_PARENT) {
+            Instant to = upper.plus(width);
+            addLeaf(root, parent, bucket, upper, to, logged, names, create);
+            planned++;
+            upper = to;
+        }
+
+        Instant lower = leaves.stream()
+                .map(RollupPartition::lowerBound)
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        while (lower.isAfter(behindFrom) && planned < MAX_NEW_PER_PARENT && !isExpired(root, parent, lower, now)) {
+            Instant from = lower.minus(width);
+            addLeaf(root, parent, bucket, from, lower, logged, names, create);
+            planned++;
+            lower = from;
+        }
+    }
+
+    private void addLeaf(
+            String root,
+            String parent,
+            String bucket,
+            Instant from,
+            Instant to,
+            boolean logged,
+            Set<String> names,
+            List<String> create) {
+        String name = leafName(root, bucket, from, Duration.between(from, to), names);
+        names.add(name);
+        create.add("CREATE %sTABLE IF NOT EXISTS %s.%s PARTITION OF %s.%s FOR VALUES FROM (%s) TO (%s)"
+                .formatted(
+                        logged ? "" : "UNLOGGED ",
+                        SCHEMA,
+                        ident(name),
+                        SCHEMA,
+                        ident(parent),
+                        literal(from.toString()),
+                        literal(to.toString())));
+        LEAF_INDEXES
+                .getOrDefault(root, Map.of())
+                .forEach((suffix, columns) -> create.add("CREATE INDEX IF NOT EXISTS %s ON %s.%s (%s)"
+                        .formatted(ident(name + suffix), SCHEMA, ident(name), columns)));
+    }
+
+    /**
+     * Whether persist workers are writing into {@code leaf}. Conversion rewrites the table under an ACCESS
+     * EXCLUSIVE lock, so the current leaf keeps its storage until it is no longer current.
+     */
+    private static boolean isActive(RollupPartition leaf, Instant now) {
+        return !leaf.lowerBound().isAfter(now) && leaf.upperBound().isAfter(now);
+    }
+
+    private boolean isExpired(String root, String parent, Instant upperBound, Instant now) {
+        if (!retention.isEnabled()) return false;
+        return retentionPlanner.isExpired(new PartitionInfo(root, parent, null, upperBound, false), Map.of(), now);
+    }
+
+    static String leafName(String root, String bucket, Instant from, Duration width, Set<String> taken) {
+        LocalDate day = LocalDate.ofInstant(from, ZoneOffset.UTC);
+        String suffix = bucket.toLowerCase(Locale.ROOT);
+        if (width.toDays() % 7 == 0) {
+            String weekly = "%s_%d_%02d_%s"
+                    .formatted(
+                            root,
+                            day.get(IsoFields.WEEK_BASED_YEAR),
+                            day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR),
+                            suffix);
+            if (!taken.contains(weekly)) {
+                return weekly;
+            }
+        }
+        return "%s_%d_%02d_%02d_%s".formatted(root, day.getYear(), day.getMonthValue(), day.getDayOfMonth(), suffix);
+    }
+
+    private static Instant align(Instant instant, Duration width) {
+        long widthDays = width.toDays();
+        long days = LocalDate.ofInstant(instant, ZoneOffset.UTC).toEpochDay() - WIDTH_ORIGIN.toEpochDay();
+        LocalDate start = WIDTH_ORIGIN.plusDays(Math.floorDiv(days, widthDays) * widthDays);
+        return start.atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+
+    private static Map<String, Map<String, String>> leafIndexes() {
+        Map<String, Map<String, String>> indexes = new LinkedHashMap<>();
+        indexes.put(
+                "event_counts",
+                orderedMap(
+                        "_event_type_idx", "event_type_id",
+                        "_counter_config_idx", "counter_config_id",
+                        "_key_hash_idx", "key_hash"));
+        indexes.put(
+                "event_histograms",
+                orderedMap(
+                        "_event_type_idx", "event_type_id",
+                        "_histogram_config_idx", "histogram_config_id",
+                        "_key_hash_idx", "key_hash"));
+        indexes.put("object_state_transitions", Map.of("_object_idx", "object_type, attribute"));
+        indexes.put("object_state", Map.of("_object_idx", "object_type, object_id"));
+        indexes.put("object_state_count_timeseries", Map.of("_service_idx", "service_id, object_type, attribute"));
+        return indexes;
+    }
+
+    private static Map<String, String> orderedMap(String... pairs) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            map.put(pairs[i], pairs[i + 1]);
+        }
+        return map;
+    }
+
+    private static String ident(String name) {
+        return "\"" + name.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String literal(String s) {
+        return "'" + s.replace("'", "''") + "'";
+    }
+}
@@ -1,5 +1,8 @@
 package com.obsinity.service.core.search;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.obsinity.service.core.objql.AttributeSelectivity;
 import com.obsinity.service.core.objql.OBJql;
 import com.obsinity.service.core.objql.OBJqlCteBuilder;
 import com.obsinity.service.core.objql.OBJqlPage;
@@ -12,9 +15,13 @@ import java.util.Map;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * JDBC implementation over events_raw + attribute index (CTE-based).
@@ -25,23 +32,47 @@ public class JdbcSearchService implements SearchService {
 
     private static final Logger log = LoggerFactory.getLogger(JdbcSearchService.class);
     private static final String EXPLAIN_PREFIX = "EXPLAIN (ANALYZE, BUFFERS, VERBOSE, FORMAT TEXT) ";
+    private static final String ESTIMATE_PREFIX = "EXPLAIN (FORMAT JSON) ";
+    private static final ObjectMapper JSON = new ObjectMapper();
 
     private final NamedParameterJdbcTemplate jdbc;
     private final OBJqlParser parser = new OBJqlParser();
     private final OBJqlCteBuilder builder;
+    private final PlannerEstimateDrift drift;
+    private final QueryPlanCache planCache;
 
     @Value("${obsinity.search.explain.enabled:false}")
     private boolean explainEnabled;
 
+    @Value("${obsinity.search.stream.fetchSize:1000}")
+    private int streamFetchSize = 1000;
+
+    private volatile NamedParameterJdbcTemplate streamingJdbc;
+
     public JdbcSearchService(NamedParameterJdbcTemplate jdbc) {
+        this(jdbc, AttributeSelectivity.NONE);
+    }
+
+    public JdbcSearchService(NamedParameterJdbcTemplate jdbc, AttributeSelectivity selectivity) {
+        this(jdbc, selectivity, PlannerEstimateDrift.disabled(), QueryPlanCache.disabled());
+    }
+
+    @Autowired
+    public JdbcSearchService(
+            NamedParameterJdbcTemplate jdbc,
+            AttributeSelectivity selectivity,
+            PlannerEstimateDrift drift,
+            QueryPlanCache planCache) {
         this.jdbc = jdbc;
         // Adjust table names here if needed:
-        this.builder = new OBJqlCteBuilder("events_raw", "event_attr_index");
+        this.builder = new OBJqlCteBuilder("events_raw", "event_attr_index", selectivity);
+        this.drift = drift;
+        this.planCache = planCache;
     }
 
     @Override
     public List<Map<String, Object>> query(String objql, OBJqlPage page, boolean includeTotal) {
-        OBJql ast = parser.parse(objql);
+        OBJql ast = planCache.parse(objql, parser);
         return query(ast, page, includeTotal);
     }
 
@@ -54,14 +85,83 @@ public class JdbcSearchService implements SearchService {
         if (explainEnabled && log.isInfoEnabled()) {
             logExplain(ast, page, built);
         }
-        return jdbc.queryForList(built.sql(), built.params());
+        List<Map<String, Object>> rows = jdbc.queryForList(built.sql(), built.params());
+        if (includeTotal && drift.shouldSample()) {
+            sampleEstimateDrift(ast, page, rows);
+        }
+        return rows;
     }
 
-    private OBJqlCteBuilder.Built buildQuery(OBJql ast, OBJqlPage page, boolean includeTotal) {
-        if (isDirectPageQueryEligible(ast)) {
-            return buildDirectPageQuery(ast, page, includeTotal);
+    /**
+     * Compares the planner's match-set estimate with the actual {@code matched_count} of this page; the EXPLAIN runs
+     * off the request thread.
+     */
+    private void sampleEstimateDrift(OBJql ast, OBJqlPage page, List<Map<String, Object>> rows) {
+        long actual;
+        if (!rows.isEmpty() && rows.get(0).get("matched_count") instanceof Number count) {
+            actual = count.longValue();
+        } else if (rows.isEmpty() && page.offset() == 0 && !page.hasCursor()) {
+            actual = 0L;
+        } else {
+            return;
+        }
+        drift.sample(ast.service() + "/" + ast.event(), actual, () -> estimateCount(ast));
+    }
+
+    /**
+     * Runs inside a read-only transaction because the Postgres driver only honours the fetch size (a server-side
+     * cursor) with autocommit off; otherwise the whole result would be buffered before the first row is handed over.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void stream(OBJql ast, OBJqlPage page, RowCallbackHandler handler) {
+        var built = buildQuery(ast, page, false);
+        if (log.isDebugEnabled()) {
+            log.debug("OB-JQL stream SQL:\n{}\nparams: {}", built.sql(), built.params());
+        }
+        streamingJdbc().query(built.sql(), built.params(), handler);
+    }
+
+    private NamedParameterJdbcTemplate streamingJdbc() {
+        NamedParameterJdbcTemplate template = streamingJdbc;
+        if (template == null) {
+            JdbcTemplate base = new JdbcTemplate(jdbc.getJdbcTemplate().getDataSource());
+            base.setFetchSize(streamFetchSize);
+            template = new NamedParameterJdbcTemplate(base);
+            streamingJdbc = template;
+        }
+        return template;
+    }
+
+    /**
+     * Planner row estimate for the matched set. Costs one EXPLAIN (no execution), so it stays constant-time
+     * regardless of how many events match; accuracy depends on the table statistics.
+     */
+    @Override
+    public long estimateCount(OBJql ast) {
+        OBJqlCteBuilder.Built built = planCache.build(
+                ast,
+                null,
+                QueryPlanCache.Kind.MATCH_SET,
+                () -> isDirectPageQueryEligible(ast) ? buildDirectMatchSet(ast) : builder.buildMatchSet(ast));
+        String plan = jdbc.queryForObject(ESTIMATE_PREFIX + built.sql(), built.params(), String.class);
+        try {
+            JsonNode rows = JSON.readTree(plan).path(0).path("Plan").path("Plan Rows");
+            return rows.isNumber() ? Math.max(0L, rows.asLong()) : 0L;
+        } catch (Exception ex) {
+            log.warn("Failed to read planner estimate for service={}, event={}", ast.service(), ast.event(), ex);
+            return 0L;
         }
-        return builder.build(ast, page, includeTotal);
+    }
+
+    private OBJqlCteBuilder.Built buildQuery(OBJql ast, OBJqlPage page, boolean includeTotal) {
+        QueryPlanCache.Kind kind = includeTotal ? QueryPlanCache.Kind.PAGE_WITH_TOTAL : QueryPlanCache.Kind.PAGE;
+        return planCache.build(ast, page, kind, () -> {
+            if (isDirectPageQueryEligible(ast)) {
+                return buildDirectPageQuery(ast, page, includeTotal);
+            }
+            return builder.build(ast, page, includeTotal);
+        });
     }
 
     private boolean isDirectPageQueryEligible(OBJql ast) {
@@ -79,7 +179,6 @@ public class JdbcSearchService implements SearchService {
         params.put("evt", ast.event());
         params.put("ts_start", Timestamp.from(ast.time().start()));
         params.put("ts_end", Timestamp.from(ast.time().end()));
-        params.put("off", page.offset());
         params.put("lim", page.limit());
 
         boolean asc = ast.sort() != null && ast.sort().asc();
@@ -95,21 +194,43 @@ public class JdbcSearchService implements SearchService {
                     .append("    AND e.started_at >= :ts_start AND e.started_at < :ts_end\n")
                     .append(")\n");
         }
-        sql.append("SELECT e.*");
+        sql.append("SELECT ").append(OBJqlCteBuilder.selectList(ast.selectFields(), params));
         if (includeTotal) {
             sql.append(",(SELECT matched_count FROM counts) AS matched_count");
         }
         sql.append("\nFROM events_raw e\n")
                 .append("WHERE e.service_partition_key = :svc\n")
                 .append("  AND e.event_type = :evt\n")
-                .append("  AND e.started_at >= :ts_start AND e.started_at < :ts_end\n")
-                .append("ORDER BY e.started_at ")
-                .append(direction)
-                .append(", e.event_id\n")
-                .append("OFFSET :off LIMIT :lim\n");
+                .append("  AND e.started_at >= :ts_start AND e.started_at < :ts_end\n");
+        if (page.hasCursor()) {
+            // Seek along (service_partition_key, event_type, started_at, event_id) instead of skipping rows.
+            sql.append("  AND ").append(OBJqlCteBuilder.seekPredicate("e", asc)).append("\n");
+            OBJqlCteBuilder.bindCursor(params, page.after());
+        }
+        sql.append("ORDER BY e.started_at ").append(direction).append(", e.event_id\n");
+        if (page.hasCursor()) {
+            sql.append("LIMIT :lim\n");
+        } else {
+            sql.append("OFFSET :off LIMIT :lim\n");
+            params.put("off", page.offset());
+        }
         return new OBJqlCteBuilder.Built(sql.toString(), params);
     }
 
+    private OBJqlCteBuilder.Built buildDirectMatchSet(OBJql ast) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("svc", ast.service());
+        params.put("evt", ast.event());
+        params.put("ts_start", Timestamp.from(ast.time().start()));
+        params.put("ts_end", Timestamp.from(ast.time().end()));
+        String sql = "SELECT e.event_id\n"
+                + "FROM events_raw e\n"
+                + "WHERE e.service_partition_key = :svc\n"
+                + "  AND e.event_type = :evt\n"
+                + "  AND e.started_at >= :ts_start AND e.started_at < :ts_end\n";
+        return new OBJqlCteBuilder.Built(sql, params);
+    }
+
     private String normalizeSortField(String field) {
         if (field == null || field.isBlank()) return "started_at";
         String normalized = field.trim().toLowerCase(Locale.ROOT);
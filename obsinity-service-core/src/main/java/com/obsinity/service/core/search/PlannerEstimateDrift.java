@@ -0,0 +1,175 @@
+package com.obsinity.service.core.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks how far the planner's row estimate for OB-JQL match sets drifts from the actual matched count.
+ * <p>
+ * Every {@code obsinity.search.plannerDrift.sampleEvery}-th query that computes a total is sampled: the match set is
+ * EXPLAINed (planning only) and its estimate compared with {@code matched_count}. Drift is the symmetric ratio
+ * {@code max(estimate, actual) / min(estimate, actual)} (both plus one), kept per service and event type, so a
+ * persistently large value points at stale or too coarse statistics on that service's partitions.
+ * <p>
+ * The EXPLAIN runs on a single background thread, never on the request thread; samples are dropped while it is
+ * busy. Shapes come from user-supplied service and event names, so at most
+ * {@code obsinity.search.plannerDrift.maxShapes} are kept, and shapes not sampled for a day are forgotten.
+ */
+@Component
+public class PlannerEstimateDrift {
+
+    private static final Logger log = LoggerFactory.getLogger(PlannerEstimateDrift.class);
+    private static final Duration SHAPE_IDLE = Duration.ofDays(1);
+
+    /** Drift of one service/event-type shape since startup. */
+    public record Stats(
+            String shape,
+            long samples,
+            long lastEstimated,
+            long lastActual,
+            double lastRatio,
+            double meanRatio,
+            double maxRatio) {}
+
+    private final int sampleEvery;
+    private final AtomicLong queries = new AtomicLong();
+    private final Cache<String, Shape> shapes;
+    private final Executor sampler;
+
+    /** Tracker that never samples. */
+    public static PlannerEstimateDrift disabled() {
+        return new PlannerEstimateDrift(0, 0, Runnable::run);
+    }
+
+    /** Tracker that samples on the caller's thread, for tests and embedded use. */
+    public PlannerEstimateDrift(int sampleEvery) {
+        this(sampleEvery, 1000, Runnable::run);
+    }
+
+    @Autowired
+    public PlannerEstimateDrift(
+            @Value("${obsinity.search.plannerDrift.sampleEvery:20}") int sampleEvery,
+            @Value("${obsinity.search.plannerDrift.maxShapes:1000}") int maxShapes) {
+        this(sampleEvery, maxShapes, sampleEvery > 0 ? samplerThread() : Runnable::run);
+    }
+
+    PlannerEstimateDrift(int sampleEvery, int maxShapes, Executor sampler) {
+        this.sampleEvery = sampleEvery;
+        this.shapes = Caffeine.newBuilder()
+                .maximumSize(Math.max(0, maxShapes))
+                .expireAfterAccess(SHAPE_IDLE)
+                .build();
+        this.sampler = sampler;
+    }
+
+    private static ExecutorService samplerThread() {
+        return new ThreadPoolExecutor(
+                1,
+                1,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(16),
+                r -> {
+                    Thread t = new Thread(r, "obsinity-planner-drift");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sampler instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Whether the current query should be sampled; counts every call. */
+    public boolean shouldSample() {
+        return sampleEvery > 0 && queries.incrementAndGet() % sampleEvery == 0;
+    }
+
+    /**
+     * Records the drift of {@code shape} in the background: {@code estimate} (the EXPLAIN) runs on the sampler
+     * thread, or not at all when a sample is already pending.
+     */
+    public void sample(String shape, long actual, LongSupplier estimate) {
+        sampler.execute(() -> {
+            try {
+                record(shape, estimate.getAsLong(), actual);
+            } catch (RuntimeException ex) {
+                log.debug("Planner estimate sample failed shape={}", shape, ex);
+            }
+        });
+    }
+
+    public void record(String shape, long estimated, long actual) {
+        double ratio = ratio(estimated, actual);
+        shapes.get(shape, Shape::new).record(estimated, actual, ratio);
+    }
+
+    /** Per-shape drift, worst mean ratio first. */
+    public List<Stats> stats() {
+        shapes.cleanUp();
+        return shapes.asMap().values().stream()
+                .map(Shape::stats)
+                .sorted(Comparator.comparingDouble(Stats::meanRatio).reversed().thenComparing(Stats::shape))
+                .toList();
+    }
+
+    static double ratio(long estimated, long actual) {
+        double e = Math.max(0L, estimated) + 1d;
+        double a = Math.max(0L, actual) + 1d;
+        return Math.max(e, a) / Math.min(e, a);
+    }
+
+    private static final class Shape {
+        private final String name;
+        private long samples;
+        private long lastEstimated;
+        private long lastActual;
+        private double lastRatio;
+        private double ratioSum;
+        private double maxRatio;
+
+        private Shape(String name) {
+            this.name = name;
+        }
+
+        private synchronized void record(long estimated, long actual, double ratio) {
+            samples++;
+            lastEstimated = estimated;
+            lastActual = actual;
+            lastRatio = ratio;
+            ratioSum += ratio;
+            maxRatio = Math.max(maxRatio, ratio);
+        }
+
+        private synchronized Stats stats() {
+            return new Stats(
+                    name,
+                    samples,
+                    lastEstimated,
+                    lastActual,
+                    lastRatio,
+                    samples == 0 ? 0d : ratioSum / samples,
+                    maxRatio);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.obsinity.service.core.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.obsinity.service.core.objql.OBJql;
+import com.obsinity.service.core.objql.OBJqlCteBuilder;
+import com.obsinity.service.core.objql.OBJqlPage;
+import com.obsinity.service.core.objql.OBJqlParser;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded caches for repeated OB-JQL queries, such as dashboards refreshing the same query every few seconds.
+ * <p>
+ * Parsed queries are keyed by {@link OBJqlParser#normalize(String) normalized text}, with the time literals
+ * parameterized, and hold the AST without its time range. A hit only re-evaluates the time clause, so relative
+ * ranges like {@code since -1h} stay anchored at the current instant.
+ * <p>
+ * Generated SQL is keyed by the query shape: the AST without its time range, plus the statement kind and whether
+ * the page seeks past a cursor. A hit reuses the SQL text and rebinds only {@code ts_start}/{@code ts_end},
+ * {@code off}/{@code lim} and {@code cur_ts}/{@code cur_id}. The text is therefore byte-identical across repeats,
+ * which is what lets the Postgres driver switch to a server-side prepared statement after {@code prepareThreshold}
+ * executions on a connection. Entries expire after {@code obsinity.search.planCache.ttl}, so attribute-selectivity
+ * ordering picks up new statistics.
+ */
+@Component
+public class QueryPlanCache {
+
+    /** Kind of statement generated for a query shape. */
+    public enum Kind {
+        PAGE,
+        PAGE_WITH_TOTAL,
+        MATCH_SET
+    }
+
+    /** Hit rates since startup, and current sizes. */
+    public record Stats(
+            long parseHits,
+            long parseMisses,
+            double parseHitRate,
+            long parsedEntries,
+            long sqlHits,
+            long sqlMisses,
+            double sqlHitRate,
+            long sqlEntries) {}
+
+    private record PlanKey(OBJql shape, Kind kind, boolean cursor) {}
+
+    private final Cache<String, OBJql> parsed;
+    private final Cache<PlanKey, OBJqlCteBuilder.Built> plans;
+
+    /** Cache that never stores anything; every call parses and builds. */
+    public static QueryPlanCache disabled() {
+        return new QueryPlanCache(0, Duration.ZERO);
+    }
+
+    @Autowired
+    public QueryPlanCache(
+            @Value("${obsinity.search.planCache.maxEntries:1000}") int maxEntries,
+            @Value("${obsinity.search.planCache.ttl:PT10M}") Duration ttl) {
+        boolean enabled = maxEntries > 0 && ttl.compareTo(Duration.ZERO) > 0;
+        this.parsed = enabled
+                ? Caffeine.newBuilder()
+                        .maximumSize(maxEntries)
+                        .expireAfterWrite(ttl)
+                        .recordStats()
+                        .build()
+                : null;
+        this.plans = enabled
+                ? Caffeine.newBuilder()
+                        .maximumSize(maxEntries)
+                        .expireAfterWrite(ttl)
+                        .recordStats()
+                        .build()
+                : null;
+    }
+
+    /** Parses {@code objql}, reusing the AST of an earlier query with the same normalized text. */
+    public OBJql parse(String objql, OBJqlParser parser) {
+        if (parsed == null) return parser.parse(objql);
+        String key = OBJqlParser.normalize(objql);
+        OBJql cached = parsed.getIfPresent(key);
+        if (cached != null) {
+            return cached.withTime(parser.timeRange(objql));
+        }
+        OBJql ast = parser.parse(objql);
+        parsed.put(key, ast.withTime(null));
+        return ast;
+    }
+
+    /**
+     * SQL and parameters for {@code ast}; {@code build} runs only when no statement of the same shape is cached.
+     *
+     * @param page the page bound into the statement, {@code null} for {@link Kind#MATCH_SET}
+     */
+    public OBJqlCteBuilder.Built build(OBJql ast, OBJqlPage page, Kind kind, Supplier<OBJqlCteBuilder.Built> build) {
+        if (plans == null || ast.time() == null) return build.get();
+        PlanKey key = new PlanKey(ast.withTime(null), kind, page != null && page.hasCursor());
+        OBJqlCteBuilder.Built cached = plans.getIfPresent(key);
+        if (cached != null) {
+            return rebind(cached, ast, page);
+        }
+        OBJqlCteBuilder.Built built = build.get();
+        plans.put(
+                key,
+                new OBJqlCteBuilder.Built(
+                        built.sql(), Collections.unmodifiableMap(new LinkedHashMap<>(built.params()))));
+        return built;
+    }
+
+    public Stats stats() {
+        CacheStats parse = parsed != null ? parsed.stats() : CacheStats.empty();
+        CacheStats sql = plans != null ? plans.stats() : CacheStats.empty();
+        return new Stats(
+                parse.hitCount(),
+                parse.missCount(),
+                parse.hitRate(),
+                parsed != null ? parsed.estimatedSize() : 0L,
+                sql.hitCount(),
+                sql.missCount(),
+                sql.hitRate(),
+                plans != null ? plans.estimatedSize() : 0L);
+    }
+
+    /** Copies the cached parameters, replacing everything that varies within one shape. */
+    static OBJqlCteBuilder.Built rebind(OBJqlCteBuilder.Built template, OBJql ast, OBJqlPage page) {
+        Map<String, Object> params = new LinkedHashMap<>(template.params());
+        params.put("ts_start", Timestamp.from(ast.time().start()));
+        params.put("ts_end", Timestamp.from(ast.time().end()));
+        if (page != null) {
+            if (params.containsKey("off")) params.put("off", page.offset());
+            if (params.containsKey("lim")) params.put("lim", page.limit());
+            if (page.hasCursor()) OBJqlCteBuilder.bindCursor(params, page.after());
+        }
+        return new OBJqlCteBuilder.Built(template.sql(), params);
+    }
+}
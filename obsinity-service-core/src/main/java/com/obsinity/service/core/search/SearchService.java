@@ -4,6 +4,7 @@ import com.obsinity.service.core.objql.OBJql;
 import com.obsinity.service.core.objql.OBJqlPage;
 import java.util.List;
 import java.util.Map;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
 /** Executes OB-JQL queries and returns row maps (column -> value). */
 public interface SearchService {
@@ -27,4 +28,13 @@ public interface SearchService {
     List<Map<String, Object>> query(String objql, OBJqlPage page, boolean includeTotal);
 
     List<Map<String, Object>> query(OBJql ast, OBJqlPage page, boolean includeTotal);
+
+    /**
+     * Streams matching events row by row to {@code handler} without materializing the result; {@code page} bounds
+     * the row count (it is not clamped to {@link OBJqlPage#MAX_LIMIT}).
+     */
+    void stream(OBJql ast, OBJqlPage page, RowCallbackHandler handler);
+
+    /** Approximate number of events matching {@code ast}, taken from the query planner rather than a COUNT(*). */
+    long estimateCount(OBJql ast);
 }
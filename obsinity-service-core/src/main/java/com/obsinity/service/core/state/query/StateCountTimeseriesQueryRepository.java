@@ -1,11 +1,13 @@
 package com.obsinity.service.core.state.query;
 
 import com.obsinity.service.core.counter.CounterBucket;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
@@ -14,9 +16,17 @@ import org.springframework.stereotype.Repository;
 public class StateCountTimeseriesQueryRepository {
 
     private final NamedParameterJdbcTemplate jdbc;
+    private final Duration lookback;
 
-    public StateCountTimeseriesQueryRepository(NamedParameterJdbcTemplate jdbc) {
+    /**
+     * @param keyframeInterval how often the snapshot job writes every count; rows in between only hold changed
+     *     states, so "current value as of t" looks back up to two keyframes for each state's last row
+     */
+    public StateCountTimeseriesQueryRepository(
+            NamedParameterJdbcTemplate jdbc,
+            @Value("${obsinity.stateCounts.timeseries.keyframeInterval:PT1H}") Duration keyframeInterval) {
         this.jdbc = jdbc;
+        this.lookback = keyframeInterval.multipliedBy(2);
     }
 
     public List<Row> fetchRowsInRange(
@@ -146,6 +156,10 @@ public class StateCountTimeseriesQueryRepository {
 
     public record Row(Instant ts, String stateValue, long count) {}
 
+    /**
+     * Latest count per state at or before the end of the range. States that did not change inside the range are
+     * forward-filled from their last snapshot before it.
+     */
     public Map<String, Long> fetchLatestCountsInRange(
             UUID serviceId,
             String objectType,
@@ -154,35 +168,57 @@ public class StateCountTimeseriesQueryRepository {
             CounterBucket bucket,
             Instant startInclusive,
             Instant endExclusive) {
+        Instant floor = endExclusive.minus(lookback);
+        return fetchLatestCounts(
+                serviceId,
+                objectType,
+                attribute,
+                states,
+                bucket,
+                startInclusive.isBefore(floor) ? startInclusive : floor,
+                endExclusive);
+    }
+
+    /** Last known count per state strictly before {@code endExclusive}; used to seed forward-fill. */
+    public Map<String, Long> fetchCountsAsOf(
+            UUID serviceId,
+            String objectType,
+            String attribute,
+            List<String> states,
+            CounterBucket bucket,
+            Instant endExclusive) {
+        return fetchLatestCounts(
+                serviceId, objectType, attribute, states, bucket, endExclusive.minus(lookback), endExclusive);
+    }
+
+    private Map<String, Long> fetchLatestCounts(
+            UUID serviceId,
+            String objectType,
+            String attribute,
+            List<String> states,
+            CounterBucket bucket,
+            Instant startInclusive,
+            Instant endExclusive) {
         MapSqlParameterSource params = baseParams(serviceId, objectType, attribute)
                 .addValue("bucket", bucket.label())
                 .addValue("start", java.sql.Timestamp.from(startInclusive))
                 .addValue("end", java.sql.Timestamp.from(endExclusive));
         StringBuilder sql = new StringBuilder(
                 """
-                WITH latest_ts AS (
-                    SELECT MAX(ts) AS ts
-                      FROM obsinity.object_state_count_timeseries
-                     WHERE service_id = :service_id
-                       AND object_type = :object_type
-                       AND attribute = :attribute
-                       AND bucket = :bucket
-                       AND ts >= :start
-                       AND ts < :end
-                )
-                SELECT state_value, state_count
+                SELECT DISTINCT ON (state_value) state_value, state_count
                   FROM obsinity.object_state_count_timeseries
                  WHERE service_id = :service_id
                    AND object_type = :object_type
                    AND attribute = :attribute
                    AND bucket = :bucket
-                   AND ts = (SELECT ts FROM latest_ts)
+                   AND ts >= :start
+                   AND ts < :end
                 """);
         if (states != null && !states.isEmpty()) {
             sql.append(" AND state_value IN (:states)");
             params.addValue("states", states);
         }
-        sql.append(" ORDER BY state_value ASC");
+        sql.append(" ORDER BY state_value ASC, ts DESC");
 
         return jdbc
                 .query(
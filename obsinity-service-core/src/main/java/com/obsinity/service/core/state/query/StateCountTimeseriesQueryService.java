@@ -4,6 +4,7 @@ import com.obsinity.service.core.counter.CounterBucket;
 import com.obsinity.service.core.counter.DurationParser;
 import com.obsinity.service.core.repo.ServicesCatalogRepository;
 import com.obsinity.service.core.state.query.StateCountTimeseriesQueryResult.StateCountTimeseriesWindow;
+import com.obsinity.service.core.support.DataExtentRegistry;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
@@ -24,11 +25,15 @@ public class StateCountTimeseriesQueryService {
 
     private final ServicesCatalogRepository servicesCatalogRepository;
     private final StateCountTimeseriesQueryRepository repository;
+    private final DataExtentRegistry extents;
 
     public StateCountTimeseriesQueryService(
-            ServicesCatalogRepository servicesCatalogRepository, StateCountTimeseriesQueryRepository repository) {
+            ServicesCatalogRepository servicesCatalogRepository,
+            StateCountTimeseriesQueryRepository repository,
+            DataExtentRegistry extents) {
         this.servicesCatalogRepository = servicesCatalogRepository;
         this.repository = repository;
+        this.extents = extents;
     }
 
     public StateCountTimeseriesQueryResult runQuery(StateCountTimeseriesQueryRequest request) {
@@ -43,10 +48,19 @@ public class StateCountTimeseriesQueryService {
         resolveBucket(requestedInterval);
         CounterBucket queryBucket = CounterBucket.M1;
 
-        Instant earliest =
-                repository.findEarliestTimestamp(serviceId, request.objectType(), request.attribute(), queryBucket);
-        Instant latest =
-                repository.findLatestTimestamp(serviceId, request.objectType(), request.attribute(), queryBucket);
+        DataExtentRegistry.Extent extent = extents.extent(
+                DataExtentRegistry.key(
+                        DataExtentRegistry.STATE_COUNT_TIMESERIES,
+                        serviceId,
+                        queryBucket,
+                        DataExtentRegistry.qualifier(request.objectType(), request.attribute())),
+                () -> new DataExtentRegistry.Extent(
+                        repository.findEarliestTimestamp(
+                                serviceId, request.objectType(), request.attribute(), queryBucket),
+                        repository.findLatestTimestamp(
+                                serviceId, request.objectType(), request.attribute(), queryBucket)));
+        Instant earliest = extent.earliest();
+        Instant latest = extent.latest();
         Instant defaultEnd = latest != null ? latest : Instant.now();
         Instant defaultStart = defaultEnd.minus(Duration.ofDays(7));
         if (earliest != null && defaultStart.isBefore(earliest)) {
@@ -75,13 +89,6 @@ public class StateCountTimeseriesQueryService {
                 queryBucket,
                 alignedStart,
                 alignedEnd);
-        if (firstInRange == null) {
-            // If states are explicitly requested, emit zero-valued windows across the range
-            // so Grafana can render a continuous line from range start.
-            if (request.states() == null || request.states().isEmpty()) {
-                return new StateCountTimeseriesQueryResult(List.of(), 0, 0, 0, start, end);
-            }
-        }
 
         int offset = request.limits() != null && request.limits().offset() != null
                 ? Math.max(0, request.limits().offset())
@@ -90,41 +97,49 @@ public class StateCountTimeseriesQueryService {
                 ? Math.max(1, request.limits().limit())
                 : Integer.MAX_VALUE;
 
-        List<StateCountTimeseriesWindow> windows = new ArrayList<>();
         Duration step = requestedInterval;
         Instant cursor = alignedStart.plus(step.multipliedBy(offset));
-        int emittedWindows = 0;
         List<String> requestedStates = request.states() == null ? List.of() : request.states();
-        Map<String, Long> lastKnownCounts = new LinkedHashMap<>();
 
+        // Snapshots only carry states whose count changed, so every state keeps its last known value until a
+        // newer row for it appears. Seed from the rows before the first window.
+        Map<String, Long> lastKnownCounts = new LinkedHashMap<>(repository.fetchCountsAsOf(
+                serviceId, request.objectType(), request.attribute(), null, queryBucket, queryBucket.align(cursor)));
+        if (firstInRange == null && lastKnownCounts.isEmpty()) {
+            // If states are explicitly requested, emit zero-valued windows across the range
+            // so Grafana can render a continuous line from range start.
+            if (requestedStates.isEmpty()) {
+                return new StateCountTimeseriesQueryResult(List.of(), 0, 0, 0, start, end);
+            }
+        }
+
+        List<StateCountTimeseriesQueryRepository.Row> rows = cursor.isBefore(alignedEnd)
+                ? repository.fetchRowsInRange(
+                        serviceId,
+                        request.objectType(),
+                        request.attribute(),
+                        null,
+                        queryBucket,
+                        queryBucket.align(cursor),
+                        queryBucket.align(alignedEnd.plus(step)))
+                : List.of();
+
+        List<StateCountTimeseriesWindow> windows = new ArrayList<>();
+        int emittedWindows = 0;
+        int rowIndex = 0;
         while (cursor.isBefore(alignedEnd) && emittedWindows < limit) {
             Instant next = cursor.plus(step);
-            Instant rangeStart = queryBucket.align(cursor);
             Instant rangeEnd = queryBucket.align(next);
-            if (!rangeEnd.isAfter(rangeStart)) {
-                rangeEnd = rangeStart.plus(queryBucket.duration());
+            while (rowIndex < rows.size() && rows.get(rowIndex).ts().isBefore(rangeEnd)) {
+                StateCountTimeseriesQueryRepository.Row row = rows.get(rowIndex++);
+                lastKnownCounts.put(row.stateValue(), row.count());
             }
-            List<StateCountTimeseriesQueryRepository.Row> rows = repository.fetchRowsInRange(
-                    serviceId, request.objectType(), request.attribute(), null, queryBucket, rangeStart, rangeEnd);
             Map<String, Long> countsForWindow = new LinkedHashMap<>();
-            if (!rows.isEmpty()) {
-                Map<String, Long> latestPerState = new LinkedHashMap<>();
-                for (StateCountTimeseriesQueryRepository.Row row : rows) {
-                    latestPerState.put(row.stateValue(), row.count());
-                }
-                if (requestedStates.isEmpty()) {
-                    countsForWindow.putAll(latestPerState);
-                } else {
-                    for (String state : requestedStates) {
-                        countsForWindow.put(state, latestPerState.getOrDefault(state, 0L));
-                    }
-                }
-                lastKnownCounts = new LinkedHashMap<>(countsForWindow);
-            } else if (!lastKnownCounts.isEmpty()) {
+            if (requestedStates.isEmpty()) {
                 countsForWindow.putAll(lastKnownCounts);
-            } else if (!requestedStates.isEmpty()) {
+            } else {
                 for (String state : requestedStates) {
-                    countsForWindow.put(state, 0L);
+                    countsForWindow.put(state, lastKnownCounts.getOrDefault(state, 0L));
                 }
             }
 
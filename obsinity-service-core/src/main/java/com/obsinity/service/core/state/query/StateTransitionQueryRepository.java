@@ -1,7 +1,9 @@
 package com.obsinity.service.core.state.query;
 
 import com.obsinity.service.core.counter.CounterBucket;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,24 +21,74 @@ public class StateTransitionQueryRepository {
         this.jdbc = jdbc;
     }
 
-    public List<Row> fetchRange(UUID serviceId, CounterBucket bucket, Instant from, Instant to) {
+    /**
+     * Transition totals for one objectType/attribute, grouped into {@code step}-wide windows aligned to
+     * {@code from}. Filtering happens in SQL so only the matching {@code (object_type, attribute)} index range of
+     * each weekly partition is read, and every window comes back in one round trip.
+     */
+    public List<WindowRow> fetchWindows(
+            UUID serviceId,
+            String objectType,
+            String attribute,
+            CounterBucket bucket,
+            Instant from,
+            Instant to,
+            Duration step,
+            StateFilter fromFilter,
+            StateFilter toFilter) {
         MapSqlParameterSource params = new MapSqlParameterSource()
                 .addValue("service_id", serviceId)
+                .addValue("object_type", objectType)
+                .addValue("attribute", attribute)
                 .addValue("bucket", bucket.label())
                 .addValue("start", java.sql.Timestamp.from(from))
-                .addValue("end", java.sql.Timestamp.from(to));
+                .addValue("end", java.sql.Timestamp.from(to))
+                .addValue("step_seconds", step.toMillis() / 1000.0);
 
-        return jdbc.query(
+        String sql =
+                """
+                SELECT date_bin(:step_seconds * INTERVAL '1 second', ts, CAST(:start AS timestamptz)) AS window_start,
+                       from_state, to_state, SUM(transition_count) AS total
+                FROM obsinity.object_state_transitions
+                WHERE service_id = :service_id
+                  AND object_type = :object_type
+                  AND attribute = :attribute
+                  AND bucket = :bucket
+                  AND ts >= :start AND ts < :end
                 """
-            SELECT from_state, to_state, SUM(transition_count) AS total
-            FROM obsinity.object_state_transitions
-            WHERE service_id = :service_id
-              AND bucket = :bucket
-              AND ts >= :start AND ts < :end
-            GROUP BY from_state, to_state
-            """,
+                        + statePredicate("from_state", fromFilter, params)
+                        + statePredicate("to_state", toFilter, params)
+                        + """
+                GROUP BY 1, from_state, to_state
+                ORDER BY 1, from_state, to_state
+                """;
+
+        return jdbc.query(
+                sql,
                 params,
-                (rs, rowNum) -> new Row(rs.getString("from_state"), rs.getString("to_state"), rs.getLong("total")));
+                (rs, rowNum) -> new WindowRow(
+                        rs.getTimestamp("window_start").toInstant(),
+                        rs.getString("from_state"),
+                        rs.getString("to_state"),
+                        rs.getLong("total")));
+    }
+
+    private static String statePredicate(String column, StateFilter filter, MapSqlParameterSource params) {
+        if (filter == null || filter.matchesAll()) {
+            return "";
+        }
+        List<String> clauses = new ArrayList<>(2);
+        if (!filter.states().isEmpty()) {
+            params.addValue(column + "_values", filter.states());
+            clauses.add(column + " IN (:" + column + "_values)");
+        }
+        if (filter.includeNone()) {
+            clauses.add("lower(" + column + ") IN ('(none)', '__no_state__')");
+        }
+        if (clauses.isEmpty()) {
+            return "  AND FALSE\n";
+        }
+        return "  AND (" + String.join(" OR ", clauses) + ")\n";
     }
 
     public Instant findEarliestTimestamp(UUID serviceId, CounterBucket bucket) {
@@ -105,7 +157,15 @@ public class StateTransitionQueryRepository {
                 (rs, rowNum) -> rs.getTimestamp(1) != null ? rs.getTimestamp(1).toInstant() : null);
     }
 
-    public record Row(String fromState, String toState, long total) {}
+    public record WindowRow(Instant windowStart, String fromState, String toState, long total) {}
+
+    /**
+     * State filter pushed into SQL: {@code matchesAll} disables it, {@code states} are exact matches and
+     * {@code includeNone} also accepts the no-state placeholders.
+     */
+    public record StateFilter(boolean matchesAll, List<String> states, boolean includeNone) {
+        public static final StateFilter ALL = new StateFilter(true, List.of(), false);
+    }
 
     public record TransitionKey(String fromState, String toState) {}
 
@@ -4,15 +4,17 @@ import com.obsinity.service.core.counter.CounterBucket;
 import com.obsinity.service.core.counter.CounterGranularity;
 import com.obsinity.service.core.counter.DurationParser;
 import com.obsinity.service.core.repo.ServicesCatalogRepository;
+import com.obsinity.service.core.support.DataExtentRegistry;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -27,6 +29,7 @@ public class StateTransitionQueryService {
 
     private final ServicesCatalogRepository servicesCatalogRepository;
     private final StateTransitionQueryRepository repository;
+    private final DataExtentRegistry extents;
 
     public StateTransitionQueryResult runQuery(StateTransitionQueryRequest request) {
         validate(request);
@@ -40,8 +43,13 @@ public class StateTransitionQueryService {
                 : CounterGranularity.S5.duration();
         CounterBucket bucket = resolveBucket(requestedInterval);
 
-        Instant earliestData = repository.findEarliestTimestamp(serviceId, bucket);
-        Instant latestData = repository.findLatestTimestamp(serviceId, bucket);
+        DataExtentRegistry.Extent extent = extents.extent(
+                DataExtentRegistry.key(DataExtentRegistry.STATE_TRANSITIONS, serviceId, bucket),
+                () -> new DataExtentRegistry.Extent(
+                        repository.findEarliestTimestamp(serviceId, bucket),
+                        repository.findLatestTimestamp(serviceId, bucket)));
+        Instant earliestData = extent.earliest();
+        Instant latestData = extent.latest();
         Instant defaultEnd = latestData != null ? latestData : Instant.now();
         Instant defaultStart = defaultEnd.minus(Duration.ofDays(7));
         if (earliestData != null && defaultStart.isBefore(earliestData)) {
@@ -68,27 +76,42 @@ public class StateTransitionQueryService {
                 ? request.limits().limit()
                 : Integer.MAX_VALUE;
 
-        List<StateTransitionQueryWindow> windows = new ArrayList<>();
         Duration step = requestedInterval;
-        Instant cursor = alignedStart.plus(step.multipliedBy(offset));
-        int added = 0;
-
-        List<String> fromFilter = normalizeFilter(request.fromStates());
-        List<String> toFilter = normalizeFilter(request.toStates());
+        Instant windowStart = alignedStart.plus(step.multipliedBy(offset));
+        long remainingMillis = Duration.between(windowStart, alignedEnd).toMillis();
+        long windowCount =
+                remainingMillis <= 0 ? 0 : Math.min(limit, (remainingMillis + step.toMillis() - 1) / step.toMillis());
+        Instant windowEnd = windowStart.plus(step.multipliedBy(windowCount));
+
+        Map<Instant, List<StateTransitionQueryWindow.Entry>> entriesByWindow = new HashMap<>();
+        if (windowCount > 0) {
+            List<StateTransitionQueryRepository.WindowRow> rows = repository.fetchWindows(
+                    serviceId,
+                    request.objectType(),
+                    request.attribute(),
+                    bucket,
+                    windowStart,
+                    windowEnd,
+                    step,
+                    toStateFilter(normalizeFilter(request.fromStates())),
+                    toStateFilter(normalizeFilter(request.toStates())));
+            for (StateTransitionQueryRepository.WindowRow row : rows) {
+                entriesByWindow
+                        .computeIfAbsent(row.windowStart(), k -> new ArrayList<>())
+                        .add(new StateTransitionQueryWindow.Entry(
+                                renderState(row.fromState()), renderState(row.toState()), row.total()));
+            }
+        }
 
-        while (cursor.isBefore(alignedEnd) && added < limit) {
+        List<StateTransitionQueryWindow> windows = new ArrayList<>((int) windowCount);
+        Instant cursor = windowStart;
+        for (long i = 0; i < windowCount; i++) {
             Instant next = cursor.plus(step);
-            List<StateTransitionQueryRepository.Row> rows = repository.fetchRange(serviceId, bucket, cursor, next);
-
-            List<StateTransitionQueryWindow.Entry> entries = rows.stream()
-                    .filter(row -> matches(row.fromState(), fromFilter) && matches(row.toState(), toFilter))
-                    .map(row -> new StateTransitionQueryWindow.Entry(
-                            renderState(row.fromState()), renderState(row.toState()), row.total()))
-                    .collect(Collectors.toList());
-
-            windows.add(new StateTransitionQueryWindow(ISO_INSTANT.format(cursor), ISO_INSTANT.format(next), entries));
+            windows.add(new StateTransitionQueryWindow(
+                    ISO_INSTANT.format(cursor),
+                    ISO_INSTANT.format(next),
+                    entriesByWindow.getOrDefault(cursor, List.of())));
             cursor = next;
-            added++;
         }
 
         return new StateTransitionQueryResult(
@@ -137,27 +160,13 @@ public class StateTransitionQueryService {
         return value;
     }
 
-    private boolean matches(String value, List<String> filter) {
-        if (filter == null || filter.isEmpty()) {
-            return true;
-        }
-        for (String token : filter) {
-            if (WILDCARD.equals(token)) {
-                return true;
-            }
-            if (NO_STATE_LABEL.equals(token)) {
-                if (value == null
-                        || LEGACY_NO_STATE_PLACEHOLDER.equals(value)
-                        || NO_STATE_LABEL.equalsIgnoreCase(value)) {
-                    return true;
-                }
-                continue;
-            }
-            if (token.equals(value)) {
-                return true;
-            }
+    private StateTransitionQueryRepository.StateFilter toStateFilter(List<String> filter) {
+        if (filter.isEmpty() || filter.contains(WILDCARD)) {
+            return StateTransitionQueryRepository.StateFilter.ALL;
         }
-        return false;
+        List<String> states =
+                filter.stream().filter(token -> !NO_STATE_LABEL.equals(token)).toList();
+        return new StateTransitionQueryRepository.StateFilter(false, states, filter.contains(NO_STATE_LABEL));
     }
 
     private List<String> normalizeFilter(List<String> values) {
@@ -2,16 +2,28 @@ package com.obsinity.service.core.state.timeseries;
 
 import com.obsinity.service.core.counter.CounterBucket;
 import com.obsinity.service.core.repo.ObjectStateCountRepository;
+import com.obsinity.service.core.repo.ObjectStateCountRepository.StateCountSnapshot;
 import com.obsinity.service.core.repo.StateCountTimeseriesRepository;
+import com.obsinity.service.core.support.DataExtentRegistry;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Copies {@code object_state_counts} into {@code object_state_count_timeseries}.
+ *
+ * <p>Only counts whose {@code last_changed} moved since the previous run are written; readers forward-fill the
+ * gaps from the last row per state. A full keyframe of every count is written on the first run after startup and
+ * then every {@code keyframeInterval}, which bounds how far back readers have to look for a state's last value.
+ * Each service is paged separately in keyset batches of {@code batchSize} rows.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -23,30 +35,89 @@ public class StateCountTimeseriesJob {
     private final ObjectStateCountRepository stateCountRepository;
     private final StateCountTimeseriesRepository timeseriesRepository;
     private final Clock clock;
+    private final DataExtentRegistry extents;
 
     @Value("${obsinity.stateCounts.timeseries.enabled:true}")
     private boolean enabled;
 
+    @Value("${obsinity.stateCounts.timeseries.batchSize:5000}")
+    private int batchSize = 5000;
+
+    @Value("${obsinity.stateCounts.timeseries.keyframeInterval:PT1H}")
+    private Duration keyframeInterval = Duration.ofHours(1);
+
+    /** Re-reads changes this far before the previous run to cover clock skew and late-committing updates. */
+    @Value("${obsinity.stateCounts.timeseries.changeOverlap:PT1M}")
+    private Duration changeOverlap = Duration.ofMinutes(1);
+
+    private Instant lastRunStartedAt;
+    private Instant lastKeyframe;
+
     @Scheduled(fixedRateString = "${obsinity.stateCounts.timeseries.snapshotRateMillis:60000}")
-    public void snapshotCounts() {
+    public synchronized void snapshotCounts() {
         if (!enabled) {
             return;
         }
         Instant now = Instant.now(clock);
-        List<ObjectStateCountRepository.StateCountSnapshot> snapshots = stateCountRepository.snapshotAll();
-        if (snapshots.isEmpty()) {
-            return;
+        Instant aligned = BASE_BUCKET.align(now);
+        boolean keyframe = lastKeyframe == null
+                || lastRunStartedAt == null
+                || !aligned.isBefore(lastKeyframe.plus(keyframeInterval));
+        Instant changedSince = keyframe ? null : lastRunStartedAt.minus(changeOverlap);
+
+        int written = 0;
+        int failed = 0;
+        for (UUID serviceId : stateCountRepository.serviceIds()) {
+            try {
+                written += snapshotService(serviceId, aligned, changedSince);
+            } catch (RuntimeException ex) {
+                failed++;
+                log.warn("State count snapshot failed for service {}", serviceId, ex);
+            }
+        }
+        if (failed == 0) {
+            // Keep the old watermark after a failure so the next run re-reads the missed changes.
+            lastRunStartedAt = now;
+            if (keyframe) {
+                lastKeyframe = aligned;
+            }
         }
-        MATERIALISED_BUCKETS.forEach(bucket -> {
-            Instant aligned = bucket.align(now);
-            timeseriesRepository.upsertBatch(aligned, bucket, snapshots);
-        });
         if (log.isDebugEnabled()) {
             log.debug(
-                    "Recorded {} state count snapshots for {} buckets at {}",
-                    snapshots.size(),
+                    "Recorded {} state count snapshots ({}) for {} buckets at {}",
+                    written,
+                    keyframe ? "keyframe" : "changes since " + changedSince,
                     MATERIALISED_BUCKETS.size(),
-                    BASE_BUCKET.align(now));
+                    aligned);
+        }
+    }
+
+    private int snapshotService(UUID serviceId, Instant aligned, Instant changedSince) {
+        int written = 0;
+        StateCountSnapshot after = null;
+        while (true) {
+            List<StateCountSnapshot> page =
+                    stateCountRepository.snapshotPage(serviceId, changedSince, after, batchSize);
+            if (page.isEmpty()) {
+                return written;
+            }
+            MATERIALISED_BUCKETS.forEach(bucket -> {
+                Instant bucketTs = bucket.align(aligned);
+                timeseriesRepository.upsertBatch(bucketTs, bucket, page);
+                page.stream()
+                        .map(s -> DataExtentRegistry.key(
+                                DataExtentRegistry.STATE_COUNT_TIMESERIES,
+                                s.serviceId(),
+                                bucket,
+                                DataExtentRegistry.qualifier(s.objectType(), s.attribute())))
+                        .distinct()
+                        .forEach(key -> extents.record(key, bucketTs));
+            });
+            written += page.size();
+            if (page.size() < batchSize) {
+                return written;
+            }
+            after = page.get(page.size() - 1);
         }
     }
 }
@@ -1,16 +1,20 @@
 package com.obsinity.service.core.state.transition;
 
 import com.obsinity.service.core.counter.CounterGranularity;
+import com.obsinity.service.core.support.CardinalityLimiter;
 import java.util.EnumMap;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
- * In-memory buffer for state transition counts, modeled after counter buffers.
+ * In-memory buffer for state transition counts, modeled after counter buffers. Distinct (from, to) pairs per
+ * object type and attribute are capped by {@code obsinity.cardinality.stateTransitions.maxKeys}; pairs beyond the
+ * budget are counted as {@code __overflow__ -> __overflow__}.
  */
 @Component
 public class StateTransitionBuffer {
@@ -18,7 +22,18 @@ public class StateTransitionBuffer {
     private final EnumMap<CounterGranularity, ConcurrentMap<Long, ConcurrentMap<TransitionKey, BufferedEntry>>>
             buffers = new EnumMap<>(CounterGranularity.class);
 
+    private record TransitionScope(UUID serviceId, String objectType, String attribute) {}
+
+    private final CardinalityLimiter cardinality;
+
+    /** Buffer without cardinality budgets, for tests and embedded use. */
     public StateTransitionBuffer() {
+        this(CardinalityLimiter.unlimited());
+    }
+
+    @Autowired
+    public StateTransitionBuffer(CardinalityLimiter cardinality) {
+        this.cardinality = cardinality;
         for (CounterGranularity granularity : CounterGranularity.values()) {
             buffers.put(granularity, new ConcurrentHashMap<>());
         }
@@ -35,6 +50,16 @@ public class StateTransitionBuffer {
         if (serviceId == null || objectType == null || attribute == null || fromState == null || toState == null) {
             return;
         }
+        if (!cardinality.admit(
+                CardinalityLimiter.Kind.STATE_TRANSITION,
+                new TransitionScope(serviceId, objectType, attribute),
+                objectType + "." + attribute,
+                fromState + '\u0000' + toState,
+                null,
+                epoch)) {
+            fromState = CardinalityLimiter.OVERFLOW;
+            toState = CardinalityLimiter.OVERFLOW;
+        }
         TransitionKey key = new TransitionKey(serviceId, objectType, attribute, fromState, toState);
         ConcurrentMap<Long, ConcurrentMap<TransitionKey, BufferedEntry>> granularityBuffer = buffers.get(granularity);
         ConcurrentMap<TransitionKey, BufferedEntry> epochMap =
@@ -2,8 +2,10 @@ package com.obsinity.service.core.state.transition;
 
 import com.obsinity.service.core.config.PipelineProperties;
 import com.obsinity.service.core.counter.CounterGranularity;
+import com.obsinity.service.core.ingest.IngestPressureSource;
 import com.obsinity.service.core.state.transition.StateTransitionBuffer.TransitionKey;
 import com.obsinity.service.core.state.transition.StateTransitionPersistService.BatchItem;
+import com.obsinity.service.core.support.DataExtentRegistry;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.time.Instant;
@@ -20,11 +22,12 @@ import org.springframework.stereotype.Component;
 @Component
 @Slf4j
 @RequiredArgsConstructor
-public class StateTransitionPersistExecutor {
+public class StateTransitionPersistExecutor implements IngestPressureSource {
 
     private final StateTransitionPersistService persistService;
     private final StateTransitionBuffer buffer;
     private final PipelineProperties pipelineProperties;
+    private final DataExtentRegistry extents;
 
     private int queueCapacity;
 
@@ -49,6 +52,17 @@ public class StateTransitionPersistExecutor {
         log.info("State transition persist executor started workers={}, queueCapacity={}", workers, capacity);
     }
 
+    @Override
+    public String pressureName() {
+        return "state transition persist queue";
+    }
+
+    @Override
+    public double pressure() {
+        BlockingQueue<?> q = queue;
+        return q == null || queueCapacity <= 0 ? 0d : (double) q.size() / queueCapacity;
+    }
+
     @PreDestroy
     void stop() {
         if (executor != null) {
@@ -72,6 +86,12 @@ public class StateTransitionPersistExecutor {
                 activeJobs.incrementAndGet();
                 try {
                     persistService.persistBatch(job.granularity(), job.batch());
+                    Instant ts = Instant.ofEpochSecond(job.epoch());
+                    job.batch().stream()
+                            .map(BatchItem::serviceId)
+                            .distinct()
+                            .forEach(id -> extents.recordWrite(
+                                    DataExtentRegistry.STATE_TRANSITIONS, id, job.granularity(), ts));
                     for (BatchItem item : job.batch()) {
                         TransitionKey key = new TransitionKey(
                                 item.serviceId(),
@@ -0,0 +1,257 @@
+package com.obsinity.service.core.support;
+
+import com.obsinity.service.core.counter.CounterBucket;
+import com.obsinity.service.core.counter.CounterGranularity;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-metric key cardinality budgets for the aggregation buffers.
+ * <p>
+ * Each metric (counter, histogram, or state-transition attribute) may create at most {@code maxKeys} distinct keys
+ * per window. A window is the coarsest materialised rollup bucket (D7) containing the event's timestamp, not a
+ * wall-clock interval, so every rollup row of a metric, from S5 up to D7, holds at most {@code maxKeys} keys plus
+ * {@link #OVERFLOW}, and a key is never split between its own series and the overflow within any bucket. Keys
+ * admitted in the window keep their own series; any further key is refused and the caller folds it into
+ * {@link #OVERFLOW}, so buffer memory and rollup rows stay bounded when a key dimension turns out to be unbounded
+ * (user ids, raw URLs). A HyperLogLog sketch estimates how many distinct keys were actually offered, which together
+ * with the overflow rate is reported through {@link #stats()} and logged when a budget is exceeded.
+ * <p>
+ * Windows are kept until a full window after they end, so late events still meet their bucket's admitted set. An
+ * event for a window that has already been dropped starts a fresh one, the only way a bucket can exceed its budget.
+ * <p>
+ * Budgets default per kind ({@code obsinity.cardinality.<kind>.maxKeys}) and can be overridden per metric;
+ * {@code 0} disables the limit.
+ */
+@Component
+public class CardinalityLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(CardinalityLimiter.class);
+
+    /** Key value that absorbs everything beyond a metric's budget. */
+    public static final String OVERFLOW = "__overflow__";
+
+    public enum Kind {
+        COUNTER,
+        HISTOGRAM,
+        STATE_TRANSITION
+    }
+
+    /** Admission window: every counter, histogram and transition granularity materialises up to this bucket. */
+    static final CounterBucket WINDOW = Arrays.stream(CounterGranularity.values())
+            .flatMap(granularity -> granularity.materialisedBuckets().stream())
+            .max(Comparator.comparing(CounterBucket::duration))
+            .orElseThrow();
+
+    /** Windows tracked per metric; more only appear for far-off timestamps, and the oldest is dropped. */
+    private static final int MAX_WINDOWS = 4;
+
+    /** Current-window statistics of one metric. */
+    public record Stats(
+            Kind kind,
+            String scope,
+            int maxKeys,
+            int admittedKeys,
+            long estimatedKeys,
+            long events,
+            long overflowEvents,
+            double overflowRate) {}
+
+    private record ScopeKey(Kind kind, Object id) {}
+
+    private final EnumMap<Kind, Integer> defaults = new EnumMap<>(Kind.class);
+    private final LongSupplier clock;
+    private final ConcurrentMap<ScopeKey, Scope> scopes = new ConcurrentHashMap<>();
+
+    /** Limiter without budgets; every key is admitted. */
+    public static CardinalityLimiter unlimited() {
+        return new CardinalityLimiter(0, 0, 0, System::currentTimeMillis);
+    }
+
+    @Autowired
+    public CardinalityLimiter(
+            @Value("${obsinity.cardinality.counters.maxKeys:10000}") int counterMaxKeys,
+            @Value("${obsinity.cardinality.histograms.maxKeys:2000}") int histogramMaxKeys,
+            @Value("${obsinity.cardinality.stateTransitions.maxKeys:1000}") int transitionMaxKeys) {
+        this(counterMaxKeys, histogramMaxKeys, transitionMaxKeys, System::currentTimeMillis);
+    }
+
+    public CardinalityLimiter(int counterMaxKeys, int histogramMaxKeys, int transitionMaxKeys, LongSupplier clock) {
+        defaults.put(Kind.COUNTER, counterMaxKeys);
+        defaults.put(Kind.HISTOGRAM, histogramMaxKeys);
+        defaults.put(Kind.STATE_TRANSITION, transitionMaxKeys);
+        this.clock = clock;
+    }
+
+    /**
+     * Admits {@code key} for the metric identified by {@code scopeId}, or returns {@code false} when the key is new
+     * and the metric has used up its budget for the window containing {@code epochSecond}.
+     *
+     * @param scopeName human-readable metric name used in stats and logs
+     * @param maxKeys per-metric budget, or {@code null} for the kind's default
+     * @param epochSecond event time, usually its aligned bucket epoch
+     */
+    public boolean admit(Kind kind, Object scopeId, String scopeName, String key, Integer maxKeys, long epochSecond) {
+        int budget = maxKeys != null ? maxKeys : defaults.get(kind);
+        if (budget <= 0) {
+            return true;
+        }
+        Scope scope = scopes.computeIfAbsent(new ScopeKey(kind, scopeId), k -> new Scope(kind, scopeName));
+        scope.maxKeys = budget;
+        Window window = scope.window(windowStart(epochSecond));
+        window.events.increment();
+        window.offered.offer(key);
+        Set<String> admitted = window.admitted;
+        if (admitted.contains(key)) {
+            return true;
+        }
+        // The size check races with concurrent adds; overshooting by a few keys is harmless.
+        if (admitted.size() < budget) {
+            admitted.add(key);
+            return true;
+        }
+        window.overflowEvents.increment();
+        return false;
+    }
+
+    private static long windowStart(long epochSecond) {
+        return WINDOW.align(Instant.ofEpochSecond(epochSecond)).getEpochSecond();
+    }
+
+    /**
+     * The overflow key of a metric: every dimension of {@code keyData} set to {@link #OVERFLOW}. Metrics with the same
+     * dimensions get the same key, so buffers must keep overflow entries apart by metric id.
+     */
+    public static Map<String, String> overflowKey(Map<String, String> keyData) {
+        Map<String, String> overflow = new LinkedHashMap<>();
+        if (keyData != null) {
+            keyData.keySet().forEach(dimension -> overflow.put(dimension, OVERFLOW));
+        }
+        return overflow;
+    }
+
+    /** Statistics of every limited metric for its current window, highest overflow rate first. */
+    public List<Stats> stats() {
+        long current = windowStart(clock.getAsLong() / 1000L);
+        List<Stats> result = new ArrayList<>(scopes.size());
+        for (Scope scope : scopes.values()) {
+            Window window = scope.reported(current);
+            if (window != null) {
+                result.add(window.stats(scope));
+            }
+        }
+        result.sort(Comparator.comparingDouble(Stats::overflowRate).reversed().thenComparing(Stats::scope));
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${obsinity.cardinality.report.ms:60000}")
+    public void report() {
+        long current = windowStart(clock.getAsLong() / 1000L);
+        long windowSeconds = WINDOW.duration().toSeconds();
+        for (Map.Entry<ScopeKey, Scope> entry : scopes.entrySet()) {
+            Scope scope = entry.getValue();
+            // Windows that ended a full window ago no longer receive late events; metrics left without any
+            // (e.g. removed from config) are forgotten.
+            scope.windows.headMap(current - windowSeconds).clear();
+            if (scope.windows.isEmpty()) {
+                scopes.remove(entry.getKey(), scope);
+                continue;
+            }
+            Window window = scope.reported(current);
+            if (window == null) {
+                continue;
+            }
+            long overflow = window.overflowEvents.sum();
+            if (overflow > window.reportedOverflow) {
+                window.reportedOverflow = overflow;
+                Stats stats = window.stats(scope);
+                log.warn(
+                        "{} '{}' exceeded its cardinality budget: {} keys admitted, ~{} offered, {} events folded"
+                                + " into {} ({}%)",
+                        scope.kind.name().toLowerCase(Locale.ROOT).replace('_', ' '),
+                        scope.name,
+                        stats.admittedKeys(),
+                        stats.estimatedKeys(),
+                        overflow,
+                        OVERFLOW,
+                        String.format(Locale.ROOT, "%.1f", stats.overflowRate() * 100d));
+            }
+        }
+    }
+
+    private static final class Scope {
+        private final Kind kind;
+        private final String name;
+        private volatile int maxKeys;
+        private final ConcurrentSkipListMap<Long, Window> windows = new ConcurrentSkipListMap<>();
+
+        private Scope(Kind kind, String name) {
+            this.kind = kind;
+            this.name = name;
+        }
+
+        private Window window(long start) {
+            Window window = windows.get(start);
+            if (window != null) {
+                return window;
+            }
+            synchronized (this) {
+                window = windows.computeIfAbsent(start, ignored -> new Window());
+                while (windows.size() > MAX_WINDOWS) {
+                    windows.pollFirstEntry();
+                }
+                return window;
+            }
+        }
+
+        /** The window of {@code current}, or the newest one before it when the metric saw no events yet. */
+        private Window reported(long current) {
+            Map.Entry<Long, Window> entry = windows.floorEntry(current);
+            if (entry == null) {
+                entry = windows.firstEntry();
+            }
+            return entry != null ? entry.getValue() : null;
+        }
+    }
+
+    private static final class Window {
+        private final Set<String> admitted = ConcurrentHashMap.newKeySet();
+        private final HyperLogLog offered = new HyperLogLog();
+        private final LongAdder events = new LongAdder();
+        private final LongAdder overflowEvents = new LongAdder();
+        private volatile long reportedOverflow;
+
+        private Stats stats(Scope scope) {
+            long total = events.sum();
+            long overflow = overflowEvents.sum();
+            return new Stats(
+                    scope.kind,
+                    scope.name,
+                    scope.maxKeys,
+                    admitted.size(),
+                    Math.max(admitted.size(), offered.estimate()),
+                    total,
+                    overflow,
+                    total == 0 ? 0d : (double) overflow / total);
+        }
+    }
+}
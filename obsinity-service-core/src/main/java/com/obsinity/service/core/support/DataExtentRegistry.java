@@ -0,0 +1,172 @@
+package com.obsinity.service.core.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.obsinity.service.core.counter.CounterBucket;
+import com.obsinity.service.core.counter.CounterGranularity;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory earliest/latest {@code ts} per (table, config or service, bucket[, qualifier]) so query services can
+ * derive default ranges without {@code MIN(ts)}/{@code MAX(ts)} probes across every range partition.
+ *
+ * <p>Extents are seeded lazily from Postgres the first time a key is queried and then widened by the persist
+ * executors after every successful write. Keys that are never queried are not tracked. A placeholder is
+ * registered <em>before</em> seeding, so writes racing with the seed query are still captured. Entries are
+ * re-seeded after {@code obsinity.query.extents.refresh} (picks up writes from other replicas and retention
+ * drops); {@link #invalidateAll()} forces that immediately. A re-seed replaces the bounds, widened only by writes
+ * recorded while its query was running, so {@code earliest} moves forward once old partitions are dropped.
+ *
+ * <p>Keys can carry request-supplied qualifiers (objectType/attribute), so at most
+ * {@code obsinity.query.extents.maxKeys} are kept and keys not queried for {@code obsinity.query.extents.idle} are
+ * evicted.
+ */
+@Component
+public class DataExtentRegistry {
+
+    public static final String EVENT_COUNTS = "event_counts";
+    public static final String EVENT_HISTOGRAMS = "event_histograms";
+    public static final String STATE_TRANSITIONS = "object_state_transitions";
+    public static final String STATE_COUNT_TIMESERIES = "object_state_count_timeseries";
+
+    private final Cache<ExtentKey, Entry> extents;
+    private final long refreshNanos;
+
+    public DataExtentRegistry() {
+        this(Duration.ofMinutes(5));
+    }
+
+    public DataExtentRegistry(Duration refresh) {
+        this(refresh, 10_000, Duration.ofHours(1));
+    }
+
+    @Autowired
+    public DataExtentRegistry(
+            @Value("${obsinity.query.extents.refresh:PT5M}") Duration refresh,
+            @Value("${obsinity.query.extents.maxKeys:10000}") long maxKeys,
+            @Value("${obsinity.query.extents.idle:PT1H}") Duration idle) {
+        this.refreshNanos = refresh.toNanos();
+        this.extents = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idle)
+                .build();
+    }
+
+    public static ExtentKey key(String table, UUID scopeId, CounterBucket bucket) {
+        return new ExtentKey(table, scopeId, bucket.label(), null);
+    }
+
+    public static ExtentKey key(String table, UUID scopeId, CounterBucket bucket, String qualifier) {
+        return new ExtentKey(table, scopeId, bucket.label(), qualifier);
+    }
+
+    /** Qualifier for keys that are narrower than a service, e.g. one objectType/attribute pair. */
+    public static String qualifier(String... parts) {
+        return String.join("\u0000", parts);
+    }
+
+    /** Current extent for a key, running {@code seed} (the database probe) only when the key is cold or stale. */
+    public Extent extent(ExtentKey key, Supplier<Extent> seed) {
+        Entry entry = extents.get(key, k -> new Entry());
+        long now = System.nanoTime();
+        if (entry.seededAt == 0L || now - entry.seededAt > refreshNanos) {
+            // Separate monitor: writes keep widening (without blocking on the probe) while the seed query runs.
+            synchronized (entry.seedLock) {
+                if (entry.seededAt == 0L || now - entry.seededAt > refreshNanos) {
+                    entry.beginSeed();
+                    Extent loaded;
+                    try {
+                        loaded = seed.get();
+                    } catch (RuntimeException ex) {
+                        entry.abortSeed();
+                        throw ex;
+                    }
+                    entry.reset(loaded);
+                    entry.seededAt = Math.max(1L, System.nanoTime());
+                }
+            }
+        }
+        return entry.snapshot();
+    }
+
+    /** Widens a tracked extent after a successful write; untracked keys are ignored. */
+    public void record(ExtentKey key, Instant earliest, Instant latest) {
+        Entry entry = extents.getIfPresent(key);
+        if (entry != null) {
+            entry.widen(earliest, latest);
+        }
+    }
+
+    public void record(ExtentKey key, Instant ts) {
+        record(key, ts, ts);
+    }
+
+    /** Records a flush at {@code ts} into every bucket the granularity materialises. */
+    public void recordWrite(String table, UUID scopeId, CounterGranularity granularity, Instant ts) {
+        for (CounterBucket bucket : granularity.materialisedBuckets()) {
+            record(key(table, scopeId, bucket), bucket.align(ts));
+        }
+    }
+
+    /** Forces every key to be re-seeded on its next query. */
+    public void invalidateAll() {
+        extents.invalidateAll();
+    }
+
+    public record ExtentKey(String table, UUID scopeId, String bucket, String qualifier) {}
+
+    /** Earliest and latest stored {@code ts}; both {@code null} when there is no data. */
+    public record Extent(Instant earliest, Instant latest) {
+        public static final Extent EMPTY = new Extent(null, null);
+    }
+
+    private static final class Entry {
+        private Instant earliest;
+        private Instant latest;
+        private final Object seedLock = new Object();
+        private volatile long seededAt;
+        // Writes recorded while a seed query is in flight; null when not seeding.
+        private Extent pending;
+
+        synchronized void beginSeed() {
+            pending = Extent.EMPTY;
+        }
+
+        synchronized void abortSeed() {
+            pending = null;
+        }
+
+        /** Replaces the bounds with the seed, keeping only what was recorded while the seed query ran. */
+        synchronized void reset(Extent seed) {
+            Extent during = pending != null ? pending : Extent.EMPTY;
+            pending = null;
+            earliest = seed.earliest();
+            latest = seed.latest();
+            widen(during.earliest(), during.latest());
+        }
+
+        synchronized void widen(Instant from, Instant to) {
+            if (from != null && (earliest == null || from.isBefore(earliest))) earliest = from;
+            if (to != null && (latest == null || to.isAfter(latest))) latest = to;
+            if (pending != null) {
+                pending = new Extent(
+                        from != null && (pending.earliest() == null || from.isBefore(pending.earliest()))
+                                ? from
+                                : pending.earliest(),
+                        to != null && (pending.latest() == null || to.isAfter(pending.latest()))
+                                ? to
+                                : pending.latest());
+            }
+        }
+
+        synchronized Extent snapshot() {
+            return new Extent(earliest, latest);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.obsinity.service.core.support;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Orders rollup commits against queries that merge persisted rows with data still held in memory.
+ * <p>
+ * A flushed batch is in the database and in memory at once from its commit until the in-memory copy is released.
+ * Writers register that release with {@link #onCommit} inside the transaction; it runs under the exclusive lock,
+ * taken just before the commit and held until the release is done. A reader that holds {@link #read} across its
+ * in-memory lookup and its database read therefore sees a batch on exactly one side. Readers wait at most for a
+ * commit round trip, never for the writes before it, and a writer waits at most for one query statement.
+ */
+public final class PersistGate {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
+
+    /** Runs {@code read} while no commit can become visible. */
+    public <T> T read(Supplier<T> read) {
+        Lock shared = lock.readLock();
+        shared.lock();
+        try {
+            return read.get();
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    /** Runs {@code action} while no reader is between its in-memory lookup and its database read. */
+    public void exclusive(Runnable action) {
+        Lock exclusive = lock.writeLock();
+        exclusive.lock();
+        try {
+            action.run();
+        } finally {
+            exclusive.unlock();
+        }
+    }
+
+    /**
+     * Runs {@code release} together with the commit of the current transaction, or right away under the exclusive
+     * lock when no transaction synchronization is active (statements have then already committed). Nothing runs when
+     * the transaction rolls back.
+     */
+    public void onCommit(Runnable release) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            exclusive(release);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean locked;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                lock.writeLock().lock();
+                locked = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!locked) {
+                    return;
+                }
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        release.run();
+                    }
+                } finally {
+                    locked = false;
+                    lock.writeLock().unlock();
+                }
+            }
+        });
+    }
+}
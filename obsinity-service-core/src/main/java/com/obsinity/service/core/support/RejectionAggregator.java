@@ -0,0 +1,82 @@
+package com.obsinity.service.core.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory aggregation of rejected events between flushes.
+ * <p>
+ * Repeated rejections with the same key only bump a counter; the first {@code samplesPerKey} of each flush
+ * interval keep a sample (built lazily, so payload serialization is skipped once a key is saturated). At most
+ * {@code maxKeys} keys are tracked; rejections for new keys beyond that are counted as shed and dropped, so the
+ * ingest thread never blocks and memory stays bounded no matter how fast a producer misbehaves.
+ *
+ * @param <K> aggregation key, e.g. (service, event type, reason)
+ * @param <S> retained sample
+ */
+public final class RejectionAggregator<K, S> {
+
+    /** Everything recorded for one key since the previous drain. */
+    public record Aggregate<K, S>(K key, long count, List<S> samples) {}
+
+    private static final class Slot<S> {
+        long count;
+        final List<S> samples = new ArrayList<>(2);
+    }
+
+    private final ConcurrentHashMap<K, Slot<S>> slots = new ConcurrentHashMap<>();
+    private final AtomicLong shed = new AtomicLong();
+    private final int maxKeys;
+    private final int samplesPerKey;
+
+    public RejectionAggregator(int maxKeys, int samplesPerKey) {
+        this.maxKeys = Math.max(1, maxKeys);
+        this.samplesPerKey = Math.max(1, samplesPerKey);
+    }
+
+    /**
+     * Records one rejection. Returns {@code false} when it was shed because the key table is full.
+     */
+    public boolean offer(K key, Supplier<S> sample) {
+        if (slots.size() >= maxKeys && !slots.containsKey(key)) {
+            shed.incrementAndGet();
+            return false;
+        }
+        slots.compute(key, (k, slot) -> {
+            Slot<S> s = slot != null ? slot : new Slot<>();
+            s.count++;
+            if (s.samples.size() < samplesPerKey) {
+                s.samples.add(sample.get());
+            }
+            return s;
+        });
+        return true;
+    }
+
+    /**
+     * Removes and returns everything recorded so far. Each key is removed atomically, so a concurrent
+     * {@link #offer} either lands in this drain or starts a fresh slot for the next one.
+     */
+    public List<Aggregate<K, S>> drain() {
+        List<Aggregate<K, S>> out = new ArrayList<>(slots.size());
+        for (K key : slots.keySet()) {
+            Slot<S> slot = slots.remove(key);
+            if (slot != null) {
+                out.add(new Aggregate<>(key, slot.count, List.copyOf(slot.samples)));
+            }
+        }
+        return out;
+    }
+
+    /** Returns and resets the number of rejections dropped since the previous call. */
+    public long drainShed() {
+        return shed.getAndSet(0);
+    }
+
+    public boolean isEmpty() {
+        return slots.isEmpty();
+    }
+}
@@ -0,0 +1,134 @@
+package com.obsinity.service.core.support;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Writes drained {@link RejectionAggregator} samples into a rejection table with chunked multi-row inserts.
+ * <p>
+ * Every row gets a random {@code id} and an {@code occurrences} count; the first row of each aggregate also carries
+ * the repetitions that were counted but not sampled, so {@code sum(occurrences)} is the number of rejections. The
+ * remaining columns are bound per sample by a {@link RowBinder}. Failed chunks are logged and dropped rather than
+ * retried: a failing sink must not turn into a retry storm during an incident.
+ *
+ * @param <K> aggregation key
+ * @param <S> retained sample
+ */
+public final class RejectionBatchWriter<K, S> {
+
+    private static final Logger log = LoggerFactory.getLogger(RejectionBatchWriter.class);
+
+    /** A bound column; {@code jsonb} columns are sent as text and cast in the statement. */
+    public record Column(String name, boolean text, boolean jsonb) {
+
+        public static Column of(String name) {
+            return new Column(name, false, false);
+        }
+
+        public static Column text(String name) {
+            return new Column(name, true, false);
+        }
+
+        public static Column jsonb(String name) {
+            return new Column(name, true, true);
+        }
+    }
+
+    /** Values of the bound columns for one sample, in column order. */
+    @FunctionalInterface
+    public interface RowBinder<K, S> {
+        Object[] values(K key, S sample);
+    }
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final String table;
+    private final List<Column> columns;
+    private final RowBinder<K, S> binder;
+    private final int batchRows;
+    private final String insertPrefix;
+
+    public RejectionBatchWriter(
+            NamedParameterJdbcTemplate jdbc,
+            String table,
+            List<Column> columns,
+            RowBinder<K, S> binder,
+            int batchRows) {
+        this.jdbc = jdbc;
+        this.table = table;
+        this.columns = List.copyOf(columns);
+        this.binder = binder;
+        this.batchRows = Math.max(1, batchRows);
+        StringBuilder prefix = new StringBuilder("insert into ").append(table).append("(id");
+        for (Column column : this.columns) {
+            prefix.append(", ").append(column.name());
+        }
+        this.insertPrefix = prefix.append(", occurrences) values ").toString();
+    }
+
+    /** Writes every retained sample of {@code aggregates}, {@code batchRows} rows per statement. */
+    public void write(List<RejectionAggregator.Aggregate<K, S>> aggregates) {
+        StringBuilder sql = new StringBuilder(insertPrefix);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        int rows = 0;
+        for (RejectionAggregator.Aggregate<K, S> aggregate : aggregates) {
+            long unsampled = aggregate.count() - aggregate.samples().size();
+            for (S sample : aggregate.samples()) {
+                appendRow(sql, params, rows, aggregate.key(), sample, 1L + unsampled);
+                unsampled = 0;
+                if (++rows == batchRows) {
+                    execute(sql.toString(), params, rows);
+                    sql.setLength(0);
+                    sql.append(insertPrefix);
+                    params = new MapSqlParameterSource();
+                    rows = 0;
+                }
+            }
+        }
+        if (rows > 0) {
+            execute(sql.toString(), params, rows);
+        }
+    }
+
+    private void appendRow(StringBuilder sql, MapSqlParameterSource params, int row, K key, S sample, long occ) {
+        String i = Integer.toString(row);
+        Object[] values = binder.values(key, sample);
+        if (values.length != columns.size()) {
+            throw new IllegalStateException("Binder for " + table + " returned " + values.length + " values for "
+                    + columns.size() + " columns");
+        }
+        if (row > 0) sql.append(", ");
+        sql.append("(:id").append(i);
+        params.addValue("id" + i, UUID.randomUUID());
+        for (int c = 0; c < values.length; c++) {
+            Column column = columns.get(c);
+            String param = column.name() + i;
+            sql.append(", ");
+            if (column.jsonb()) {
+                sql.append("cast(:").append(param).append(" as jsonb)");
+            } else {
+                sql.append(':').append(param);
+            }
+            if (column.text()) {
+                params.addValue(param, values[c], Types.VARCHAR);
+            } else {
+                params.addValue(param, values[c]);
+            }
+        }
+        sql.append(", :occurrences").append(i).append(')');
+        params.addValue("occurrences" + i, occ);
+    }
+
+    private void execute(String sql, MapSqlParameterSource params, int rows) {
+        try {
+            jdbc.update(sql, params);
+        } catch (DataAccessException ex) {
+            log.error("Failed to persist {} rows into {}", rows, table, ex);
+        }
+    }
+}
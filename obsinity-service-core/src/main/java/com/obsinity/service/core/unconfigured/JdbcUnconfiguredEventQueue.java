@@ -2,48 +2,75 @@ package com.obsinity.service.core.unconfigured;
 
 import com.obsinity.service.core.impl.JsonUtil;
 import com.obsinity.service.core.model.EventEnvelope;
-import java.sql.Types;
-import java.util.UUID;
+import com.obsinity.service.core.support.RejectionAggregator;
+import com.obsinity.service.core.support.RejectionBatchWriter;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.dao.DataAccessException;
-import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Buffers unconfigured events per (service, event type, reason) and writes them asynchronously.
+ * <p>
+ * {@link #publish} only updates an in-memory aggregate; {@link #flush()} runs on the scheduler and writes the
+ * retained samples through a {@link RejectionBatchWriter}, so {@code sum(occurrences)} is the number of rejections.
+ */
 @Component
 public class JdbcUnconfiguredEventQueue implements UnconfiguredEventQueue {
 
     private static final Logger log = LoggerFactory.getLogger(JdbcUnconfiguredEventQueue.class);
-    private static final String INSERT_SQL =
-            """
-        insert into event_unconfigured_events(
-              id, service_key, event_type, event_id, reason, error, payload
-        ) values (
-              :id, :service_key, :event_type, :event_id, :reason, :error, cast(:payload as jsonb)
-        )
-        """;
-
-    private final NamedParameterJdbcTemplate jdbc;
-
-    public JdbcUnconfiguredEventQueue(NamedParameterJdbcTemplate jdbc) {
-        this.jdbc = jdbc;
+    private static final List<RejectionBatchWriter.Column> COLUMNS = List.of(
+            RejectionBatchWriter.Column.of("service_key"),
+            RejectionBatchWriter.Column.of("event_type"),
+            RejectionBatchWriter.Column.of("event_id"),
+            RejectionBatchWriter.Column.of("reason"),
+            RejectionBatchWriter.Column.of("error"),
+            RejectionBatchWriter.Column.jsonb("payload"));
+
+    record Key(String serviceKey, String eventType, String reason) {}
+
+    record Sample(String eventId, String detail, String payload) {}
+
+    private final RejectionAggregator<Key, Sample> pending;
+    private final RejectionBatchWriter<Key, Sample> writer;
+
+    public JdbcUnconfiguredEventQueue(
+            NamedParameterJdbcTemplate jdbc,
+            @Value("${obsinity.ingest.rejections.maxKeys:1000}") int maxKeys,
+            @Value("${obsinity.ingest.rejections.samplesPerKey:3}") int samplesPerKey,
+            @Value("${obsinity.ingest.rejections.batchRows:500}") int batchRows) {
+        this.pending = new RejectionAggregator<>(maxKeys, samplesPerKey);
+        this.writer = new RejectionBatchWriter<>(
+                jdbc,
+                "event_unconfigured_events",
+                COLUMNS,
+                (key, sample) -> new Object[] {
+                    key.serviceKey(), key.eventType(), sample.eventId(), key.reason(), sample.detail(), sample.payload()
+                },
+                batchRows);
     }
 
     @Override
     public void publish(EventEnvelope envelope, String reason, String detail) {
-        try {
-            MapSqlParameterSource params = new MapSqlParameterSource()
-                    .addValue("id", UUID.randomUUID())
-                    .addValue("service_key", envelope.getServiceId())
-                    .addValue("event_type", envelope.getName())
-                    .addValue("event_id", envelope.getEventId())
-                    .addValue("reason", reason)
-                    .addValue("error", detail)
-                    .addValue("payload", JsonUtil.toJson(envelope), Types.VARCHAR);
-            jdbc.update(INSERT_SQL, params);
-        } catch (DataAccessException ex) {
-            log.error("Failed to persist event into unconfigured event queue: {}", reason, ex);
+        Key key = new Key(envelope.getServiceId(), envelope.getName(), reason);
+        pending.offer(key, () -> new Sample(envelope.getEventId(), detail, JsonUtil.toJson(envelope)));
+    }
+
+    @Scheduled(fixedDelayString = "${obsinity.ingest.rejections.flush.ms:1000}")
+    public void flush() {
+        long shed = pending.drainShed();
+        if (shed > 0) {
+            log.warn("Unconfigured event queue full; shed {} rejected events", shed);
         }
+        writer.write(pending.drain());
+    }
+
+    @PreDestroy
+    void stop() {
+        flush();
     }
 }
@@ -0,0 +1,63 @@
+-- ================================================
+-- Heavy-hitter summaries per counter rollup
+-- ================================================
+-- One bounded Space-Saving summary per (ts, bucket, counter_config_id), merged on every counter flush.
+-- Laid out like event_counts (LIST by bucket, weekly RANGE by ts) so retention drops it with the same policy.
+CREATE TABLE IF NOT EXISTS obsinity.event_count_topk (
+  ts                TIMESTAMPTZ NOT NULL,
+  bucket            VARCHAR(10) NOT NULL,
+  counter_config_id UUID        NOT NULL,
+  event_type_id     UUID        NOT NULL,
+  summary           JSONB       NOT NULL,
+  PRIMARY KEY (ts, bucket, counter_config_id)
+)
+PARTITION BY LIST (bucket);
+
+DO $$
+DECLARE
+    start_date DATE := DATE '2025-01-01';
+    end_date   DATE := DATE '2027-01-01';
+    week_start DATE;
+    week_end   DATE;
+    bucket_name TEXT;
+    parent_table TEXT;
+    partition_name TEXT;
+BEGIN
+    FOR bucket_name IN SELECT unnested FROM unnest(ARRAY['S5','M1','M5','H1','D1','D7']) AS unnested LOOP
+        parent_table := format('event_count_topk_%s', lower(bucket_name));
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS obsinity.%I
+             PARTITION OF obsinity.event_count_topk
+             FOR VALUES IN (''%s'')
+             PARTITION BY RANGE (ts);',
+            parent_table,
+            bucket_name
+        );
+    END LOOP;
+
+    week_start := start_date;
+    WHILE week_start < end_date LOOP
+        week_end := week_start + INTERVAL '7 days';
+
+        FOR bucket_name IN SELECT unnested FROM unnest(ARRAY['S5','M1','M5','H1','D1','D7']) AS unnested LOOP
+            parent_table := format('event_count_topk_%s', lower(bucket_name));
+            partition_name := format(
+                'event_count_topk_%s_%s',
+                to_char(week_start, 'IYYY_IW'),
+                lower(bucket_name)
+            );
+
+            EXECUTE format(
+                'CREATE UNLOGGED TABLE IF NOT EXISTS obsinity.%I
+                 PARTITION OF obsinity.%I
+                 FOR VALUES FROM (TIMESTAMPTZ %L) TO (TIMESTAMPTZ %L);',
+                partition_name,
+                parent_table,
+                week_start,
+                week_end
+            );
+        END LOOP;
+
+        week_start := week_end;
+    END LOOP;
+END $$;
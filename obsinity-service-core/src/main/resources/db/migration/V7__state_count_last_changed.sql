@@ -0,0 +1,8 @@
+-- Change tracking for state count snapshots: the timeseries job only copies rows whose
+-- count changed since its previous run (plus a periodic full keyframe per service).
+
+ALTER TABLE obsinity.object_state_counts
+    ADD COLUMN IF NOT EXISTS last_changed TIMESTAMPTZ NOT NULL DEFAULT now();
+
+CREATE INDEX IF NOT EXISTS ix_object_state_counts_service_last_changed
+    ON obsinity.object_state_counts (service_id, last_changed);
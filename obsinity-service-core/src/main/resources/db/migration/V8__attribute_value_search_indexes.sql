@@ -0,0 +1,22 @@
+-- Attribute value lookups for the catalog API and Grafana label-value dropdowns.
+-- 1) Unfiltered listing: top-N by seen_count straight from an index instead of sorting every value.
+-- 2) Prefix/substring ILIKE: trigram GIN index when pg_trgm is available. The extension is optional;
+--    without it (or without the privilege to create it) the migration only logs a notice.
+
+CREATE INDEX IF NOT EXISTS ix_attr_distinct_service_attr_seen
+    ON obsinity.attribute_distinct_values (service_partition_key, attr_name, seen_count DESC, attr_value);
+
+DO $$
+BEGIN
+    BEGIN
+        CREATE EXTENSION IF NOT EXISTS pg_trgm;
+    EXCEPTION WHEN OTHERS THEN
+        RAISE NOTICE 'pg_trgm unavailable (%); attribute value ILIKE searches stay unindexed', SQLERRM;
+    END;
+
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm') THEN
+        EXECUTE 'CREATE INDEX IF NOT EXISTS ix_attr_distinct_value_trgm '
+             || 'ON obsinity.attribute_distinct_values USING gin (attr_value gin_trgm_ops)';
+    END IF;
+END
+$$;
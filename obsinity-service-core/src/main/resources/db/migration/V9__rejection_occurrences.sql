@@ -0,0 +1,9 @@
+-- Rejected events are aggregated in memory per (service, event type, reason) / (source, reason) and only a few
+-- sample payloads are written per flush. The first sample row of each aggregate carries the repetitions that
+-- were counted but not stored, so sum(occurrences) still equals the number of rejections.
+
+ALTER TABLE obsinity.event_unconfigured_events
+    ADD COLUMN IF NOT EXISTS occurrences BIGINT NOT NULL DEFAULT 1;
+
+ALTER TABLE obsinity.event_ingest_dead_letters
+    ADD COLUMN IF NOT EXISTS occurrences BIGINT NOT NULL DEFAULT 1;
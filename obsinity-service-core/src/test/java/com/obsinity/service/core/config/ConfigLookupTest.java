@@ -0,0 +1,80 @@
+package com.obsinity.service.core.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConfigLookupTest {
+
+    private static final UUID SERVICE_ID = UUID.fromString("00000000-0000-0000-0000-0000000000bb");
+
+    private final ConfigRegistry registry = new ConfigRegistry();
+    private final ConfigLookup lookup = new ConfigLookup(registry);
+
+    private EventTypeConfig paymentCompleted;
+    private StateExtractorDefinition userExtractor;
+
+    @BeforeEach
+    void setUp() {
+        paymentCompleted = new EventTypeConfig(
+                UUID.randomUUID(),
+                "Payment.Completed",
+                "payment.completed",
+                null,
+                null,
+                Instant.EPOCH,
+                List.of(),
+                List.of(),
+                List.of());
+        userExtractor = new StateExtractorDefinition("User.Updated", "User", "id", List.of("status"), List.of());
+        ServiceConfig svc = new ServiceConfig(
+                SERVICE_ID,
+                "payments",
+                Instant.EPOCH,
+                Map.of("Payment.Completed", paymentCompleted),
+                List.of(userExtractor),
+                Map.of());
+        registry.swap(new RegistrySnapshot(Map.of(SERVICE_ID, svc), Instant.EPOCH));
+    }
+
+    @Test
+    void resolvesEventTypesByExactOrNormalizedName() {
+        assertThat(lookup.get(SERVICE_ID, "Payment.Completed")).containsSame(paymentCompleted);
+        assertThat(lookup.get(SERVICE_ID, "payment.completed")).containsSame(paymentCompleted);
+        assertThat(lookup.get(SERVICE_ID, "PAYMENT.COMPLETED")).containsSame(paymentCompleted);
+        assertThat(lookup.get(SERVICE_ID, "payment.failed")).isEmpty();
+        assertThat(lookup.get(UUID.randomUUID(), "payment.completed")).isEmpty();
+    }
+
+    @Test
+    void returnsSharedExtractorListsPerRawType() {
+        List<StateExtractorDefinition> first = lookup.stateExtractors(SERVICE_ID, "user.updated");
+        assertThat(first).containsExactly(userExtractor);
+        assertThat(lookup.stateExtractors(SERVICE_ID, "User.Updated")).isSameAs(first);
+        assertThat(lookup.stateExtractors(SERVICE_ID, "order.created")).isEmpty();
+        assertThat(lookup.stateExtractors(SERVICE_ID, null)).containsExactly(userExtractor);
+    }
+
+    @Test
+    void skipsNullExtractorsAndRatioQueries() {
+        List<StateExtractorDefinition> extractors = new ArrayList<>();
+        extractors.add(null);
+        extractors.add(userExtractor);
+        Map<String, RatioQueryDefinition> ratios = new HashMap<>();
+        ratios.put("missing", null);
+        ServiceConfig svc = new ServiceConfig(SERVICE_ID, "payments", Instant.EPOCH, Map.of(), extractors, ratios);
+        registry.swap(new RegistrySnapshot(Map.of(SERVICE_ID, svc), Instant.EPOCH));
+
+        assertThat(lookup.stateExtractors(SERVICE_ID, null)).containsExactly(userExtractor);
+        assertThat(lookup.stateExtractors(SERVICE_ID, "user.updated")).containsExactly(userExtractor);
+        assertThat(lookup.ratioQuery(SERVICE_ID, "missing")).isEmpty();
+        assertThat(ratios).containsKey("missing");
+    }
+}
@@ -0,0 +1,87 @@
+package com.obsinity.service.core.config.init;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.obsinity.service.core.config.ConfigRegistry;
+import com.obsinity.service.core.config.RegistrySnapshot;
+import com.obsinity.service.core.config.ServiceConfig;
+import com.obsinity.service.core.repo.ServicesCatalogRepository;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConfigInitCoordinatorTest {
+
+    private static final UUID SERVICE_ID = UUID.fromString("00000000-0000-0000-0000-0000000000aa");
+
+    @TempDir
+    Path dir;
+
+    private ServicesCatalogRepository servicesRepo;
+    private ConfigRegistry registry;
+    private ConfigInitCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        servicesRepo = mock(ServicesCatalogRepository.class);
+        when(servicesRepo.findIdByServiceKey("payments")).thenReturn(SERVICE_ID);
+        registry = new ConfigRegistry();
+        writeEvent("payment.completed");
+        coordinator = new ConfigInitCoordinator(
+                servicesRepo, registry, new ObjectMapper(), true, "file:" + dir.toAbsolutePath() + "/", false);
+    }
+
+    @Test
+    void reusesUnchangedServiceConfigWithoutTouchingTheCatalog() {
+        coordinator.scheduled();
+        RegistrySnapshot first = registry.current();
+        ServiceConfig loaded = first.services().get(SERVICE_ID);
+        assertThat(loaded.eventTypes()).containsKey("payment.completed");
+
+        coordinator.scheduled();
+
+        assertThat(registry.current()).isSameAs(first);
+        verify(servicesRepo, times(1)).upsertService(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void rematerializesOnlyWhenDefinitionContentChanges() throws Exception {
+        coordinator.scheduled();
+        ServiceConfig before = registry.current().services().get(SERVICE_ID);
+
+        writeEvent("payment.refunded");
+        coordinator.scheduled();
+
+        ServiceConfig after = registry.current().services().get(SERVICE_ID);
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.eventTypes()).containsKey("payment.refunded");
+        verify(servicesRepo, times(2)).upsertService(anyString(), anyString(), anyString());
+    }
+
+    private void writeEvent(String name) throws Exception {
+        Files.writeString(
+                dir.resolve("event.yaml"),
+                """
+                apiVersion: obsinity/v1
+                kind: Event
+                metadata:
+                  service: payments
+                  name: %s
+                spec:
+                  schema:
+                    type: object
+                    properties:
+                      outcome: { type: string, index: true }
+                """
+                        .formatted(name));
+    }
+}
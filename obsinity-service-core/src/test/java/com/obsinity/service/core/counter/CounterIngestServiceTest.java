@@ -0,0 +1,71 @@
+package com.obsinity.service.core.counter;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.obsinity.flow.model.FlowEvent;
+import com.obsinity.service.core.config.CounterConfig;
+import com.obsinity.service.core.config.EventTypeConfig;
+import com.obsinity.service.core.model.EventEnvelope;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class CounterIngestServiceTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void sampleWeightIsClampedToTheConfiguredMaximum() {
+        CounterBuffer buffer = mock(CounterBuffer.class);
+        CounterIngestService service = new CounterIngestService(buffer);
+
+        CounterConfig counter = new CounterConfig(
+                UUID.randomUUID(),
+                "requests",
+                CounterGranularity.S5,
+                List.of("http.method"),
+                MAPPER.createObjectNode(),
+                MAPPER.createObjectNode());
+        EventTypeConfig eventConfig = new EventTypeConfig(
+                UUID.randomUUID(),
+                "checkout",
+                "checkout",
+                null,
+                null,
+                Instant.now(),
+                List.of(),
+                List.of(counter),
+                List.of());
+
+        service.process(event(4.0), eventConfig);
+        verify(buffer).increment(any(), anyLong(), any(), any(), eq(4L), anyMap(), anyString(), any());
+
+        // a hot flow throttled below 1/maxWeight still counts maxWeight times, not once
+        service.process(event(5000.0), eventConfig);
+        service.process(event(1e15), eventConfig);
+        verify(buffer, times(2)).increment(any(), anyLong(), any(), any(), eq(1000L), anyMap(), anyString(), any());
+    }
+
+    private static EventEnvelope event(double weight) {
+        Instant now = Instant.now();
+        return EventEnvelope.builder()
+                .serviceId("payments")
+                .eventType("checkout")
+                .eventId(UUID.randomUUID().toString())
+                .timestamp(now)
+                .ingestedAt(now)
+                .attributes(Map.of("http.method", "GET", FlowEvent.SAMPLE_WEIGHT_ATTR, weight))
+                .resourceAttributes(Map.of())
+                .build();
+    }
+}
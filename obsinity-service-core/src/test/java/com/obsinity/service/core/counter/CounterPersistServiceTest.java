@@ -0,0 +1,82 @@
+package com.obsinity.service.core.counter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class CounterPersistServiceTest {
+
+    @Test
+    void topKMergeFailureDoesNotFailTheRollup() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        TransactionTemplate tx = mock(TransactionTemplate.class);
+        when(tx.execute(any())).thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        doThrow(new CannotAcquireLockException("lock timeout"))
+                .when(jdbc)
+                .query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        CounterPersistService service = new CounterPersistService(jdbc, tx);
+        List<CounterPersistService.BatchItem> batch = new ArrayList<>(List.of(new CounterPersistService.BatchItem(
+                Instant.parse("2026-04-07T13:00:05Z"),
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                "hash",
+                Map.of("region", "eu"),
+                "{\"region\":\"eu\"}",
+                3L)));
+
+        assertThatCode(() -> service.persistBatch(CounterGranularity.M5, batch)).doesNotThrowAnyException();
+        verify(jdbc, atLeastOnce()).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+    }
+
+    @Test
+    void topKSummariesAreLockedAndWrittenOncePerBucket() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        TransactionTemplate tx = mock(TransactionTemplate.class);
+        when(tx.execute(any())).thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+
+        CounterPersistService service = new CounterPersistService(jdbc, tx);
+        List<CounterPersistService.BatchItem> batch = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            batch.add(new CounterPersistService.BatchItem(
+                    Instant.parse("2026-04-07T13:00:05Z"),
+                    UUID.randomUUID(),
+                    UUID.randomUUID(),
+                    "hash",
+                    Map.of("region", "eu"),
+                    "{\"region\":\"eu\"}",
+                    3L));
+        }
+
+        service.persistBatch(CounterGranularity.M5, batch);
+
+        int buckets = CounterGranularity.M5.materialisedBuckets().size();
+        verify(jdbc, times(buckets)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.captor();
+        verify(jdbc, times(buckets)).batchUpdate(contains("DO UPDATE SET summary"), rows.capture());
+        assertThat(rows.getAllValues()).allSatisfy(bucketRows -> assertThat(bucketRows).hasSize(3));
+    }
+}
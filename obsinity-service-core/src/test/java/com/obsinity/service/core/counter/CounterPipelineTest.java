@@ -11,16 +11,22 @@ import com.obsinity.service.core.config.EventTypeConfig;
 import com.obsinity.service.core.config.PipelineProperties;
 import com.obsinity.service.core.model.EventEnvelope;
 import com.obsinity.service.core.repo.ServicesCatalogRepository;
+import com.obsinity.service.core.support.DataExtentRegistry;
 import java.lang.reflect.Field;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -44,12 +50,13 @@ class CounterPipelineTest {
         pipelineProperties.getCounters().getPersist().setWorkers(1);
         pipelineProperties.getCounters().getFlush().setMaxBatchSize(1000);
 
-        CounterPersistExecutor executor = new CounterPersistExecutor(persistService, buffer, pipelineProperties);
+        CounterPersistExecutor executor =
+                new CounterPersistExecutor(persistService, buffer, pipelineProperties, new DataExtentRegistry());
         executor.init(2000, 1);
         CounterFlushService flushService = new CounterFlushService(buffer, executor, pipelineProperties);
         flushService.configureBatchSize();
 
-        CounterIngestService ingestService = new CounterIngestService(buffer, hashService);
+        CounterIngestService ingestService = new CounterIngestService(buffer);
 
         String serviceKey = "payments";
         String eventType = "transaction.completed";
@@ -114,7 +121,8 @@ class CounterPipelineTest {
         Mockito.when(servicesRepo.findIdByServiceKey(serviceKey)).thenReturn(serviceId);
 
         CounterQueryRepository repository = new InMemoryQueryRepository(persistService.snapshot());
-        CounterQueryService queryService = new CounterQueryService(configLookup, servicesRepo, repository, hashService);
+        CounterQueryService queryService =
+                new CounterQueryService(configLookup, servicesRepo, repository, hashService, new DataExtentRegistry());
 
         Instant s5Start = CounterBucket.S5.align(occurredAt);
         CounterQueryRequest s5Request = new CounterQueryRequest(
@@ -189,6 +197,227 @@ class CounterPipelineTest {
         assertThrows(IllegalArgumentException.class, () -> queryService.runQuery(invalid));
     }
 
+    @Test
+    void queriesIncludeUnflushedCountsWithoutDrainingTheBuffer() throws Exception {
+        CounterHashService hashService = new CounterHashService();
+        setField(hashService, "cacheSize", 1000);
+        setField(hashService, "ttl", Duration.ofMinutes(10));
+        hashService.init();
+
+        CounterBuffer buffer = new CounterBuffer(hashService);
+        InMemoryPersistService persistService = new InMemoryPersistService();
+        PipelineProperties pipelineProperties = new PipelineProperties();
+        CounterPersistExecutor executor =
+                new CounterPersistExecutor(persistService, buffer, pipelineProperties, new DataExtentRegistry());
+        executor.init(100, 1);
+        CounterFlushService flushService = new CounterFlushService(buffer, executor, pipelineProperties);
+        flushService.configureBatchSize();
+        CounterIngestService ingestService = new CounterIngestService(buffer);
+
+        String serviceKey = "payments";
+        String eventType = "transaction.completed";
+        UUID serviceId = UUID.randomUUID();
+        CounterConfig counter = new CounterConfig(
+                UUID.randomUUID(),
+                "requests",
+                CounterGranularity.S5,
+                List.of("http.method"),
+                MAPPER.createObjectNode(),
+                MAPPER.createObjectNode());
+        EventTypeConfig eventConfig = new EventTypeConfig(
+                UUID.randomUUID(),
+                eventType,
+                eventType,
+                null,
+                null,
+                Instant.now(),
+                List.of(),
+                List.of(counter),
+                List.of());
+
+        Instant occurredAt = Instant.now().minus(Duration.ofMinutes(1));
+        for (int i = 0; i < 2; i++) {
+            ingestService.process(
+                    EventEnvelope.builder()
+                            .serviceId(serviceKey)
+                            .eventType(eventType)
+                            .eventId(UUID.randomUUID().toString())
+                            .timestamp(occurredAt)
+                            .ingestedAt(occurredAt)
+                            .attributes(Map.of("http.method", "GET"))
+                            .resourceAttributes(Map.of())
+                            .build(),
+                    eventConfig);
+        }
+
+        ConfigLookup configLookup = Mockito.mock(ConfigLookup.class);
+        Mockito.when(configLookup.get(serviceId, eventType)).thenReturn(Optional.of(eventConfig));
+        ServicesCatalogRepository servicesRepo = Mockito.mock(ServicesCatalogRepository.class);
+        Mockito.when(servicesRepo.findIdByServiceKey(serviceKey)).thenReturn(serviceId);
+        CounterQueryService queryService = new CounterQueryService(
+                configLookup,
+                servicesRepo,
+                new InMemoryQueryRepository(persistService.snapshot()),
+                hashService,
+                new DataExtentRegistry(),
+                buffer);
+
+        Instant windowStart = CounterBucket.M1.align(occurredAt);
+        CounterQueryRequest request = new CounterQueryRequest(
+                serviceKey,
+                eventType,
+                counter.name(),
+                Map.of("http.method", List.of("GET")),
+                "1m",
+                windowStart.toString(),
+                windowStart.plus(Duration.ofMinutes(1)).minusMillis(1).toString(),
+                null,
+                ResponseFormat.ROW);
+
+        assertThat(total(queryService.runQuery(request))).isEqualTo(2);
+        assertThat(buffer.getBuffer(CounterGranularity.S5)).isNotEmpty();
+
+        flushService.flushAllPending(CounterGranularity.S5);
+        executor.waitForDrain();
+
+        assertThat(total(queryService.runQuery(request))).isEqualTo(2);
+    }
+
+    @Test
+    void queriesBetweenRollupCommitAndBufferDecrementCountOnce() throws Exception {
+        CounterHashService hashService = new CounterHashService();
+        setField(hashService, "cacheSize", 1000);
+        setField(hashService, "ttl", Duration.ofMinutes(10));
+        hashService.init();
+
+        CounterBuffer buffer = new CounterBuffer(hashService);
+        InMemoryPersistService persistService = new InMemoryPersistService();
+        PipelineProperties pipelineProperties = new PipelineProperties();
+        CounterPersistExecutor executor =
+                new CounterPersistExecutor(persistService, buffer, pipelineProperties, new DataExtentRegistry());
+        executor.init(100, 1);
+        CounterFlushService flushService = new CounterFlushService(buffer, executor, pipelineProperties);
+        flushService.configureBatchSize();
+        CounterIngestService ingestService = new CounterIngestService(buffer);
+
+        String serviceKey = "payments";
+        String eventType = "transaction.completed";
+        UUID serviceId = UUID.randomUUID();
+        CounterConfig counter = new CounterConfig(
+                UUID.randomUUID(),
+                "requests",
+                CounterGranularity.S5,
+                List.of("http.method"),
+                MAPPER.createObjectNode(),
+                MAPPER.createObjectNode());
+        EventTypeConfig eventConfig = new EventTypeConfig(
+                UUID.randomUUID(),
+                eventType,
+                eventType,
+                null,
+                null,
+                Instant.now(),
+                List.of(),
+                List.of(counter),
+                List.of());
+
+        Instant occurredAt = Instant.now().minus(Duration.ofMinutes(1));
+        for (int i = 0; i < 3; i++) {
+            ingestService.process(
+                    EventEnvelope.builder()
+                            .serviceId(serviceKey)
+                            .eventType(eventType)
+                            .eventId(UUID.randomUUID().toString())
+                            .timestamp(occurredAt)
+                            .ingestedAt(occurredAt)
+                            .attributes(Map.of("http.method", "GET"))
+                            .resourceAttributes(Map.of())
+                            .build(),
+                    eventConfig);
+        }
+
+        ConfigLookup configLookup = Mockito.mock(ConfigLookup.class);
+        Mockito.when(configLookup.get(serviceId, eventType)).thenReturn(Optional.of(eventConfig));
+        ServicesCatalogRepository servicesRepo = Mockito.mock(ServicesCatalogRepository.class);
+        Mockito.when(servicesRepo.findIdByServiceKey(serviceKey)).thenReturn(serviceId);
+        CounterQueryService queryService = new CounterQueryService(
+                configLookup,
+                servicesRepo,
+                new InMemoryQueryRepository(persistService.snapshot()),
+                hashService,
+                new DataExtentRegistry(),
+                buffer);
+        CounterQueryRequest s5Request = request(serviceKey, eventType, counter, "5s", CounterBucket.S5, occurredAt);
+        CounterQueryRequest m1Request = request(serviceKey, eventType, counter, "1m", CounterBucket.M1, occurredAt);
+
+        // Hold the worker after the first and after the last bucket commit, before the buffer is decremented.
+        CounterBucket last = CounterGranularity.S5.materialisedBuckets().stream()
+                .max(Comparator.comparing(CounterBucket::duration))
+                .orElseThrow();
+        Map<CounterBucket, CountDownLatch> committed = Map.of(
+                CounterBucket.S5, new CountDownLatch(1), last, new CountDownLatch(1));
+        Map<CounterBucket, CountDownLatch> resume = Map.of(
+                CounterBucket.S5, new CountDownLatch(1), last, new CountDownLatch(1));
+        persistService.afterCommit = bucket -> {
+            if (committed.containsKey(bucket)) {
+                committed.get(bucket).countDown();
+                try {
+                    resume.get(bucket).await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        try {
+            flushService.flushScheduled();
+
+            assertThat(committed.get(CounterBucket.S5).await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(total(queryService.runQuery(s5Request))).isEqualTo(3);
+            assertThat(total(queryService.runQuery(m1Request))).isEqualTo(3);
+            resume.get(CounterBucket.S5).countDown();
+
+            assertThat(committed.get(last).await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(buffer.getBuffer(CounterGranularity.S5)).isNotEmpty();
+            assertThat(total(queryService.runQuery(s5Request))).isEqualTo(3);
+            assertThat(total(queryService.runQuery(m1Request))).isEqualTo(3);
+        } finally {
+            resume.values().forEach(CountDownLatch::countDown);
+            executor.waitForDrain();
+        }
+
+        assertThat(buffer.getBuffer(CounterGranularity.S5)).isEmpty();
+        assertThat(total(queryService.runQuery(s5Request))).isEqualTo(3);
+        assertThat(total(queryService.runQuery(m1Request))).isEqualTo(3);
+    }
+
+    private static CounterQueryRequest request(
+            String serviceKey,
+            String eventType,
+            CounterConfig counter,
+            String interval,
+            CounterBucket bucket,
+            Instant occurredAt) {
+        Instant windowStart = bucket.align(occurredAt);
+        return new CounterQueryRequest(
+                serviceKey,
+                eventType,
+                counter.name(),
+                Map.of("http.method", List.of("GET")),
+                interval,
+                windowStart.toString(),
+                windowStart.plus(bucket.duration()).minusMillis(1).toString(),
+                null,
+                ResponseFormat.ROW);
+    }
+
+    private static long total(CounterQueryResult result) {
+        return result.windows().stream()
+                .flatMap(w -> w.counts().stream())
+                .mapToLong(CounterQueryWindow.CountEntry::count)
+                .sum();
+    }
+
     private static void setField(Object target, String name, Object value) throws Exception {
         Field field = target.getClass().getDeclaredField(name);
         field.setAccessible(true);
@@ -205,19 +434,29 @@ class CounterPipelineTest {
                     Mockito.mock(org.springframework.transaction.support.TransactionTemplate.class));
         }
 
+        /** Runs after each bucket has committed, before the executor releases the batch from the buffer. */
+        private volatile Consumer<CounterBucket> afterCommit = bucket -> {};
+
         @Override
-        public void persistBatch(CounterGranularity baseGranularity, List<BatchItem> batch) {
+        public void persistBatch(
+                CounterGranularity baseGranularity, List<BatchItem> batch, Consumer<CounterBucket> inTransaction) {
             if (batch.isEmpty()) {
                 return;
             }
-            for (CounterBucket bucket : baseGranularity.materialisedBuckets()) {
+            // Smallest bucket first, like the real service.
+            List<CounterBucket> buckets = baseGranularity.materialisedBuckets().stream()
+                    .sorted(Comparator.comparing(CounterBucket::duration))
+                    .toList();
+            for (CounterBucket bucket : buckets) {
                 for (BatchItem item : batch) {
                     Instant aligned = bucket.align(item.timestamp());
-                    store.computeIfAbsent(bucket, k -> new HashMap<>())
-                            .computeIfAbsent(aligned, k -> new HashMap<>())
-                            .computeIfAbsent(item.counterConfigId(), k -> new HashMap<>())
+                    store.computeIfAbsent(bucket, k -> new ConcurrentHashMap<>())
+                            .computeIfAbsent(aligned, k -> new ConcurrentHashMap<>())
+                            .computeIfAbsent(item.counterConfigId(), k -> new ConcurrentHashMap<>())
                             .merge(item.keyHash(), item.delta(), Long::sum);
                 }
+                inTransaction.accept(bucket);
+                afterCommit.accept(bucket);
             }
         }
 
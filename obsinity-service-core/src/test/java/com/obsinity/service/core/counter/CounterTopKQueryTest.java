@@ -0,0 +1,109 @@
+package com.obsinity.service.core.counter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.obsinity.service.core.config.ConfigLookup;
+import com.obsinity.service.core.config.CounterConfig;
+import com.obsinity.service.core.config.EventTypeConfig;
+import com.obsinity.service.core.repo.ServicesCatalogRepository;
+import com.obsinity.service.core.support.DataExtentRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class CounterTopKQueryTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void rangeIsTiledWithTheCoarsestBucketsThatFit() {
+        Instant from = Instant.parse("2024-05-01T12:03:05Z");
+        Instant to = Instant.parse("2024-05-20T07:41:35Z");
+
+        List<CounterQueryService.BucketSpan> spans =
+                CounterQueryService.tile(CounterGranularity.S5.materialisedBuckets(), from, to);
+
+        assertThat(spans.get(0).from()).isEqualTo(from);
+        assertThat(spans.get(spans.size() - 1).to()).isEqualTo(to);
+        for (int i = 1; i < spans.size(); i++) {
+            assertThat(spans.get(i).from()).isEqualTo(spans.get(i - 1).to());
+        }
+        // 2024-05-06 and 2024-05-13 are Mondays: two whole weeks, days and hours on either side, then the edges
+        assertThat(spans)
+                .contains(new CounterQueryService.BucketSpan(
+                        CounterBucket.D7, Instant.parse("2024-05-06T00:00:00Z"), Instant.parse("2024-05-20T00:00:00Z")))
+                .hasSizeLessThanOrEqualTo(2 * CounterBucket.values().length - 1);
+        for (CounterQueryService.BucketSpan span : spans) {
+            assertThat(span.bucket().align(span.from())).isEqualTo(span.from());
+            assertThat(span.bucket().align(span.to())).isEqualTo(span.to());
+        }
+    }
+
+    @Test
+    void topKReadsCoarseSummariesAndMergesIntoTheConfiguredCapacity() {
+        UUID serviceId = UUID.randomUUID();
+        CounterConfig counter = new CounterConfig(
+                UUID.randomUUID(),
+                "requests",
+                CounterGranularity.S5,
+                List.of("route"),
+                MAPPER.createObjectNode(),
+                MAPPER.createObjectNode());
+        EventTypeConfig eventConfig = new EventTypeConfig(
+                UUID.randomUUID(),
+                "checkout",
+                "checkout",
+                null,
+                null,
+                Instant.now(),
+                List.of(),
+                List.of(counter),
+                List.of());
+        ConfigLookup configLookup = Mockito.mock(ConfigLookup.class);
+        Mockito.when(configLookup.get(serviceId, "checkout")).thenReturn(Optional.of(eventConfig));
+        ServicesCatalogRepository servicesRepo = Mockito.mock(ServicesCatalogRepository.class);
+        Mockito.when(servicesRepo.findIdByServiceKey("payments")).thenReturn(serviceId);
+
+        // an old summary written with capacity 2 must not shrink the merged result
+        SpaceSavingSummary small = new SpaceSavingSummary(2);
+        small.offer("a", Map.of("route", "a"), 50);
+        small.offer("b", Map.of("route", "b"), 40);
+        SpaceSavingSummary wide = new SpaceSavingSummary(64);
+        for (int i = 0; i < 5; i++) {
+            wide.offer("k" + i, Map.of("route", "k" + i), 100 - i);
+        }
+        CounterQueryRepository repository = Mockito.mock(CounterQueryRepository.class);
+        Mockito.when(repository.fetchTopKSummaries(eq(counter.id()), any(), any(), any()))
+                .thenReturn(List.of());
+        Mockito.when(repository.fetchTopKSummaries(eq(counter.id()), eq(CounterBucket.D1), any(), any()))
+                .thenReturn(List.of(small.toJson(), wide.toJson()));
+
+        CounterQueryService service = new CounterQueryService(
+                configLookup, servicesRepo, repository, new CounterHashService(), new DataExtentRegistry());
+        Instant end = Instant.parse("2024-05-20T07:41:35Z");
+        CounterTopKResult result = service.runTopKQuery(new CounterTopKRequest(
+                "payments",
+                "checkout",
+                "requests",
+                "5m",
+                end.minus(Duration.ofDays(7)).toString(),
+                end.toString(),
+                6));
+
+        assertThat(result.entries()).hasSize(6);
+        assertThat(result.entries().get(0).key()).isEqualTo(Map.of("route", "k0"));
+        assertThat(result.bucket()).isEqualTo(CounterBucket.D1.label());
+        // a 5m panel over 7 days reads one range per bucket size and side, not ~120k S5 summaries
+        Mockito.verify(repository, Mockito.atMost(2 * CounterBucket.values().length - 1))
+                .fetchTopKSummaries(any(), any(), any(), any());
+        Mockito.verify(repository).fetchTopKSummaries(any(), eq(CounterBucket.D1), any(), any());
+    }
+}
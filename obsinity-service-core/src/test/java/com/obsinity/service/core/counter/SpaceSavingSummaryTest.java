@@ -0,0 +1,61 @@
+package com.obsinity.service.core.counter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class SpaceSavingSummaryTest {
+
+    @Test
+    void exactWhileUnderCapacity() {
+        SpaceSavingSummary summary = new SpaceSavingSummary(8);
+        summary.offer("a", Map.of("route", "/a"), 5);
+        summary.offer("b", Map.of("route", "/b"), 2);
+        summary.offer("a", Map.of("route", "/a"), 3);
+
+        List<SpaceSavingSummary.Item> top = summary.top(10);
+        assertThat(top).extracting(SpaceSavingSummary.Item::keyHash).containsExactly("a", "b");
+        assertThat(top.get(0).count()).isEqualTo(8);
+        assertThat(top).allSatisfy(item -> assertThat(item.error()).isZero());
+        assertThat(summary.floor()).isZero();
+    }
+
+    @Test
+    void mergedSummariesBoundTrueTotalsAndKeepHeavyHitters() {
+        Random random = new Random(42);
+        Map<String, Long> truth = new HashMap<>();
+        SpaceSavingSummary merged = null;
+        for (int bucket = 0; bucket < 20; bucket++) {
+            Map<String, SpaceSavingSummary.Item> totals = new HashMap<>();
+            for (int i = 0; i < 2_000; i++) {
+                // A few heavy keys over a long uniform tail
+                String key = random.nextInt(10) < 4 ? "hot" + random.nextInt(3) : "k" + random.nextInt(5_000);
+                truth.merge(key, 1L, Long::sum);
+                totals.merge(
+                        key,
+                        new SpaceSavingSummary.Item(key, Map.of("k", key), 1, 0),
+                        (a, b) -> new SpaceSavingSummary.Item(key, a.keyData(), a.count() + b.count(), 0));
+            }
+            SpaceSavingSummary summary = SpaceSavingSummary.fromJson(
+                    SpaceSavingSummary.ofExact(16, totals).toJson());
+            if (merged == null) {
+                merged = summary;
+            } else {
+                merged.merge(summary);
+            }
+        }
+
+        List<SpaceSavingSummary.Item> top = merged.top(3);
+        assertThat(top).extracting(SpaceSavingSummary.Item::keyHash).containsExactlyInAnyOrder("hot0", "hot1", "hot2");
+        for (SpaceSavingSummary.Item item : merged.top(16)) {
+            long actual = truth.get(item.keyHash());
+            assertThat(item.count()).isGreaterThanOrEqualTo(actual);
+            assertThat(item.guaranteed()).isLessThanOrEqualTo(actual);
+        }
+        assertThat(top.get(0).keyData()).containsEntry("k", top.get(0).keyHash());
+    }
+}
@@ -0,0 +1,75 @@
+package com.obsinity.service.core.deadletter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+class JdbcIngestDeadLetterTableTest {
+
+    private final NamedParameterJdbcTemplate jdbc = mock(NamedParameterJdbcTemplate.class);
+
+    @Test
+    void recordDoesNotWriteUntilFlush() {
+        JdbcIngestDeadLetterTable table = new JdbcIngestDeadLetterTable(jdbc, 10, 2, 500);
+
+        table.record("{}", "INVALID_JSON", "bad payload", "rabbitmq");
+
+        verify(jdbc, never()).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    @Test
+    void aggregatesRepeatsIntoOccurrences() {
+        JdbcIngestDeadLetterTable table = new JdbcIngestDeadLetterTable(jdbc, 10, 2, 500);
+        for (int i = 0; i < 50; i++) {
+            table.record("{\"n\":" + i + "}", "INVALID_JSON", "bad payload", "rabbitmq");
+        }
+        table.record("{}", "INVALID_JSON", "bad payload", "kafka");
+
+        table.flush();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbc, times(1)).update(sql.capture(), params.capture());
+        assertThat(sql.getValue()).startsWith("insert into event_ingest_dead_letters(");
+        assertThat(sql.getValue().split(":payload").length - 1).isEqualTo(3);
+
+        Map<String, Object> values = params.getValue().getValues();
+        long occurrences = 0;
+        for (int i = 0; i < 3; i++) {
+            occurrences += (Long) values.get("occurrences" + i);
+        }
+        assertThat(occurrences).isEqualTo(51);
+
+        table.flush();
+        verify(jdbc, times(1)).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    @Test
+    void shedsNewKeysWhenFullAndSplitsBatches() {
+        JdbcIngestDeadLetterTable table = new JdbcIngestDeadLetterTable(jdbc, 3, 1, 2);
+        for (String reason : List.of("a", "b", "c", "d", "e")) {
+            table.record("{}", reason, "bad payload", "rabbitmq");
+        }
+
+        table.flush();
+
+        // three keys kept (d and e shed), one sample each, two rows per statement
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbc, times(2)).update(anyString(), params.capture());
+        assertThat(params.getAllValues())
+                .extracting(p -> p.getValues().size())
+                .containsExactly(2 * 6, 6);
+    }
+}
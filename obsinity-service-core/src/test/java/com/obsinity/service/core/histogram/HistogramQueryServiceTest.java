@@ -0,0 +1,147 @@
+package com.obsinity.service.core.histogram;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.obsinity.service.core.config.ConfigLookup;
+import com.obsinity.service.core.config.EventTypeConfig;
+import com.obsinity.service.core.config.HistogramConfig;
+import com.obsinity.service.core.config.HistogramSpec;
+import com.obsinity.service.core.config.PipelineProperties;
+import com.obsinity.service.core.counter.CounterGranularity;
+import com.obsinity.service.core.counter.CounterHashService;
+import com.obsinity.service.core.repo.ServicesCatalogRepository;
+import com.obsinity.service.core.support.DataExtentRegistry;
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class HistogramQueryServiceTest {
+
+    private static final Instant A = Instant.parse("2026-04-06T10:00:00Z");
+    private static final Instant B = A.plusSeconds(5);
+    private static final Instant C = A.plusSeconds(10);
+    private static final HistogramSpec.SketchSpec SPEC = new HistogramSpec.SketchSpec("ddsketch", 0.01d);
+
+    @Test
+    void mergesBufferedQueuedAndInFlightSketches() throws Exception {
+        UUID serviceId = UUID.randomUUID();
+        UUID histogramId = UUID.randomUUID();
+        HistogramSpec spec =
+                new HistogramSpec("duration", List.of("region"), SPEC, CounterGranularity.S5, List.of(0.5d), null);
+        EventTypeConfig eventConfig = new EventTypeConfig(
+                UUID.randomUUID(),
+                "checkout",
+                "checkout",
+                null,
+                null,
+                Instant.now(),
+                List.of(),
+                List.of(),
+                List.of(new HistogramConfig(histogramId, "latency", spec)));
+        ConfigLookup configLookup = mock(ConfigLookup.class);
+        when(configLookup.get(serviceId, "checkout")).thenReturn(Optional.of(eventConfig));
+        ServicesCatalogRepository services = mock(ServicesCatalogRepository.class);
+        when(services.findIdByServiceKey("payments")).thenReturn(serviceId);
+
+        CounterHashService hashService = new CounterHashService();
+        setField(hashService, "cacheSize", 1000);
+        setField(hashService, "ttl", Duration.ofMinutes(10));
+        hashService.init();
+        HistogramBuffer buffer = new HistogramBuffer(hashService);
+
+        // The first job blocks inside persist, so it stays in flight while the second one waits in the queue.
+        CountDownLatch persisting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        HistogramPersistService persistService = mock(HistogramPersistService.class);
+        doAnswer(inv -> {
+                    persisting.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    return null;
+                })
+                .when(persistService)
+                .persist(eq(CounterGranularity.S5), anyLong(), any(), any());
+        PipelineProperties properties = new PipelineProperties();
+        properties.getHistograms().getPersist().setWorkers(1);
+        HistogramPersistExecutor executor =
+                new HistogramPersistExecutor(persistService, properties, new DataExtentRegistry());
+        executor.start();
+        HistogramFlushService flushService = new HistogramFlushService(buffer, executor, properties);
+        flushService.configure();
+
+        try {
+            Map<String, String> key = Map.of("region", "eu");
+            record(buffer, histogramId, key, A, 100, SPEC);
+            flushService.flushScheduled();
+            assertThat(persisting.await(10, TimeUnit.SECONDS)).isTrue();
+            record(buffer, histogramId, key, B, 200, SPEC);
+            flushService.flushScheduled();
+            // Buffered under an older sketch spec with a different accuracy.
+            record(buffer, histogramId, key, C, 300, new HistogramSpec.SketchSpec("ddsketch", 0.05d));
+
+            HistogramQueryService service = new HistogramQueryService(
+                    configLookup,
+                    services,
+                    mock(HistogramQueryRepository.class),
+                    hashService,
+                    new DataExtentRegistry(),
+                    buffer,
+                    executor);
+            HistogramQueryResult result = service.runQuery(new HistogramQueryRequest(
+                    "payments",
+                    "checkout",
+                    "latency",
+                    Map.of("region", List.of("eu")),
+                    "PT5S",
+                    A.toString(),
+                    C.plusSeconds(5).toString(),
+                    null,
+                    null,
+                    null));
+
+            assertThat(result.windows()).hasSize(3);
+            assertThat(result.windows())
+                    .extracting(window -> window.series().get(0).sum())
+                    .containsExactly(100d, 200d, 300d);
+            assertThat(result.windows())
+                    .allSatisfy(window ->
+                            assertThat(window.series().get(0).samples()).isEqualTo(1));
+            assertThat(result.windows().get(2).series().get(0).percentiles().get(0.5d))
+                    .isCloseTo(300d, within(300d * 0.1d));
+        } finally {
+            release.countDown();
+            executor.waitForDrain();
+            executor.stop();
+        }
+    }
+
+    private static void record(
+            HistogramBuffer buffer,
+            UUID histogramId,
+            Map<String, String> key,
+            Instant at,
+            double value,
+            HistogramSpec.SketchSpec sketchSpec) {
+        buffer.recordSample(
+                CounterGranularity.S5, at.getEpochSecond(), histogramId, UUID.randomUUID(), key, value, sketchSpec);
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
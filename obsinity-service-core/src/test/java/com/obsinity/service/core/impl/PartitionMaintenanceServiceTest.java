@@ -0,0 +1,56 @@
+package com.obsinity.service.storage.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.obsinity.service.core.config.RetentionProperties;
+import com.obsinity.service.core.config.RollupPartitionProperties;
+import com.obsinity.service.core.retention.PartitionCatalog;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class PartitionMaintenanceServiceTest {
+
+    private static final LocalDate WEEK = LocalDate.parse("2026-04-06"); // ISO week 2026_15
+
+    @Test
+    void missingIndexesOnExistingWeeksAreBuiltConcurrentlyOutsideTheBatch() {
+        PartitionMaintenanceService service = new PartitionMaintenanceService(
+                mock(JdbcTemplate.class),
+                new RetentionProperties(),
+                mock(PartitionCatalog.class),
+                new RollupPartitionProperties(),
+                1,
+                true);
+        String attrChild = "event_attr_index_s_0a1b2c3d_w_2026_15";
+        PartitionMaintenanceService.Relations existing = new PartitionMaintenanceService.Relations(
+                Set.of(
+                        "events_raw_s_0a1b2c3d",
+                        "event_attr_index_s_0a1b2c3d",
+                        "events_raw_s_0a1b2c3d_w_2026_15",
+                        "er_evt_time_desc_0a1b2c3d_2026_15",
+                        attrChild,
+                        "eai_attr_name_val_0a1b2c3d_2026_15",
+                        "eai_time_desc_0a1b2c3d_2026_15",
+                        "eai_svc_evt_0a1b2c3d_2026_15"),
+                Set.of("eai_attr_val_trgm_0a1b2c3d_2026_15"));
+
+        PartitionMaintenanceService.ServicePlan plan = service.planServiceDdl(
+                "0a1b2c3d", "payments", existing, WEEK, WEEK.plusWeeks(1), Instant.parse("2026-04-08T00:00:00Z"), true);
+
+        // The existing week only gets its trigram index, online, after dropping the INVALID leftover.
+        assertThat(plan.onlineIndexes())
+                .containsExactly(
+                        "DROP INDEX CONCURRENTLY IF EXISTS obsinity.\"eai_attr_val_trgm_0a1b2c3d_2026_15\"",
+                        "CREATE INDEX CONCURRENTLY IF NOT EXISTS \"eai_attr_val_trgm_0a1b2c3d_2026_15\" ON"
+                                + " obsinity.\"" + attrChild + "\" USING gin (attr_value gin_trgm_ops)");
+        // The new week is created with its indexes in the ordinary batch.
+        assertThat(plan.ddl()).noneMatch(sql -> sql.contains("CONCURRENTLY"));
+        assertThat(plan.ddl())
+                .contains("CREATE INDEX IF NOT EXISTS \"eai_attr_val_trgm_0a1b2c3d_2026_16\" ON"
+                        + " obsinity.\"event_attr_index_s_0a1b2c3d_w_2026_16\" USING gin (attr_value gin_trgm_ops)");
+    }
+}
@@ -0,0 +1,67 @@
+package com.obsinity.service.storage.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.obsinity.service.core.search.PlannerEstimateDrift;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+class PartitionStatisticsMaintainerTest {
+
+    private static final Instant ANALYZED = Instant.parse("2025-06-30T00:00:00Z");
+
+    @Test
+    void only_stale_partitions_are_selected_never_analyzed_first() {
+        var fresh = stats("event_counts_2025_27_m1", 100_000, 1_000, ANALYZED);
+        var busy = stats("events_raw_s_aaaaaaaa_w_2025_27", 100_000, 50_000, ANALYZED);
+        var modest = stats("event_attr_index_s_aaaaaaaa_w_2025_27", 100_000, 6_000, ANALYZED);
+        var neverAnalyzed = stats("event_counts_2025_07_01_s5", 0, 10, null);
+        var untouched = stats("events_raw_default", 0, 0, null);
+
+        assertThat(PartitionStatisticsMaintainer.stale(
+                        List.of(fresh, busy, modest, neverAnalyzed, untouched), 500, 0.05))
+                .containsExactly(neverAnalyzed, busy, modest);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_analyzes_within_table_cap_and_defers_the_rest() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.query(anyString(), any(RowMapper.class), eq("obsinity")))
+                .thenReturn(List.of(
+                        stats("events_raw_s_aaaaaaaa_w_2025_27", 1_000, 900, ANALYZED),
+                        stats("events_raw_s_bbbbbbbb_w_2025_27", 1_000, 800, ANALYZED),
+                        stats("event_counts_2025_27_m1", 1_000, 10, ANALYZED)));
+        PlannerEstimateDrift drift = new PlannerEstimateDrift(1);
+        drift.record("payments/checkout", 10, 5_000);
+        PartitionStatisticsMaintainer maintainer =
+                new PartitionStatisticsMaintainer(jdbc, drift, true, false, 500, 0.05, Duration.ofMinutes(1), 1, 10);
+
+        PartitionStatisticsMaintainer.RunSummary summary = maintainer.run("test");
+
+        assertThat(summary.stale()).isEqualTo(2);
+        assertThat(summary.analyzed()).containsExactly("events_raw_s_aaaaaaaa_w_2025_27");
+        assertThat(summary.deferred()).isEqualTo(1);
+        assertThat(summary.estimateDrift()).singleElement().satisfies(s -> assertThat(s.meanRatio())
+                .isGreaterThan(400d));
+        verify(jdbc).execute("ANALYZE obsinity.\"events_raw_s_aaaaaaaa_w_2025_27\"");
+        verify(jdbc, never()).execute("ANALYZE obsinity.\"event_counts_2025_27_m1\"");
+        assertThat(maintainer.lastRun()).isSameAs(summary);
+    }
+
+    private static PartitionStatisticsMaintainer.TableStats stats(
+            String table, long live, long modified, Instant analyzed) {
+        return new PartitionStatisticsMaintainer.TableStats(table, live, modified, analyzed);
+    }
+}
@@ -0,0 +1,57 @@
+package com.obsinity.service.core.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.obsinity.service.core.model.EventEnvelope;
+import com.obsinity.service.core.model.JsonObjectAttributes;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class EventEnvelopeMapperTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final EventEnvelopeMapper envelopeMapper = new EventEnvelopeMapper(mapper);
+
+    @Test
+    void keepsNormalizedAttributesAsTreeView() throws Exception {
+        EventEnvelope envelope = envelopeMapper.fromJson(event(
+                "{\"http\":{\"method\":\"GET\",\"status\":200},\"tags\":[\"a\",{\"x.y\":1}],\"ok\":true,\"n\":null}"));
+
+        Map<String, Object> attributes = envelope.getAttributes();
+        assertThat(attributes).isInstanceOf(JsonObjectAttributes.class);
+        assertThat(((Map<?, ?>) attributes.get("http")).get("status")).isEqualTo(200);
+        assertThat(attributes.get("ok")).isEqualTo(true);
+        assertThat(attributes.containsKey("n")).isTrue();
+        assertThat(attributes.get("missing")).isNull();
+        assertThat(((JsonObjectAttributes) attributes).json())
+                .isEqualTo("{\"http\":{\"method\":\"GET\",\"status\":200},\"tags\":[\"a\",{\"x.y\":1}],"
+                        + "\"ok\":true,\"n\":null}");
+
+        // Same content as the fully converted map, so extractors and equality see no difference
+        Map<String, Object> converted =
+                mapper.readValue(((JsonObjectAttributes) attributes).json(), new TypeReference<>() {});
+        assertThat(attributes).isEqualTo(converted);
+        assertThat(converted).isEqualTo(attributes);
+        assertThat(attributes.get("tags")).isEqualTo(List.of("a", Map.of("x.y", 1)));
+    }
+
+    @Test
+    void expandsDottedKeysThroughFullConversion() throws Exception {
+        EventEnvelope envelope = envelopeMapper.fromJson(event("{\"http\":{\"status\":200},\"http.method\":\"GET\"}"));
+
+        Map<String, Object> attributes = envelope.getAttributes();
+        assertThat(attributes).isNotInstanceOf(JsonObjectAttributes.class);
+        assertThat(attributes.get("http")).isEqualTo(Map.of("method", "GET", "status", 200));
+    }
+
+    private JsonNode event(String attributes) throws Exception {
+        return mapper.readTree("{\"resource\":{\"service\":{\"name\":\"payments\"}},"
+                + "\"event\":{\"name\":\"payment.completed\"},"
+                + "\"time\":{\"startedAt\":\"2025-01-01T00:00:00Z\"},"
+                + "\"attributes\":" + attributes + "}");
+    }
+}
@@ -0,0 +1,141 @@
+package com.obsinity.service.core.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.obsinity.service.core.ingest.IngestAdmissionController.State;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class IngestAdmissionControllerTest {
+
+    private final MutableSource queue = new MutableSource();
+    private final List<IngestAdmissionEvent> events = new ArrayList<>();
+    private final IngestAdmissionController admission = new IngestAdmissionController(List.of(queue), events::add);
+
+    @Test
+    void shedsAtCapacityAndReopensWithHysteresis() {
+        queue.level = 0.5;
+        admission.evaluate();
+        assertThat(admission.current().state()).isEqualTo(State.OPEN);
+        admission.admit();
+
+        queue.level = 0.97;
+        admission.evaluate();
+        assertThat(admission.current().state()).isEqualTo(State.SHEDDING);
+        assertThat(admission.current().reason()).isEqualTo("test queue");
+        assertThatThrownBy(admission::admit).isInstanceOfSatisfying(IngestOverloadedException.class, ex -> assertThat(
+                        ex.admission().retryAfterSeconds())
+                .isEqualTo(5));
+
+        // Below throttleAt but above resumeAt: stays throttled instead of flapping open
+        queue.level = 0.7;
+        admission.evaluate();
+        assertThat(admission.current().state()).isEqualTo(State.THROTTLED);
+
+        queue.level = 0.5;
+        admission.evaluate();
+        assertThat(admission.current().state()).isEqualTo(State.OPEN);
+
+        assertThat(events)
+                .extracting(e -> e.admission().state())
+                .containsExactly(State.SHEDDING, State.THROTTLED, State.OPEN);
+    }
+
+    @Test
+    void hysteresisBandKeepsRefusingPartOfTheRequests() {
+        queue.level = 0.97;
+        admission.evaluate();
+
+        // Between resumeAt (0.6) and throttleAt (0.8): still throttled, admitting (0.95 - 0.7) / 0.35 of requests
+        queue.level = 0.7;
+        admission.evaluate();
+        assertThat(admission.current().state()).isEqualTo(State.THROTTLED);
+        int admitted = 0;
+        int attempts = 10_000;
+        for (int i = 0; i < attempts; i++) {
+            try {
+                admission.admit();
+                admitted++;
+            } catch (IngestOverloadedException ex) {
+                assertThat(ex.admission().retryAfterSeconds()).isEqualTo(1);
+            }
+        }
+        assertThat(admitted).isBetween((int) (attempts * 0.66), (int) (attempts * 0.77));
+
+        queue.level = 0.6;
+        admission.evaluate();
+        assertThat(admission.current().state()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void throttlesOnWriteLatencyAndRecoversOnceWritesStop() {
+        for (int i = 0; i < 10; i++) {
+            admission.recordWriteLatency(2_000_000_000L);
+        }
+        admission.evaluate();
+        assertThat(admission.current().state()).isEqualTo(State.SHEDDING);
+        assertThat(admission.current().reason()).isEqualTo("db latency");
+
+        for (int i = 0; i < 5; i++) {
+            admission.evaluate();
+        }
+        assertThat(admission.current().state()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void concurrentStaleReadsEvaluateOnce() throws Exception {
+        AtomicInteger evaluations = new AtomicInteger();
+        IngestPressureSource counting = new IngestPressureSource() {
+            @Override
+            public String pressureName() {
+                return "counting";
+            }
+
+            @Override
+            public double pressure() {
+                evaluations.incrementAndGet();
+                return 0d;
+            }
+        };
+        IngestAdmissionController controller = new IngestAdmissionController(List.of(counting), events::add);
+        Thread.sleep(300); // past the 250 ms evaluation interval
+
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < threads; i++) {
+                pool.submit(() -> {
+                    start.await();
+                    return controller.current();
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(evaluations).hasValue(1);
+    }
+
+    private static final class MutableSource implements IngestPressureSource {
+        volatile double level;
+
+        @Override
+        public String pressureName() {
+            return "test queue";
+        }
+
+        @Override
+        public double pressure() {
+            return level;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.obsinity.service.core.objql;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the two attribute-match plans {@link OBJqlCteBuilder} can emit for a three-way conjunction
+ * ({@code status = ACTIVE AND region = eu-3 AND customer = c-123}) over a synthetic {@code event_attr_index}.
+ *
+ * <p>The index is modelled the way Postgres reads it for one service and time window: rows in
+ * (started_at, event_id) order that a leaf CTE scans and filters by name/value, plus point lookups on the full
+ * primary key for EXISTS probes. {@code intersect} scans the window once per predicate and intersects the id sets;
+ * {@code semiJoin} scans once for the most selective predicate (by seen count) and probes the others per candidate.
+ *
+ * <p>Run from the IDE via {@link #main(String[])}, or after {@code mvn test-compile} with the test classpath on
+ * {@code java org.openjdk.jmh.Main AttributePredicatePlanBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AttributePredicatePlanBenchmark {
+
+    private static final int STATUS = 0;
+    private static final int REGION = 1;
+    private static final int CUSTOMER = 2;
+    private static final int ATTRS = 3;
+
+    @Param({"1000000", "3000000"})
+    public int events;
+
+    /** Index rows in scan order: one row per (event, attribute). */
+    private byte[] rowAttr;
+
+    private int[] rowEvent;
+    private int[] rowValue;
+
+    /** Primary-key point lookup: value of attribute a for event e. */
+    private int[][] valueOf;
+
+    /** seen_count per attribute value, as kept in attribute_distinct_values. */
+    private long[][] seenCount;
+
+    private int[] predicateValue;
+
+    @Setup
+    public void setUp() {
+        int customers = Math.max(1, events / 20);
+        int[] cardinality = {4, 20, customers};
+        SplittableRandom random = new SplittableRandom(42);
+        rowAttr = new byte[events * ATTRS];
+        rowEvent = new int[events * ATTRS];
+        rowValue = new int[events * ATTRS];
+        valueOf = new int[ATTRS][events];
+        seenCount = new long[ATTRS][];
+        for (int a = 0; a < ATTRS; a++) seenCount[a] = new long[cardinality[a]];
+
+        int row = 0;
+        for (int e = 0; e < events; e++) {
+            int[] values = {skewedStatus(random), random.nextInt(20), random.nextInt(customers)};
+            for (int a = 0; a < ATTRS; a++) {
+                rowAttr[row] = (byte) a;
+                rowEvent[row] = e;
+                rowValue[row] = values[a];
+                valueOf[a][e] = values[a];
+                seenCount[a][values[a]]++;
+                row++;
+            }
+        }
+        predicateValue = new int[] {0, 3, 123};
+    }
+
+    @Benchmark
+    public int intersect() {
+        BitSet matched = null;
+        for (int a = 0; a < ATTRS; a++) {
+            BitSet leaf = scan(a, predicateValue[a]);
+            if (matched == null) matched = leaf;
+            else matched.and(leaf);
+        }
+        return matched == null ? 0 : matched.cardinality();
+    }
+
+    @Benchmark
+    public int semiJoin() {
+        int driver = 0;
+        for (int a = 1; a < ATTRS; a++) {
+            if (seenCount[a][predicateValue[a]] < seenCount[driver][predicateValue[driver]]) driver = a;
+        }
+        BitSet candidates = scan(driver, predicateValue[driver]);
+        int matched = 0;
+        for (int e = candidates.nextSetBit(0); e >= 0; e = candidates.nextSetBit(e + 1)) {
+            boolean all = true;
+            for (int a = 0; a < ATTRS && all; a++) {
+                if (a != driver) all = valueOf[a][e] == predicateValue[a];
+            }
+            if (all) matched++;
+        }
+        return matched;
+    }
+
+    private BitSet scan(int attr, int value) {
+        BitSet out = new BitSet(events);
+        for (int r = 0; r < rowAttr.length; r++) {
+            if (rowAttr[r] == attr && rowValue[r] == value) out.set(rowEvent[r]);
+        }
+        return out;
+    }
+
+    private static int skewedStatus(SplittableRandom random) {
+        int p = random.nextInt(100);
+        if (p < 70) return 0;
+        if (p < 90) return 1;
+        if (p < 98) return 2;
+        return 3;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(AttributePredicatePlanBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.obsinity.service.core.objql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class OBJqlCteBuilderTest {
+
+    private static final OBJql.TimeRange RANGE =
+            new OBJql.TimeRange(Instant.parse("2026-04-07T13:00:00Z"), Instant.parse("2026-04-07T14:00:00Z"));
+
+    private static final Map<String, Long> SEEN = Map.of("status", 900_000L, "customer", 12L, "region", 40_000L);
+
+    private final OBJqlCteBuilder builder = new OBJqlCteBuilder(
+            "events_raw",
+            "event_attr_index",
+            (svc, path, pred) -> SEEN.getOrDefault(path, AttributeSelectivity.UNKNOWN));
+
+    @Test
+    void drivesConjunctionFromMostSelectivePredicate() {
+        OBJql q = query(new OBJql.AttrExpr.And(List.of(
+                leaf(new OBJql.Eq("attr.status", "ACTIVE")),
+                leaf(new OBJql.Eq("attr.customer", "c-42")),
+                leaf(new OBJql.Eq("attr.region", "eu")))));
+
+        OBJqlCteBuilder.Built built = builder.build(q, OBJqlPage.firstPage(), false);
+
+        assertThat(built.params())
+                .containsEntry("a0_path", "customer")
+                .containsEntry("a1_path", "region")
+                .containsEntry("a2_path", "status");
+        assertThat(built.sql())
+                .contains("  FROM a0 d\n  WHERE EXISTS (")
+                .contains("    AND EXISTS (")
+                .contains("x.started_at = d.started_at AND x.event_id = d.event_id")
+                .doesNotContain("INTERSECT")
+                .doesNotContain("DISTINCT");
+    }
+
+    @Test
+    void neverDrivesFromInequalityWhenAnotherPredicateExists() {
+        OBJql q = query(new OBJql.AttrExpr.And(
+                List.of(leaf(new OBJql.Ne("attr.customer", "c-42")), leaf(new OBJql.Like("attr.status", "ACT%")))));
+
+        OBJqlCteBuilder.Built built = builder.build(q, OBJqlPage.firstPage(), false);
+
+        assertThat(built.params()).containsEntry("a0_path", "status").containsEntry("a1_path", "customer");
+        assertThat(built.sql()).contains("SELECT DISTINCT d.event_id, d.started_at");
+    }
+
+    @Test
+    void singlePredicateSkipsSelectivityLookup() {
+        OBJqlCteBuilder unestimated = new OBJqlCteBuilder("events_raw", "event_attr_index", (svc, path, pred) -> {
+            throw new AssertionError("estimated " + path);
+        });
+        OBJql q = query(new OBJql.AttrExpr.And(List.of(leaf(new OBJql.Eq("attr.status", "ACTIVE")))));
+
+        OBJqlCteBuilder.Built built = unestimated.build(q, OBJqlPage.firstPage(), false);
+
+        assertThat(built.params()).containsEntry("a0_path", "status");
+    }
+
+    @Test
+    void keepsSetOperationsForDisjunctions() {
+        OBJql q = query(new OBJql.AttrExpr.Or(
+                List.of(leaf(new OBJql.Eq("attr.status", "ACTIVE")), leaf(new OBJql.Eq("attr.customer", "c-42")))));
+
+        OBJqlCteBuilder.Built built = builder.build(q, OBJqlPage.firstPage(), false);
+
+        assertThat(built.sql()).contains("UNION").doesNotContain("EXISTS");
+    }
+
+    @Test
+    void projectsRequestedColumnsAndAttributePaths() {
+        Map<String, Object> params = new HashMap<>();
+
+        String select = OBJqlCteBuilder.selectList(List.of("eventId", "started_at", "attr.http.status"), params);
+
+        assertThat(select)
+                .isEqualTo(
+                        "e.event_id, e.started_at, "
+                                + "jsonb_extract_path(e.attributes, CAST(:sel0_0 AS text), CAST(:sel0_1 AS text)) AS \"attr.http.status\"");
+        assertThat(params).containsEntry("sel0_0", "http").containsEntry("sel0_1", "status");
+        assertThatThrownBy(() -> OBJqlCteBuilder.selectList(List.of("pg_sleep"), params))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static OBJql query(OBJql.AttrExpr expr) {
+        return OBJql.withDefaults("svc", "evt", RANGE, List.of(), null, 100, null, expr);
+    }
+
+    private static OBJql.AttrExpr leaf(OBJql.Predicate predicate) {
+        return new OBJql.AttrExpr.Leaf(predicate);
+    }
+}
@@ -0,0 +1,36 @@
+package com.obsinity.service.core.objql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class OBJqlPageTest {
+
+    @Test
+    void cursorRoundTrips() {
+        OBJqlPage.Cursor cursor = new OBJqlPage.Cursor(
+                Instant.parse("2026-04-07T13:30:00.123456Z"), UUID.fromString("00000000-0000-0000-0000-000000000042"));
+
+        assertThat(OBJqlPage.Cursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void cursorWithOutOfRangeTimestampIsRejectedAsInvalid() {
+        ByteBuffer buf = ByteBuffer.allocate(1 + Long.BYTES + Integer.BYTES + 2 * Long.BYTES);
+        buf.put((byte) 1);
+        buf.putLong(Long.MAX_VALUE);
+        buf.putInt(0);
+        buf.putLong(0L);
+        buf.putLong(42L);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(buf.array());
+
+        assertThatThrownBy(() -> OBJqlPage.Cursor.decode(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+}
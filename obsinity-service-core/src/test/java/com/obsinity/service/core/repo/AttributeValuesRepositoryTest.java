@@ -0,0 +1,43 @@
+package com.obsinity.service.core.repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.obsinity.service.core.repo.AttributeValuesRepository.CappedCount;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+class AttributeValuesRepositoryTest {
+
+    private final NamedParameterJdbcTemplate jdbc = mock(NamedParameterJdbcTemplate.class);
+    private final AttributeValuesRepository repo = new AttributeValuesRepository(jdbc, 100);
+
+    @Test
+    void stopsCountingAtTheCap() {
+        when(jdbc.queryForObject(anyString(), anyMap(), eq(Long.class))).thenReturn(101L);
+
+        CappedCount count = repo.count("svc", "customer.id", null);
+
+        assertThat(count).isEqualTo(new CappedCount(100, true));
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> params = ArgumentCaptor.forClass(Map.class);
+        verify(jdbc).queryForObject(sql.capture(), params.capture(), eq(Long.class));
+        assertThat(sql.getValue()).contains("LIMIT :cap").doesNotContain("ILIKE");
+        assertThat(params.getValue()).containsEntry("cap", 101L);
+    }
+
+    @Test
+    void matchesUserInputLiterally() {
+        assertThat(AttributeValuesRepository.prefixPattern("100%_off")).isEqualTo("100\\%\\_off%");
+        assertThat(AttributeValuesRepository.containsPattern("eu-west")).isEqualTo("%eu-west%");
+        assertThat(AttributeValuesRepository.prefixPattern("")).isNull();
+    }
+}
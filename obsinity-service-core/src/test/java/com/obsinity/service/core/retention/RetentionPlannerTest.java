@@ -0,0 +1,87 @@
+package com.obsinity.service.core.retention;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.obsinity.service.core.config.RetentionProperties;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class RetentionPlannerTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-30T00:00:00Z");
+    private static final Map<String, String> SERVICES = Map.of("aaaaaaaa", "payments", "bbbbbbbb", "orders");
+
+    @Test
+    void raw_events_use_service_override_then_default() {
+        RetentionProperties props = new RetentionProperties();
+        props.getEvents().setRaw(Duration.ofDays(90));
+        RetentionProperties.EventRetention payments = new RetentionProperties.EventRetention();
+        payments.setRaw(Duration.ofDays(14));
+        props.getServices().put("payments", payments);
+        RetentionPlanner planner = new RetentionPlanner(props);
+
+        PartitionInfo paymentsOld = raw("aaaaaaaa", "2025-06-09T00:00:00Z");
+        PartitionInfo paymentsRecent = raw("aaaaaaaa", "2025-06-23T00:00:00Z");
+        PartitionInfo ordersOld = raw("bbbbbbbb", "2025-06-09T00:00:00Z");
+        PartitionInfo ordersAncient = raw("bbbbbbbb", "2025-03-31T00:00:00Z");
+
+        List<PartitionInfo> expired =
+                planner.plan(List.of(paymentsOld, paymentsRecent, ordersOld, ordersAncient), SERVICES, NOW);
+
+        assertThat(expired).containsExactly(ordersAncient, paymentsOld);
+    }
+
+    @Test
+    void rollups_expire_per_bucket_and_unconfigured_are_kept() {
+        RetentionProperties props = new RetentionProperties();
+        props.getRollups().getCounters().put("S5", Duration.ofDays(7));
+        RetentionPlanner planner = new RetentionPlanner(props);
+
+        PartitionInfo s5 = rollup("event_counts", "s5", "2025-06-16T00:00:00Z");
+        PartitionInfo h1 = rollup("event_counts", "h1", "2025-01-06T00:00:00Z");
+        PartitionInfo histogram = rollup("event_histograms", "s5", "2025-01-06T00:00:00Z");
+        PartitionInfo attrIndex = new PartitionInfo(
+                "event_attr_index",
+                "event_attr_index_s_aaaaaaaa",
+                "event_attr_index_s_aaaaaaaa_w_2025_01",
+                Instant.parse("2025-01-06T00:00:00Z"),
+                false);
+
+        assertThat(planner.plan(List.of(s5, h1, histogram, attrIndex), SERVICES, NOW))
+                .containsExactly(s5);
+    }
+
+    @Test
+    void plan_is_capped_oldest_first() {
+        RetentionProperties props = new RetentionProperties();
+        props.getEvents().setRaw(Duration.ofDays(1));
+        props.setMaxPartitionsPerRun(1);
+        RetentionPlanner planner = new RetentionPlanner(props);
+
+        PartitionInfo newer = raw("aaaaaaaa", "2025-06-02T00:00:00Z");
+        PartitionInfo older = raw("aaaaaaaa", "2025-05-26T00:00:00Z");
+
+        assertThat(planner.plan(List.of(newer, older), SERVICES, NOW)).containsExactly(older);
+    }
+
+    private static PartitionInfo raw(String partitionKey, String upperBound) {
+        return new PartitionInfo(
+                "events_raw",
+                "events_raw_s_" + partitionKey,
+                "events_raw_s_" + partitionKey + "_w_" + upperBound.substring(0, 10),
+                Instant.parse(upperBound),
+                false);
+    }
+
+    private static PartitionInfo rollup(String root, String bucket, String upperBound) {
+        return new PartitionInfo(
+                root,
+                root + "_" + bucket,
+                root + "_" + upperBound.substring(0, 10) + "_" + bucket,
+                Instant.parse(upperBound),
+                false);
+    }
+}
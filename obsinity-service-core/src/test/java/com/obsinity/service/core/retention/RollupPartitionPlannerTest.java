@@ -0,0 +1,100 @@
+package com.obsinity.service.core.retention;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.obsinity.service.core.config.RetentionProperties;
+import com.obsinity.service.core.config.RollupPartitionProperties;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class RollupPartitionPlannerTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-30T00:00:00Z");
+
+    @Test
+    void extends_migration_chain_forward_without_realigning() {
+        RollupPartitionProperties props = new RollupPartitionProperties();
+        props.setAhead(Duration.ofDays(14));
+        props.setBehind(Duration.ofDays(0));
+        RollupPartitionPlanner planner = new RollupPartitionPlanner(props, new RetentionProperties());
+
+        // Migration chain starting on a Wednesday, last leaf ends 2025-07-02.
+        RollupPartition last = leaf("event_counts", "m1", "2025-06-25T00:00:00Z", "2025-07-02T00:00:00Z", false);
+        RollupPartition older = leaf("event_counts", "m1", "2025-06-18T00:00:00Z", "2025-06-25T00:00:00Z", false);
+        RollupPartition oldest = leaf("event_counts", "m1", "2025-06-11T00:00:00Z", "2025-06-18T00:00:00Z", false);
+
+        RollupPartitionPlanner.Plan plan = planner.plan(List.of(last, older, oldest), NOW);
+
+        assertThat(plan.create())
+                .filteredOn(sql -> sql.startsWith("CREATE TABLE"))
+                .containsExactly(
+                        "CREATE TABLE IF NOT EXISTS obsinity.\"event_counts_2025_27_m1\" PARTITION OF"
+                                + " obsinity.\"event_counts_m1\" FOR VALUES FROM ('2025-07-02T00:00:00Z') TO"
+                                + " ('2025-07-09T00:00:00Z')",
+                        "CREATE TABLE IF NOT EXISTS obsinity.\"event_counts_2025_28_m1\" PARTITION OF"
+                                + " obsinity.\"event_counts_m1\" FOR VALUES FROM ('2025-07-09T00:00:00Z') TO"
+                                + " ('2025-07-16T00:00:00Z')");
+        assertThat(plan.create())
+                .contains("CREATE INDEX IF NOT EXISTS \"event_counts_2025_27_m1_counter_config_idx\" ON"
+                        + " obsinity.\"event_counts_2025_27_m1\" (counter_config_id)");
+        // M1 is LOGGED by default, so the UNLOGGED migration leaves are converted oldest first; the leaf containing
+        // now is still being written and keeps its storage.
+        assertThat(plan.convert())
+                .containsExactly(
+                        "ALTER TABLE obsinity.\"event_counts_2025_24_m1\" SET LOGGED",
+                        "ALTER TABLE obsinity.\"event_counts_2025_25_m1\" SET LOGGED");
+    }
+
+    @Test
+    void hot_bucket_stays_unlogged_with_daily_leaves() {
+        RollupPartitionProperties props = new RollupPartitionProperties();
+        props.setAhead(Duration.ofDays(2));
+        props.setBehind(Duration.ofDays(1));
+        RollupPartitionPlanner planner = new RollupPartitionPlanner(props, new RetentionProperties());
+
+        RollupPartitionPlanner.Plan plan = planner.plan(
+                List.of(new RollupPartition("event_counts", "event_counts_s5", null, null, null, false)), NOW);
+
+        assertThat(plan.create())
+                .filteredOn(sql -> sql.startsWith("CREATE"))
+                .filteredOn(sql -> sql.contains("TABLE"))
+                .extracting(sql -> sql.substring(0, sql.indexOf(" PARTITION OF")))
+                .containsExactly(
+                        "CREATE UNLOGGED TABLE IF NOT EXISTS obsinity.\"event_counts_2025_06_29_s5\"",
+                        "CREATE UNLOGGED TABLE IF NOT EXISTS obsinity.\"event_counts_2025_06_30_s5\"",
+                        "CREATE UNLOGGED TABLE IF NOT EXISTS obsinity.\"event_counts_2025_07_01_s5\"");
+        assertThat(plan.convert()).isEmpty();
+    }
+
+    @Test
+    void backfill_stops_at_retention_and_expired_leaves_are_not_converted() {
+        RollupPartitionProperties props = new RollupPartitionProperties();
+        props.setAhead(Duration.ZERO);
+        props.setBehind(Duration.ofDays(28));
+        RetentionProperties retention = new RetentionProperties();
+        retention.setEnabled(true);
+        retention.getRollups().getHistograms().put("M5", Duration.ofDays(7));
+        RollupPartitionPlanner planner = new RollupPartitionPlanner(props, retention);
+
+        RollupPartition current = leaf("event_histograms", "m5", "2025-06-30T00:00:00Z", "2025-07-07T00:00:00Z", true);
+        RollupPartition expired = leaf("event_histograms", "m5", "2025-06-16T00:00:00Z", "2025-06-23T00:00:00Z", false);
+
+        RollupPartitionPlanner.Plan plan = planner.plan(List.of(current), NOW);
+        assertThat(plan.create())
+                .filteredOn(sql -> sql.contains("TABLE"))
+                .singleElement()
+                .asString()
+                .contains("FROM ('2025-06-23T00:00:00Z') TO ('2025-06-30T00:00:00Z')");
+
+        assertThat(planner.plan(List.of(current, expired), NOW).convert()).isEmpty();
+    }
+
+    private static RollupPartition leaf(String root, String bucket, String from, String to, boolean logged) {
+        Instant lower = Instant.parse(from);
+        String name = RollupPartitionPlanner.leafName(root, bucket, lower, Duration.ofDays(7), Set.of());
+        return new RollupPartition(root, root + "_" + bucket, name, lower, Instant.parse(to), logged);
+    }
+}
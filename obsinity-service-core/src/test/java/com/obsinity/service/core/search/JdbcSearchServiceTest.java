@@ -11,6 +11,7 @@ import com.obsinity.service.core.objql.OBJqlPage;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
@@ -66,4 +67,37 @@ class JdbcSearchServiceTest {
         assertThat(sql.getValue()).contains("WITH base AS MATERIALIZED");
         assertThat(sql.getValue()).contains("matched AS MATERIALIZED");
     }
+
+    @Test
+    void seeksPastCursorInsteadOfOffsetting() {
+        NamedParameterJdbcTemplate jdbc = mock(NamedParameterJdbcTemplate.class);
+        when(jdbc.queryForList(anyString(), anyMap())).thenReturn(List.of());
+
+        JdbcSearchService service = new JdbcSearchService(jdbc);
+        OBJql ast = OBJql.withDefaults(
+                "svc",
+                "evt",
+                new OBJql.TimeRange(Instant.parse("2026-04-07T13:00:00Z"), Instant.parse("2026-04-07T14:00:00Z")),
+                List.of(),
+                new OBJql.Sort("started_at", false),
+                100,
+                null,
+                new OBJql.AttrExpr.Leaf(new OBJql.Eq("attr.status", "ACTIVE")));
+        OBJqlPage.Cursor cursor = new OBJqlPage.Cursor(
+                Instant.parse("2026-04-07T13:30:00.123456Z"), UUID.fromString("00000000-0000-0000-0000-000000000042"));
+        OBJqlPage page = OBJqlPage.of(5000L, 100, cursor.encode());
+        assertThat(page.after()).isEqualTo(cursor);
+
+        service.query(ast, page, false);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> params = ArgumentCaptor.forClass(Map.class);
+        Mockito.verify(jdbc).queryForList(sql.capture(), params.capture());
+        assertThat(sql.getValue())
+                .contains("e.started_at <= :cur_ts AND (e.started_at < :cur_ts OR e.event_id > :cur_id)")
+                .doesNotContain("OFFSET")
+                .doesNotContain("COUNT(*)");
+        assertThat(params.getValue()).containsEntry("cur_id", cursor.eventId()).doesNotContainKey("off");
+    }
 }
@@ -0,0 +1,41 @@
+package com.obsinity.service.core.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class PlannerEstimateDriftTest {
+
+    @Test
+    void estimatesRunOnTheSamplerNotTheCaller() {
+        List<Runnable> pending = new ArrayList<>();
+        PlannerEstimateDrift drift = new PlannerEstimateDrift(1, 100, pending::add);
+        AtomicInteger explains = new AtomicInteger();
+
+        drift.sample("payments/checkout", 100, () -> {
+            explains.incrementAndGet();
+            return 1_000;
+        });
+        assertThat(explains).hasValue(0);
+        assertThat(drift.stats()).isEmpty();
+
+        pending.forEach(Runnable::run);
+        assertThat(explains).hasValue(1);
+        assertThat(drift.stats()).singleElement().satisfies(stats -> {
+            assertThat(stats.lastEstimated()).isEqualTo(1_000);
+            assertThat(stats.lastActual()).isEqualTo(100);
+        });
+    }
+
+    @Test
+    void shapesAreBounded() {
+        PlannerEstimateDrift drift = new PlannerEstimateDrift(1, 10, Runnable::run);
+        for (int i = 0; i < 1_000; i++) {
+            drift.record("service-" + i + "/event", 10, 10);
+        }
+        assertThat(drift.stats().size()).isLessThanOrEqualTo(10);
+    }
+}
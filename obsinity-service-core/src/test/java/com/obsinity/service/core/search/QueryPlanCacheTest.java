@@ -0,0 +1,76 @@
+package com.obsinity.service.core.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.obsinity.service.core.objql.AttributeSelectivity;
+import com.obsinity.service.core.objql.OBJqlPage;
+import com.obsinity.service.core.objql.OBJqlParser;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+class QueryPlanCacheTest {
+
+    @Test
+    void normalizesWhitespaceAndTimeLiteralsButNotQuotedValues() {
+        assertThat(OBJqlParser.normalize("  service:\"a\"   where attr.msg = \"x  y\"\n since -1h limit 5 "))
+                .isEqualTo("service:\"a\" where attr.msg = \"x  y\" since ? limit 5");
+        assertThat(OBJqlParser.normalize("service:a between 2026-01-01T00:00:00Z .. 2026-01-02T00:00:00Z"))
+                .isEqualTo(OBJqlParser.normalize("service:a  between -2h .. now"))
+                .isEqualTo("service:a between ? .. ?");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void repeatedQueryReusesSqlAndRebindsTimeAndPage() {
+        NamedParameterJdbcTemplate jdbc = mock(NamedParameterJdbcTemplate.class);
+        when(jdbc.queryForList(anyString(), anyMap())).thenReturn(List.of());
+        QueryPlanCache cache = new QueryPlanCache(100, Duration.ofMinutes(10));
+        JdbcSearchService service =
+                new JdbcSearchService(jdbc, AttributeSelectivity.NONE, PlannerEstimateDrift.disabled(), cache);
+
+        service.query(
+                "service:payments event:http where attr.status = 500"
+                        + " between 2026-04-07T13:00:00Z .. 2026-04-07T14:00:00Z",
+                OBJqlPage.of(0L, 50));
+        service.query(
+                "service:payments   event:http where attr.status = 500"
+                        + " between 2026-04-07T14:00:00Z .. 2026-04-07T15:00:00Z",
+                OBJqlPage.of(100L, 50));
+        service.query(
+                "service:payments event:http where attr.status = 404"
+                        + " between 2026-04-07T14:00:00Z .. 2026-04-07T15:00:00Z",
+                OBJqlPage.of(0L, 50));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Map<String, Object>> params = ArgumentCaptor.forClass(Map.class);
+        verify(jdbc, times(3)).queryForList(sql.capture(), params.capture());
+
+        assertThat(sql.getAllValues().get(1)).isSameAs(sql.getAllValues().get(0));
+        Map<String, Object> repeat = params.getAllValues().get(1);
+        assertThat(repeat)
+                .containsEntry("ts_start", Timestamp.from(Instant.parse("2026-04-07T14:00:00Z")))
+                .containsEntry("ts_end", Timestamp.from(Instant.parse("2026-04-07T15:00:00Z")))
+                .containsEntry("off", 100L)
+                .containsEntry("lim", 50);
+        assertThat(params.getAllValues().get(2)).containsEntry("a0_v", "404");
+
+        QueryPlanCache.Stats stats = cache.stats();
+        assertThat(stats.parseHits()).isEqualTo(1);
+        assertThat(stats.parseMisses()).isEqualTo(2);
+        assertThat(stats.sqlHits()).isEqualTo(1);
+        assertThat(stats.sqlMisses()).isEqualTo(2);
+        assertThat(stats.sqlEntries()).isEqualTo(2);
+    }
+}
@@ -9,8 +9,10 @@ import static org.mockito.Mockito.when;
 
 import com.obsinity.service.core.counter.CounterBucket;
 import com.obsinity.service.core.repo.ServicesCatalogRepository;
+import com.obsinity.service.core.support.DataExtentRegistry;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -31,7 +33,7 @@ class StateCountTimeseriesQueryServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        service = new StateCountTimeseriesQueryService(servicesCatalogRepository, repository);
+        service = new StateCountTimeseriesQueryService(servicesCatalogRepository, repository, new DataExtentRegistry());
     }
 
     @Test
@@ -95,16 +97,11 @@ class StateCountTimeseriesQueryServiceTest {
                         eq(CounterBucket.M1),
                         any(Instant.class),
                         any(Instant.class)))
-                .thenAnswer(invocation -> {
-                    Instant start = invocation.getArgument(5, Instant.class);
-                    if (start.equals(Instant.parse("2026-02-18T16:02:00Z"))) {
-                        return List.of(new StateCountTimeseriesQueryRepository.Row(start, "ACTIVE", 101L));
-                    }
-                    if (start.equals(Instant.parse("2026-02-18T16:05:00Z"))) {
-                        return List.of(new StateCountTimeseriesQueryRepository.Row(start, "ACTIVE", 105L));
-                    }
-                    return List.of();
-                });
+                .thenReturn(List.of(
+                        new StateCountTimeseriesQueryRepository.Row(
+                                Instant.parse("2026-02-18T16:02:00Z"), "ACTIVE", 101L),
+                        new StateCountTimeseriesQueryRepository.Row(
+                                Instant.parse("2026-02-18T16:05:00Z"), "ACTIVE", 105L)));
 
         StateCountTimeseriesQueryResult result = service.runQuery(new StateCountTimeseriesQueryRequest(
                 "payments",
@@ -131,19 +128,19 @@ class StateCountTimeseriesQueryServiceTest {
         assertEquals("2026-02-18T16:05:00Z", result.windows().get(5).start());
         assertEquals(105L, result.windows().get(5).states().get(0).count());
 
-        verify(repository, Mockito.times(6))
+        verify(repository, Mockito.times(1))
                 .fetchRowsInRange(
                         eq(serviceId),
                         eq("UserProfile"),
                         eq("user.status"),
                         isNull(),
                         eq(CounterBucket.M1),
-                        any(Instant.class),
-                        any(Instant.class));
+                        eq(Instant.parse("2026-02-18T16:00:00Z")),
+                        eq(Instant.parse("2026-02-18T16:07:00Z")));
     }
 
     @Test
-    void returnsZeroForRequestedStateMissingFromSnapshotWindow() {
+    void forwardFillsUnchangedStatesAndZeroesUnknownOnes() {
         UUID serviceId = UUID.randomUUID();
         when(servicesCatalogRepository.findIdByServiceKey("payments")).thenReturn(serviceId);
         when(repository.findEarliestTimestamp(serviceId, "UserProfile", "user.status", CounterBucket.M1))
@@ -154,11 +151,19 @@ class StateCountTimeseriesQueryServiceTest {
                         eq(serviceId),
                         eq("UserProfile"),
                         eq("user.status"),
-                        eq(List.of("ACTIVE", "SUSPENDED")),
+                        eq(List.of("ACTIVE", "SUSPENDED", "BLOCKED")),
                         eq(CounterBucket.M1),
                         eq(Instant.parse("2026-02-18T16:00:00Z")),
                         eq(Instant.parse("2026-02-18T16:03:00Z"))))
-                .thenReturn(Instant.parse("2026-02-18T16:00:00Z"));
+                .thenReturn(Instant.parse("2026-02-18T16:01:00Z"));
+        when(repository.fetchCountsAsOf(
+                        serviceId,
+                        "UserProfile",
+                        "user.status",
+                        null,
+                        CounterBucket.M1,
+                        Instant.parse("2026-02-18T16:00:00Z")))
+                .thenReturn(Map.of("ACTIVE", 10L, "SUSPENDED", 4L));
 
         when(repository.fetchRowsInRange(
                         eq(serviceId),
@@ -168,24 +173,14 @@ class StateCountTimeseriesQueryServiceTest {
                         eq(CounterBucket.M1),
                         any(Instant.class),
                         any(Instant.class)))
-                .thenAnswer(invocation -> {
-                    Instant start = invocation.getArgument(5, Instant.class);
-                    if (start.equals(Instant.parse("2026-02-18T16:00:00Z"))) {
-                        return List.of(
-                                new StateCountTimeseriesQueryRepository.Row(start, "ACTIVE", 10L),
-                                new StateCountTimeseriesQueryRepository.Row(start, "SUSPENDED", 4L));
-                    }
-                    if (start.equals(Instant.parse("2026-02-18T16:01:00Z"))) {
-                        return List.of(new StateCountTimeseriesQueryRepository.Row(start, "ACTIVE", 12L));
-                    }
-                    return List.of();
-                });
+                .thenReturn(List.of(new StateCountTimeseriesQueryRepository.Row(
+                        Instant.parse("2026-02-18T16:01:00Z"), "ACTIVE", 12L)));
 
         StateCountTimeseriesQueryResult result = service.runQuery(new StateCountTimeseriesQueryRequest(
                 "payments",
                 "UserProfile",
                 "user.status",
-                List.of("ACTIVE", "SUSPENDED"),
+                List.of("ACTIVE", "SUSPENDED", "BLOCKED"),
                 "1m",
                 "2026-02-18T16:00:00Z",
                 "2026-02-18T16:03:00Z",
@@ -193,8 +188,11 @@ class StateCountTimeseriesQueryServiceTest {
                 null));
 
         assertEquals(3, result.windows().size());
+        assertEquals(10L, result.windows().get(0).states().get(0).count());
         assertEquals(4L, result.windows().get(0).states().get(1).count());
-        assertEquals(0L, result.windows().get(1).states().get(1).count());
-        assertEquals(0L, result.windows().get(2).states().get(1).count());
+        assertEquals(12L, result.windows().get(1).states().get(0).count());
+        assertEquals(4L, result.windows().get(1).states().get(1).count());
+        assertEquals(12L, result.windows().get(2).states().get(0).count());
+        assertEquals(0L, result.windows().get(2).states().get(2).count());
     }
 }
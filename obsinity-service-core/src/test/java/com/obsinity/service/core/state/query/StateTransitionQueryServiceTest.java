@@ -0,0 +1,114 @@
+package com.obsinity.service.core.state.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.obsinity.service.core.counter.CounterBucket;
+import com.obsinity.service.core.repo.ServicesCatalogRepository;
+import com.obsinity.service.core.state.query.StateTransitionQueryRepository.StateFilter;
+import com.obsinity.service.core.state.query.StateTransitionQueryRepository.WindowRow;
+import com.obsinity.service.core.support.DataExtentRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class StateTransitionQueryServiceTest {
+
+    @Mock
+    private ServicesCatalogRepository servicesCatalogRepository;
+
+    @Mock
+    private StateTransitionQueryRepository repository;
+
+    private StateTransitionQueryService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new StateTransitionQueryService(servicesCatalogRepository, repository, new DataExtentRegistry());
+    }
+
+    @Test
+    void fetchesAllWindowsInOneFilteredQuery() {
+        UUID serviceId = UUID.randomUUID();
+        Instant start = Instant.parse("2026-02-18T16:00:00Z");
+        Instant end = Instant.parse("2026-02-18T16:05:00Z");
+        when(servicesCatalogRepository.findIdByServiceKey("payments")).thenReturn(serviceId);
+        when(repository.findEarliestTimestamp(serviceId, CounterBucket.S5)).thenReturn(start);
+        when(repository.findLatestTimestamp(serviceId, CounterBucket.S5)).thenReturn(end);
+        when(repository.fetchWindows(
+                        eq(serviceId),
+                        eq("UserProfile"),
+                        eq("user.status"),
+                        eq(CounterBucket.S5),
+                        eq(start),
+                        eq(end),
+                        eq(Duration.ofMinutes(1)),
+                        eq(new StateFilter(false, List.of("ACTIVE"), true)),
+                        eq(StateFilter.ALL)))
+                .thenReturn(List.of(
+                        new WindowRow(start, "ACTIVE", "BLOCKED", 3),
+                        new WindowRow(start.plusSeconds(180), "__NO_STATE__", "ACTIVE", 2)));
+
+        StateTransitionQueryResult result = service.runQuery(new StateTransitionQueryRequest(
+                "payments",
+                "UserProfile",
+                "user.status",
+                List.of("ACTIVE", "none"),
+                List.of("*"),
+                "1m",
+                start.toString(),
+                end.toString(),
+                null,
+                null));
+
+        assertEquals(5, result.windows().size());
+        assertEquals(3L, result.windows().get(0).transitions().get(0).count());
+        assertTrue(result.windows().get(1).transitions().isEmpty());
+        assertEquals("(none)", result.windows().get(3).transitions().get(0).fromState());
+        verify(repository, times(1)).fetchWindows(any(), any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void appliesOffsetAndLimitToTheQueriedRange() {
+        UUID serviceId = UUID.randomUUID();
+        Instant start = Instant.parse("2026-02-18T16:00:00Z");
+        when(servicesCatalogRepository.findIdByServiceKey("payments")).thenReturn(serviceId);
+
+        StateTransitionQueryResult result = service.runQuery(new StateTransitionQueryRequest(
+                "payments",
+                "UserProfile",
+                "user.status",
+                null,
+                null,
+                "1m",
+                start.toString(),
+                "2026-02-18T17:00:00Z",
+                new StateTransitionQueryRequest.Limits(10, 5),
+                null));
+
+        assertEquals(5, result.windows().size());
+        assertEquals("2026-02-18T16:10:00Z", result.windows().get(0).start());
+        verify(repository)
+                .fetchWindows(
+                        eq(serviceId),
+                        eq("UserProfile"),
+                        eq("user.status"),
+                        eq(CounterBucket.S5),
+                        eq(start.plusSeconds(600)),
+                        eq(start.plusSeconds(900)),
+                        eq(Duration.ofMinutes(1)),
+                        eq(StateFilter.ALL),
+                        eq(StateFilter.ALL));
+    }
+}
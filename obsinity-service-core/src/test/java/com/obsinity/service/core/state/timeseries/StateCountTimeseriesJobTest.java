@@ -1,12 +1,19 @@
 package com.obsinity.service.core.state.timeseries;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.obsinity.service.core.repo.ObjectStateCountRepository;
 import com.obsinity.service.core.repo.ObjectStateCountRepository.StateCountSnapshot;
 import com.obsinity.service.core.repo.StateCountTimeseriesRepository;
+import com.obsinity.service.core.support.DataExtentRegistry;
 import java.lang.reflect.Field;
 import java.time.Clock;
 import java.time.Instant;
@@ -33,24 +40,55 @@ class StateCountTimeseriesJobTest {
     void setup() {
         MockitoAnnotations.openMocks(this);
         Clock fixedClock = Clock.fixed(Instant.parse("2025-01-01T00:07:30Z"), ZoneOffset.UTC);
-        job = new StateCountTimeseriesJob(stateCountRepository, timeseriesRepository, fixedClock);
+        job = new StateCountTimeseriesJob(
+                stateCountRepository, timeseriesRepository, fixedClock, new DataExtentRegistry());
         setBoolean(job, "enabled", true);
     }
 
     @Test
-    void snapshotCountsPersistsRows() {
-        List<StateCountSnapshot> snapshots =
-                List.of(new StateCountSnapshot(UUID.randomUUID(), "UserProfile", "user.status", "ACTIVE", 42));
-        when(stateCountRepository.snapshotAll()).thenReturn(snapshots);
+    void snapshotCountsWritesKeyframeThenOnlyChanges() {
+        UUID serviceId = UUID.randomUUID();
+        List<StateCountSnapshot> keyframe =
+                List.of(new StateCountSnapshot(serviceId, "UserProfile", "user.status", "ACTIVE", 42));
+        List<StateCountSnapshot> changes =
+                List.of(new StateCountSnapshot(serviceId, "UserProfile", "user.status", "BLOCKED", 3));
+        when(stateCountRepository.serviceIds()).thenReturn(List.of(serviceId));
+        when(stateCountRepository.snapshotPage(eq(serviceId), isNull(), isNull(), anyInt()))
+                .thenReturn(keyframe);
+        when(stateCountRepository.snapshotPage(
+                        eq(serviceId), eq(Instant.parse("2025-01-01T00:06:30Z")), isNull(), anyInt()))
+                .thenReturn(changes);
 
         job.snapshotCounts();
+        job.snapshotCounts();
 
         InOrder order = inOrder(timeseriesRepository);
         order.verify(timeseriesRepository)
                 .upsertBatch(
                         Instant.parse("2025-01-01T00:07:00Z"),
                         com.obsinity.service.core.counter.CounterBucket.M1,
-                        snapshots);
+                        keyframe);
+        order.verify(timeseriesRepository)
+                .upsertBatch(
+                        Instant.parse("2025-01-01T00:07:00Z"),
+                        com.obsinity.service.core.counter.CounterBucket.M1,
+                        changes);
+    }
+
+    @Test
+    void snapshotCountsPagesThroughLargeServices() {
+        UUID serviceId = UUID.randomUUID();
+        StateCountSnapshot first = new StateCountSnapshot(serviceId, "UserProfile", "user.status", "ACTIVE", 1);
+        StateCountSnapshot second = new StateCountSnapshot(serviceId, "UserProfile", "user.status", "BLOCKED", 2);
+        setField(job, "batchSize", 1);
+        when(stateCountRepository.serviceIds()).thenReturn(List.of(serviceId));
+        when(stateCountRepository.snapshotPage(serviceId, null, null, 1)).thenReturn(List.of(first));
+        when(stateCountRepository.snapshotPage(serviceId, null, first, 1)).thenReturn(List.of(second));
+        when(stateCountRepository.snapshotPage(serviceId, null, second, 1)).thenReturn(List.of());
+
+        job.snapshotCounts();
+
+        verify(timeseriesRepository, times(2)).upsertBatch(any(), any(), any());
     }
 
     @Test
@@ -61,6 +99,10 @@ class StateCountTimeseriesJobTest {
     }
 
     private static void setBoolean(StateCountTimeseriesJob job, String fieldName, boolean value) {
+        setField(job, fieldName, value);
+    }
+
+    private static void setField(StateCountTimeseriesJob job, String fieldName, Object value) {
         try {
             Field field = StateCountTimeseriesJob.class.getDeclaredField(fieldName);
             field.setAccessible(true);
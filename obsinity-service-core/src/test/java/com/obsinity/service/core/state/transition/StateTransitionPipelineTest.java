@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.obsinity.service.core.config.PipelineProperties;
 import com.obsinity.service.core.counter.CounterGranularity;
+import com.obsinity.service.core.support.DataExtentRegistry;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -24,8 +25,8 @@ class StateTransitionPipelineTest {
         pipelineProperties.getStateTransitions().getPersist().setWorkers(1);
         pipelineProperties.getStateTransitions().getFlush().setMaxBatchSize(10);
 
-        StateTransitionPersistExecutor executor =
-                new StateTransitionPersistExecutor(persistService, buffer, pipelineProperties);
+        StateTransitionPersistExecutor executor = new StateTransitionPersistExecutor(
+                persistService, buffer, pipelineProperties, new DataExtentRegistry());
         executor.init(100, 1);
         StateTransitionFlushService flushService =
                 new StateTransitionFlushService(buffer, executor, pipelineProperties);
@@ -55,8 +56,8 @@ class StateTransitionPipelineTest {
         pipelineProperties.getStateTransitions().getPersist().setWorkers(1);
         pipelineProperties.getStateTransitions().getFlush().setMaxBatchSize(10);
 
-        StateTransitionPersistExecutor executor =
-                new StateTransitionPersistExecutor(persistService, buffer, pipelineProperties);
+        StateTransitionPersistExecutor executor = new StateTransitionPersistExecutor(
+                persistService, buffer, pipelineProperties, new DataExtentRegistry());
         executor.init(100, 1);
         StateTransitionFlushService flushService =
                 new StateTransitionFlushService(buffer, executor, pipelineProperties);
@@ -0,0 +1,181 @@
+package com.obsinity.service.core.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.obsinity.service.core.config.HistogramSpec;
+import com.obsinity.service.core.counter.CounterBucket;
+import com.obsinity.service.core.counter.CounterBuffer;
+import com.obsinity.service.core.counter.CounterGranularity;
+import com.obsinity.service.core.counter.CounterHashService;
+import com.obsinity.service.core.histogram.HistogramBuffer;
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CardinalityLimiterTest {
+
+    private static final long WEEK = Instant.parse("2026-04-06T00:00:00Z").getEpochSecond(); // a Monday
+    private static final long DAY = Duration.ofDays(1).toSeconds();
+
+    private final AtomicLong now = new AtomicLong(WEEK * 1000L + 3_600_000L);
+    private final CardinalityLimiter limiter = new CardinalityLimiter(100, 100, 100, now::get);
+
+    @Test
+    void admitsBudgetThenOverflowsNewKeysOnly() {
+        UUID counter = UUID.randomUUID();
+        for (int i = 0; i < 5_000; i++) {
+            limiter.admit(CardinalityLimiter.Kind.COUNTER, counter, "requests", "user-" + i, null, WEEK + i);
+        }
+
+        assertThat(limiter.admit(CardinalityLimiter.Kind.COUNTER, counter, "requests", "user-7", null, WEEK))
+                .isTrue();
+        assertThat(limiter.admit(CardinalityLimiter.Kind.COUNTER, counter, "requests", "user-4999", null, WEEK))
+                .isFalse();
+
+        CardinalityLimiter.Stats stats = limiter.stats().get(0);
+        assertThat(stats.admittedKeys()).isEqualTo(100);
+        assertThat(stats.overflowEvents()).isEqualTo(4_901);
+        assertThat(stats.overflowRate()).isCloseTo(4_901d / 5_002d, within(1e-9));
+        assertThat((double) stats.estimatedKeys()).isCloseTo(5_000d, within(5_000d * 0.05d));
+
+        // Every bucket up to D7 shares the window, so a later day of the same week is still over budget
+        assertThat(limiter.admit(
+                        CardinalityLimiter.Kind.COUNTER, counter, "requests", "user-4999", null, WEEK + 6 * DAY))
+                .isFalse();
+        // The next week starts from an empty budget
+        assertThat(limiter.admit(
+                        CardinalityLimiter.Kind.COUNTER, counter, "requests", "user-4999", null, WEEK + 7 * DAY))
+                .isTrue();
+    }
+
+    @Test
+    void lateEventsMeetTheirWeeksBudgetUntilTheWindowIsDropped() {
+        UUID counter = UUID.randomUUID();
+        limiter.admit(CardinalityLimiter.Kind.COUNTER, counter, "requests", "a", 1, WEEK);
+
+        now.set((WEEK + 8 * DAY) * 1000L);
+        limiter.report();
+        assertThat(limiter.admit(CardinalityLimiter.Kind.COUNTER, counter, "requests", "b", 1, WEEK + DAY))
+                .isFalse();
+        assertThat(limiter.admit(CardinalityLimiter.Kind.COUNTER, counter, "requests", "b", 1, WEEK + 8 * DAY))
+                .isTrue();
+
+        now.set((WEEK + 15 * DAY) * 1000L);
+        limiter.report();
+        assertThat(limiter.admit(CardinalityLimiter.Kind.COUNTER, counter, "requests", "b", 1, WEEK + DAY))
+                .isTrue();
+    }
+
+    @Test
+    void perMetricBudgetOverridesDefaultAndZeroDisables() {
+        UUID histogram = UUID.randomUUID();
+        assertThat(limiter.admit(CardinalityLimiter.Kind.HISTOGRAM, histogram, "latency", "a", 1, WEEK))
+                .isTrue();
+        assertThat(limiter.admit(CardinalityLimiter.Kind.HISTOGRAM, histogram, "latency", "b", 1, WEEK))
+                .isFalse();
+        assertThat(limiter.admit(CardinalityLimiter.Kind.HISTOGRAM, UUID.randomUUID(), "other", "b", 0, WEEK))
+                .isTrue();
+    }
+
+    @Test
+    void counterBufferFoldsKeysBeyondBudgetIntoOverflowWithoutHashingThem() throws Exception {
+        CounterHashService hashService = hashService();
+        CounterBuffer buffer = new CounterBuffer(hashService, limiter);
+        UUID counter = UUID.randomUUID();
+
+        for (int i = 0; i < 5; i++) {
+            Map<String, String> key = Map.of("user.id", "u" + i);
+            buffer.increment(CounterGranularity.S5, WEEK, counter, UUID.randomUUID(), 1, key, "requests", 2);
+        }
+
+        var entries = buffer.getBuffer(CounterGranularity.S5).get(WEEK);
+        assertThat(entries).hasSize(3);
+        assertThat(entries.values())
+                .anySatisfy(entry -> assertThat(entry.keyData()).containsEntry("user.id", CardinalityLimiter.OVERFLOW));
+        // Refused keys never reach the hash cache; only the two admitted keys and the overflow key do.
+        hashService.getKeyToHash().cleanUp();
+        assertThat(hashService.getKeyToHash().estimatedSize()).isEqualTo(3);
+    }
+
+    @Test
+    void countersWithTheSameDimensionsKeepSeparateOverflowEntries() throws Exception {
+        CounterHashService hashService = hashService();
+        CounterBuffer buffer = new CounterBuffer(hashService, limiter);
+        UUID requests = UUID.randomUUID();
+        UUID errors = UUID.randomUUID();
+
+        for (int i = 0; i < 5; i++) {
+            Map<String, String> key = Map.of("user.id", "u" + i);
+            buffer.increment(CounterGranularity.S5, WEEK, requests, UUID.randomUUID(), 1, key, "requests", 2);
+            buffer.increment(CounterGranularity.S5, WEEK, errors, UUID.randomUUID(), 10, key, "errors", 2);
+        }
+
+        String overflowHash = hashService.getOrCreateHash(Map.of("user.id", CardinalityLimiter.OVERFLOW));
+        assertThat(buffer.getBuffer(CounterGranularity.S5).get(WEEK)).hasSize(6);
+        assertThat(buffer.pendingCounts(
+                        CounterGranularity.S5, CounterBucket.S5, requests, Set.of(overflowHash), WEEK, WEEK + 1))
+                .containsExactly(new CounterBuffer.PendingCount(WEEK, overflowHash, 3));
+        assertThat(buffer.pendingCounts(
+                        CounterGranularity.S5, CounterBucket.S5, errors, Set.of(overflowHash), WEEK, WEEK + 1))
+                .containsExactly(new CounterBuffer.PendingCount(WEEK, overflowHash, 30));
+
+        buffer.decrement(CounterGranularity.S5, WEEK, requests, overflowHash, 3);
+        assertThat(buffer.pendingCounts(
+                        CounterGranularity.S5, CounterBucket.S5, requests, Set.of(overflowHash), WEEK, WEEK + 1))
+                .isEmpty();
+        assertThat(buffer.pendingCounts(
+                        CounterGranularity.S5, CounterBucket.S5, errors, Set.of(overflowHash), WEEK, WEEK + 1))
+                .containsExactly(new CounterBuffer.PendingCount(WEEK, overflowHash, 30));
+    }
+
+    @Test
+    void histogramsWithTheSameDimensionsKeepSeparateOverflowSketches() throws Exception {
+        CounterHashService hashService = hashService();
+        HistogramBuffer buffer = new HistogramBuffer(hashService, limiter);
+        HistogramSpec.SketchSpec sketch = new HistogramSpec.SketchSpec("ddsketch", 0.01d);
+        UUID latency = UUID.randomUUID();
+        UUID size = UUID.randomUUID();
+
+        for (int i = 0; i < 5; i++) {
+            Map<String, String> key = Map.of("user.id", "u" + i);
+            buffer.recordSample(CounterGranularity.S5, WEEK, latency, null, key, 1d, sketch, "latency", 2);
+            buffer.recordSample(CounterGranularity.S5, WEEK, size, null, key, 1000d, sketch, "size", 2);
+        }
+
+        String overflowHash = hashService.getOrCreateHash(Map.of("user.id", CardinalityLimiter.OVERFLOW));
+        List<HistogramBuffer.PendingSketch> pending = buffer.pendingSketches(
+                CounterGranularity.S5,
+                latency,
+                Set.of(overflowHash),
+                WEEK,
+                WEEK + 1,
+                Collections.newSetFromMap(new IdentityHashMap<>()));
+        assertThat(pending).singleElement().satisfies(overflow -> {
+            assertThat(overflow.samples()).isEqualTo(3);
+            assertThat(overflow.sum()).isEqualTo(3d);
+        });
+    }
+
+    private static CounterHashService hashService() throws Exception {
+        CounterHashService hashService = new CounterHashService();
+        setField(hashService, "cacheSize", 1000);
+        setField(hashService, "ttl", Duration.ofMinutes(10));
+        hashService.init();
+        return hashService;
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
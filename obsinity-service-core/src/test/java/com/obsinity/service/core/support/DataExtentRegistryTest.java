@@ -0,0 +1,78 @@
+package com.obsinity.service.core.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.obsinity.service.core.counter.CounterBucket;
+import com.obsinity.service.core.counter.CounterGranularity;
+import com.obsinity.service.core.support.DataExtentRegistry.Extent;
+import com.obsinity.service.core.support.DataExtentRegistry.ExtentKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class DataExtentRegistryTest {
+
+    private static final UUID CONFIG_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Test
+    void seedsOnceAndWidensOnWrites() {
+        DataExtentRegistry registry = new DataExtentRegistry();
+        ExtentKey key = DataExtentRegistry.key(DataExtentRegistry.EVENT_COUNTS, CONFIG_ID, CounterBucket.M1);
+        AtomicInteger seeds = new AtomicInteger();
+        Instant first = Instant.parse("2025-01-01T00:00:00Z");
+        Instant last = Instant.parse("2025-01-02T00:00:00Z");
+
+        Extent seeded = registry.extent(key, () -> {
+            seeds.incrementAndGet();
+            return new Extent(first, last);
+        });
+        assertThat(seeded).isEqualTo(new Extent(first, last));
+
+        registry.recordWrite(
+                DataExtentRegistry.EVENT_COUNTS,
+                CONFIG_ID,
+                CounterGranularity.S5,
+                Instant.parse("2025-01-03T00:00:42Z"));
+
+        Extent widened = registry.extent(key, () -> {
+            seeds.incrementAndGet();
+            return Extent.EMPTY;
+        });
+        assertThat(seeds).hasValue(1);
+        assertThat(widened.earliest()).isEqualTo(first);
+        assertThat(widened.latest()).isEqualTo(Instant.parse("2025-01-03T00:00:00Z"));
+    }
+
+    @Test
+    void ignoresWritesForUntrackedKeysAndReseedsAfterInvalidation() {
+        DataExtentRegistry registry = new DataExtentRegistry();
+        ExtentKey key = DataExtentRegistry.key(DataExtentRegistry.EVENT_COUNTS, CONFIG_ID, CounterBucket.M1);
+        registry.record(key, Instant.parse("2025-01-01T00:00:00Z"));
+
+        assertThat(registry.extent(key, () -> Extent.EMPTY)).isEqualTo(Extent.EMPTY);
+
+        registry.invalidateAll();
+        Instant reseeded = Instant.parse("2025-02-01T00:00:00Z");
+        assertThat(registry.extent(key, () -> new Extent(reseeded, reseeded)).earliest())
+                .isEqualTo(reseeded);
+    }
+
+    @Test
+    void refreshMovesEarliestForwardButKeepsWritesDuringTheSeed() {
+        DataExtentRegistry registry = new DataExtentRegistry(Duration.ZERO);
+        ExtentKey key = DataExtentRegistry.key(DataExtentRegistry.EVENT_COUNTS, CONFIG_ID, CounterBucket.M1);
+        registry.extent(
+                key, () -> new Extent(Instant.parse("2025-01-01T00:00:00Z"), Instant.parse("2025-03-01T00:00:00Z")));
+
+        // Retention dropped January; a write lands while the refresh query runs.
+        Extent refreshed = registry.extent(key, () -> {
+            registry.record(key, Instant.parse("2025-03-02T00:00:00Z"));
+            return new Extent(Instant.parse("2025-02-01T00:00:00Z"), Instant.parse("2025-03-01T00:00:00Z"));
+        });
+
+        assertThat(refreshed)
+                .isEqualTo(new Extent(Instant.parse("2025-02-01T00:00:00Z"), Instant.parse("2025-03-02T00:00:00Z")));
+    }
+}
@@ -0,0 +1,88 @@
+package com.obsinity.service.core.unconfigured;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.obsinity.service.core.model.EventEnvelope;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+class JdbcUnconfiguredEventQueueTest {
+
+    private final NamedParameterJdbcTemplate jdbc = mock(NamedParameterJdbcTemplate.class);
+
+    @Test
+    void publishDoesNotWriteUntilFlush() {
+        JdbcUnconfiguredEventQueue queue = new JdbcUnconfiguredEventQueue(jdbc, 10, 2, 500);
+
+        queue.publish(envelope("payments", "payment.unknown"), "UNCONFIGURED_EVENT_TYPE", "no config");
+
+        verify(jdbc, never()).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    @Test
+    void aggregatesRepeatsIntoSampledMultiRowInsert() {
+        JdbcUnconfiguredEventQueue queue = new JdbcUnconfiguredEventQueue(jdbc, 10, 2, 500);
+        for (int i = 0; i < 50; i++) {
+            queue.publish(envelope("payments", "payment.unknown"), "UNCONFIGURED_EVENT_TYPE", "no config");
+        }
+        queue.publish(envelope("orders", "order.unknown"), "UNCONFIGURED_EVENT_TYPE", "no config");
+
+        queue.flush();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbc, times(1)).update(sql.capture(), params.capture());
+        assertThat(sql.getValue()).startsWith("insert into event_unconfigured_events(");
+        assertThat(sql.getValue().split("cast\\(:payload").length - 1).isEqualTo(3);
+
+        Map<String, Object> values = params.getValue().getValues();
+        long occurrences = 0;
+        for (int i = 0; i < 3; i++) {
+            occurrences += (Long) values.get("occurrences" + i);
+        }
+        assertThat(occurrences).isEqualTo(51);
+
+        queue.flush();
+        verify(jdbc, times(1)).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    @Test
+    void shedsNewKeysWhenFullAndSplitsBatches() {
+        JdbcUnconfiguredEventQueue queue = new JdbcUnconfiguredEventQueue(jdbc, 3, 1, 2);
+        for (String type : List.of("a", "b", "c", "d", "e")) {
+            queue.publish(envelope("payments", type), "UNCONFIGURED_EVENT_TYPE", "no config");
+        }
+
+        queue.flush();
+
+        // three keys kept (d and e shed), one sample each, two rows per statement
+        verify(jdbc, times(2)).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    private static EventEnvelope envelope(String service, String type) {
+        Instant now = Instant.now();
+        return EventEnvelope.builder()
+                .serviceId(service)
+                .eventType(type)
+                .name(type)
+                .eventId(UUID.randomUUID().toString())
+                .timestamp(now)
+                .ingestedAt(now)
+                .attributes(Map.of())
+                .resourceAttributes(Map.of())
+                .build();
+    }
+}